@@ -2,10 +2,17 @@ package mx.infotec.dads.essence;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.config.StartupTimeline;
 
 @SpringBootApplication
+@EnableConfigurationProperties(EssenceProperties.class)
 public class EssenceImplApplication {
     public static void main(String[] args) {
-        SpringApplication.run(EssenceImplApplication.class, args);
+        SpringApplication application = new SpringApplication(EssenceImplApplication.class);
+        application.addListeners(new StartupTimeline());
+        application.run(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.util.List;
+import java.util.Map;
+
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * AnalyticsJob, an analysis over whole collections run by the
+ * {@link AnalyticsRunner}.
+ * 
+ * <p>
+ * The raw documents of the sources are folded into accumulators, one per
+ * slice of a batch and in any thread, and the accumulators are merged in any
+ * order. Joins are done in memory through maps keyed by id, filled from the
+ * small collections (alphas, states, competencies) while the large ones
+ * (practices, checkpoints, levels) are only counted. The heap of a job grows
+ * with the number of ids of its small collections and of the rows it
+ * reports, it is not bounded.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public interface AnalyticsJob<A> {
+
+    /**
+     * The name of the job, the id of its result
+     * 
+     * @return String
+     */
+    String getName();
+
+    /**
+     * The collections scanned by the job and the fields read of each one
+     * 
+     * @return Map<KernelEnum, DBObject>
+     */
+    Map<KernelEnum, DBObject> getSources();
+
+    /**
+     * A new, empty, accumulator
+     * 
+     * @return A
+     */
+    A newAccumulator();
+
+    /**
+     * Fold a document into an accumulator
+     * 
+     * @param accumulator
+     * @param elementType
+     *            the source of the document
+     * @param document
+     */
+    void accept(A accumulator, KernelEnum elementType, DBObject document);
+
+    /**
+     * Merge two accumulators, the operation must be associative and
+     * commutative
+     * 
+     * @param left
+     *            it may be updated and returned
+     * @param right
+     * @return A
+     */
+    A merge(A left, A right);
+
+    /**
+     * The rows of the result
+     * 
+     * @param accumulator
+     *            the merge of every accumulator
+     * @return List<Map<String, Object>>
+     */
+    List<Map<String, Object>> finish(A accumulator);
+}
@@ -0,0 +1,107 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * AnalyticsResult, the last result of an {@link AnalyticsJob}, one document
+ * per job. The rows are stored apart, one document per row, and read with
+ * {@link AnalyticsRunner#getRows(String, int, int)}, so the size of a result
+ * is not limited by the maximum size of a document.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Document(collection = "analytics")
+public class AnalyticsResult {
+
+    /** The name of the job */
+    @Id
+    private String id;
+
+    private Instant computedDate;
+
+    /** The number of documents scanned */
+    private long documents;
+
+    private long elapsedMillis;
+
+    /** The run of the job that stored the rows */
+    private String run;
+
+    private long rowCount;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getComputedDate() {
+        return computedDate;
+    }
+
+    public void setComputedDate(Instant computedDate) {
+        this.computedDate = computedDate;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(long documents) {
+        this.documents = documents;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getRun() {
+        return run;
+    }
+
+    public void setRun(String run) {
+        this.run = run;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.bson.types.ObjectId;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.ReadPreference;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * AnalyticsRunner, runs the {@link AnalyticsJob}s over the collections of the
+ * current tenant and stores their {@link AnalyticsResult}s.
+ * 
+ * The sources of a job are read from the secondaries, over a cursor that
+ * projects the fields of the job, and folded in batches on a fork/join pool.
+ * The raw documents held by a scan are bounded by the number of batches in
+ * flight whatever the size of the collections. The accumulators are not
+ * bounded, they keep an entry per distinct id of the joined elements and the
+ * rows of the result are built in memory, so the heap of a job grows with
+ * the number of rows it reports.
+ * 
+ * <p>
+ * The rows are inserted in batches, one document per row keyed by the job,
+ * the run and the number of the row, and the rows of the previous run are
+ * removed once the result points to the new run.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class AnalyticsRunner implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsRunner.class);
+
+    public static final String ROWS_COLLECTION = "analyticsrows";
+
+    private static final String JOB = "job";
+
+    private static final String RUN = "run";
+
+    private static final String VALUES = "values";
+
+    private final MongoOperations mongoOperations;
+
+    private final List<AnalyticsJob<?>> jobs;
+
+    private final ForkJoinPool pool;
+
+    private final int batchSize;
+
+    private final int maxBatchesInFlight;
+
+    public AnalyticsRunner(MongoOperations mongoOperations, List<AnalyticsJob<?>> jobs,
+            EssenceProperties properties) {
+        EssenceProperties.Analytics analytics = properties.getAnalytics();
+        int parallelism = analytics.getParallelism() > 0 ? analytics.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.mongoOperations = mongoOperations;
+        this.jobs = jobs;
+        this.pool = new ForkJoinPool(parallelism);
+        this.batchSize = Math.max(1, analytics.getBatchSize());
+        this.maxBatchesInFlight = analytics.getMaxBatchesInFlight() > 0 ? analytics.getMaxBatchesInFlight()
+                : 2 * parallelism;
+    }
+
+    /**
+     * Run every job
+     * 
+     * @return List<AnalyticsResult>
+     */
+    public List<AnalyticsResult> runAll() {
+        List<AnalyticsResult> results = new ArrayList<>(jobs.size());
+        jobs.forEach(job -> results.add(run(job)));
+        return results;
+    }
+
+    /**
+     * Run a job by its name
+     * 
+     * @param name
+     * @return AnalyticsResult
+     */
+    public AnalyticsResult run(String name) {
+        for (AnalyticsJob<?> job : jobs) {
+            if (job.getName().equals(name)) {
+                return run(job);
+            }
+        }
+        throw new EssenceCoreException("Unknown analytics job " + name);
+    }
+
+    /**
+     * The last result of a job
+     * 
+     * @param name
+     * @return AnalyticsResult or null if the job never ran
+     */
+    public AnalyticsResult getResult(String name) {
+        return mongoOperations.findById(name, AnalyticsResult.class);
+    }
+
+    /**
+     * A page of the rows of the last result of a job
+     * 
+     * @param name
+     * @param skip
+     * @param limit
+     *            zero for every row
+     * @return List<Map<String, Object>> empty if the job never ran
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getRows(String name, int skip, int limit) {
+        AnalyticsResult result = getResult(name);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (result == null || result.getRun() == null) {
+            return rows;
+        }
+        try (DBCursor cursor = getRowsCollection().find(rowsOf(name, result.getRun()))
+                .sort(new BasicDBObject(MongoEvents.ID_FIELD, 1)).skip(skip).limit(limit)) {
+            while (cursor.hasNext()) {
+                rows.add(((DBObject) cursor.next().get(VALUES)).toMap());
+            }
+        }
+        return rows;
+    }
+
+    private <A> AnalyticsResult run(AnalyticsJob<A> job) {
+        long start = System.currentTimeMillis();
+        ParallelFold<A> fold = new ParallelFold<>(job, pool, maxBatchesInFlight);
+        long documents = 0;
+        for (Map.Entry<KernelEnum, DBObject> source : job.getSources().entrySet()) {
+            documents += scan(source.getKey(), source.getValue(), fold);
+        }
+        String run = new ObjectId().toHexString();
+        long rowCount = insertRows(job.getName(), run, job.finish(fold.join()));
+        AnalyticsResult result = new AnalyticsResult();
+        result.setId(job.getName());
+        result.setRun(run);
+        result.setRowCount(rowCount);
+        result.setDocuments(documents);
+        result.setComputedDate(Instant.now());
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        mongoOperations.save(result);
+        // the rows of the previous runs, and of the runs that failed
+        getRowsCollection().remove(rowsOf(job.getName(), null).append(RUN, new BasicDBObject("$ne", run)));
+        LOGGER.info("Analytics job {} scanned {} documents in {} ms", job.getName(), documents,
+                result.getElapsedMillis());
+        return result;
+    }
+
+    private long scan(KernelEnum elementType, DBObject fields, ParallelFold<?> fold) {
+        long documents = 0;
+        try (DBCursor cursor = mongoOperations.getCollection(elementType.getCollection())
+                .find(new BasicDBObject(), fields).batchSize(batchSize)) {
+            cursor.setReadPreference(ReadPreference.secondaryPreferred());
+            List<DBObject> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                documents++;
+                if (batch.size() == batchSize) {
+                    fold.submit(elementType, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                fold.submit(elementType, batch);
+            }
+        }
+        return documents;
+    }
+
+    private long insertRows(String name, String run, List<Map<String, Object>> rows) {
+        DBCollection collection = getRowsCollection();
+        List<DBObject> batch = new ArrayList<>(Math.min(batchSize, rows.size()));
+        long row = 0;
+        for (Map<String, Object> values : rows) {
+            batch.add(new BasicDBObject(MongoEvents.ID_FIELD, rowId(name, run, row++)).append(JOB, name)
+                    .append(RUN, run).append(VALUES, new BasicDBObject(values)));
+            if (batch.size() == batchSize) {
+                collection.insert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.insert(batch);
+        }
+        return row;
+    }
+
+    /**
+     * The id of a row, ordered by the job, the run and the number of the row
+     */
+    private static String rowId(String name, String run, long row) {
+        return String.format("%s/%s/%010d", name, run, row);
+    }
+
+    /**
+     * The query of the rows of a job, of a single run or of every run, over
+     * a range of the ids
+     */
+    private static BasicDBObject rowsOf(String name, String run) {
+        String prefix = run == null ? name + "/" : name + "/" + run + "/";
+        return new BasicDBObject(MongoEvents.ID_FIELD,
+                new BasicDBObject("$gt", prefix).append("$lt", prefix + Character.MAX_VALUE));
+    }
+
+    private DBCollection getRowsCollection() {
+        return mongoOperations.getCollection(TenantContext.collectionName(ROWS_COLLECTION));
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * CheckpointCountJob, the number of checkpoints of each state
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class CheckpointCountJob implements AnalyticsJob<CheckpointCountJob.Counts> {
+
+    public static final String NAME = "checkpoints-per-state";
+
+    private static final Map<KernelEnum, DBObject> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put(KernelEnum.STATE, new BasicDBObject("name", 1).append("alpha", 1));
+        SOURCES.put(KernelEnum.CHECKPOINT, new BasicDBObject("state", 1));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<KernelEnum, DBObject> getSources() {
+        return SOURCES;
+    }
+
+    @Override
+    public Counts newAccumulator() {
+        return new Counts();
+    }
+
+    @Override
+    public void accept(Counts counts, KernelEnum elementType, DBObject document) {
+        if (elementType == KernelEnum.STATE) {
+            String id = MongoEvents.getId(document);
+            counts.stateNames.put(id, (String) document.get("name"));
+            DBRef alpha = MongoEvents.getRef(document, "alpha");
+            if (alpha != null) {
+                counts.stateAlphas.put(id, MongoEvents.idToString(alpha.getId()));
+            }
+            return;
+        }
+        DBRef state = MongoEvents.getRef(document, "state");
+        if (state != null) {
+            counts.checkpoints.merge(MongoEvents.idToString(state.getId()), 1L, Long::sum);
+        }
+    }
+
+    @Override
+    public Counts merge(Counts left, Counts right) {
+        left.stateNames.putAll(right.stateNames);
+        left.stateAlphas.putAll(right.stateAlphas);
+        right.checkpoints.forEach((state, count) -> left.checkpoints.merge(state, count, Long::sum));
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(Counts counts) {
+        Set<String> states = new HashSet<>(counts.stateNames.keySet());
+        states.addAll(counts.checkpoints.keySet());
+        List<Map<String, Object>> rows = new ArrayList<>(states.size());
+        for (String state : states) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("stateId", state);
+            row.put("name", counts.stateNames.get(state));
+            row.put("alphaId", counts.stateAlphas.get(state));
+            row.put("checkpoints", counts.checkpoints.getOrDefault(state, 0L));
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (String) row.get("stateId")));
+        return rows;
+    }
+
+    static final class Counts {
+
+        private final Map<String, String> stateNames = new HashMap<>();
+
+        private final Map<String, String> stateAlphas = new HashMap<>();
+
+        private final Map<String, Long> checkpoints = new HashMap<>();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * CompetencyLevelJob, the distribution of the competency levels of each
+ * competency by their level number
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class CompetencyLevelJob implements AnalyticsJob<CompetencyLevelJob.Distribution> {
+
+    public static final String NAME = "competency-levels";
+
+    private static final Map<KernelEnum, DBObject> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put(KernelEnum.COMPETENCY, new BasicDBObject("name", 1));
+        SOURCES.put(KernelEnum.COMPETENCYLEVEL, new BasicDBObject("level", 1).append("competency", 1));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<KernelEnum, DBObject> getSources() {
+        return SOURCES;
+    }
+
+    @Override
+    public Distribution newAccumulator() {
+        return new Distribution();
+    }
+
+    @Override
+    public void accept(Distribution distribution, KernelEnum elementType, DBObject document) {
+        if (elementType == KernelEnum.COMPETENCY) {
+            distribution.competencyNames.put(MongoEvents.getId(document), (String) document.get("name"));
+            return;
+        }
+        DBRef competency = MongoEvents.getRef(document, "competency");
+        Object level = document.get("level");
+        if (competency != null && level instanceof Number) {
+            distribution.levels.computeIfAbsent(MongoEvents.idToString(competency.getId()), id -> new TreeMap<>())
+                    .merge(((Number) level).intValue(), 1L, Long::sum);
+        }
+    }
+
+    @Override
+    public Distribution merge(Distribution left, Distribution right) {
+        left.competencyNames.putAll(right.competencyNames);
+        right.levels.forEach((competency, levels) -> {
+            Map<Integer, Long> merged = left.levels.computeIfAbsent(competency, id -> new TreeMap<>());
+            levels.forEach((level, count) -> merged.merge(level, count, Long::sum));
+        });
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(Distribution distribution) {
+        Set<String> competencies = new HashSet<>(distribution.competencyNames.keySet());
+        competencies.addAll(distribution.levels.keySet());
+        List<Map<String, Object>> rows = new ArrayList<>(competencies.size());
+        for (String competency : competencies) {
+            Map<Integer, Long> levels = distribution.levels.getOrDefault(competency, new TreeMap<>());
+            // the keys of a stored map are strings
+            Map<String, Object> byLevel = new LinkedHashMap<>();
+            levels.forEach((level, count) -> byLevel.put(level.toString(), count));
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("competencyId", competency);
+            row.put("name", distribution.competencyNames.get(competency));
+            row.put("levels", byLevel);
+            row.put("total", levels.values().stream().mapToLong(Long::longValue).sum());
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (String) row.get("competencyId")));
+        return rows;
+    }
+
+    static final class Distribution {
+
+        private final Map<String, String> competencyNames = new HashMap<>();
+
+        private final Map<String, Map<Integer, Long>> levels = new HashMap<>();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * OrphanedElementJob, the basic elements that have no owner, counted by type
+ * with a sample of their ids. The element groups are not reported, a kernel
+ * or a library is a root.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class OrphanedElementJob implements AnalyticsJob<OrphanedElementJob.Orphans> {
+
+    public static final String NAME = "orphaned-elements";
+
+    /** The number of ids reported of each type */
+    static final int SAMPLE_SIZE = 20;
+
+    private static final Map<KernelEnum, DBObject> SOURCES = new LinkedHashMap<>();
+
+    static {
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (elementType.isBasicElement() && !elementType.isElementGroup()) {
+                SOURCES.put(elementType, new BasicDBObject("owner", 1));
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<KernelEnum, DBObject> getSources() {
+        return SOURCES;
+    }
+
+    @Override
+    public Orphans newAccumulator() {
+        return new Orphans();
+    }
+
+    @Override
+    public void accept(Orphans orphans, KernelEnum elementType, DBObject document) {
+        orphans.elements.merge(elementType, 1L, Long::sum);
+        if (MongoEvents.getRef(document, "owner") == null) {
+            orphans.orphans.merge(elementType, 1L, Long::sum);
+            List<String> sample = orphans.samples.computeIfAbsent(elementType, type -> new ArrayList<>());
+            if (sample.size() < SAMPLE_SIZE) {
+                sample.add(MongoEvents.getId(document));
+            }
+        }
+    }
+
+    @Override
+    public Orphans merge(Orphans left, Orphans right) {
+        right.elements.forEach((type, count) -> left.elements.merge(type, count, Long::sum));
+        right.orphans.forEach((type, count) -> left.orphans.merge(type, count, Long::sum));
+        right.samples.forEach((type, ids) -> {
+            List<String> sample = left.samples.computeIfAbsent(type, key -> new ArrayList<>());
+            for (int i = 0; i < ids.size() && sample.size() < SAMPLE_SIZE; i++) {
+                sample.add(ids.get(i));
+            }
+        });
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(Orphans orphans) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        orphans.elements.forEach((type, count) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("elementType", type.name());
+            row.put("elements", count);
+            row.put("orphans", orphans.orphans.getOrDefault(type, 0L));
+            row.put("sampleIds", orphans.samples.getOrDefault(type, new ArrayList<>()));
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    static final class Orphans {
+
+        private final Map<KernelEnum, Long> elements = new EnumMap<>(KernelEnum.class);
+
+        private final Map<KernelEnum, Long> orphans = new EnumMap<>(KernelEnum.class);
+
+        private final Map<KernelEnum, List<String>> samples = new EnumMap<>(KernelEnum.class);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ParallelFold, folds batches of documents into the accumulator of a job on
+ * a fork/join pool. Each batch is split until its slices are small, the
+ * slices are folded in parallel and merged back, and the result of the batch
+ * is merged into the total. At most a fixed number of batches is pending, a
+ * submit blocks until a batch completes, so the reader of a cursor never gets
+ * ahead of the pool.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+final class ParallelFold<A> {
+
+    private static final int SLICE_SIZE = 256;
+
+    private final AnalyticsJob<A> job;
+
+    private final ForkJoinPool pool;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private A total;
+
+    ParallelFold(AnalyticsJob<A> job, ForkJoinPool pool, int maxInFlight) {
+        this.job = job;
+        this.pool = pool;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.total = job.newAccumulator();
+    }
+
+    /**
+     * Fold a batch, blocking while too many batches are pending
+     * 
+     * @param elementType
+     * @param batch
+     *            it is owned by the fold from now on
+     */
+    void submit(KernelEnum elementType, List<DBObject> batch) {
+        checkFailure();
+        inFlight.acquireUninterruptibly();
+        pool.execute(new BatchAction(elementType, batch));
+    }
+
+    /**
+     * Wait for the pending batches
+     * 
+     * @return A the merge of every batch
+     */
+    A join() {
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        checkFailure();
+        synchronized (this) {
+            return total;
+        }
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new EssenceCoreException("The analytics job " + job.getName() + " failed", cause);
+        }
+    }
+
+    private final class BatchAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient KernelEnum elementType;
+
+        private final transient List<DBObject> batch;
+
+        BatchAction(KernelEnum elementType, List<DBObject> batch) {
+            this.elementType = elementType;
+            this.batch = batch;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                A partial = new SliceTask(elementType, batch, 0, batch.size()).invoke();
+                synchronized (ParallelFold.this) {
+                    total = job.merge(total, partial);
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    private final class SliceTask extends RecursiveTask<A> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient KernelEnum elementType;
+
+        private final transient List<DBObject> batch;
+
+        private final int from;
+
+        private final int to;
+
+        SliceTask(KernelEnum elementType, List<DBObject> batch, int from, int to) {
+            this.elementType = elementType;
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= SLICE_SIZE) {
+                A accumulator = job.newAccumulator();
+                for (int i = from; i < to; i++) {
+                    job.accept(accumulator, elementType, batch.get(i));
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            SliceTask right = new SliceTask(elementType, batch, middle, to);
+            right.fork();
+            A left = new SliceTask(elementType, batch, from, middle).compute();
+            return job.merge(left, right.join());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * PracticeCoverageJob, the number of practices that own or refer each alpha
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class PracticeCoverageJob implements AnalyticsJob<PracticeCoverageJob.Coverage> {
+
+    public static final String NAME = "practice-coverage";
+
+    private static final Map<KernelEnum, DBObject> SOURCES = new LinkedHashMap<>();
+
+    static {
+        SOURCES.put(KernelEnum.ALPHA, new BasicDBObject("name", 1));
+        SOURCES.put(KernelEnum.PRACTICE, new BasicDBObject("ownedElements", 1).append("referredElements", 1));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<KernelEnum, DBObject> getSources() {
+        return SOURCES;
+    }
+
+    @Override
+    public Coverage newAccumulator() {
+        return new Coverage();
+    }
+
+    @Override
+    public void accept(Coverage coverage, KernelEnum elementType, DBObject document) {
+        if (elementType == KernelEnum.ALPHA) {
+            coverage.alphaNames.put(MongoEvents.getId(document), (String) document.get("name"));
+            return;
+        }
+        Set<String> alphas = new HashSet<>();
+        addAlphas(MongoEvents.getList(document, "ownedElements"), alphas);
+        addAlphas(MongoEvents.getList(document, "referredElements"), alphas);
+        alphas.forEach(alpha -> coverage.practices.merge(alpha, 1L, Long::sum));
+    }
+
+    private static void addAlphas(Iterable<Object> references, Set<String> alphas) {
+        for (Object reference : references) {
+            if (reference instanceof DBRef
+                    && KernelEnum.fromCollection(((DBRef) reference).getCollectionName()) == KernelEnum.ALPHA) {
+                alphas.add(MongoEvents.idToString(((DBRef) reference).getId()));
+            }
+        }
+    }
+
+    @Override
+    public Coverage merge(Coverage left, Coverage right) {
+        left.alphaNames.putAll(right.alphaNames);
+        right.practices.forEach((alpha, count) -> left.practices.merge(alpha, count, Long::sum));
+        return left;
+    }
+
+    @Override
+    public List<Map<String, Object>> finish(Coverage coverage) {
+        Set<String> alphas = new HashSet<>(coverage.alphaNames.keySet());
+        // the references to deleted alphas are reported too
+        alphas.addAll(coverage.practices.keySet());
+        List<Map<String, Object>> rows = new ArrayList<>(alphas.size());
+        for (String alpha : alphas) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("alphaId", alpha);
+            row.put("name", coverage.alphaNames.get(alpha));
+            row.put("practices", coverage.practices.getOrDefault(alpha, 0L));
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (Long) row.get("practices")).reversed()
+                .thenComparing(row -> (String) row.get("alphaId")));
+        return rows;
+    }
+
+    static final class Coverage {
+
+        private final Map<String, String> alphaNames = new HashMap<>();
+
+        private final Map<String, Long> practices = new HashMap<>();
+    }
+}
@@ -23,7 +23,7 @@
  */
 package mx.infotec.dads.essence.audit;
 
-import org.joda.time.DateTime;
+import java.time.Instant;
 
 /**
  * Auditable Interface, used into the Domain classes
@@ -38,7 +38,7 @@ public interface Auditable {
      * 
      * @return the createdDate
      */
-    DateTime getCreatedDate();
+    Instant getCreatedDate();
 
     /**
      * Sets the creation date of the entity.
@@ -46,14 +46,14 @@ public interface Auditable {
      * @param creationDate
      *            the creation date to set
      */
-    void setCreatedDate(final DateTime creationDate);
+    void setCreatedDate(final Instant creationDate);
 
     /**
      * Returns the date of the last modification.
      * 
      * @return the lastModifiedDate
      */
-    DateTime getLastModifiedDate();
+    Instant getLastModifiedDate();
 
     /**
      * Sets the date of the last modification.
@@ -61,5 +61,5 @@ public interface Auditable {
      * @param lastModifiedDate
      *            the date of the last modification to set
      */
-    void setLastModifiedDate(final DateTime lastModifiedDate);
+    void setLastModifiedDate(final Instant lastModifiedDate);
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.convert.EntityInstantiator;
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ElementCodec, the conversion plan of a single element class. The plan is
+ * built once from the mapping metadata: the field names, the kind of every
+ * property and the generated instantiator and property accessors, so a
+ * conversion is a loop over the properties without any metadata lookup.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ElementCodec<T> {
+
+    static final String TYPE_FIELD = "_class";
+
+    private final MongoPersistentEntity<T> entity;
+
+    private final EntityInstantiator instantiator;
+
+    private final String typeHint;
+
+    private final MongoPersistentProperty idProperty;
+
+    private final PropertyCodec[] properties;
+
+    ElementCodec(MongoPersistentEntity<T> entity, EntityInstantiator instantiator) {
+        this.entity = entity;
+        this.instantiator = instantiator;
+        this.typeHint = entity.getType().getName();
+        this.idProperty = entity.getIdProperty();
+        List<PropertyCodec> codecs = new ArrayList<>();
+        entity.doWithProperties((MongoPersistentProperty property) -> {
+            if (!property.isIdProperty()) {
+                codecs.add(new PropertyCodec(property));
+            }
+        });
+        entity.doWithAssociations((Association<MongoPersistentProperty> association) -> codecs
+                .add(new PropertyCodec(association.getInverse())));
+        this.properties = codecs.toArray(new PropertyCodec[codecs.size()]);
+    }
+
+    public Class<T> getType() {
+        return entity.getType();
+    }
+
+    public String getCollection() {
+        return entity.getCollection();
+    }
+
+    /**
+     * The id of an element
+     * 
+     * @param element
+     * @return Object the stored id, null for a new element
+     */
+    Object getStoredId(Object element) {
+        Object id = idProperty == null ? null : entity.getPropertyAccessor(element).getProperty(idProperty);
+        return id instanceof String ? MongoEvents.toStoredId((String) id) : id;
+    }
+
+    /**
+     * Convert an element into its document
+     * 
+     * @param source
+     * @param codecs
+     * @return DBObject
+     */
+    public DBObject write(T source, ElementCodecs codecs) {
+        PersistentPropertyAccessor accessor = entity.getPropertyAccessor(source);
+        BasicDBObject dbo = new BasicDBObject(TYPE_FIELD, typeHint);
+        Object id = getStoredId(source);
+        if (id != null) {
+            dbo.put(MongoEvents.ID_FIELD, id);
+        }
+        for (PropertyCodec property : properties) {
+            Object value = accessor.getProperty(property.getProperty());
+            if (value != null) {
+                dbo.put(property.getFieldName(), property.write(value, codecs));
+            }
+        }
+        return dbo;
+    }
+
+    /**
+     * Read an element from its document. The element is registered into the
+     * read context and its references are deferred, they are set when the
+     * context resolves them, so a reference back to the element resolves to
+     * the same instance.
+     * 
+     * @param dbo
+     * @param context
+     * @return T
+     */
+    public T read(DBObject dbo, ElementReadContext context) {
+        T element = instantiator.createInstance(entity, null);
+        PersistentPropertyAccessor accessor = entity.getPropertyAccessor(element);
+        Object id = dbo.get(MongoEvents.ID_FIELD);
+        if (id != null && idProperty != null) {
+            accessor.setProperty(idProperty, MongoEvents.idToString(id));
+            context.register(getCollection(), id, element);
+        }
+        for (PropertyCodec property : properties) {
+            Object value = dbo.get(property.getFieldName());
+            if (value == null) {
+                continue;
+            } else if (property.isReference()) {
+                context.defer(accessor, property, value);
+            } else {
+                accessor.setProperty(property.getProperty(), property.read(value));
+            }
+        }
+        return element;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import com.mongodb.DBObject;
+
+/**
+ * ElementCodecConverters, registers the element codecs as custom
+ * conversions of the MappingMongoConverter. The converter keeps writing the
+ * queries, the DBRefs and the types without a codec, the documents of the
+ * supported types are written and read by their codecs.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ElementCodecConverters {
+
+    private ElementCodecConverters() {
+
+    }
+
+    public static List<GenericConverter> getConvertersToRegister(ElementCodecs codecs) {
+        return Arrays.asList(new ElementWritingConverter(codecs), new ElementReadingConverter(codecs));
+    }
+
+    @WritingConverter
+    static class ElementWritingConverter implements GenericConverter {
+
+        private final ElementCodecs codecs;
+
+        private final Set<ConvertiblePair> convertibleTypes = new LinkedHashSet<>();
+
+        ElementWritingConverter(ElementCodecs codecs) {
+            this.codecs = codecs;
+            for (Class<?> type : codecs.getSupportedTypes()) {
+                convertibleTypes.add(new ConvertiblePair(type, DBObject.class));
+            }
+        }
+
+        @Override
+        public Set<ConvertiblePair> getConvertibleTypes() {
+            return convertibleTypes;
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return source == null ? null : codecs.write(source);
+        }
+    }
+
+    @ReadingConverter
+    static class ElementReadingConverter implements GenericConverter {
+
+        private final ElementCodecs codecs;
+
+        private final Set<ConvertiblePair> convertibleTypes = new LinkedHashSet<>();
+
+        ElementReadingConverter(ElementCodecs codecs) {
+            this.codecs = codecs;
+            for (Class<?> type : codecs.getSupportedTypes()) {
+                convertibleTypes.add(new ConvertiblePair(DBObject.class, type));
+            }
+        }
+
+        @Override
+        public Set<ConvertiblePair> getConvertibleTypes() {
+            return convertibleTypes;
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+            return source == null ? null : codecs.read(targetType.getType(), (DBObject) source);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.convert.ClassGeneratingEntityInstantiator;
+import org.springframework.data.convert.EntityInstantiator;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.util.ClassUtils;
+
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ElementCodecs, the registry of the element codecs. A codec is available
+ * for every {@link KernelEnum} type whose fields, including the inherited
+ * ones from SELanguageElement, SEElementGroup, SEBasicElement and the other
+ * abstract bases, are all simple values, Instants, enums or @DBRef. The
+ * supported types are found once, when the registry is created, the other
+ * types are still converted by the MappingMongoConverter.
+ * 
+ * <p>
+ * The mapping context, the database and the converter are looked up on the
+ * first conversion, they are created after the custom conversions that
+ * register the codecs.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ElementCodecs {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementCodecs.class);
+
+    private final ObjectProvider<MongoMappingContext> mappingContext;
+
+    private final ObjectProvider<MongoDbFactory> dbFactory;
+
+    private final ObjectProvider<MongoConverter> converter;
+
+    private final Set<Class<?>> supportedTypes;
+
+    private final EntityInstantiator instantiator = new ClassGeneratingEntityInstantiator();
+
+    private final Map<Class<?>, ElementCodec<?>> codecs = new ConcurrentHashMap<>();
+
+    private final Map<String, Class<?>> typeHints = new ConcurrentHashMap<>();
+
+    public ElementCodecs(ObjectProvider<MongoMappingContext> mappingContext, ObjectProvider<MongoDbFactory> dbFactory,
+            ObjectProvider<MongoConverter> converter) {
+        this.mappingContext = mappingContext;
+        this.dbFactory = dbFactory;
+        this.converter = converter;
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (isSupported(elementType.getType())) {
+                types.add(elementType.getType());
+            } else {
+                LOGGER.info("{} is converted by the mapping converter", elementType.getType().getSimpleName());
+            }
+        }
+        this.supportedTypes = Collections.unmodifiableSet(types);
+    }
+
+    /**
+     * Check the fields of a class and its superclasses
+     * 
+     * @param type
+     * @return boolean true if a codec can convert the class
+     */
+    static boolean isSupported(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers()) || ClassUtils.getConstructorIfAvailable(type) == null) {
+            return false;
+        }
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+                        || field.isAnnotationPresent(Transient.class)) {
+                    continue;
+                }
+                if (field.isAnnotationPresent(Id.class) ? field.getType() != String.class
+                        : PropertyCodec.kindOf(field) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public Set<Class<?>> getSupportedTypes() {
+        return supportedTypes;
+    }
+
+    public boolean supports(Class<?> type) {
+        return supportedTypes.contains(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> ElementCodec<T> getCodec(Class<T> type) {
+        return (ElementCodec<T>) codecs.computeIfAbsent(type, this::createCodec);
+    }
+
+    private ElementCodec<?> createCodec(Class<?> type) {
+        if (!supports(type)) {
+            throw new EssenceCoreException("There is no codec for " + type.getName());
+        }
+        return new ElementCodec<>(mappingContext.getObject().getPersistentEntity(type), instantiator);
+    }
+
+    /**
+     * Convert an element into its document
+     * 
+     * @param element
+     * @return DBObject
+     */
+    @SuppressWarnings("unchecked")
+    public <T> DBObject write(T element) {
+        return getCodec((Class<T>) element.getClass()).write(element, this);
+    }
+
+    /**
+     * Read an element and, recursively, the elements it refers to
+     * 
+     * @param type
+     * @param dbo
+     * @return T
+     */
+    public <T> T read(Class<T> type, DBObject dbo) {
+        try (ElementReadContext context = ElementReadContext.open(this)) {
+            T element = type.cast(read(type, dbo, context));
+            if (context.isTopLevel()) {
+                context.resolvePending();
+            }
+            return element;
+        }
+    }
+
+    /**
+     * Run the reads of a result list in a single context, the references of
+     * all the results are grouped and fetched together once they are all
+     * read, instead of once per result
+     * 
+     * @param reads
+     *            the reads, e.g. a find
+     * @return R the result of the reads
+     */
+    public <R> R readTogether(Supplier<R> reads) {
+        try (ElementReadContext context = ElementReadContext.open(this)) {
+            R result = reads.get();
+            if (context.isTopLevel()) {
+                context.resolvePending();
+            }
+            return result;
+        }
+    }
+
+    Object read(Class<?> type, DBObject dbo, ElementReadContext context) {
+        return supports(type) ? getCodec(type).read(dbo, context) : converter.getObject().read(type, dbo);
+    }
+
+    DBRef toDBRef(Object element) {
+        Object id;
+        String collection;
+        if (supports(element.getClass())) {
+            ElementCodec<?> codec = getCodec(element.getClass());
+            id = codec.getStoredId(element);
+            collection = codec.getCollection();
+        } else {
+            MongoPersistentEntity<?> entity = mappingContext.getObject().getPersistentEntity(element.getClass());
+            id = entity.getPropertyAccessor(element).getProperty(entity.getIdProperty());
+            collection = entity.getCollection();
+        }
+        if (id == null) {
+            throw new MappingException("Cannot create a reference to an object with a NULL id.");
+        }
+        return new DBRef(collection, id);
+    }
+
+    /**
+     * The class of a document: the stored type hint, the type stored into
+     * the collection or the declared type of the property
+     */
+    Class<?> typeOf(DBObject dbo, Class<?> declaredType, String collection) {
+        Object hint = dbo.get(ElementCodec.TYPE_FIELD);
+        if (hint instanceof String) {
+            return typeHints.computeIfAbsent((String) hint, ElementCodecs::forName);
+        }
+        KernelEnum elementType = collection == null ? null : KernelEnum.fromCollection(collection);
+        return elementType == null ? declaredType : elementType.getType();
+    }
+
+    private static Class<?> forName(String name) {
+        try {
+            return ClassUtils.forName(name, ElementCodecs.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new EssenceCoreException("Unknown type " + name, e);
+        }
+    }
+
+    DBCollection getCollection(String name) {
+        return dbFactory.getObject().getDb().getCollection(name);
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ElementReadContext, the elements already read while converting a document
+ * and its references. The model is full of cycles (the owner of an element
+ * refers back to it through its owned elements), the context resolves a
+ * reference to an element already read to the same instance instead of
+ * reading it again. A context lives in the current thread while the top level
+ * read and all its nested reads are running, or while all the results of a
+ * find are read ({@link ElementCodecs#readTogether}).
+ * 
+ * <p>
+ * The references are resolved breadth first. The references found while
+ * reading a level of the graph are deferred, then grouped by the collection
+ * of the DBRef, which identifies the {@link KernelEnum} type, and fetched
+ * with a single $in query per collection. A kernel with owned alphas,
+ * practices and activities is loaded with one query per collection and level
+ * instead of one query per element.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class ElementReadContext implements AutoCloseable {
+
+    private static final ThreadLocal<ElementReadContext> CURRENT = new ThreadLocal<>();
+
+    private final ElementCodecs codecs;
+
+    private final Map<String, Map<Object, Object>> elements = new HashMap<>();
+
+    private List<PendingReference> pending = new ArrayList<>();
+
+    private int depth;
+
+    private final ReadLimits limits;
+
+    private ElementReadContext(ElementCodecs codecs) {
+        this.codecs = codecs;
+        this.limits = ReadLimits.current();
+    }
+
+    /**
+     * Join the context of the current thread or start a new one
+     * 
+     * @param codecs
+     * @return ElementReadContext
+     */
+    static ElementReadContext open(ElementCodecs codecs) {
+        ElementReadContext context = CURRENT.get();
+        if (context == null) {
+            context = new ElementReadContext(codecs);
+            CURRENT.set(context);
+        }
+        context.depth++;
+        return context;
+    }
+
+    boolean isTopLevel() {
+        return depth == 1;
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    void register(String collection, Object id, Object element) {
+        elements.computeIfAbsent(collection, name -> new HashMap<>()).put(id, element);
+    }
+
+    private Object find(String collection, Object id) {
+        Map<Object, Object> byId = elements.get(collection);
+        return byId == null ? null : byId.get(id);
+    }
+
+    private boolean isRead(String collection, Object id) {
+        Map<Object, Object> byId = elements.get(collection);
+        return byId != null && byId.containsKey(id);
+    }
+
+    /**
+     * Defer the resolution of a reference property of an element being read
+     * 
+     * @param accessor
+     *            the accessor of the element
+     * @param property
+     * @param value
+     *            the stored DBRef or list of DBRefs
+     */
+    void defer(PersistentPropertyAccessor accessor, PropertyCodec property, Object value) {
+        pending.add(new PendingReference(accessor, property, value));
+    }
+
+    /**
+     * Resolve the deferred references, level by level, until the whole graph
+     * is read or the reference depth of the {@link ReadLimits} is reached.
+     * The references of the last level become elements with only their id.
+     */
+    void resolvePending() {
+        int maxLevels = limits == null ? ReadLimits.UNLIMITED : limits.getReferenceDepth();
+        for (int levels = 0; !pending.isEmpty(); levels++) {
+            boolean stubs = maxLevels != ReadLimits.UNLIMITED && levels >= maxLevels;
+            List<PendingReference> level = pending;
+            pending = new ArrayList<>();
+            Map<String, Set<Object>> missing = new LinkedHashMap<>();
+            for (PendingReference reference : level) {
+                if (reference.value instanceof List) {
+                    for (Object item : (List<?>) reference.value) {
+                        addMissing(missing, item);
+                    }
+                } else {
+                    addMissing(missing, reference.value);
+                }
+            }
+            for (Map.Entry<String, Set<Object>> entry : missing.entrySet()) {
+                KernelEnum elementType = KernelEnum.fromCollection(entry.getKey());
+                for (DBObject dbo : stubs ? stubsOf(entry.getValue()) : fetch(entry.getKey(), entry.getValue())) {
+                    if (!isRead(entry.getKey(), dbo.get(MongoEvents.ID_FIELD))) {
+                        decode(dbo, elementType == null ? Object.class : elementType.getType(), entry.getKey());
+                    }
+                }
+            }
+            for (PendingReference reference : level) {
+                Object resolved = reference.property.resolve(reference.value, this);
+                if (resolved != null) {
+                    reference.accessor.setProperty(reference.property.getProperty(), resolved);
+                }
+            }
+        }
+    }
+
+    private void addMissing(Map<String, Set<Object>> missing, Object value) {
+        if (value instanceof DBRef) {
+            DBRef ref = (DBRef) value;
+            if (!isRead(ref.getCollectionName(), ref.getId())) {
+                missing.computeIfAbsent(ref.getCollectionName(), name -> new LinkedHashSet<>()).add(ref.getId());
+            }
+        }
+    }
+
+    /**
+     * The element of a resolved reference, or the element of an embedded
+     * document
+     * 
+     * @param value
+     *            a DBRef or a DBObject
+     * @param declaredType
+     *            the type of the property
+     * @return Object the element or null if the referred document is missing
+     */
+    Object lookup(Object value, Class<?> declaredType) {
+        if (value instanceof DBRef) {
+            return find(((DBRef) value).getCollectionName(), ((DBRef) value).getId());
+        }
+        return value instanceof DBObject ? decode((DBObject) value, declaredType, null) : null;
+    }
+
+    private List<DBObject> fetch(String collection, Set<Object> ids) {
+        List<DBObject> documents = new ArrayList<>(ids.size());
+        BasicDBObject query = new BasicDBObject(MongoEvents.ID_FIELD,
+                ids.size() == 1 ? ids.iterator().next() : new BasicDBObject("$in", ids));
+        DBObject projection = limits == null ? null : limits.getProjection(KernelEnum.fromCollection(collection));
+        try (DBCursor cursor = codecs.getCollection(collection).find(query, projection)) {
+            while (cursor.hasNext()) {
+                documents.add(cursor.next());
+            }
+        }
+        return documents;
+    }
+
+    private static List<DBObject> stubsOf(Set<Object> ids) {
+        List<DBObject> stubs = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            stubs.add(new BasicDBObject(MongoEvents.ID_FIELD, id));
+        }
+        return stubs;
+    }
+
+    private Object decode(DBObject dbo, Class<?> declaredType, String collection) {
+        Class<?> type = codecs.typeOf(dbo, declaredType, collection);
+        Object element = codecs.read(type, dbo, this);
+        Object id = dbo.get(MongoEvents.ID_FIELD);
+        if (collection != null && id != null && !isRead(collection, id)) {
+            register(collection, id, element);
+        }
+        return element;
+    }
+
+    /**
+     * A reference property waiting for the next level to be fetched
+     */
+    private static class PendingReference {
+
+        private final PersistentPropertyAccessor accessor;
+
+        private final PropertyCodec property;
+
+        private final Object value;
+
+        PendingReference(PersistentPropertyAccessor accessor, PropertyCodec property, Object value) {
+            this.accessor = accessor;
+            this.property = property;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.util.ClassUtils;
+
+import com.mongodb.BasicDBList;
+
+/**
+ * PropertyCodec, reads and writes a single property of an element. The kind
+ * of the property is resolved once, when the codec of the element is built,
+ * so the conversions do not look at the metadata of the property again.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+final class PropertyCodec {
+
+    enum Kind {
+        /** Values stored as they are: strings, numbers, booleans and dates */
+        SIMPLE,
+        /** An Instant stored as a native date */
+        INSTANT,
+        /** An enum stored by name */
+        ENUM,
+        /** A collection of simple values */
+        VALUES,
+        /** A single @DBRef */
+        REFERENCE,
+        /** A collection of @DBRef */
+        REFERENCES
+    }
+
+    private final MongoPersistentProperty property;
+
+    private final String fieldName;
+
+    private final Kind kind;
+
+    private final Class<?> type;
+
+    private final Class<?> elementType;
+
+    PropertyCodec(MongoPersistentProperty property) {
+        this.property = property;
+        this.fieldName = property.getFieldName();
+        this.kind = kindOf(property.getField());
+        this.type = ClassUtils.resolvePrimitiveIfNecessary(property.getType());
+        this.elementType = property.getActualType();
+    }
+
+    /**
+     * The kind of a field, null when the codecs do not support it
+     * 
+     * @param field
+     * @return Kind
+     */
+    static Kind kindOf(Field field) {
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+        if (Collection.class.isAssignableFrom(type)) {
+            if (!type.isAssignableFrom(ArrayList.class) && !type.isAssignableFrom(LinkedHashSet.class)) {
+                return null;
+            }
+            Class<?> itemType = ResolvableType.forField(field).asCollection().resolveGeneric(0);
+            if (itemType == null) {
+                return null;
+            } else if (field.isAnnotationPresent(DBRef.class)) {
+                return Kind.REFERENCES;
+            }
+            return isSimple(itemType) ? Kind.VALUES : null;
+        }
+        if (field.isAnnotationPresent(DBRef.class)) {
+            return Kind.REFERENCE;
+        }
+        if (isSimple(type)) {
+            return Kind.SIMPLE;
+        }
+        if (Instant.class == type) {
+            return Kind.INSTANT;
+        }
+        return type.isEnum() ? Kind.ENUM : null;
+    }
+
+    private static boolean isSimple(Class<?> type) {
+        return String.class == type || Boolean.class == type || Number.class.isAssignableFrom(type)
+                || Date.class == type;
+    }
+
+    MongoPersistentProperty getProperty() {
+        return property;
+    }
+
+    String getFieldName() {
+        return fieldName;
+    }
+
+    Object write(Object value, ElementCodecs codecs) {
+        switch (kind) {
+        case INSTANT:
+            return Date.from((Instant) value);
+        case ENUM:
+            return ((Enum<?>) value).name();
+        case VALUES:
+            BasicDBList list = new BasicDBList();
+            list.addAll((Collection<?>) value);
+            return list;
+        case REFERENCE:
+            return codecs.toDBRef(value);
+        case REFERENCES:
+            Collection<?> values = (Collection<?>) value;
+            BasicDBList refs = new BasicDBList();
+            refs.ensureCapacity(values.size());
+            for (Object item : values) {
+                refs.add(codecs.toDBRef(item));
+            }
+            return refs;
+        default:
+            return value;
+        }
+    }
+
+    boolean isReference() {
+        return kind == Kind.REFERENCE || kind == Kind.REFERENCES;
+    }
+
+    /**
+     * Read a stored value. The references are not read here, they are
+     * deferred to the read context and resolved with {@link #resolve}
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Object read(Object value) {
+        switch (kind) {
+        case INSTANT:
+            return ((Date) value).toInstant();
+        case ENUM:
+            return Enum.valueOf((Class<Enum>) type, (String) value);
+        case VALUES:
+            return toCollection(new ArrayList<Object>((List<?>) value));
+        default:
+            return readSimple(value);
+        }
+    }
+
+    /**
+     * Resolve a stored reference or list of references, once the referred
+     * documents are read by the context
+     */
+    Object resolve(Object value, ElementReadContext context) {
+        if (kind == Kind.REFERENCE) {
+            return context.lookup(value, elementType);
+        }
+        List<?> values = (List<?>) value;
+        List<Object> elements = new ArrayList<>(values.size());
+        for (Object item : values) {
+            Object element = context.lookup(item, elementType);
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+        return toCollection(elements);
+    }
+
+    private Collection<Object> toCollection(List<Object> values) {
+        return Set.class.isAssignableFrom(type) ? new LinkedHashSet<>(values) : values;
+    }
+
+    private Object readSimple(Object value) {
+        if (value instanceof Number && !type.isInstance(value)) {
+            Number number = (Number) value;
+            if (Long.class == type) {
+                return number.longValue();
+            } else if (Integer.class == type) {
+                return number.intValue();
+            } else if (Double.class == type) {
+                return number.doubleValue();
+            }
+        }
+        return value;
+    }
+}
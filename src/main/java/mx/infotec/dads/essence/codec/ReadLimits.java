@@ -0,0 +1,150 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ReadLimits, what the reads of the current thread load: the fields of each
+ * element type and how many levels of references are resolved. The
+ * references beyond the last level are materialized as elements holding only
+ * their id. The limits apply to the queries of the repositories and to the
+ * references fetched by the element codecs; the types converted by the
+ * mapping converter resolve their references completely.
+ * 
+ * <p>
+ * The type hint, the version and the modification date are loaded with any
+ * projection, a partial element saved through a repository writes only its
+ * changed fields and still passes the version check.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class ReadLimits {
+
+    /** Resolve every level of references */
+    public static final int UNLIMITED = -1;
+
+    /** The fields loaded whatever the selected fields */
+    public static final Set<String> ALWAYS_LOADED = Collections
+            .unmodifiableSet(new LinkedHashSet<>(Arrays.asList(ElementCodec.TYPE_FIELD, "version", "lastModifiedDate")));
+
+    private static final ThreadLocal<ReadLimits> CURRENT = new ThreadLocal<>();
+
+    private final Map<KernelEnum, Set<String>> fields;
+
+    private final int referenceDepth;
+
+    /**
+     * @param fields
+     *            the fields loaded of each element type, the types without
+     *            entry are loaded complete
+     * @param referenceDepth
+     *            the levels of references resolved, zero leaves every
+     *            reference as an id only element
+     */
+    public ReadLimits(Map<KernelEnum, Set<String>> fields, int referenceDepth) {
+        this.fields = fields.isEmpty() ? Collections.emptyMap() : new EnumMap<>(fields);
+        this.referenceDepth = referenceDepth;
+    }
+
+    /**
+     * The limits of the current thread
+     * 
+     * @return ReadLimits or null if the reads are complete
+     */
+    public static ReadLimits current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run reads with limits, the previous limits are restored afterwards
+     * 
+     * @param limits
+     * @param task
+     * @return T the result of the task
+     */
+    public static <T> T call(ReadLimits limits, Callable<T> task) {
+        ReadLimits previous = CURRENT.get();
+        CURRENT.set(limits);
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EssenceCoreException("Limited read failed", e);
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public int getReferenceDepth() {
+        return referenceDepth;
+    }
+
+    /**
+     * The fields loaded of an element type
+     * 
+     * @param elementType
+     * @return Set<String> or null if the elements are loaded complete
+     */
+    public Set<String> getFields(KernelEnum elementType) {
+        return elementType == null ? null : fields.get(elementType);
+    }
+
+    /**
+     * The projection of the documents of an element type, the
+     * {@link #ALWAYS_LOADED} fields are always loaded
+     * 
+     * @param elementType
+     * @return DBObject or null if the documents are loaded complete
+     */
+    public DBObject getProjection(KernelEnum elementType) {
+        Set<String> selected = getFields(elementType);
+        if (selected == null) {
+            return null;
+        }
+        BasicDBObject projection = new BasicDBObject();
+        ALWAYS_LOADED.forEach(field -> projection.put(field, 1));
+        selected.forEach(field -> projection.put(field, 1));
+        return projection;
+    }
+}
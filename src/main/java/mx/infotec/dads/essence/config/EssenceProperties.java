@@ -0,0 +1,586 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import mx.infotec.dads.essence.persistence.CascadeType;
+import mx.infotec.dads.essence.persistence.PersistenceLayout;
+
+/**
+ * Properties specific to the essence implementation, they are configured
+ * under the "essence" prefix of the application.yml
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@ConfigurationProperties(prefix = "essence")
+public class EssenceProperties {
+
+    private final Persistence persistence = new Persistence();
+
+    private final Events events = new Events();
+
+    private final History history = new History();
+
+    private final Indexes indexes = new Indexes();
+
+    private final Startup startup = new Startup();
+
+    private final Tenancy tenancy = new Tenancy();
+
+    private final Routing routing = new Routing();
+
+    private final Diagrams diagrams = new Diagrams();
+
+    private final Rendering rendering = new Rendering();
+
+    private final Analytics analytics = new Analytics();
+
+    private final Collector collector = new Collector();
+
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public Indexes getIndexes() {
+        return indexes;
+    }
+
+    public Startup getStartup() {
+        return startup;
+    }
+
+    public Tenancy getTenancy() {
+        return tenancy;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public Diagrams getDiagrams() {
+        return diagrams;
+    }
+
+    public Rendering getRendering() {
+        return rendering;
+    }
+
+    public Analytics getAnalytics() {
+        return analytics;
+    }
+
+    public Collector getCollector() {
+        return collector;
+    }
+
+    public static class Persistence {
+
+        /** The layout used to store the owned value elements */
+        private PersistenceLayout layout = PersistenceLayout.REFERENCED;
+
+        /**
+         * Migrate the stored documents to the configured layout when the
+         * application starts
+         */
+        private boolean migrateLayout = false;
+
+        /**
+         * Attempts of an edit that fails because of a concurrent modification
+         * of the same element
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Convert the element documents with the element codecs instead of
+         * the reflective mapping converter
+         */
+        private boolean codecs = true;
+
+        /**
+         * What the cascading writes do to the elements of each relationship,
+         * by field name, the relationships without entry are not cascaded
+         */
+        private Map<String, CascadeType> cascade = new HashMap<>();
+
+        public Persistence() {
+            cascade.put("ownedElements", CascadeType.SAVE);
+            cascade.put("states", CascadeType.ALL);
+            cascade.put("checkListItem", CascadeType.ALL);
+            cascade.put("criterion", CascadeType.ALL);
+            cascade.put("levelOfDetail", CascadeType.ALL);
+        }
+
+        public PersistenceLayout getLayout() {
+            return layout;
+        }
+
+        public void setLayout(PersistenceLayout layout) {
+            this.layout = layout;
+        }
+
+        public boolean isMigrateLayout() {
+            return migrateLayout;
+        }
+
+        public void setMigrateLayout(boolean migrateLayout) {
+            this.migrateLayout = migrateLayout;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public boolean isCodecs() {
+            return codecs;
+        }
+
+        public void setCodecs(boolean codecs) {
+            this.codecs = codecs;
+        }
+
+        public Map<String, CascadeType> getCascade() {
+            return cascade;
+        }
+
+        public void setCascade(Map<String, CascadeType> cascade) {
+            this.cascade = cascade;
+        }
+    }
+
+    public static class Events {
+
+        /** Publish the change events of the essence collections */
+        private boolean enabled = true;
+
+        /**
+         * Captured events waiting to be logged, the events that find the
+         * queue full are dropped
+         */
+        private int queueCapacity = 10000;
+
+        /** Maximum time a writer waits for room in a full queue */
+        private long publishTimeoutMillis = 100;
+
+        /** Maximum events appended to the log or delivered to a sink at once */
+        private int batchSize = 500;
+
+        /** Maximum time a captured event waits for its batch to fill */
+        private long maxBatchWaitMillis = 200;
+
+        /** Size of the capped collection that keeps the change events */
+        private long logSizeBytes = 256L * 1024 * 1024;
+
+        /**
+         * Age of a logged event before it is delivered, leaves time to the
+         * events with a lower sequence logged by other instances
+         */
+        private long settleMillis = 1000;
+
+        /** Wait of a cursor when there are no new events or a sink fails */
+        private long pollMillis = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getPublishTimeoutMillis() {
+            return publishTimeoutMillis;
+        }
+
+        public void setPublishTimeoutMillis(long publishTimeoutMillis) {
+            this.publishTimeoutMillis = publishTimeoutMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getMaxBatchWaitMillis() {
+            return maxBatchWaitMillis;
+        }
+
+        public void setMaxBatchWaitMillis(long maxBatchWaitMillis) {
+            this.maxBatchWaitMillis = maxBatchWaitMillis;
+        }
+
+        public long getLogSizeBytes() {
+            return logSizeBytes;
+        }
+
+        public void setLogSizeBytes(long logSizeBytes) {
+            this.logSizeBytes = logSizeBytes;
+        }
+
+        public long getSettleMillis() {
+            return settleMillis;
+        }
+
+        public void setSettleMillis(long settleMillis) {
+            this.settleMillis = settleMillis;
+        }
+
+        public long getPollMillis() {
+            return pollMillis;
+        }
+
+        public void setPollMillis(long pollMillis) {
+            this.pollMillis = pollMillis;
+        }
+    }
+
+    public static class History {
+
+        /** Keep the revisions of the language elements */
+        private boolean enabled = true;
+
+        /** Revisions stored as a diff between two full snapshots */
+        private int snapshotInterval = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(int snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class Indexes {
+
+        /** Build the declared indexes in the background when the application starts */
+        private boolean provision = true;
+
+        /** Record the query shapes to report the missing indexes */
+        private boolean advisor = true;
+
+        /** Maximum distinct query shapes recorded by the advisor */
+        private int maxShapes = 1000;
+
+        public boolean isProvision() {
+            return provision;
+        }
+
+        public void setProvision(boolean provision) {
+            this.provision = provision;
+        }
+
+        public boolean isAdvisor() {
+            return advisor;
+        }
+
+        public void setAdvisor(boolean advisor) {
+            this.advisor = advisor;
+        }
+
+        public int getMaxShapes() {
+            return maxShapes;
+        }
+
+        public void setMaxShapes(int maxShapes) {
+            this.maxShapes = maxShapes;
+        }
+    }
+
+    public static class Startup {
+
+        /**
+         * Fast start mode, the repositories and the mapping metadata of the
+         * elements are created on their first use instead of at startup
+         */
+        private boolean fast = false;
+
+        public boolean isFast() {
+            return fast;
+        }
+
+        public void setFast(boolean fast) {
+            this.fast = fast;
+        }
+    }
+
+    public static class Tenancy {
+
+        /** The maximum number of elements of a tenant, zero for no limit */
+        private int maxElements = 0;
+
+        /** The maximum number of elements of specific tenants */
+        private Map<String, Integer> quotas = new HashMap<>();
+
+        public int getMaxElements() {
+            return maxElements;
+        }
+
+        public void setMaxElements(int maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        public Map<String, Integer> getQuotas() {
+            return quotas;
+        }
+
+        public void setQuotas(Map<String, Integer> quotas) {
+            this.quotas = quotas;
+        }
+    }
+
+    public static class Routing {
+
+        /**
+         * How long the collections written by a session are read from the
+         * primary, it should exceed the replication lag
+         */
+        private long readYourWritesMillis = 10000;
+
+        public long getReadYourWritesMillis() {
+            return readYourWritesMillis;
+        }
+
+        public void setReadYourWritesMillis(long readYourWritesMillis) {
+            this.readYourWritesMillis = readYourWritesMillis;
+        }
+    }
+
+    public static class Diagrams {
+
+        /** The size of a diagram node */
+        private double nodeWidth = 160;
+
+        private double nodeHeight = 60;
+
+        /** The size of a card */
+        private double cardWidth = 240;
+
+        private double cardHeight = 160;
+
+        /** The space between two nodes or cards */
+        private double gap = 40;
+
+        /** The number of cards of a row of a board */
+        private int columns = 4;
+
+        /** The number of models whose layout is cached */
+        private int cacheSize = 256;
+
+        public double getNodeWidth() {
+            return nodeWidth;
+        }
+
+        public void setNodeWidth(double nodeWidth) {
+            this.nodeWidth = nodeWidth;
+        }
+
+        public double getNodeHeight() {
+            return nodeHeight;
+        }
+
+        public void setNodeHeight(double nodeHeight) {
+            this.nodeHeight = nodeHeight;
+        }
+
+        public double getCardWidth() {
+            return cardWidth;
+        }
+
+        public void setCardWidth(double cardWidth) {
+            this.cardWidth = cardWidth;
+        }
+
+        public double getCardHeight() {
+            return cardHeight;
+        }
+
+        public void setCardHeight(double cardHeight) {
+            this.cardHeight = cardHeight;
+        }
+
+        public double getGap() {
+            return gap;
+        }
+
+        public void setGap(double gap) {
+            this.gap = gap;
+        }
+
+        public int getColumns() {
+            return columns;
+        }
+
+        public void setColumns(int columns) {
+            this.columns = columns;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    public static class Rendering {
+
+        /** The number of renders kept in memory */
+        private int memoryEntries = 4096;
+
+        /** The directory of the disk tier of the render cache, empty for none */
+        private String cacheDirectory = System.getProperty("java.io.tmpdir") + "/essence-renders";
+
+        public int getMemoryEntries() {
+            return memoryEntries;
+        }
+
+        public void setMemoryEntries(int memoryEntries) {
+            this.memoryEntries = memoryEntries;
+        }
+
+        public String getCacheDirectory() {
+            return cacheDirectory;
+        }
+
+        public void setCacheDirectory(String cacheDirectory) {
+            this.cacheDirectory = cacheDirectory;
+        }
+    }
+
+    public static class Analytics {
+
+        /**
+         * The number of documents read from a cursor and folded as a unit,
+         * and of rows inserted at once
+         */
+        private int batchSize = 1000;
+
+        /** The number of threads of the analytics, zero for one per core */
+        private int parallelism = 0;
+
+        /**
+         * The number of batches read ahead of the threads, it bounds the raw
+         * documents held by a scan. Zero for twice the parallelism.
+         */
+        private int maxBatchesInFlight = 0;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxBatchesInFlight() {
+            return maxBatchesInFlight;
+        }
+
+        public void setMaxBatchesInFlight(int maxBatchesInFlight) {
+            this.maxBatchesInFlight = maxBatchesInFlight;
+        }
+    }
+
+    public static class Collector {
+
+        /** The number of documents read or written by a step */
+        private int batchSize = 500;
+
+        /** The pause between two steps, it leaves room to the live traffic */
+        private long pauseMillis = 20;
+
+        /** The number of ids reported of each kind of garbage */
+        private int sampleSize = 20;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPauseMillis() {
+            return pauseMillis;
+        }
+
+        public void setPauseMillis(long pauseMillis) {
+            this.pauseMillis = pauseMillis;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+    }
+}
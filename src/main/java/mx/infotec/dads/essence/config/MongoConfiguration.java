@@ -0,0 +1,136 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.CustomConversions;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+import com.mongodb.MongoClientOptions;
+
+import mx.infotec.dads.essence.codec.ElementCodecConverters;
+import mx.infotec.dads.essence.codec.ElementCodecs;
+import mx.infotec.dads.essence.index.IndexAdvisor;
+import mx.infotec.dads.essence.integrity.ReferenceEntry;
+import mx.infotec.dads.essence.repository.EssenceMongoRepository;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.routing.ReadRoutingRepositoryFactoryBean;
+import mx.infotec.dads.essence.routing.RoutingMongoTemplate;
+import mx.infotec.dads.essence.summary.ElementSummary;
+import mx.infotec.dads.essence.tenant.TenantMappingContext;
+
+/**
+ * MongoConfiguration, the options of the mongodb client, the conversions
+ * used by the mongodb mapping converter and the routing of the reads
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Configuration
+@EnableMongoRepositories(basePackageClasses = KernelEnum.class, repositoryFactoryBeanClass = ReadRoutingRepositoryFactoryBean.class,
+        repositoryBaseClass = EssenceMongoRepository.class)
+public class MongoConfiguration {
+
+    /**
+     * Marks the repositories as lazy in fast start mode
+     */
+    @Bean
+    public static LazyRepositoriesPostProcessor lazyRepositoriesPostProcessor() {
+        return new LazyRepositoriesPostProcessor();
+    }
+
+    @Bean
+    public ElementCodecs elementCodecs(ObjectProvider<MongoMappingContext> mappingContext,
+            ObjectProvider<MongoDbFactory> dbFactory, ObjectProvider<MongoConverter> converter) {
+        return new ElementCodecs(mappingContext, dbFactory, converter);
+    }
+
+    /**
+     * The options of the mongodb client, the index advisor listens to the
+     * commands sent to the server
+     */
+    @Bean
+    public MongoClientOptions mongoClientOptions(IndexAdvisor indexAdvisor) {
+        return MongoClientOptions.builder().addCommandListener(indexAdvisor).build();
+    }
+
+    @Bean
+    public CustomConversions customConversions(EssenceProperties properties, ElementCodecs elementCodecs) {
+        List<Object> converters = new ArrayList<>();
+        if (properties.getPersistence().isCodecs()) {
+            converters.addAll(ElementCodecConverters.getConvertersToRegister(elementCodecs));
+        }
+        return new CustomConversions(converters);
+    }
+
+    /**
+     * The mapping context of the documents. The persistent types are known in
+     * advance (the kernel elements and the summaries), so the classpath is not
+     * scanned for documents. In fast start mode no entity is built at startup,
+     * each one is built the first time it is read or written. The collections
+     * are resolved for the tenant of the current thread.
+     */
+    @Bean
+    public MongoMappingContext mongoMappingContext(EssenceProperties properties, CustomConversions conversions) {
+        Set<Class<?>> entities = new HashSet<>();
+        if (!properties.getStartup().isFast()) {
+            for (KernelEnum element : KernelEnum.values()) {
+                entities.add(element.getType());
+            }
+            entities.add(ElementSummary.class);
+            entities.add(ReferenceEntry.class);
+        }
+        MongoMappingContext context = new TenantMappingContext();
+        context.setInitialEntitySet(entities);
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        return context;
+    }
+
+    /**
+     * The template of the application, routes the reads of the repositories
+     * annotated with {@link mx.infotec.dads.essence.routing.ReadFrom}
+     */
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter converter,
+            EssenceProperties properties, ElementCodecs elementCodecs) {
+        RoutingMongoTemplate template = new RoutingMongoTemplate(mongoDbFactory, converter,
+                properties.getRouting().getReadYourWritesMillis());
+        if (properties.getPersistence().isCodecs()) {
+            template.setElementCodecs(elementCodecs);
+        }
+        return template;
+    }
+}
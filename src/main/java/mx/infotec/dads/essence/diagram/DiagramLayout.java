@@ -0,0 +1,103 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omg.essence.model.diagraminterchange.Link;
+import org.omg.essence.model.diagraminterchange.Node;
+
+/**
+ * DiagramLayout, the geometry of the nodes and links of a diagram. The
+ * elements of the diagram interchange model have no identity of their own,
+ * so the geometry is looked up by the instances that were laid out.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class DiagramLayout {
+
+    private final Layout layout;
+
+    private final Map<Node, String> nodeKeys;
+
+    private final Map<Link, String> linkKeys;
+
+    DiagramLayout(Layout layout, IdentityHashMap<Node, String> nodeKeys, IdentityHashMap<Link, String> linkKeys) {
+        this.layout = layout;
+        this.nodeKeys = nodeKeys;
+        this.linkKeys = linkKeys;
+    }
+
+    /**
+     * The bounds of a node
+     * 
+     * @param node
+     * @return Bounds, null if the node is not part of the diagram
+     */
+    public Bounds getBounds(Node node) {
+        String key = nodeKeys.get(node);
+        return key == null ? null : layout.getBounds(key);
+    }
+
+    /**
+     * The route of a link
+     * 
+     * @param link
+     * @return List<Point>, null if the link is not part of the diagram or
+     *         does not join two of its nodes
+     */
+    public List<Point> getRoute(Link link) {
+        String key = linkKeys.get(link);
+        return key == null ? null : layout.getRoute(key);
+    }
+
+    /**
+     * The geometry keyed by the position of the elements in the diagram
+     * 
+     * @return Layout
+     */
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * A layout for other instances of the same diagram, as read again from
+     * the repository
+     */
+    DiagramLayout rebind(IdentityHashMap<Node, String> nodeKeys, IdentityHashMap<Link, String> linkKeys) {
+        return new DiagramLayout(layout, nodeKeys, linkKeys);
+    }
+
+    public double getWidth() {
+        return layout.getWidth();
+    }
+
+    public double getHeight() {
+        return layout.getHeight();
+    }
+}
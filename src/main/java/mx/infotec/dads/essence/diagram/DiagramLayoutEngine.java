@@ -0,0 +1,237 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omg.essence.model.diagraminterchange.Diagram;
+import org.omg.essence.model.diagraminterchange.DiagramElement;
+import org.omg.essence.model.diagraminterchange.Link;
+import org.omg.essence.model.diagraminterchange.Node;
+import org.omg.essence.model.foundation.BasicElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.model.diagraminterchange.SENode;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * DiagramLayoutEngine, computes the geometry of the diagrams of a model:
+ * activity flows get a layered layout and boards a grid of cards.
+ * 
+ * The layout of a diagram is cached per model and version. When a model
+ * changes, the diagram is split in its connected components and only the
+ * components that changed are laid out again, the rest keep their previous
+ * geometry.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class DiagramLayoutEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiagramLayoutEngine.class);
+
+    private final EssenceProperties.Diagrams properties;
+
+    private final Map<String, CachedLayout> cache;
+
+    public DiagramLayoutEngine(EssenceProperties essenceProperties) {
+        this.properties = essenceProperties.getDiagrams();
+        int cacheSize = Math.max(1, properties.getCacheSize());
+        this.cache = new LinkedHashMap<String, CachedLayout>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedLayout> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * The layout of a diagram of a model
+     * 
+     * @param modelId
+     *            the model the diagram belongs to
+     * @param version
+     *            the version of the model, a new version is laid out again
+     * @param diagram
+     * @return DiagramLayout
+     */
+    public DiagramLayout layout(String modelId, long version, Diagram diagram) {
+        IdentityHashMap<Node, String> nodeKeys = new IdentityHashMap<>();
+        IdentityHashMap<Link, String> linkKeys = new IdentityHashMap<>();
+        LayoutGraph graph = toGraph(diagram, nodeKeys, linkKeys);
+        CachedLayout previous;
+        synchronized (cache) {
+            previous = cache.get(modelId);
+        }
+        if (previous != null && previous.version == version) {
+            return previous.layout.rebind(nodeKeys, linkKeys);
+        }
+        Map<String, Layout> components = new HashMap<>();
+        List<Layout> parts = new ArrayList<>();
+        int reused = 0;
+        for (LayoutGraph component : graph.getComponents()) {
+            String signature = component.getSignature();
+            Layout part = previous == null ? null : previous.components.get(signature);
+            if (part == null) {
+                part = LayeredLayout.layout(component, properties.getGap(), properties.getGap());
+            } else {
+                reused++;
+            }
+            components.put(signature, part);
+            parts.add(part);
+        }
+        LOGGER.debug("Laid out {} of {} components of the model {} version {}", parts.size() - reused,
+                parts.size(), modelId, version);
+        DiagramLayout layout = new DiagramLayout(Layout.pack(parts, properties.getGap()), nodeKeys, linkKeys);
+        synchronized (cache) {
+            CachedLayout current = cache.get(modelId);
+            if (current == null || current.version <= version) {
+                cache.put(modelId, new CachedLayout(version, components, layout));
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * The layout of the cards of a board, cards and detail cards alike
+     * 
+     * @param cards
+     *            the cards, in reading order
+     * @return Map<C, Bounds> the bounds of each card
+     */
+    public <C> Map<C, Bounds> layoutCards(List<C> cards) {
+        List<String> keys = new ArrayList<>(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            keys.add("c" + i);
+        }
+        Layout layout = GridLayout.layout(keys, properties.getCardWidth(), properties.getCardHeight(),
+                properties.getColumns(), properties.getGap());
+        Map<C, Bounds> bounds = new IdentityHashMap<>();
+        for (int i = 0; i < cards.size(); i++) {
+            bounds.put(cards.get(i), layout.getBounds(keys.get(i)));
+        }
+        return bounds;
+    }
+
+    /**
+     * Forget the layout of a model, when it is deleted
+     * 
+     * @param modelId
+     */
+    public void evict(String modelId) {
+        synchronized (cache) {
+            cache.remove(modelId);
+        }
+    }
+
+    /**
+     * The graph of a diagram. The nodes are keyed by the id of their model
+     * element and the links by their ends, so inserting an element does not
+     * change the signature of the other components; the diagram interchange
+     * model has no identifiers, the elements without a model element are
+     * keyed by their position.
+     */
+    private LayoutGraph toGraph(Diagram diagram, IdentityHashMap<Node, String> nodeKeys,
+            IdentityHashMap<Link, String> linkKeys) {
+        LayoutGraph graph = new LayoutGraph();
+        Map<String, Integer> occurrences = new HashMap<>();
+        Map<Link, Integer> links = new LinkedHashMap<>();
+        int index = 0;
+        for (DiagramElement element : elements(diagram)) {
+            if (element instanceof Node) {
+                String key = unique(occurrences, nodeKey((Node) element, index));
+                nodeKeys.put((Node) element, key);
+                graph.addNode(key, properties.getNodeWidth(), properties.getNodeHeight());
+            } else if (element instanceof Link) {
+                links.put((Link) element, index);
+            }
+            index++;
+        }
+        links.forEach((link, position) -> {
+            String source = nodeKeys.get(link.getSource());
+            String target = nodeKeys.get(link.getTarget());
+            if (source != null && target != null) {
+                String key = unique(occurrences, "l:" + source + ">" + target);
+                linkKeys.put(link, key);
+                graph.addLink(key, source, target);
+            } else {
+                linkKeys.put(link, "l" + position);
+            }
+        });
+        return graph;
+    }
+
+    private static String nodeKey(Node node, int index) {
+        BasicElement modelElement = node instanceof SENode ? ((SENode) node).getModelElement() : null;
+        if (modelElement instanceof SELanguageElement && ((SELanguageElement) modelElement).getId() != null) {
+            return "n:" + ((SELanguageElement) modelElement).getId();
+        }
+        return "n" + index;
+    }
+
+    /**
+     * A key seen before, an element shown twice, gets the number of its
+     * occurrence
+     */
+    private static String unique(Map<String, Integer> occurrences, String key) {
+        int occurrence = occurrences.merge(key, 1, Integer::sum);
+        return occurrence == 1 ? key : key + "#" + occurrence;
+    }
+
+    private static Iterable<DiagramElement> elements(Diagram diagram) {
+        if (diagram == null || diagram.getDiagramElement() == null) {
+            return Collections.emptyList();
+        }
+        return diagram.getDiagramElement();
+    }
+
+    private static final class CachedLayout {
+
+        private final long version;
+
+        private final Map<String, Layout> components;
+
+        private final DiagramLayout layout;
+
+        CachedLayout(long version, Map<String, Layout> components, DiagramLayout layout) {
+            this.version = version;
+            this.components = components;
+            this.layout = layout;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GridLayout, a layout of cards in rows of a fixed number of columns, the
+ * cards of a team board
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class GridLayout {
+
+    private GridLayout() {
+
+    }
+
+    /**
+     * Lay out cards of the same size
+     * 
+     * @param cards
+     *            the keys of the cards, in reading order
+     * @param width
+     * @param height
+     * @param columns
+     * @param gap
+     * @return Layout
+     */
+    public static Layout layout(List<String> cards, double width, double height, int columns, double gap) {
+        int perRow = Math.max(1, columns);
+        Map<String, Bounds> bounds = new LinkedHashMap<>();
+        for (int i = 0; i < cards.size(); i++) {
+            int row = i / perRow;
+            int column = i % perRow;
+            bounds.put(cards.get(i), new Bounds(column * (width + gap), row * (height + gap), width, height));
+        }
+        return new Layout(bounds, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LayeredLayout, a layered (Sugiyama style) layout for flows such as the
+ * activities of an activity space: the cycles are broken by reversing the
+ * back links, every node is placed on the layer after its longest chain of
+ * predecessors, the nodes of each layer are ordered by the barycenter of
+ * their neighbours to reduce the crossings and the layers are centered.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class LayeredLayout {
+
+    private static final int ORDERING_SWEEPS = 4;
+
+    private LayeredLayout() {
+
+    }
+
+    /**
+     * Lay out a graph
+     * 
+     * @param graph
+     * @param horizontalGap
+     *            the space between two nodes of a layer
+     * @param verticalGap
+     *            the space between two layers
+     * @return Layout
+     */
+    public static Layout layout(LayoutGraph graph, double horizontalGap, double verticalGap) {
+        List<String> nodes = graph.getNodes();
+        Map<String, String[]> links = graph.getLinks();
+        Set<String> reversed = findBackLinks(nodes, links);
+        Map<String, List<String>> successors = new HashMap<>();
+        Map<String, List<String>> predecessors = new HashMap<>();
+        for (String node : nodes) {
+            successors.put(node, new ArrayList<>());
+            predecessors.put(node, new ArrayList<>());
+        }
+        links.forEach((key, ends) -> {
+            String source = reversed.contains(key) ? ends[1] : ends[0];
+            String target = reversed.contains(key) ? ends[0] : ends[1];
+            if (!source.equals(target)) {
+                successors.get(source).add(target);
+                predecessors.get(target).add(source);
+            }
+        });
+        List<List<String>> layers = assignLayers(nodes, successors, predecessors);
+        order(layers, successors, predecessors);
+        Map<String, Bounds> bounds = place(graph, layers, horizontalGap, verticalGap);
+        Map<String, List<Point>> routes = new LinkedHashMap<>();
+        links.forEach((key, ends) -> routes.put(key, route(bounds.get(ends[0]), bounds.get(ends[1]))));
+        return new Layout(bounds, routes);
+    }
+
+    /**
+     * The links that close a cycle in a depth first traversal
+     */
+    private static Set<String> findBackLinks(List<String> nodes, Map<String, String[]> links) {
+        Map<String, List<String>> outgoing = new HashMap<>();
+        links.forEach((key, ends) -> outgoing.computeIfAbsent(ends[0], node -> new ArrayList<>()).add(key));
+        Set<String> backLinks = new HashSet<>();
+        Set<String> visited = new HashSet<>();
+        Set<String> onPath = new HashSet<>();
+        for (String start : nodes) {
+            if (visited.contains(start)) {
+                continue;
+            }
+            Deque<Object[]> stack = new ArrayDeque<>();
+            stack.push(new Object[] { start, outgoing.getOrDefault(start, Collections.emptyList()).iterator() });
+            visited.add(start);
+            onPath.add(start);
+            while (!stack.isEmpty()) {
+                Object[] frame = stack.peek();
+                @SuppressWarnings("unchecked")
+                Iterator<String> keys = (Iterator<String>) frame[1];
+                if (!keys.hasNext()) {
+                    onPath.remove(frame[0]);
+                    stack.pop();
+                    continue;
+                }
+                String key = keys.next();
+                String target = links.get(key)[1];
+                if (onPath.contains(target)) {
+                    backLinks.add(key);
+                } else if (visited.add(target)) {
+                    onPath.add(target);
+                    stack.push(new Object[] { target,
+                            outgoing.getOrDefault(target, Collections.emptyList()).iterator() });
+                }
+            }
+        }
+        return backLinks;
+    }
+
+    /**
+     * Longest path layering over the acyclic links, in topological order
+     */
+    private static List<List<String>> assignLayers(List<String> nodes, Map<String, List<String>> successors,
+            Map<String, List<String>> predecessors) {
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, Integer> layerOf = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (String node : nodes) {
+            pending.put(node, predecessors.get(node).size());
+            if (predecessors.get(node).isEmpty()) {
+                ready.add(node);
+                layerOf.put(node, 0);
+            }
+        }
+        List<List<String>> layers = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String node = ready.poll();
+            int layer = layerOf.get(node);
+            while (layers.size() <= layer) {
+                layers.add(new ArrayList<>());
+            }
+            layers.get(layer).add(node);
+            for (String successor : successors.get(node)) {
+                layerOf.merge(successor, layer + 1, Math::max);
+                if (pending.merge(successor, -1, Integer::sum) == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        return layers;
+    }
+
+    /**
+     * Barycenter ordering, sweeping down with the predecessors and up with
+     * the successors
+     */
+    private static void order(List<List<String>> layers, Map<String, List<String>> successors,
+            Map<String, List<String>> predecessors) {
+        Map<String, Integer> position = new HashMap<>();
+        layers.forEach(layer -> positions(layer, position));
+        for (int sweep = 0; sweep < ORDERING_SWEEPS; sweep++) {
+            boolean down = sweep % 2 == 0;
+            for (int i = 1; i < layers.size(); i++) {
+                List<String> layer = layers.get(down ? i : layers.size() - 1 - i);
+                Map<String, List<String>> neighbours = down ? predecessors : successors;
+                Map<String, Double> barycenters = new HashMap<>();
+                for (String node : layer) {
+                    List<String> adjacent = neighbours.get(node);
+                    barycenters.put(node, adjacent.isEmpty() ? position.get(node)
+                            : adjacent.stream().mapToInt(position::get).average().getAsDouble());
+                }
+                // the sort is stable, ties keep the previous order
+                layer.sort(Comparator.comparingDouble(barycenters::get));
+                positions(layer, position);
+            }
+        }
+    }
+
+    private static void positions(List<String> layer, Map<String, Integer> position) {
+        for (int i = 0; i < layer.size(); i++) {
+            position.put(layer.get(i), i);
+        }
+    }
+
+    private static Map<String, Bounds> place(LayoutGraph graph, List<List<String>> layers, double horizontalGap,
+            double verticalGap) {
+        double[] layerWidths = new double[layers.size()];
+        double maxWidth = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            for (String node : layers.get(i)) {
+                layerWidths[i] += graph.getWidth(node);
+            }
+            layerWidths[i] += horizontalGap * Math.max(0, layers.get(i).size() - 1);
+            maxWidth = Math.max(maxWidth, layerWidths[i]);
+        }
+        Map<String, Bounds> bounds = new LinkedHashMap<>();
+        double y = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            double x = (maxWidth - layerWidths[i]) / 2;
+            double layerHeight = 0;
+            for (String node : layers.get(i)) {
+                layerHeight = Math.max(layerHeight, graph.getHeight(node));
+            }
+            for (String node : layers.get(i)) {
+                double height = graph.getHeight(node);
+                bounds.put(node, new Bounds(x, y + (layerHeight - height) / 2, graph.getWidth(node), height));
+                x += graph.getWidth(node) + horizontalGap;
+            }
+            y += layerHeight + verticalGap;
+        }
+        return bounds;
+    }
+
+    /**
+     * The route of a link: from the bottom of the source to the top of a
+     * target below it, from the top of the source to the bottom of a target
+     * above it or from side to side on the same layer
+     */
+    private static List<Point> route(Bounds source, Bounds target) {
+        Point from;
+        Point to;
+        if (target.getY() > source.getY() + source.getHeight()) {
+            from = new Point(source.getCenterX(), source.getY() + source.getHeight());
+            to = new Point(target.getCenterX(), target.getY());
+        } else if (source.getY() > target.getY() + target.getHeight()) {
+            from = new Point(source.getCenterX(), source.getY());
+            to = new Point(target.getCenterX(), target.getY() + target.getHeight());
+        } else if (target.getX() >= source.getX()) {
+            from = new Point(source.getX() + source.getWidth(), source.getCenterY());
+            to = new Point(target.getX(), target.getCenterY());
+        } else {
+            from = new Point(source.getX(), source.getCenterY());
+            to = new Point(target.getX() + target.getWidth(), target.getCenterY());
+        }
+        return Collections.unmodifiableList(Arrays.asList(from, to));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layout, the geometry of the nodes and of the routes of the links of a
+ * graph. A layout is immutable, it is shared by the cache and its callers.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class Layout {
+
+    private final Map<String, Bounds> nodes;
+
+    private final Map<String, List<Point>> links;
+
+    private final double width;
+
+    private final double height;
+
+    public Layout(Map<String, Bounds> nodes, Map<String, List<Point>> links) {
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+        this.links = Collections.unmodifiableMap(new LinkedHashMap<>(links));
+        double maxX = 0;
+        double maxY = 0;
+        for (Bounds bounds : nodes.values()) {
+            maxX = Math.max(maxX, bounds.getX() + bounds.getWidth());
+            maxY = Math.max(maxY, bounds.getY() + bounds.getHeight());
+        }
+        this.width = maxX;
+        this.height = maxY;
+    }
+
+    public Bounds getBounds(String node) {
+        return nodes.get(node);
+    }
+
+    public List<Point> getRoute(String link) {
+        return links.get(link);
+    }
+
+    public Map<String, Bounds> getNodes() {
+        return nodes;
+    }
+
+    public Map<String, List<Point>> getLinks() {
+        return links;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * The same layout moved
+     * 
+     * @param dx
+     * @param dy
+     * @return Layout
+     */
+    public Layout translate(double dx, double dy) {
+        Map<String, Bounds> movedNodes = new LinkedHashMap<>();
+        nodes.forEach((key, bounds) -> movedNodes.put(key, bounds.translate(dx, dy)));
+        Map<String, List<Point>> movedLinks = new LinkedHashMap<>();
+        links.forEach((key, route) -> {
+            List<Point> moved = new ArrayList<>(route.size());
+            route.forEach(point -> moved.add(point.translate(dx, dy)));
+            movedLinks.put(key, Collections.unmodifiableList(moved));
+        });
+        return new Layout(movedNodes, movedLinks);
+    }
+
+    /**
+     * Place layouts side by side, from left to right
+     * 
+     * @param layouts
+     * @param gap
+     *            the horizontal space between two layouts
+     * @return Layout
+     */
+    public static Layout pack(List<Layout> layouts, double gap) {
+        Map<String, Bounds> nodes = new LinkedHashMap<>();
+        Map<String, List<Point>> links = new LinkedHashMap<>();
+        double x = 0;
+        for (Layout layout : layouts) {
+            Layout moved = layout.translate(x, 0);
+            nodes.putAll(moved.nodes);
+            links.putAll(moved.links);
+            x += layout.width + gap;
+        }
+        return new Layout(nodes, links);
+    }
+}
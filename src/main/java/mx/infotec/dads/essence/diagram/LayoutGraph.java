@@ -0,0 +1,152 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LayoutGraph, the nodes and links to lay out, identified by keys that are
+ * stable between the versions of a model so the unchanged parts of a layout
+ * can be reused
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class LayoutGraph {
+
+    private final Map<String, double[]> nodes = new LinkedHashMap<>();
+
+    private final Map<String, String[]> links = new LinkedHashMap<>();
+
+    /**
+     * Add a node
+     * 
+     * @param key
+     * @param width
+     * @param height
+     * @return LayoutGraph this graph
+     */
+    public LayoutGraph addNode(String key, double width, double height) {
+        nodes.put(key, new double[] { width, height });
+        return this;
+    }
+
+    /**
+     * Add a link, the links whose ends are not nodes of the graph are ignored
+     * 
+     * @param key
+     * @param source
+     * @param target
+     * @return LayoutGraph this graph
+     */
+    public LayoutGraph addLink(String key, String source, String target) {
+        links.put(key, new String[] { source, target });
+        return this;
+    }
+
+    public List<String> getNodes() {
+        return new ArrayList<>(nodes.keySet());
+    }
+
+    public double getWidth(String node) {
+        return nodes.get(node)[0];
+    }
+
+    public double getHeight(String node) {
+        return nodes.get(node)[1];
+    }
+
+    /**
+     * The links between nodes of the graph
+     * 
+     * @return Map<String, String[]> the source and target of each link
+     */
+    public Map<String, String[]> getLinks() {
+        Map<String, String[]> valid = new LinkedHashMap<>();
+        links.forEach((key, ends) -> {
+            if (nodes.containsKey(ends[0]) && nodes.containsKey(ends[1])) {
+                valid.put(key, ends);
+            }
+        });
+        return valid;
+    }
+
+    /**
+     * The connected components, in the order of their first node
+     * 
+     * @return List<LayoutGraph>
+     */
+    public List<LayoutGraph> getComponents() {
+        Map<String, String> parents = new HashMap<>();
+        nodes.keySet().forEach(node -> parents.put(node, node));
+        Map<String, String[]> valid = getLinks();
+        for (String[] ends : valid.values()) {
+            parents.put(find(parents, ends[0]), find(parents, ends[1]));
+        }
+        Map<String, LayoutGraph> components = new LinkedHashMap<>();
+        nodes.forEach((node, size) -> components.computeIfAbsent(find(parents, node), root -> new LayoutGraph())
+                .addNode(node, size[0], size[1]));
+        valid.forEach((key, ends) -> components.get(find(parents, ends[0])).addLink(key, ends[0], ends[1]));
+        return new ArrayList<>(components.values());
+    }
+
+    /**
+     * A text that changes whenever a node, its size or a link changes, two
+     * graphs with the same signature have the same layout
+     * 
+     * @return String
+     */
+    public String getSignature() {
+        StringBuilder signature = new StringBuilder();
+        nodes.forEach((node, size) -> signature.append(node).append(':').append(size[0]).append('x')
+                .append(size[1]).append(';'));
+        getLinks().forEach((key, ends) -> signature.append(key).append('=').append(ends[0]).append('>')
+                .append(ends[1]).append(';'));
+        return signature.toString();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    private static String find(Map<String, String> parents, String node) {
+        String root = node;
+        while (!parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        // path compression
+        String current = node;
+        while (!current.equals(root)) {
+            String next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ChangeEvent, a created, updated or deleted element of any of the essence
+ * collections. The sequence orders the events of the change event log and is
+ * the position of the cursors.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ChangeEvent {
+
+    static final String SEQUENCE = "_id";
+
+    static final String LOGGED_DATE = "loggedDate";
+
+    private Long sequence;
+
+    private ChangeType changeType;
+
+    private KernelEnum elementType;
+
+    private String elementId;
+
+    private String collection;
+
+    private Set<String> changedFields;
+
+    private Date createdDate;
+
+    private Date lastModifiedDate;
+
+    private Date loggedDate;
+
+    private DBObject document;
+
+    public ChangeEvent(ChangeType changeType, KernelEnum elementType, String elementId, String collection,
+            Set<String> changedFields, DBObject document) {
+        this.changeType = changeType;
+        this.elementType = elementType;
+        this.elementId = elementId;
+        this.collection = collection;
+        this.changedFields = changedFields == null ? Collections.emptySet() : changedFields;
+        this.document = document;
+        if (document != null) {
+            this.createdDate = asDate(document.get("createdDate"));
+            this.lastModifiedDate = asDate(document.get("lastModifiedDate"));
+        }
+    }
+
+    private ChangeEvent() {
+
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public KernelEnum getElementType() {
+        return elementType;
+    }
+
+    public String getElementId() {
+        return elementId;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public Set<String> getChangedFields() {
+        return changedFields;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public Date getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public Date getLoggedDate() {
+        return loggedDate;
+    }
+
+    void setLoggedDate(Date loggedDate) {
+        this.loggedDate = loggedDate;
+    }
+
+    /**
+     * The stored document after the change, null for the deleted elements
+     * 
+     * @return DBObject
+     */
+    public DBObject getDocument() {
+        return document;
+    }
+
+    DBObject toDBObject() {
+        BasicDBList fields = new BasicDBList();
+        fields.addAll(changedFields);
+        BasicDBObject dbo = new BasicDBObject(SEQUENCE, sequence).append("changeType", changeType.name())
+                .append("elementType", elementType.name()).append("elementId", elementId)
+                .append("collection", collection).append("changedFields", fields).append("createdDate", createdDate)
+                .append("lastModifiedDate", lastModifiedDate).append(LOGGED_DATE, loggedDate);
+        if (document != null) {
+            dbo.append("document", document);
+        }
+        return dbo;
+    }
+
+    @SuppressWarnings("unchecked")
+    static ChangeEvent fromDBObject(DBObject dbo) {
+        ChangeEvent event = new ChangeEvent();
+        event.sequence = ((Number) dbo.get(SEQUENCE)).longValue();
+        event.changeType = ChangeType.valueOf((String) dbo.get("changeType"));
+        event.elementType = KernelEnum.valueOf((String) dbo.get("elementType"));
+        event.elementId = (String) dbo.get("elementId");
+        event.collection = (String) dbo.get("collection");
+        Object fields = dbo.get("changedFields");
+        event.changedFields = fields == null ? Collections.emptySet()
+                : Collections.unmodifiableSet(new LinkedHashSet<>((Collection<String>) fields));
+        event.createdDate = asDate(dbo.get("createdDate"));
+        event.lastModifiedDate = asDate(dbo.get("lastModifiedDate"));
+        event.loggedDate = asDate(dbo.get(LOGGED_DATE));
+        event.document = (DBObject) dbo.get("document");
+        return event;
+    }
+
+    private static Date asDate(Object value) {
+        return value instanceof Date ? (Date) value : null;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent [sequence=" + sequence + ", changeType=" + changeType + ", elementType=" + elementType
+                + ", elementId=" + elementId + ", changedFields=" + changedFields + "]";
+    }
+}
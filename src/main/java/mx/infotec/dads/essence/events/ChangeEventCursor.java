@@ -0,0 +1,107 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ChangeEventCursor, delivers the change event log to a single sink. The
+ * position of the last accepted batch is stored, so a restarted application
+ * resumes the delivery where it stopped. A failed batch is delivered again
+ * after the poll time.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ChangeEventCursor implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeEventCursor.class);
+
+    private final ChangeEventLog log;
+
+    private final ChangeEventSink sink;
+
+    private final int batchSize;
+
+    private final long pollMillis;
+
+    private volatile boolean running = true;
+
+    private long position;
+
+    public ChangeEventCursor(ChangeEventLog log, ChangeEventSink sink, int batchSize, long pollMillis) {
+        this.log = log;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollMillis = pollMillis;
+    }
+
+    @Override
+    public void run() {
+        position = log.getPosition(sink.getName());
+        while (running) {
+            if (!deliverNext()) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Deliver the next batch of the log
+     * 
+     * @return boolean false when there were no events or the sink failed
+     */
+    boolean deliverNext() {
+        try {
+            List<ChangeEvent> events = log.readAfter(position, batchSize);
+            if (events.isEmpty()) {
+                return false;
+            }
+            sink.accept(events);
+            position = events.get(events.size() - 1).getSequence();
+            log.savePosition(sink.getName(), position);
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Change events after {} not delivered to {}", position, sink.getName(), e);
+            return false;
+        }
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void stop() {
+        running = false;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * ChangeEventDelivery, starts a cursor over the change event log for each
+ * {@link ChangeEventSink} of the application context
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ChangeEventDelivery implements SmartLifecycle {
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private ChangeEventLog log;
+
+    @Autowired(required = false)
+    private List<ChangeEventSink> sinks = Collections.emptyList();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final List<ChangeEventCursor> cursors = new ArrayList<>();
+
+    private volatile boolean running;
+
+    @Override
+    public synchronized void start() {
+        if (running || !properties.getEvents().isEnabled()) {
+            return;
+        }
+        running = true;
+        for (ChangeEventSink sink : sinks) {
+            ChangeEventCursor cursor = new ChangeEventCursor(log, sink, properties.getEvents().getBatchSize(),
+                    properties.getEvents().getPollMillis());
+            Thread thread = new Thread(cursor, "change-event-cursor-" + sink.getName());
+            thread.setDaemon(true);
+            thread.start();
+            cursors.add(cursor);
+            threads.add(thread);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        cursors.forEach(ChangeEventCursor::stop);
+        threads.forEach(Thread::interrupt);
+        cursors.clear();
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
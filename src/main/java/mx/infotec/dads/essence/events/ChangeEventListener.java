@@ -0,0 +1,103 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.persistence.AfterInsertEvent;
+import mx.infotec.dads.essence.persistence.PartialSaveEvent;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ChangeEventListener, the in-process write-path hook that captures the
+ * change events of the essence collections. Every save, partial update or
+ * delete of one of the {@link KernelEnum} types done through the
+ * MongoTemplate is turned into a change event.
+ * 
+ * <p>
+ * A saved document is created when it was inserted, the template publishes
+ * the save of an insert as an {@link AfterInsertEvent}, whatever the version
+ * of the element. The deletes are captured when they are done by
+ * id, a deleteAll of a repository does not identify the removed elements.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ChangeEventListener extends AbstractMongoEventListener<Object> {
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private ChangeEventPublisher publisher;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        KernelEnum elementType = KernelEnum.of(event.getSource().getClass());
+        if (elementType == null || !properties.getEvents().isEnabled()) {
+            return;
+        }
+        DBObject dbo = event.getDBObject();
+        ChangeType changeType = event instanceof AfterInsertEvent ? ChangeType.CREATED : ChangeType.UPDATED;
+        Set<String> changedFields;
+        if (event instanceof PartialSaveEvent) {
+            changedFields = ((PartialSaveEvent<Object>) event).getChangedFields();
+        } else {
+            changedFields = new LinkedHashSet<>(dbo.keySet());
+            changedFields.remove(MongoEvents.ID_FIELD);
+            changedFields.remove("_class");
+        }
+        publisher.publish(new ChangeEvent(changeType, elementType, MongoEvents.getId(dbo),
+                event.getCollectionName(), changedFields, dbo));
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        KernelEnum elementType = KernelEnum.of(event.getType());
+        if (elementType == null || !properties.getEvents().isEnabled()) {
+            return;
+        }
+        String id = MongoEvents.getDeletedId(event);
+        if (id != null) {
+            String collection = event.getCollectionName() == null ? elementType.getCollection()
+                    : event.getCollectionName();
+            publisher.publish(new ChangeEvent(ChangeType.DELETED, elementType, id, collection,
+                    Collections.emptySet(), null));
+        }
+    }
+}
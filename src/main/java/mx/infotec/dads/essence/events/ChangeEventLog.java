@@ -0,0 +1,157 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * ChangeEventLog, the change events stored into a capped collection ordered
+ * by their sequence, and the positions of the cursors that read them. The
+ * sequences are allocated in blocks from the counters collection, so the
+ * events appended by several instances of the application are still totally
+ * ordered.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ChangeEventLog {
+
+    public static final String EVENTS_COLLECTION = "changeevents";
+
+    public static final String CURSORS_COLLECTION = "changeeventcursors";
+
+    public static final String COUNTERS_COLLECTION = "counters";
+
+    private static final String POSITION = "position";
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private EssenceProperties properties;
+
+    private volatile DBCollection events;
+
+    private DBCollection events() {
+        if (events == null) {
+            synchronized (this) {
+                if (events == null) {
+                    if (!mongoOperations.collectionExists(EVENTS_COLLECTION)) {
+                        long size = Math.min(Integer.MAX_VALUE, properties.getEvents().getLogSizeBytes());
+                        mongoOperations.createCollection(EVENTS_COLLECTION,
+                                new CollectionOptions((int) size, null, true));
+                    }
+                    events = mongoOperations.getCollection(EVENTS_COLLECTION);
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Assign the next sequences to the events and store them
+     * 
+     * @param batch
+     */
+    public void append(List<ChangeEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long last = allocate(batch.size());
+        long sequence = last - batch.size();
+        Date loggedDate = new Date();
+        List<DBObject> documents = new ArrayList<>(batch.size());
+        for (ChangeEvent event : batch) {
+            event.setSequence(++sequence);
+            event.setLoggedDate(loggedDate);
+            documents.add(event.toDBObject());
+        }
+        events().insert(documents);
+    }
+
+    private long allocate(int count) {
+        DBObject counter = mongoOperations.getCollection(COUNTERS_COLLECTION).findAndModify(
+                new BasicDBObject("_id", EVENTS_COLLECTION), null, null, false,
+                new BasicDBObject("$inc", new BasicDBObject("sequence", (long) count)), true, true);
+        return ((Number) counter.get("sequence")).longValue();
+    }
+
+    /**
+     * Read the events logged after a position. Only the events older than the
+     * settle time are returned, an event with a lower sequence can still be
+     * in flight from another instance.
+     * 
+     * @param position
+     *            the sequence of the last event read
+     * @param limit
+     * @return List the events ordered by sequence
+     */
+    public List<ChangeEvent> readAfter(long position, int limit) {
+        Date settled = new Date(System.currentTimeMillis() - properties.getEvents().getSettleMillis());
+        BasicDBObject query = new BasicDBObject(ChangeEvent.SEQUENCE, new BasicDBObject("$gt", position))
+                .append(ChangeEvent.LOGGED_DATE, new BasicDBObject("$lte", settled));
+        List<ChangeEvent> result = new ArrayList<>();
+        try (DBCursor cursor = events().find(query).sort(new BasicDBObject(ChangeEvent.SEQUENCE, 1)).limit(limit)) {
+            while (cursor.hasNext()) {
+                result.add(ChangeEvent.fromDBObject(cursor.next()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The sequence of the last event accepted by a sink, 0 when it never read
+     * the log
+     * 
+     * @param name
+     *            the name of the sink
+     * @return long
+     */
+    public long getPosition(String name) {
+        DBObject cursor = mongoOperations.getCollection(CURSORS_COLLECTION).findOne(new BasicDBObject("_id", name));
+        return cursor == null ? 0L : ((Number) cursor.get(POSITION)).longValue();
+    }
+
+    public void savePosition(String name, long position) {
+        mongoOperations.getCollection(CURSORS_COLLECTION).update(new BasicDBObject("_id", name),
+                new BasicDBObject("$set", new BasicDBObject(POSITION, position).append("lastModifiedDate", new Date())),
+                true, false);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * ChangeEventPublisher, appends the captured change events to the log in
+ * batches. The events wait into a bounded queue, when the log can not keep
+ * up with the writes the queue fills and a writer waits at most the publish
+ * timeout for room. An event that finds no room is dropped, counted and
+ * logged, a save never hangs on the change log. While the dispatcher is not
+ * running the events are queued without waiting, they are logged once it
+ * starts.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ChangeEventPublisher implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+    private final EssenceProperties properties;
+
+    private final ChangeEventLog log;
+
+    private final BlockingQueue<ChangeEvent> queue;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** The events dropped since the last one queued */
+    private final AtomicLong droppedInARow = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread dispatcher;
+
+    @Autowired
+    public ChangeEventPublisher(EssenceProperties properties, ChangeEventLog log) {
+        this.properties = properties;
+        this.log = log;
+        this.queue = new ArrayBlockingQueue<>(properties.getEvents().getQueueCapacity());
+    }
+
+    /**
+     * Queue a change event, waits at most the publish timeout while the queue
+     * is full and drops the event when there is still no room
+     * 
+     * @param event
+     * @return boolean true when the event was queued
+     */
+    public boolean publish(ChangeEvent event) {
+        boolean queued;
+        try {
+            queued = running
+                    ? queue.offer(event, properties.getEvents().getPublishTimeoutMillis(), TimeUnit.MILLISECONDS)
+                    : queue.offer(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (queued) {
+            long droppedBefore = droppedInARow.getAndSet(0);
+            if (droppedBefore > 0) {
+                LOGGER.warn("Change events queued again after dropping {}", droppedBefore);
+            }
+        } else {
+            dropped.incrementAndGet();
+            if (droppedInARow.getAndIncrement() == 0) {
+                LOGGER.warn("The change event queue is full, dropping {} and the events until there is room",
+                        event);
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * The events dropped because the queue was full
+     * 
+     * @return long
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !properties.getEvents().isEnabled()) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::dispatch, "change-event-publisher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(properties.getEvents().getPollMillis() * 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcher = null;
+    }
+
+    private void dispatch() {
+        List<ChangeEvent> batch = new ArrayList<>();
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    fill(batch);
+                }
+                log.append(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // stopping, the queued events are flushed before leaving
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to log {} change events, retrying", batch.size(), e);
+                if (!pause()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for the first event, then for the batch to fill during the
+     * maximum batch wait
+     */
+    private void fill(List<ChangeEvent> batch) throws InterruptedException {
+        int batchSize = properties.getEvents().getBatchSize();
+        if (running) {
+            ChangeEvent first = queue.poll(properties.getEvents().getPollMillis(), TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+        }
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(properties.getEvents().getMaxBatchWaitMillis());
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (!running || remaining <= 0 || batch.size() >= batchSize) {
+                break;
+            }
+            ChangeEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getEvents().getPollMillis());
+            return true;
+        } catch (InterruptedException e) {
+            return running;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import java.util.List;
+
+/**
+ * ChangeEventSink, a consumer of the change events, for instance a search
+ * index or a cache. Every bean implementing this interface gets its own
+ * cursor over the change event log.
+ * 
+ * <p>
+ * The events are delivered in batches and in the order they were logged. A
+ * batch is delivered again, until accept returns normally, so the sinks must
+ * tolerate receiving an event more than once.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public interface ChangeEventSink {
+
+    /**
+     * The name of the sink, it identifies the position of its cursor and
+     * must not change between restarts
+     * 
+     * @return String
+     */
+    String getName();
+
+    /**
+     * Consume a batch of change events
+     * 
+     * @param events
+     *            the events ordered by sequence
+     */
+    void accept(List<ChangeEvent> events);
+}
@@ -0,0 +1,465 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.gc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.codec.ReadLimits;
+import mx.infotec.dads.essence.integrity.ReferenceEntry;
+import mx.infotec.dads.essence.integrity.ReferenceIndex;
+import mx.infotec.dads.essence.persistence.PartialSaveEvent;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.DocumentReference;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * CollectorCycle, the state of one collection of the
+ * {@link ReferenceCollector}: the marked elements, the elements marked but not
+ * scanned yet (grey) and the references known to be dangling. Every step
+ * reads and writes at most a batch of documents.
+ * 
+ * <p>
+ * The references stored while the cycle runs go through the barrier, their
+ * targets are marked by the next step, and the elements modified after the
+ * cycle started are never swept. The barrier is fed by the change events and
+ * may lag behind the writes, so right before a batch is swept the referrers
+ * of its unmarked elements are read from the {@link ReferenceIndex}, kept in
+ * sync with every save. An element referred, directly or through unmarked
+ * elements, by a marked element or by an element modified after the cycle
+ * started is marked instead of swept.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+final class CollectorCycle {
+
+    /** The elements every other element must be reachable from */
+    static final List<KernelEnum> ROOTS = Collections
+            .unmodifiableList(Arrays.asList(KernelEnum.KERNEL, KernelEnum.METHOD, KernelEnum.LIBRARY));
+
+    private static final String LAST_MODIFIED_DATE_FIELD = "lastModifiedDate";
+
+    private static final String VERSION_FIELD = "version";
+
+    /** The reads of the documents published after a repair resolve no reference */
+    private static final ReadLimits ID_ONLY_REFERENCES = new ReadLimits(Collections.emptyMap(), 0);
+
+    private final MongoOperations mongoOperations;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReferenceIndex referenceIndex;
+
+    private final int batchSize;
+
+    private final boolean remove;
+
+    private final Date startedDate;
+
+    private final CollectorReport report;
+
+    private final Map<KernelEnum, Set<String>> marked = new EnumMap<>(KernelEnum.class);
+
+    private final Map<KernelEnum, Set<String>> missing = new EnumMap<>(KernelEnum.class);
+
+    private final Map<KernelEnum, Deque<Object>> grey = new EnumMap<>(KernelEnum.class);
+
+    private final Queue<DBRef> barrier = new ConcurrentLinkedQueue<>();
+
+    CollectorCycle(MongoOperations mongoOperations, ApplicationEventPublisher eventPublisher,
+            ReferenceIndex referenceIndex, int batchSize, CollectorReport report) {
+        this.mongoOperations = mongoOperations;
+        this.eventPublisher = eventPublisher;
+        this.referenceIndex = referenceIndex;
+        this.batchSize = Math.max(1, batchSize);
+        this.remove = report.getMode() == CollectorMode.REMOVE;
+        this.startedDate = Date.from(report.getStartedDate());
+        this.report = report;
+    }
+
+    CollectorReport getReport() {
+        return report;
+    }
+
+    /**
+     * Record the references of a document stored while the cycle runs, any
+     * thread may call it
+     * 
+     * @param document
+     */
+    void barrier(DBObject document) {
+        for (DocumentReference reference : DocumentReference.of(document)) {
+            barrier.add(reference.getTarget());
+        }
+    }
+
+    /**
+     * Mark a batch of roots
+     * 
+     * @param elementType
+     * @param documents
+     *            with their _id
+     */
+    void markRoots(KernelEnum elementType, List<DBObject> documents) {
+        for (DBObject document : documents) {
+            if (mark(elementType, MongoEvents.getId(document))) {
+                grey.computeIfAbsent(elementType, type -> new ArrayDeque<>()).add(document.get(MongoEvents.ID_FIELD));
+            }
+        }
+    }
+
+    /**
+     * Scan a batch of grey elements: mark what they refer to and handle their
+     * dangling references
+     * 
+     * @return boolean false when there was nothing left to mark
+     */
+    boolean markStep() {
+        Step step = new Step();
+        for (DBRef target = barrier.poll(); target != null; target = barrier.poll()) {
+            KernelEnum targetType = KernelEnum.fromCollection(target.getCollectionName());
+            if (targetType != null) {
+                step.check(targetType, target.getId(), null);
+            }
+        }
+        KernelEnum elementType = nextGrey();
+        if (elementType != null) {
+            Deque<Object> ids = grey.get(elementType);
+            List<Object> batch = new ArrayList<>(Math.min(batchSize, ids.size()));
+            while (batch.size() < batchSize && !ids.isEmpty()) {
+                batch.add(ids.poll());
+            }
+            try (DBCursor cursor = collection(elementType)
+                    .find(new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", batch)))) {
+                for (DBObject document : cursor) {
+                    scan(step, elementType, document);
+                }
+            }
+        } else if (step.isEmpty()) {
+            return false;
+        }
+        step.run();
+        if (remove) {
+            step.repair();
+        }
+        return true;
+    }
+
+    /**
+     * Sweep a batch of elements: the unmarked ones that were not modified
+     * since the cycle started are unreachable. Only call it once the marking
+     * is complete.
+     * 
+     * @param elementType
+     * @param documents
+     *            with their _id and lastModifiedDate
+     */
+    void sweep(KernelEnum elementType, List<DBObject> documents) {
+        Map<String, Object> candidates = new LinkedHashMap<>();
+        for (DBObject document : documents) {
+            String id = MongoEvents.getId(document);
+            Object lastModifiedDate = document.get(LAST_MODIFIED_DATE_FIELD);
+            if (isMarked(elementType, id) || isModified(lastModifiedDate)) {
+                continue;
+            }
+            candidates.put(id, document.get(MongoEvents.ID_FIELD));
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        rescue(elementType, candidates);
+        for (Map.Entry<String, Object> candidate : candidates.entrySet()) {
+            report.addUnreachable(elementType, candidate.getKey());
+            if (remove) {
+                // removed through the template, so the delete listeners run
+                mongoOperations.remove(Query.query(Criteria.where(MongoEvents.ID_FIELD).is(candidate.getValue())),
+                        elementType.getType());
+                report.addRemoved();
+            }
+        }
+    }
+
+    /**
+     * Mark the candidates of a sweep that are referred, directly or through
+     * unmarked elements, by a marked element or by an element modified after
+     * the cycle started; they are removed from the candidates
+     */
+    private void rescue(KernelEnum elementType, Map<String, Object> candidates) {
+        Set<String> rescued = new HashSet<>();
+        Map<String, Set<String>> supported = new HashMap<>();
+        Map<KernelEnum, Set<String>> level = new EnumMap<>(KernelEnum.class);
+        level.put(elementType, new HashSet<>(candidates.keySet()));
+        for (String id : candidates.keySet()) {
+            supported.put(elementType.name() + ':' + id, Collections.singleton(id));
+        }
+        while (!level.isEmpty()) {
+            Map<KernelEnum, Set<String>> unmarked = new EnumMap<>(KernelEnum.class);
+            for (Map.Entry<KernelEnum, Set<String>> entry : level.entrySet()) {
+                for (ReferenceEntry reference : referenceIndex.findReferrers(entry.getKey(), entry.getValue())) {
+                    Set<String> targets = supported.get(entry.getKey().name() + ':' + reference.getTargetId());
+                    String source = reference.getSourceType().name() + ':' + reference.getSourceId();
+                    if (isMarked(reference.getSourceType(), reference.getSourceId())) {
+                        rescued.addAll(targets);
+                    } else if (!supported.containsKey(source)) {
+                        supported.put(source, new HashSet<>(targets));
+                        unmarked.computeIfAbsent(reference.getSourceType(), type -> new HashSet<>())
+                                .add(reference.getSourceId());
+                    } else {
+                        supported.get(source).addAll(targets);
+                    }
+                }
+            }
+            // the modified referrers are never swept, the rest are followed
+            // to their own referrers
+            for (Map.Entry<KernelEnum, Set<String>> entry : unmarked.entrySet()) {
+                List<Object> ids = new ArrayList<>();
+                for (String id : entry.getValue()) {
+                    ids.add(MongoEvents.toStoredId(id));
+                }
+                try (DBCursor cursor = collection(entry.getKey()).find(
+                        new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", ids))
+                                .append(LAST_MODIFIED_DATE_FIELD, new BasicDBObject("$gte", startedDate)),
+                        new BasicDBObject(MongoEvents.ID_FIELD, 1))) {
+                    for (DBObject document : cursor) {
+                        String id = MongoEvents.getId(document);
+                        rescued.addAll(supported.get(entry.getKey().name() + ':' + id));
+                        entry.getValue().remove(id);
+                    }
+                }
+            }
+            unmarked.values().removeIf(Set::isEmpty);
+            level = unmarked;
+        }
+        if (rescued.isEmpty()) {
+            return;
+        }
+        Step step = new Step();
+        for (String id : rescued) {
+            Object storedId = candidates.remove(id);
+            if (storedId != null) {
+                step.check(elementType, storedId, null);
+            }
+        }
+        step.run();
+    }
+
+    private boolean isModified(Object lastModifiedDate) {
+        return lastModifiedDate instanceof Date && !((Date) lastModifiedDate).before(startedDate);
+    }
+
+    private void scan(Step step, KernelEnum elementType, DBObject document) {
+        for (DocumentReference reference : DocumentReference.of(document)) {
+            KernelEnum targetType = reference.getTargetType();
+            if (targetType == null || isMarked(targetType, reference.getTargetId())) {
+                continue;
+            }
+            Referrer referrer = new Referrer(elementType, document, reference);
+            if (missing.getOrDefault(targetType, Collections.emptySet()).contains(reference.getTargetId())) {
+                step.dangling(referrer);
+            } else {
+                step.check(targetType, reference.getTarget().getId(), referrer);
+            }
+        }
+    }
+
+    private boolean mark(KernelEnum elementType, String id) {
+        boolean added = marked.computeIfAbsent(elementType, type -> new HashSet<>()).add(id);
+        if (added) {
+            report.addReachable();
+        }
+        return added;
+    }
+
+    private boolean isMarked(KernelEnum elementType, String id) {
+        return marked.getOrDefault(elementType, Collections.emptySet()).contains(id);
+    }
+
+    private KernelEnum nextGrey() {
+        for (Map.Entry<KernelEnum, Deque<Object>> entry : grey.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private DBCollection collection(KernelEnum elementType) {
+        return mongoOperations.getCollection(elementType.getCollection());
+    }
+
+    /**
+     * The targets to look up and the dangling references to handle in a step
+     */
+    private final class Step {
+
+        private final Map<KernelEnum, Map<String, Object>> unchecked = new EnumMap<>(KernelEnum.class);
+
+        private final Map<String, List<Referrer>> referrers = new HashMap<>();
+
+        private final Map<Object, List<Referrer>> repairs = new LinkedHashMap<>();
+
+        boolean isEmpty() {
+            return unchecked.isEmpty();
+        }
+
+        void check(KernelEnum targetType, Object targetId, Referrer referrer) {
+            String id = MongoEvents.idToString(targetId);
+            if (isMarked(targetType, id)) {
+                return;
+            }
+            unchecked.computeIfAbsent(targetType, type -> new LinkedHashMap<>()).put(id, targetId);
+            if (referrer != null) {
+                referrers.computeIfAbsent(targetType.name() + ':' + id, key -> new ArrayList<>()).add(referrer);
+            }
+        }
+
+        void dangling(Referrer referrer) {
+            report.addDangling(referrer.elementType, MongoEvents.getId(referrer.document), referrer.reference);
+            if (remove && referrer.reference.isTopLevel()) {
+                repairs.computeIfAbsent(referrer.document.get(MongoEvents.ID_FIELD), id -> new ArrayList<>())
+                        .add(referrer);
+            }
+        }
+
+        void run() {
+            for (Map.Entry<KernelEnum, Map<String, Object>> entry : unchecked.entrySet()) {
+                KernelEnum targetType = entry.getKey();
+                Set<String> found = new HashSet<>();
+                List<Object> ids = new ArrayList<>(entry.getValue().values());
+                for (int from = 0; from < ids.size(); from += batchSize) {
+                    List<Object> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+                    try (DBCursor cursor = collection(targetType).find(
+                            new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", chunk)),
+                            new BasicDBObject(MongoEvents.ID_FIELD, 1))) {
+                        for (DBObject document : cursor) {
+                            found.add(MongoEvents.getId(document));
+                        }
+                    }
+                }
+                for (Map.Entry<String, Object> target : entry.getValue().entrySet()) {
+                    if (found.contains(target.getKey())) {
+                        if (mark(targetType, target.getKey())) {
+                            grey.computeIfAbsent(targetType, type -> new ArrayDeque<>()).add(target.getValue());
+                        }
+                    } else {
+                        missing.computeIfAbsent(targetType, type -> new HashSet<>()).add(target.getKey());
+                        referrers.getOrDefault(targetType.name() + ':' + target.getKey(),
+                                Collections.emptyList()).forEach(this::dangling);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Remove the repairable dangling references, with one update per
+         * referrer that pulls the array elements and unsets the single
+         * references still holding the dangling target
+         */
+        void repair() {
+            for (List<Referrer> referrersOfDocument : repairs.values()) {
+                Referrer first = referrersOfDocument.get(0);
+                DBObject document = first.document;
+                BasicDBObject query = new BasicDBObject(MongoEvents.ID_FIELD, document.get(MongoEvents.ID_FIELD));
+                Map<String, BasicDBList> pulls = new LinkedHashMap<>();
+                BasicDBObject unsets = new BasicDBObject();
+                Set<String> changedFields = new LinkedHashSet<>();
+                for (Referrer referrer : referrersOfDocument) {
+                    String path = referrer.reference.getPath();
+                    if (referrer.reference.isInArray()) {
+                        pulls.computeIfAbsent(path, key -> new BasicDBList()).add(referrer.reference.getTarget());
+                    } else {
+                        query.append(path, referrer.reference.getTarget());
+                        unsets.append(path, "");
+                    }
+                    changedFields.add(path.split("\\.", 2)[0]);
+                }
+                Date now = new Date();
+                BasicDBObject update = new BasicDBObject("$set", new BasicDBObject(LAST_MODIFIED_DATE_FIELD, now));
+                if (!pulls.isEmpty()) {
+                    update.append("$pullAll", new BasicDBObject(pulls));
+                }
+                if (!unsets.isEmpty()) {
+                    update.append("$unset", unsets);
+                }
+                changedFields.add(LAST_MODIFIED_DATE_FIELD);
+                if (document.get(VERSION_FIELD) instanceof Number) {
+                    update.append("$inc", new BasicDBObject(VERSION_FIELD, 1L));
+                    changedFields.add(VERSION_FIELD);
+                }
+                DBCollection collection = collection(first.elementType);
+                DBObject updated = collection.findAndModify(query, null, null, false, update, true, false);
+                if (updated != null) {
+                    report.addRepaired(referrersOfDocument.size());
+                    Object element = ReadLimits.call(ID_ONLY_REFERENCES,
+                            () -> mongoOperations.getConverter().read(first.elementType.getType(), updated));
+                    eventPublisher.publishEvent(new PartialSaveEvent<Object>(element, updated,
+                            collection.getName(), changedFields));
+                }
+            }
+        }
+    }
+
+    private static final class Referrer {
+
+        private final KernelEnum elementType;
+
+        private final DBObject document;
+
+        private final DocumentReference reference;
+
+        Referrer(KernelEnum elementType, DBObject document, DocumentReference reference) {
+            this.elementType = elementType;
+            this.document = document;
+            this.reference = reference;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.gc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.DocumentReference;
+
+/**
+ * CollectorReport, the outcome of a collection: the unreachable elements and
+ * the dangling references found and what was done with them
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class CollectorReport {
+
+    private final CollectorMode mode;
+
+    private final Instant startedDate;
+
+    private final int sampleSize;
+
+    private long elapsedMillis;
+
+    private long reachable;
+
+    private final Map<KernelEnum, Long> unreachable = new EnumMap<>(KernelEnum.class);
+
+    private final Map<KernelEnum, List<String>> unreachableSample = new EnumMap<>(KernelEnum.class);
+
+    private long removed;
+
+    private long danglingReferences;
+
+    private final List<String> danglingSample = new ArrayList<>();
+
+    private long repairedReferences;
+
+    CollectorReport(CollectorMode mode, Instant startedDate, int sampleSize) {
+        this.mode = mode;
+        this.startedDate = startedDate;
+        this.sampleSize = sampleSize;
+    }
+
+    void addReachable() {
+        reachable++;
+    }
+
+    void addUnreachable(KernelEnum elementType, String id) {
+        unreachable.merge(elementType, 1L, Long::sum);
+        List<String> sample = unreachableSample.computeIfAbsent(elementType, type -> new ArrayList<>());
+        if (sample.size() < sampleSize) {
+            sample.add(id);
+        }
+    }
+
+    void addRemoved() {
+        removed++;
+    }
+
+    void addDangling(KernelEnum elementType, String id, DocumentReference reference) {
+        danglingReferences++;
+        if (danglingSample.size() < sampleSize) {
+            danglingSample.add(elementType.getBaseCollection() + '/' + id + '.' + reference);
+        }
+    }
+
+    void addRepaired(int references) {
+        repairedReferences += references;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public CollectorMode getMode() {
+        return mode;
+    }
+
+    public Instant getStartedDate() {
+        return startedDate;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * The number of elements reachable from the kernels, methods and
+     * libraries
+     * 
+     * @return long
+     */
+    public long getReachable() {
+        return reachable;
+    }
+
+    public Map<KernelEnum, Long> getUnreachable() {
+        return Collections.unmodifiableMap(unreachable);
+    }
+
+    public Map<KernelEnum, List<String>> getUnreachableSample() {
+        return Collections.unmodifiableMap(unreachableSample);
+    }
+
+    public long getRemoved() {
+        return removed;
+    }
+
+    public long getDanglingReferences() {
+        return danglingReferences;
+    }
+
+    /**
+     * A sample of the dangling references, as collection/id.field -&gt;
+     * collection/id
+     * 
+     * @return List<String>
+     */
+    public List<String> getDanglingSample() {
+        return Collections.unmodifiableList(danglingSample);
+    }
+
+    /**
+     * The dangling references removed, the ones inside embedded documents are
+     * only reported
+     * 
+     * @return long
+     */
+    public long getRepairedReferences() {
+        return repairedReferences;
+    }
+
+    @Override
+    public String toString() {
+        return "CollectorReport [mode=" + mode + ", reachable=" + reachable + ", unreachable=" + unreachable
+                + ", removed=" + removed + ", danglingReferences=" + danglingReferences + ", repairedReferences="
+                + repairedReferences + ", elapsedMillis=" + elapsedMillis + "]";
+    }
+}
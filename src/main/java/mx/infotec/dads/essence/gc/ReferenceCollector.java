@@ -0,0 +1,212 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.gc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventSink;
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.integrity.ReferenceIndex;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ReferenceCollector, an incremental mark and sweep collector of the elements
+ * of the current tenant. It marks every element reachable through the
+ * references of the kernels, methods and libraries, then reports or removes
+ * the unreachable elements and the references to elements that no longer
+ * exist.
+ * 
+ * <p>
+ * The work is done in steps of a bounded batch of documents with a pause
+ * between them, so a collection can run on a live cluster. The elements
+ * stored meanwhile are followed through the change events: the targets of
+ * their references are marked, and an element modified after the collection
+ * started is never swept. Before a batch is swept the referrers of its
+ * elements are checked again through the reference index, which does not
+ * lag behind the writes like the change events. Removing elements requires
+ * the change events to be enabled.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ReferenceCollector implements ChangeEventSink, ApplicationEventPublisherAware {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceCollector.class);
+
+    private static final String SHARED = "";
+
+    private static final DBObject SWEEP_FIELDS = new BasicDBObject(MongoEvents.ID_FIELD, 1)
+            .append("lastModifiedDate", 1);
+
+    private final MongoOperations mongoOperations;
+
+    private final EssenceProperties.Collector properties;
+
+    private final EssenceProperties.Events events;
+
+    private final ReferenceIndex referenceIndex;
+
+    private final Map<String, CollectorCycle> cycles = new ConcurrentHashMap<>();
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public ReferenceCollector(MongoOperations mongoOperations, EssenceProperties properties,
+            ReferenceIndex referenceIndex) {
+        this.mongoOperations = mongoOperations;
+        this.properties = properties.getCollector();
+        this.events = properties.getEvents();
+        this.referenceIndex = referenceIndex;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return "collector";
+    }
+
+    /**
+     * The references stored while a collection runs are marked
+     */
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        if (cycles.isEmpty()) {
+            return;
+        }
+        for (ChangeEvent event : events) {
+            String tenant = TenantContext.tenantOf(event.getCollection());
+            CollectorCycle cycle = cycles.get(tenant == null ? SHARED : tenant);
+            if (cycle != null && event.getChangeType() != ChangeType.DELETED && event.getDocument() != null) {
+                cycle.barrier(event.getDocument());
+            }
+        }
+    }
+
+    /**
+     * Run a whole collection, in steps
+     * 
+     * @param mode
+     * @return CollectorReport
+     */
+    public CollectorReport collect(CollectorMode mode) {
+        if (mode == CollectorMode.REMOVE && !events.isEnabled()) {
+            throw new EssenceCoreException(
+                    "Removing unreachable elements requires the change events, essence.events.enabled is false");
+        }
+        String tenant = TenantContext.get();
+        String key = tenant == null ? SHARED : tenant;
+        CollectorCycle cycle = new CollectorCycle(mongoOperations, eventPublisher, referenceIndex, properties.getBatchSize(),
+                new CollectorReport(mode, Instant.now(), properties.getSampleSize()));
+        if (cycles.putIfAbsent(key, cycle) != null) {
+            throw new EssenceCoreException("A collection is already running for the tenant " + tenant);
+        }
+        try {
+            long start = System.currentTimeMillis();
+            for (KernelEnum root : CollectorCycle.ROOTS) {
+                scan(root, new BasicDBObject(MongoEvents.ID_FIELD, 1), batch -> cycle.markRoots(root, batch));
+            }
+            finishMarking(cycle);
+            for (KernelEnum elementType : KernelEnum.values()) {
+                if (CollectorCycle.ROOTS.contains(elementType)) {
+                    continue;
+                }
+                scan(elementType, SWEEP_FIELDS, batch -> {
+                    // the references stored since the last step are marked
+                    // before the batch is swept
+                    finishMarking(cycle);
+                    cycle.sweep(elementType, batch);
+                });
+            }
+            CollectorReport report = cycle.getReport();
+            report.setElapsedMillis(System.currentTimeMillis() - start);
+            LOGGER.info("Collection of tenant {} done: {}", tenant, report);
+            return report;
+        } finally {
+            cycles.remove(key);
+        }
+    }
+
+    private void finishMarking(CollectorCycle cycle) {
+        while (cycle.markStep()) {
+            pause();
+        }
+    }
+
+    private void scan(KernelEnum elementType, DBObject fields, Consumer<List<DBObject>> step) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        try (DBCursor cursor = mongoOperations.getCollection(elementType.getCollection())
+                .find(new BasicDBObject(), fields).batchSize(batchSize)) {
+            List<DBObject> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == batchSize) {
+                    step.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                    pause();
+                }
+            }
+            if (!batch.isEmpty()) {
+                step.accept(batch);
+            }
+        }
+    }
+
+    private void pause() {
+        if (properties.getPauseMillis() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getPauseMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EssenceCoreException("The collection was interrupted", e);
+        }
+    }
+}
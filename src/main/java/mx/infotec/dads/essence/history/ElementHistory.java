@@ -0,0 +1,151 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.history;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * ElementHistory, time-travel reads over the revisions of the language
+ * elements. An element at a given time is rebuilt from the last snapshot
+ * before that time plus the diffs that follow it.
+ * 
+ * <p>
+ * The references of a rebuilt element are resolved against the current
+ * state of the referred elements.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ElementHistory implements InitializingBean {
+
+    public static final String REVISIONS_COLLECTION = "elementrevisions";
+
+    private static final DBObject SUMMARY_FIELDS = new BasicDBObject(ElementRevision.SNAPSHOT, 0)
+            .append(ElementRevision.DIFF, 0);
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Override
+    public void afterPropertiesSet() {
+        mongoOperations.indexOps(REVISIONS_COLLECTION).ensureIndex(new Index()
+                .on(ElementRevision.ELEMENT_ID, Direction.ASC).on(ElementRevision.REVISION, Direction.DESC)
+                .named("element_revisions"));
+    }
+
+    /**
+     * List the revisions of an element, newest first, without their content
+     * 
+     * @param elementId
+     * @param beforeRevision
+     *            only the revisions older than this one, null for the newest
+     * @param limit
+     * @return List<ElementRevision>
+     */
+    public List<ElementRevision> getRevisions(String elementId, Long beforeRevision, int limit) {
+        BasicDBObject query = new BasicDBObject(ElementRevision.ELEMENT_ID, elementId);
+        if (beforeRevision != null) {
+            query.append(ElementRevision.REVISION, new BasicDBObject("$lt", beforeRevision));
+        }
+        List<ElementRevision> revisions = new ArrayList<>();
+        try (DBCursor cursor = revisions().find(query, SUMMARY_FIELDS)
+                .sort(new BasicDBObject(ElementRevision.REVISION, -1)).limit(limit)) {
+            while (cursor.hasNext()) {
+                revisions.add(ElementRevision.fromDBObject(cursor.next()));
+            }
+        }
+        return revisions;
+    }
+
+    /**
+     * The stored document of an element at a given time
+     * 
+     * @param elementId
+     * @param at
+     * @return DBObject or null if the element did not exist at that time
+     */
+    public DBObject findDocumentAt(String elementId, Date at) {
+        BasicDBObject beforeTime = new BasicDBObject(ElementRevision.ELEMENT_ID, elementId)
+                .append(ElementRevision.TIMESTAMP, new BasicDBObject("$lte", at));
+        BasicDBObject lastSnapshot = new BasicDBObject(beforeTime).append(ElementRevision.SNAPSHOT,
+                new BasicDBObject("$exists", true));
+        DBObject snapshot = revisions().findOne(lastSnapshot, null,
+                new BasicDBObject(ElementRevision.REVISION, -1));
+        if (snapshot == null) {
+            return null;
+        }
+        ElementRevision base = ElementRevision.fromDBObject(snapshot);
+        DBObject document = base.getSnapshot();
+        beforeTime.append(ElementRevision.REVISION, new BasicDBObject("$gt", base.getRevision()));
+        try (DBCursor cursor = revisions().find(beforeTime).sort(new BasicDBObject(ElementRevision.REVISION, 1))) {
+            while (cursor.hasNext()) {
+                ElementRevision revision = ElementRevision.fromDBObject(cursor.next());
+                if (revision.getChangeType() == ChangeType.DELETED) {
+                    document = null;
+                } else if (revision.isSnapshot()) {
+                    document = revision.getSnapshot();
+                } else if (document != null) {
+                    document = revision.getDiff().applyTo(document);
+                }
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Rebuild an element as it was at a given time
+     * 
+     * @param type
+     * @param elementId
+     * @param at
+     * @return T or null if the element did not exist at that time
+     */
+    public <T extends SELanguageElement> T findAt(Class<T> type, String elementId, Date at) {
+        DBObject document = findDocumentAt(elementId, at);
+        return document == null ? null : mongoOperations.getConverter().read(type, document);
+    }
+
+    private DBCollection revisions() {
+        return mongoOperations.getCollection(REVISIONS_COLLECTION);
+    }
+}
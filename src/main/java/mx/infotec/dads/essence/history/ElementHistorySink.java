@@ -0,0 +1,205 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.history;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventSink;
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.persistence.ElementDiff;
+
+/**
+ * ElementHistorySink, writes the revisions of the elements from the change
+ * event stream. The history is built off the save path, in batches: the
+ * heads of the elements of a batch are read at once, the revisions are
+ * appended with a single bulk insert and the heads are updated with a single
+ * bulk write.
+ * 
+ * <p>
+ * The head of an element keeps its last document, so every revision is a
+ * diff with the previous one. A full snapshot is stored on creation and
+ * every snapshot interval, so a reconstruction never applies more diffs than
+ * the interval.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+@ConditionalOnProperty(prefix = "essence.history", name = "enabled", matchIfMissing = true)
+public class ElementHistorySink implements ChangeEventSink {
+
+    public static final String HEADS_COLLECTION = "revisionheads";
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Override
+    public String getName() {
+        return "element-history";
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        Map<String, Head> heads = findHeads(events);
+        Set<String> modified = new LinkedHashSet<>();
+        List<ElementRevision> revisions = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            Head head = heads.computeIfAbsent(event.getElementId(), Head::new);
+            if (event.getSequence() <= head.sequence) {
+                continue;
+            }
+            revisions.add(nextRevision(head, event));
+            modified.add(event.getElementId());
+        }
+        if (revisions.isEmpty()) {
+            return;
+        }
+        insert(revisions);
+        BulkWriteOperation bulk = mongoOperations.getCollection(HEADS_COLLECTION).initializeUnorderedBulkOperation();
+        for (String elementId : modified) {
+            bulk.find(new BasicDBObject("_id", elementId)).upsert().replaceOne(heads.get(elementId).toDBObject());
+        }
+        bulk.execute();
+    }
+
+    private ElementRevision nextRevision(Head head, ChangeEvent event) {
+        Date timestamp = event.getLastModifiedDate() == null ? event.getLoggedDate() : event.getLastModifiedDate();
+        if (head.timestamp != null && head.timestamp.after(timestamp)) {
+            timestamp = head.timestamp;
+        }
+        ElementRevision revision = new ElementRevision(event.getElementId(), event.getElementType(),
+                head.revision + 1, event.getChangeType(), timestamp, event.getSequence(), event.getChangedFields());
+        if (event.getChangeType() != ChangeType.DELETED) {
+            if (head.document == null
+                    || revision.getRevision() - head.snapshotRevision >= properties.getHistory().getSnapshotInterval()) {
+                revision.setSnapshot(event.getDocument());
+                head.snapshotRevision = revision.getRevision();
+            } else {
+                revision.setDiff(ElementDiff.between(head.document, event.getDocument()));
+            }
+        }
+        head.revision = revision.getRevision();
+        head.sequence = event.getSequence();
+        head.timestamp = timestamp;
+        head.document = event.getDocument();
+        return revision;
+    }
+
+    private Map<String, Head> findHeads(List<ChangeEvent> events) {
+        Set<String> ids = new LinkedHashSet<>();
+        events.forEach(event -> ids.add(event.getElementId()));
+        Map<String, Head> heads = new HashMap<>();
+        try (DBCursor cursor = mongoOperations.getCollection(HEADS_COLLECTION)
+                .find(new BasicDBObject("_id", new BasicDBObject("$in", ids)))) {
+            while (cursor.hasNext()) {
+                DBObject dbo = cursor.next();
+                heads.put((String) dbo.get("_id"), Head.fromDBObject(dbo));
+            }
+        }
+        return heads;
+    }
+
+    /**
+     * Append the revisions, a batch delivered again after a failure can find
+     * some of its revisions already stored
+     */
+    private void insert(List<ElementRevision> revisions) {
+        BulkWriteOperation bulk = mongoOperations.getCollection(ElementHistory.REVISIONS_COLLECTION)
+                .initializeUnorderedBulkOperation();
+        revisions.forEach(revision -> bulk.insert(revision.toDBObject()));
+        try {
+            bulk.execute();
+        } catch (BulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * The last known state of an element
+     */
+    private static class Head {
+
+        private final String elementId;
+
+        private long revision;
+
+        private long snapshotRevision;
+
+        private long sequence;
+
+        private Date timestamp;
+
+        private DBObject document;
+
+        Head(String elementId) {
+            this.elementId = elementId;
+        }
+
+        DBObject toDBObject() {
+            return new BasicDBObject("_id", elementId).append("revision", revision)
+                    .append("snapshotRevision", snapshotRevision).append("sequence", sequence)
+                    .append("timestamp", timestamp).append("document", document);
+        }
+
+        static Head fromDBObject(DBObject dbo) {
+            Head head = new Head((String) dbo.get("_id"));
+            head.revision = ((Number) dbo.get("revision")).longValue();
+            head.snapshotRevision = ((Number) dbo.get("snapshotRevision")).longValue();
+            head.sequence = ((Number) dbo.get("sequence")).longValue();
+            head.timestamp = (Date) dbo.get("timestamp");
+            head.document = (DBObject) dbo.get("document");
+            return head;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.history;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.persistence.ElementDiff;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ElementRevision, a single change of a language element. A revision keeps
+ * either the full document (a snapshot) or the diff with the previous
+ * revision, deletions keep neither.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ElementRevision {
+
+    static final String ELEMENT_ID = "elementId";
+
+    static final String REVISION = "revision";
+
+    static final String TIMESTAMP = "timestamp";
+
+    static final String SNAPSHOT = "snapshot";
+
+    static final String DIFF = "diff";
+
+    private String elementId;
+
+    private KernelEnum elementType;
+
+    private long revision;
+
+    private ChangeType changeType;
+
+    private Date timestamp;
+
+    private long sequence;
+
+    private Set<String> changedFields;
+
+    private DBObject snapshot;
+
+    private ElementDiff diff;
+
+    ElementRevision(String elementId, KernelEnum elementType, long revision, ChangeType changeType, Date timestamp,
+            long sequence, Set<String> changedFields) {
+        this.elementId = elementId;
+        this.elementType = elementType;
+        this.revision = revision;
+        this.changeType = changeType;
+        this.timestamp = timestamp;
+        this.sequence = sequence;
+        this.changedFields = changedFields;
+    }
+
+    private ElementRevision() {
+
+    }
+
+    public String getElementId() {
+        return elementId;
+    }
+
+    public KernelEnum getElementType() {
+        return elementType;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The sequence of the change event that produced the revision
+     * 
+     * @return long
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Set<String> getChangedFields() {
+        return changedFields;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot != null;
+    }
+
+    DBObject getSnapshot() {
+        return snapshot;
+    }
+
+    void setSnapshot(DBObject snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    ElementDiff getDiff() {
+        return diff;
+    }
+
+    void setDiff(ElementDiff diff) {
+        this.diff = diff;
+    }
+
+    static String idOf(String elementId, long revision) {
+        return elementId + ":" + revision;
+    }
+
+    DBObject toDBObject() {
+        BasicDBList fields = new BasicDBList();
+        fields.addAll(changedFields);
+        BasicDBObject dbo = new BasicDBObject("_id", idOf(elementId, revision)).append(ELEMENT_ID, elementId)
+                .append("elementType", elementType.name()).append(REVISION, revision)
+                .append("changeType", changeType.name()).append(TIMESTAMP, timestamp).append("sequence", sequence)
+                .append("changedFields", fields);
+        if (snapshot != null) {
+            dbo.append(SNAPSHOT, snapshot);
+        } else if (diff != null) {
+            dbo.append(DIFF, diff.toDBObject());
+        }
+        return dbo;
+    }
+
+    @SuppressWarnings("unchecked")
+    static ElementRevision fromDBObject(DBObject dbo) {
+        ElementRevision revision = new ElementRevision();
+        revision.elementId = (String) dbo.get(ELEMENT_ID);
+        revision.elementType = KernelEnum.valueOf((String) dbo.get("elementType"));
+        revision.revision = ((Number) dbo.get(REVISION)).longValue();
+        revision.changeType = ChangeType.valueOf((String) dbo.get("changeType"));
+        revision.timestamp = (Date) dbo.get(TIMESTAMP);
+        revision.sequence = ((Number) dbo.get("sequence")).longValue();
+        Object fields = dbo.get("changedFields");
+        revision.changedFields = fields == null ? Collections.emptySet()
+                : Collections.unmodifiableSet(new LinkedHashSet<>((Collection<String>) fields));
+        revision.snapshot = (DBObject) dbo.get(SNAPSHOT);
+        DBObject diff = (DBObject) dbo.get(DIFF);
+        revision.diff = diff == null ? null : ElementDiff.fromDBObject(diff);
+        return revision;
+    }
+
+    @Override
+    public String toString() {
+        return "ElementRevision [elementId=" + elementId + ", revision=" + revision + ", changeType=" + changeType
+                + ", timestamp=" + timestamp + "]";
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBObject;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * IndexAdvisor, a command listener of the mongodb driver that records the
+ * shape of the queries sent by the application with their executions and
+ * time. The report compares the recorded shapes with the existing indexes
+ * and suggests an index for the shapes none of them can serve.
+ * 
+ * <p>
+ * The MongoOperations are looked up when a report is requested, the mongodb
+ * client is created with this listener.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class IndexAdvisor implements CommandListener {
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private ObjectProvider<MongoOperations> mongoOperations;
+
+    private final Map<QueryShape, ShapeStatistics> shapes = new ConcurrentHashMap<>();
+
+    private final Map<Integer, QueryShape> running = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!properties.getIndexes().isAdvisor()) {
+            return;
+        }
+        QueryShape shape = QueryShape.of(event.getCommandName(), event.getCommand());
+        if (shape != null && (shapes.containsKey(shape)
+                || shapes.size() < properties.getIndexes().getMaxShapes())) {
+            running.put(event.getRequestId(), shape);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        QueryShape shape = running.remove(event.getRequestId());
+        if (shape != null) {
+            shapes.computeIfAbsent(shape, key -> new ShapeStatistics())
+                    .record(event.getElapsedTime(TimeUnit.MICROSECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        running.remove(event.getRequestId());
+    }
+
+    /**
+     * The recorded shapes that no index can serve, the most expensive first.
+     * An index serves a shape when its first key is one of the filtered or
+     * sorted fields.
+     * 
+     * @return List<IndexAdvice>
+     */
+    public List<IndexAdvice> getMissingIndexes() {
+        Map<String, List<String>> firstKeys = new HashMap<>();
+        List<IndexAdvice> advices = new ArrayList<>();
+        for (Map.Entry<QueryShape, ShapeStatistics> entry : shapes.entrySet()) {
+            QueryShape shape = entry.getKey();
+            List<String> indexed = firstKeys.computeIfAbsent(shape.getCollection(), this::findFirstKeys);
+            boolean served = indexed.stream().anyMatch(key -> shape.getEquality().contains(key)
+                    || shape.getRange().contains(key) || shape.getSort().contains(key));
+            if (!served) {
+                ShapeStatistics statistics = entry.getValue();
+                advices.add(new IndexAdvice(shape, statistics.executions.sum(), statistics.getAverageMillis()));
+            }
+        }
+        advices.sort(Comparator.comparingDouble(
+                (IndexAdvice advice) -> advice.getExecutions() * advice.getAverageMillis()).reversed());
+        return advices;
+    }
+
+    /**
+     * Forget the recorded shapes
+     */
+    public void reset() {
+        shapes.clear();
+    }
+
+    private List<String> findFirstKeys(String collection) {
+        List<String> keys = new ArrayList<>();
+        for (DBObject index : mongoOperations.getObject().getCollection(collection).getIndexInfo()) {
+            DBObject key = (DBObject) index.get("key");
+            if (key != null && !key.keySet().isEmpty()) {
+                keys.add(key.keySet().iterator().next());
+            }
+        }
+        return keys;
+    }
+
+    private static class ShapeStatistics {
+
+        private final LongAdder executions = new LongAdder();
+
+        private final LongAdder micros = new LongAdder();
+
+        void record(long elapsedMicros) {
+            executions.increment();
+            micros.add(elapsedMicros);
+        }
+
+        double getAverageMillis() {
+            long count = executions.sum();
+            return count == 0 ? 0 : micros.sum() / 1000.0 / count;
+        }
+    }
+}
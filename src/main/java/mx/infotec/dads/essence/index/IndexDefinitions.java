@@ -0,0 +1,150 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.util.JSON;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * IndexDefinitions, the indexes required by the queries of the repositories.
+ * Every element type gets an index on its owner and on its name when it has
+ * one, plus the references used to navigate the model: the alpha of the
+ * states, the state and level of the checkpoints, and so on.
+ * 
+ * <p>
+ * The @CompoundIndex declared on the interfaces of an element, like
+ * KeyWordsIndexable, are included too. The mapping context only reads them
+ * from the document class, so they were never applied.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class IndexDefinitions {
+
+    private static final Map<KernelEnum, List<DBObject>> DEFINITIONS = new EnumMap<>(KernelEnum.class);
+
+    static {
+        for (KernelEnum elementType : KernelEnum.values()) {
+            List<DBObject> keys = new ArrayList<>();
+            addIfPresent(keys, elementType, "owner");
+            addIfPresent(keys, elementType, "name");
+            keys.addAll(fromInterfaces(elementType.getType()));
+            DEFINITIONS.put(elementType, keys);
+        }
+        add(KernelEnum.STATE, "alpha");
+        add(KernelEnum.LEVELOFDETAIL, "workProduct");
+        add(KernelEnum.CHECKPOINT, "state");
+        add(KernelEnum.CHECKPOINT, "level");
+        add(KernelEnum.COMPETENCYLEVEL, "competency");
+        add(KernelEnum.ACTION, "activity");
+        add(KernelEnum.ALPHACONTAINMENT, "superAlpha");
+        add(KernelEnum.ALPHACONTAINMENT, "subordinateAlpha");
+        add(KernelEnum.ALPHAASSOCIATION, "end1");
+        add(KernelEnum.ALPHAASSOCIATION, "end2");
+        add(KernelEnum.WORKPRODUCTMANIFEST, "alpha");
+        add(KernelEnum.WORKPRODUCTMANIFEST, "workProduct");
+        add(KernelEnum.PATTERNASSOCIATION, "pattern");
+        add(KernelEnum.MERGERESOLUTION, "elementGroup");
+        add(KernelEnum.EXTENSIONELEMENT, "elementGroup");
+        add(KernelEnum.EXTENSIONELEMENT, "targetElement");
+        add(KernelEnum.ENDEAVORPROPERTY, "languageElement");
+        add(KernelEnum.FEATURESELECTION, "construct");
+        add(KernelEnum.TYPEDPATTERN, "kind");
+        add(KernelEnum.TYPEDRESOURCE, "kind");
+        add(KernelEnum.TYPEDTAG, "kind");
+    }
+
+    private IndexDefinitions() {
+
+    }
+
+    /**
+     * The index keys of an element type
+     * 
+     * @param elementType
+     * @return List<DBObject> the keys of each index
+     */
+    public static List<DBObject> of(KernelEnum elementType) {
+        return Collections.unmodifiableList(DEFINITIONS.get(elementType));
+    }
+
+    /**
+     * All the index keys by collection
+     * 
+     * @return Map<String, List<DBObject>>
+     */
+    public static Map<String, List<DBObject>> byCollection() {
+        Map<String, List<DBObject>> indexes = new LinkedHashMap<>();
+        for (Map.Entry<KernelEnum, List<DBObject>> entry : DEFINITIONS.entrySet()) {
+            indexes.put(entry.getKey().getCollection(), Collections.unmodifiableList(entry.getValue()));
+        }
+        return indexes;
+    }
+
+    private static void add(KernelEnum elementType, String field) {
+        DEFINITIONS.get(elementType).add(new BasicDBObject(field, 1));
+    }
+
+    private static void addIfPresent(List<DBObject> keys, KernelEnum elementType, String field) {
+        if (ReflectionUtils.findField(elementType.getType(), field) != null) {
+            keys.add(new BasicDBObject(field, 1));
+        }
+    }
+
+    private static List<DBObject> fromInterfaces(Class<?> type) {
+        List<DBObject> keys = new ArrayList<>();
+        for (Class<?> contract : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            List<CompoundIndex> declared = new ArrayList<>();
+            CompoundIndex index = AnnotationUtils.findAnnotation(contract, CompoundIndex.class);
+            if (index != null) {
+                declared.add(index);
+            }
+            CompoundIndexes indexes = AnnotationUtils.findAnnotation(contract, CompoundIndexes.class);
+            if (indexes != null) {
+                Collections.addAll(declared, indexes.value());
+            }
+            for (CompoundIndex compoundIndex : declared) {
+                keys.add((DBObject) JSON.parse(compoundIndex.def()));
+            }
+        }
+        return keys;
+    }
+}
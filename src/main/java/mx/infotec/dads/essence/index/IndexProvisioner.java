@@ -0,0 +1,131 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.index;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.tenant.TenantContext;
+
+/**
+ * IndexProvisioner, creates the {@link IndexDefinitions} once the application
+ * is ready. The indexes are built with the background option from a separate
+ * thread, so neither the startup nor the reads and writes of the collections
+ * wait for them. An index that already exists is left as it is.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class IndexProvisioner implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexProvisioner.class);
+
+    private static final DBObject OPTIONS = new BasicDBObject("background", true);
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private EssenceProperties properties;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile boolean complete;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!properties.getIndexes().isProvision()) {
+            return;
+        }
+        start(new Thread(this::provision, "index-provisioner"));
+    }
+
+    /**
+     * Create the indexes of the collections of a tenant in the background
+     * 
+     * @param tenant
+     */
+    public void provisionInBackground(String tenant) {
+        start(new Thread(() -> TenantContext.run(tenant, this::provision), "index-provisioner-" + tenant));
+    }
+
+    private static void start(Thread thread) {
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Create all the declared indexes in the collections of the current
+     * tenant, one at a time
+     */
+    public void provision() {
+        Map<String, List<DBObject>> indexes = IndexDefinitions.byCollection();
+        indexes.values().forEach(keys -> pending.addAndGet(keys.size()));
+        int failed = 0;
+        for (Map.Entry<String, List<DBObject>> entry : indexes.entrySet()) {
+            DBCollection collection = mongoOperations.getCollection(entry.getKey());
+            for (DBObject keys : entry.getValue()) {
+                try {
+                    collection.createIndex(keys, OPTIONS);
+                } catch (MongoException e) {
+                    failed++;
+                    LOGGER.warn("Index {} on {} not created", keys, entry.getKey(), e);
+                }
+                pending.decrementAndGet();
+            }
+        }
+        complete = true;
+        LOGGER.info("Index provisioning finished, {} indexes failed", failed);
+    }
+
+    /**
+     * The indexes not created yet
+     * 
+     * @return int
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+}
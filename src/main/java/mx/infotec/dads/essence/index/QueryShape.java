@@ -0,0 +1,218 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * QueryShape, the fields a query filters and sorts by, without their values.
+ * The filtered fields are split into equality fields (a value, a DBRef or an
+ * $in) and range fields (any other operator), the order an index should
+ * follow.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class QueryShape {
+
+    private final String collection;
+
+    private final List<String> equality;
+
+    private final List<String> sort;
+
+    private final List<String> range;
+
+    QueryShape(String collection, Set<String> equality, Set<String> sort, Set<String> range) {
+        this.collection = collection;
+        this.equality = Collections.unmodifiableList(new ArrayList<>(equality));
+        this.sort = Collections.unmodifiableList(new ArrayList<>(sort));
+        this.range = Collections.unmodifiableList(new ArrayList<>(range));
+    }
+
+    /**
+     * The shape of a query command
+     * 
+     * @param commandName
+     * @param command
+     * @return QueryShape or null if the command is not a query on a
+     *         collection or it only filters by _id
+     */
+    static QueryShape of(String commandName, BsonDocument command) {
+        BsonDocument filter;
+        BsonDocument sortBy = null;
+        switch (commandName) {
+        case "find":
+            filter = getDocument(command, "filter");
+            sortBy = getDocument(command, "sort");
+            break;
+        case "count":
+            filter = getDocument(command, "query");
+            break;
+        case "findAndModify":
+        case "findandmodify":
+            filter = getDocument(command, "query");
+            sortBy = getDocument(command, "sort");
+            break;
+        case "update":
+            filter = getFirstStatement(command, "updates");
+            break;
+        case "delete":
+            filter = getFirstStatement(command, "deletes");
+            break;
+        default:
+            return null;
+        }
+        BsonValue collection = command.get(commandName);
+        if (collection == null || !collection.isString()) {
+            return null;
+        }
+        Set<String> equality = new LinkedHashSet<>();
+        Set<String> range = new LinkedHashSet<>();
+        addFields(filter, equality, range);
+        Set<String> sort = sortBy == null ? Collections.emptySet() : new LinkedHashSet<>(sortBy.keySet());
+        range.removeAll(equality);
+        if ((equality.isEmpty() && range.isEmpty() && sort.isEmpty()) || isIdOnly(equality, range)) {
+            return null;
+        }
+        return new QueryShape(collection.asString().getValue(), equality, sort, range);
+    }
+
+    private static boolean isIdOnly(Set<String> equality, Set<String> range) {
+        return range.isEmpty() && equality.size() == 1 && equality.contains("_id")
+                || equality.isEmpty() && range.size() == 1 && range.contains("_id");
+    }
+
+    private static void addFields(BsonDocument filter, Set<String> equality, Set<String> range) {
+        if (filter == null) {
+            return;
+        }
+        for (String field : filter.keySet()) {
+            BsonValue value = filter.get(field);
+            if ("$and".equals(field) && value.isArray()) {
+                for (BsonValue clause : value.asArray()) {
+                    if (clause.isDocument()) {
+                        addFields(clause.asDocument(), equality, range);
+                    }
+                }
+            } else if (field.startsWith("$")) {
+                continue;
+            } else if (isEquality(value)) {
+                equality.add(field);
+            } else {
+                range.add(field);
+            }
+        }
+    }
+
+    private static boolean isEquality(BsonValue value) {
+        if (!value.isDocument() || value.asDocument().isEmpty()) {
+            return true;
+        }
+        BsonDocument operators = value.asDocument();
+        String first = operators.keySet().iterator().next();
+        return !first.startsWith("$") || "$ref".equals(first) || "$eq".equals(first)
+                || "$in".equals(first) && operators.size() == 1;
+    }
+
+    private static BsonDocument getDocument(BsonDocument command, String key) {
+        BsonValue value = command.get(key);
+        return value != null && value.isDocument() ? value.asDocument() : null;
+    }
+
+    private static BsonDocument getFirstStatement(BsonDocument command, String key) {
+        BsonValue statements = command.get(key);
+        if (statements == null || !statements.isArray() || ((BsonArray) statements).isEmpty()) {
+            return null;
+        }
+        BsonValue first = statements.asArray().get(0);
+        return first.isDocument() ? getDocument(first.asDocument(), "q") : null;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public List<String> getEquality() {
+        return equality;
+    }
+
+    public List<String> getSort() {
+        return sort;
+    }
+
+    public List<String> getRange() {
+        return range;
+    }
+
+    /**
+     * The keys of the index that serves the shape: the equality fields, then
+     * the sort fields and then the range fields
+     * 
+     * @return DBObject
+     */
+    public DBObject getSuggestedIndex() {
+        BasicDBObject keys = new BasicDBObject();
+        equality.forEach(field -> keys.put(field, 1));
+        sort.stream().filter(field -> !keys.containsField(field)).forEach(field -> keys.put(field, 1));
+        range.stream().filter(field -> !keys.containsField(field)).forEach(field -> keys.put(field, 1));
+        return keys;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof QueryShape)) {
+            return false;
+        }
+        QueryShape other = (QueryShape) obj;
+        return collection.equals(other.collection) && equality.equals(other.equality) && sort.equals(other.sort)
+                && range.equals(other.range);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collection, equality, sort, range);
+    }
+
+    @Override
+    public String toString() {
+        return collection + " " + getSuggestedIndex();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.integrity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ReferenceEntry, a reference from a field of an element to another element,
+ * as stored in the reverse reference index. The target index answers who
+ * refers an element, the source index is used to update the entries of an
+ * element when it is saved.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Document(collection = "references")
+@CompoundIndexes({
+        @CompoundIndex(name = "target", def = "{'targetId': 1, 'targetType': 1, 'sourceType': 1}"),
+        @CompoundIndex(name = "source", def = "{'sourceId': 1, 'sourceType': 1}") })
+public class ReferenceEntry {
+
+    /** Derived from the other fields, a reference is indexed once */
+    @Id
+    private String id;
+
+    private KernelEnum sourceType;
+
+    private String sourceId;
+
+    /** The dotted path of the field of the source, without array indexes */
+    private String field;
+
+    private KernelEnum targetType;
+
+    private String targetId;
+
+    public ReferenceEntry() {
+
+    }
+
+    public ReferenceEntry(KernelEnum sourceType, String sourceId, String field, KernelEnum targetType,
+            String targetId) {
+        this.id = sourceType.name() + ':' + sourceId + ':' + field + ':' + targetType.name() + ':' + targetId;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+        this.field = field;
+        this.targetType = targetType;
+        this.targetId = targetId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public KernelEnum getSourceType() {
+        return sourceType;
+    }
+
+    public void setSourceType(KernelEnum sourceType) {
+        this.sourceType = sourceType;
+    }
+
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public KernelEnum getTargetType() {
+        return targetType;
+    }
+
+    public void setTargetType(KernelEnum targetType) {
+        this.targetType = targetType;
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(String targetId) {
+        this.targetId = targetId;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceEntry [" + id + "]";
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.integrity;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.DocumentReference;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ReferenceIndex, the reverse reference index: for each element, the fields
+ * of the other elements that refer it. It is kept in sync with the saves and
+ * deletes by the {@link ReferenceIndexListener}, so the referrers of an
+ * element are found with one indexed query instead of a scan of every
+ * collection.
+ * 
+ * <p>
+ * The entries of a deleted element are removed, the entries that refer it
+ * are kept while their sources still hold the reference, they are the
+ * dangling references.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ReferenceIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceIndex.class);
+
+    private final MongoOperations mongoOperations;
+
+    public ReferenceIndex(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    /**
+     * The entries of the references held by an element
+     * 
+     * @param elementType
+     * @param document
+     *            the stored document of the element
+     * @return List<ReferenceEntry>
+     */
+    public static List<ReferenceEntry> entriesOf(KernelEnum elementType, DBObject document) {
+        String id = MongoEvents.getId(document);
+        Map<String, ReferenceEntry> entries = new LinkedHashMap<>();
+        for (DocumentReference reference : DocumentReference.of(document)) {
+            KernelEnum targetType = reference.getTargetType();
+            if (targetType != null && reference.getTargetId() != null) {
+                ReferenceEntry entry = new ReferenceEntry(elementType, id, reference.getField(), targetType,
+                        reference.getTargetId());
+                entries.putIfAbsent(entry.getId(), entry);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Index the references of a saved element, only the entries that changed
+     * are written
+     * 
+     * @param elementType
+     * @param document
+     */
+    public void index(KernelEnum elementType, DBObject document) {
+        String id = MongoEvents.getId(document);
+        Set<String> stored = new HashSet<>();
+        for (ReferenceEntry entry : findReferences(elementType, id)) {
+            stored.add(entry.getId());
+        }
+        List<String> current = new ArrayList<>();
+        for (ReferenceEntry entry : entriesOf(elementType, document)) {
+            current.add(entry.getId());
+            if (!stored.remove(entry.getId())) {
+                mongoOperations.save(entry);
+            }
+        }
+        if (!stored.isEmpty()) {
+            mongoOperations.remove(query(where("id").in(stored)), ReferenceEntry.class);
+        }
+    }
+
+    /**
+     * Remove the entries of the references held by a deleted element
+     * 
+     * @param elementType
+     * @param id
+     */
+    public void remove(KernelEnum elementType, String id) {
+        mongoOperations.remove(query(where("sourceId").is(id).and("sourceType").is(elementType)),
+                ReferenceEntry.class);
+    }
+
+    /**
+     * Who refers an element
+     * 
+     * @param elementType
+     * @param id
+     * @return List<ReferenceEntry> the entries whose target is the element
+     */
+    public List<ReferenceEntry> findReferrers(KernelEnum elementType, String id) {
+        return mongoOperations.find(query(where("targetId").is(id).and("targetType").is(elementType)),
+                ReferenceEntry.class);
+    }
+
+    /**
+     * Who refers any of some elements of the same type
+     * 
+     * @param elementType
+     * @param ids
+     * @return List<ReferenceEntry> the entries whose target is one of the
+     *         elements
+     */
+    public List<ReferenceEntry> findReferrers(KernelEnum elementType, Collection<String> ids) {
+        return mongoOperations.find(query(where("targetId").in(ids).and("targetType").is(elementType)),
+                ReferenceEntry.class);
+    }
+
+    /**
+     * What an element refers
+     * 
+     * @param elementType
+     * @param id
+     * @return List<ReferenceEntry> the entries whose source is the element
+     */
+    public List<ReferenceEntry> findReferences(KernelEnum elementType, String id) {
+        return mongoOperations.find(query(where("sourceId").is(id).and("sourceType").is(elementType)),
+                ReferenceEntry.class);
+    }
+
+    /**
+     * The impact of a change of an element: its referrers, their referrers
+     * and so on, up to a depth
+     * 
+     * @param elementType
+     * @param id
+     * @param maxDepth
+     *            1 for the direct referrers only
+     * @return List<ReferenceEntry> the entries found, closest first
+     */
+    public List<ReferenceEntry> findImpact(KernelEnum elementType, String id, int maxDepth) {
+        List<ReferenceEntry> impact = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        visited.add(elementType.name() + ':' + id);
+        Deque<ReferenceEntry> level = new ArrayDeque<>();
+        level.add(new ReferenceEntry(elementType, id, "", elementType, id));
+        for (int depth = 0; depth < maxDepth && !level.isEmpty(); depth++) {
+            Deque<ReferenceEntry> next = new ArrayDeque<>();
+            for (ReferenceEntry target : level) {
+                for (ReferenceEntry referrer : findReferrers(target.getSourceType(), target.getSourceId())) {
+                    impact.add(referrer);
+                    if (visited.add(referrer.getSourceType().name() + ':' + referrer.getSourceId())) {
+                        next.add(referrer);
+                    }
+                }
+            }
+            level = next;
+        }
+        return impact;
+    }
+
+    /**
+     * Rebuild the whole index of the current tenant from the stored elements,
+     * used to populate it over an existing database
+     */
+    public void rebuild() {
+        mongoOperations.remove(new Query(), ReferenceEntry.class);
+        for (KernelEnum elementType : KernelEnum.values()) {
+            int count = 0;
+            try (DBCursor cursor = mongoOperations.getCollection(elementType.getCollection())
+                    .find(new BasicDBObject())) {
+                List<ReferenceEntry> batch = new ArrayList<>();
+                while (cursor.hasNext()) {
+                    batch.addAll(entriesOf(elementType, cursor.next()));
+                    count++;
+                    if (batch.size() >= 1000) {
+                        mongoOperations.insert(batch, ReferenceEntry.class);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    mongoOperations.insert(batch, ReferenceEntry.class);
+                }
+            }
+            LOGGER.info("References of {} {} elements indexed", count, elementType);
+        }
+    }
+}
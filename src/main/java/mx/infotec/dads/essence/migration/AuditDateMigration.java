@@ -0,0 +1,136 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.migration;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * AuditDateMigration, rewrites the audit dates of the language elements that
+ * are not stored as native dates. The dates written through the Joda time
+ * converters are already native dates, the migration covers the documents
+ * written by other tools with epoch millis or ISO-8601 strings. The
+ * migration is recorded into the migrations collection and only runs once.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class AuditDateMigration implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditDateMigration.class);
+
+    private static final String MIGRATION_ID = "audit-dates";
+
+    private static final List<String> AUDIT_FIELDS = Arrays.asList("createdDate", "lastModifiedDate");
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DBCollection migrations = mongoOperations.getCollection(VersionMigration.MIGRATIONS_COLLECTION);
+        if (migrations.findOne(new BasicDBObject("_id", MIGRATION_ID)) != null) {
+            return;
+        }
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (SELanguageElement.class.isAssignableFrom(elementType.getType())) {
+                for (String field : AUDIT_FIELDS) {
+                    migrate(mongoOperations.getCollection(elementType.getCollection()), field);
+                }
+            }
+        }
+        migrations.save(new BasicDBObject("_id", MIGRATION_ID).append("appliedDate", new Date()));
+    }
+
+    private void migrate(DBCollection collection, String field) {
+        BasicDBObject query = new BasicDBObject("$or", Arrays.asList(
+                new BasicDBObject(field, new BasicDBObject("$type", "number")),
+                new BasicDBObject(field, new BasicDBObject("$type", "string"))));
+        int migrated = 0;
+        BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+        int pending = 0;
+        try (DBCursor cursor = collection.find(query, new BasicDBObject(field, 1))) {
+            while (cursor.hasNext()) {
+                DBObject dbo = cursor.next();
+                Date date = toDate(dbo.get(field));
+                BasicDBObject update = date == null ? new BasicDBObject("$unset", new BasicDBObject(field, 1))
+                        : new BasicDBObject("$set", new BasicDBObject(field, date));
+                bulk.find(new BasicDBObject("_id", dbo.get("_id"))).updateOne(update);
+                migrated++;
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = collection.initializeUnorderedBulkOperation();
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        if (migrated > 0) {
+            LOGGER.info("{} {} values migrated in {}", migrated, field, collection.getName());
+        }
+    }
+
+    /**
+     * The legacy value as a date, null when it can not be read
+     */
+    static Date toDate(Object value) {
+        if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        }
+        if (value instanceof String) {
+            try {
+                return Date.from(OffsetDateTime.parse((String) value).toInstant());
+            } catch (DateTimeParseException e) {
+                LOGGER.warn("Unreadable audit date {}", value);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.migration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.persistence.OwnedValueElements;
+import mx.infotec.dads.essence.persistence.PersistenceLayout;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * LayoutMigration, moves the owned value elements of the stored documents
+ * between the {@link PersistenceLayout#REFERENCED} and the
+ * {@link PersistenceLayout#EMBEDDED} layouts. It works over the raw documents
+ * so no reference is resolved besides the owned ones.
+ * 
+ * <p>
+ * When essence.persistence.migrate-layout is enabled the documents are
+ * migrated to the configured layout on startup.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class LayoutMigration implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LayoutMigration.class);
+
+    private static final String TYPE_KEY = DefaultMongoTypeMapper.DEFAULT_TYPE_KEY;
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.getPersistence().isMigrateLayout()) {
+            migrateTo(properties.getPersistence().getLayout());
+        }
+    }
+
+    /**
+     * Migrate every collection with owned value elements to a layout
+     * 
+     * @param layout
+     */
+    public void migrateTo(PersistenceLayout layout) {
+        for (KernelEnum elementType : KernelEnum.values()) {
+            List<String> fields = OwnedValueElements.fieldsOf(elementType.getType());
+            if (!fields.isEmpty()) {
+                int migrated = migrateCollection(elementType.getCollection(), fields, layout);
+                LOGGER.info("{} documents of {} migrated to the {} layout", migrated, elementType, layout);
+            }
+        }
+    }
+
+    private int migrateCollection(String collectionName, List<String> fields, PersistenceLayout layout) {
+        DBCollection collection = mongoOperations.getCollection(collectionName);
+        BasicDBObject projection = new BasicDBObject();
+        for (String field : fields) {
+            projection.append(field, 1);
+        }
+        int migrated = 0;
+        try (DBCursor cursor = collection.find(new BasicDBObject(), projection)) {
+            while (cursor.hasNext()) {
+                DBObject dbo = cursor.next();
+                Map<String, List<Object>> embeddedRefs = new HashMap<>();
+                BasicDBObject changes = new BasicDBObject();
+                for (String field : fields) {
+                    Object value = dbo.get(field);
+                    if (!(value instanceof BasicDBList)) {
+                        continue;
+                    }
+                    BasicDBList converted = layout == PersistenceLayout.EMBEDDED
+                            ? embed((BasicDBList) value, embeddedRefs) : extract((BasicDBList) value);
+                    if (converted != null) {
+                        changes.append(field, converted);
+                    }
+                }
+                if (!changes.isEmpty()) {
+                    collection.update(new BasicDBObject(MongoEvents.ID_FIELD, dbo.get(MongoEvents.ID_FIELD)),
+                            new BasicDBObject("$set", changes));
+                    removeEmbedded(embeddedRefs);
+                    migrated++;
+                }
+            }
+        }
+        return migrated;
+    }
+
+    /**
+     * Replace the references of a list by the referenced documents, the owned
+     * elements of the children are embedded too.
+     * 
+     * @return BasicDBList or null if the list has no references
+     */
+    private BasicDBList embed(BasicDBList list, Map<String, List<Object>> embeddedRefs) {
+        Map<String, List<Object>> idsByCollection = new LinkedHashMap<>();
+        for (Object item : list) {
+            if (item instanceof DBRef) {
+                DBRef ref = (DBRef) item;
+                idsByCollection.computeIfAbsent(ref.getCollectionName(), k -> new ArrayList<>()).add(ref.getId());
+            }
+        }
+        if (idsByCollection.isEmpty()) {
+            return null;
+        }
+        Map<String, Map<Object, DBObject>> fetched = new HashMap<>();
+        for (Map.Entry<String, List<Object>> entry : idsByCollection.entrySet()) {
+            Map<Object, DBObject> documents = new HashMap<>();
+            try (DBCursor cursor = mongoOperations.getCollection(entry.getKey()).find(
+                    new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", entry.getValue())))) {
+                for (DBObject child : cursor) {
+                    documents.put(child.get(MongoEvents.ID_FIELD), child);
+                }
+            }
+            fetched.put(entry.getKey(), documents);
+        }
+        BasicDBList embedded = new BasicDBList();
+        for (Object item : list) {
+            if (!(item instanceof DBRef)) {
+                embedded.add(item);
+                continue;
+            }
+            DBRef ref = (DBRef) item;
+            DBObject child = fetched.get(ref.getCollectionName()).get(ref.getId());
+            if (child == null) {
+                LOGGER.warn("Dangling reference {} dropped from the embedded layout", ref);
+                continue;
+            }
+            Class<?> childType = resolveType(child, ref.getCollectionName());
+            for (String field : OwnedValueElements.fieldsOf(childType)) {
+                Object value = child.get(field);
+                BasicDBList converted = value instanceof BasicDBList ? embed((BasicDBList) value, embeddedRefs)
+                        : null;
+                if (converted != null) {
+                    child.put(field, converted);
+                }
+            }
+            embedded.add(child);
+            embeddedRefs.computeIfAbsent(ref.getCollectionName(), k -> new ArrayList<>()).add(ref.getId());
+        }
+        return embedded;
+    }
+
+    /**
+     * Store the embedded documents of a list into their own collections and
+     * replace them by references
+     * 
+     * @return BasicDBList or null if the list has no embedded documents
+     */
+    private BasicDBList extract(BasicDBList list) {
+        boolean changed = false;
+        BasicDBList references = new BasicDBList();
+        for (Object item : list) {
+            if (!(item instanceof DBObject)) {
+                references.add(item);
+                continue;
+            }
+            DBObject child = (DBObject) item;
+            Class<?> childType = resolveType(child, null);
+            for (String field : OwnedValueElements.fieldsOf(childType)) {
+                Object value = child.get(field);
+                BasicDBList converted = value instanceof BasicDBList ? extract((BasicDBList) value) : null;
+                if (converted != null) {
+                    child.put(field, converted);
+                }
+            }
+            if (child.get(MongoEvents.ID_FIELD) == null) {
+                child.put(MongoEvents.ID_FIELD, new ObjectId());
+            }
+            String collectionName = mongoOperations.getCollectionName(childType);
+            mongoOperations.getCollection(collectionName).save(child);
+            references.add(new DBRef(collectionName, child.get(MongoEvents.ID_FIELD)));
+            changed = true;
+        }
+        return changed ? references : null;
+    }
+
+    private void removeEmbedded(Map<String, List<Object>> embeddedRefs) {
+        for (Map.Entry<String, List<Object>> entry : embeddedRefs.entrySet()) {
+            mongoOperations.getCollection(entry.getKey())
+                    .remove(new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", entry.getValue())));
+        }
+    }
+
+    /**
+     * Resolve the class of a raw document by its type key, or by its
+     * collection when the key is missing
+     */
+    private Class<?> resolveType(DBObject dbo, String collectionName) {
+        Object typeKey = dbo.get(TYPE_KEY);
+        if (typeKey == null) {
+            KernelEnum elementType = collectionName == null ? null : KernelEnum.fromCollection(collectionName);
+            if (elementType == null) {
+                throw new EssenceCoreException("Unable to resolve the type of the document " + dbo.get(MongoEvents.ID_FIELD));
+            }
+            dbo.put(TYPE_KEY, elementType.getType().getName());
+            return elementType.getType();
+        }
+        try {
+            return ClassUtils.forName(typeKey.toString(), LayoutMigration.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new EssenceCoreException("Unknown type " + typeKey, e);
+        }
+    }
+}
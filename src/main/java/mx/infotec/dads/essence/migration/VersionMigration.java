@@ -0,0 +1,81 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.migration;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.WriteResult;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * VersionMigration, initializes the version of the language elements stored
+ * before the optimistic locking was introduced. Without a version those
+ * documents would be inserted again on their next save. The migration is
+ * recorded into the migrations collection and only runs once.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class VersionMigration implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VersionMigration.class);
+
+    public static final String MIGRATIONS_COLLECTION = "migrations";
+
+    private static final String MIGRATION_ID = "element-versions";
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DBCollection migrations = mongoOperations.getCollection(MIGRATIONS_COLLECTION);
+        if (migrations.findOne(new BasicDBObject("_id", MIGRATION_ID)) != null) {
+            return;
+        }
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (SELanguageElement.class.isAssignableFrom(elementType.getType())) {
+                WriteResult result = mongoOperations.getCollection(elementType.getCollection()).updateMulti(
+                        new BasicDBObject("version", new BasicDBObject("$exists", false)),
+                        new BasicDBObject("$set", new BasicDBObject("version", 0L)));
+                LOGGER.info("{} versions initialized for {}", result.getN(), elementType);
+            }
+        }
+        migrations.save(new BasicDBObject("_id", MIGRATION_ID).append("appliedDate", new Date()));
+    }
+}
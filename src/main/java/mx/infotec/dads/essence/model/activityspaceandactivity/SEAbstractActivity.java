@@ -75,20 +75,22 @@ public abstract class SEAbstractActivity extends SEBasicElement implements Abstr
 
     @Override
     public Collection<SEActivityAssociation> getActivityAssociation() {
-        return activityAssociation;
+        return tracked("activityAssociation", activityAssociation);
     }
 
     public void setActivityAssociation(Collection<SEActivityAssociation> activityAssociation) {
         this.activityAssociation = activityAssociation;
+        markDirty("activityAssociation");
     }
 
     @Override
     public Collection<SECriterion> getCriterion() {
-        return criterion;
+        return tracked("criterion", criterion);
     }
 
     public void setCriterion(Collection<SECriterion> criterion) {
         this.criterion = criterion;
+        markDirty("criterion");
     }
 
 }
@@ -112,24 +112,27 @@ public class SEAction extends SELanguageElement implements Action {
 
     public void setActivity(SEActivity activity) {
         this.activity = activity;
+        markDirty("activity");
     }
 
     @Override
     public Collection<SEAlpha> getAlpha() {
-        return alpha;
+        return tracked("alpha", alpha);
     }
 
     public void setAlpha(Collection<SEAlpha> alpha) {
         this.alpha = alpha;
+        markDirty("alpha");
     }
 
     @Override
     public Collection<SEWorkProduct> getWorkProduct() {
-        return workProduct;
+        return tracked("workProduct", workProduct);
     }
 
     public void setWorkProduct(Collection<SEWorkProduct> workProduct) {
         this.workProduct = workProduct;
+        markDirty("workProduct");
     }
 
     @Override
@@ -139,5 +142,6 @@ public class SEAction extends SELanguageElement implements Action {
 
     public void setKind(ActionKind kind) {
         this.kind = kind;
+        markDirty("kind");
     }
 }
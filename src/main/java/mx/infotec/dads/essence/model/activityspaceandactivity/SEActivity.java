@@ -101,29 +101,32 @@ public class SEActivity extends SEAbstractActivity implements Activity {
 
     @Override
     public Collection<SEApproach> getApproach() {
-        return approach;
+        return tracked("approach", approach);
     }
 
     public void setApproach(Collection<SEApproach> approach) {
         this.approach = approach;
+        markDirty("approach");
     }
 
     @Override
     public Collection<SEAction> getAction() {
-        return action;
+        return tracked("action", action);
     }
 
     public void setAction(Collection<SEAction> action) {
         this.action = action;
+        markDirty("action");
     }
 
     @Override
     public Collection<SECompetencyLevel> getRequiredCompetencyLevel() {
-        return requiredCompetencyLevel;
+        return tracked("requiredCompetencyLevel", requiredCompetencyLevel);
     }
 
     public void setRequiredCompetencyLevel(Collection<SECompetencyLevel> requiredCompetencyLevel) {
         this.requiredCompetencyLevel = requiredCompetencyLevel;
+        markDirty("requiredCompetencyLevel");
     }
 
 }
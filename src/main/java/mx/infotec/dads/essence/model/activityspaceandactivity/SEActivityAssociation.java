@@ -102,6 +102,7 @@ public class SEActivityAssociation extends SELanguageElement implements Activity
 
     public void setEnd2(SEAbstractActivity end2) {
         this.end2 = end2;
+        markDirty("end2");
     }
 
     @Override
@@ -111,6 +112,7 @@ public class SEActivityAssociation extends SELanguageElement implements Activity
 
     public void setEnd1(SEAbstractActivity end1) {
         this.end1 = end1;
+        markDirty("end1");
     }
 
     @Override
@@ -120,6 +122,7 @@ public class SEActivityAssociation extends SELanguageElement implements Activity
 
     public void setKind(String kind) {
         this.kind = kind;
+        markDirty("kind");
     }
 
 }
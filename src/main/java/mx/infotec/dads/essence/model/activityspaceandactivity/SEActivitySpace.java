@@ -80,11 +80,12 @@ public class SEActivitySpace extends SEAbstractActivity implements ActivitySpace
 
     @Override
     public Collection<SEAlpha> getInput() {
-        return input;
+        return tracked("input", input);
     }
 
     public void setInput(Collection<SEAlpha> input) {
         this.input = input;
+        markDirty("input");
     }
 
 }
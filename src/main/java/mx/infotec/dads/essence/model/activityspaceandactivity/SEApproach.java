@@ -79,6 +79,7 @@ public class SEApproach extends SELanguageElement implements Approach {
 
     public void setActivity(SEActivity activity) {
         this.activity = activity;
+        markDirty("activity");
     }
 
     @Override
@@ -88,6 +89,7 @@ public class SEApproach extends SELanguageElement implements Approach {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -97,6 +99,7 @@ public class SEApproach extends SELanguageElement implements Approach {
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
 }
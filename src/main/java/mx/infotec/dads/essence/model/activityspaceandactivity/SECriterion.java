@@ -87,6 +87,7 @@ public abstract class SECriterion extends SELanguageElement implements Criterion
 
     public void setActivity(SEAbstractActivity activity) {
         this.activity = activity;
+        markDirty("activity");
     }
 
     @Override
@@ -96,6 +97,7 @@ public abstract class SECriterion extends SELanguageElement implements Criterion
 
     public void setState(SEState state) {
         this.state = state;
+        markDirty("state");
     }
 
     @Override
@@ -105,6 +107,7 @@ public abstract class SECriterion extends SELanguageElement implements Criterion
 
     public void setLevelOfDetail(SELevelOfDetail levelOfDetail) {
         this.levelOfDetail = levelOfDetail;
+        markDirty("levelOfDetail");
     }
 
     @Override
@@ -114,6 +117,7 @@ public abstract class SECriterion extends SELanguageElement implements Criterion
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
 }
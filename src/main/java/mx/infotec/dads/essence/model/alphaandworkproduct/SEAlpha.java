@@ -128,20 +128,22 @@ public class SEAlpha extends SEBasicElement implements Alpha {
 
     @Override
     public Collection<SEState> getStates() {
-        return states;
+        return tracked("states", states);
     }
 
     public void setStates(Collection<SEState> states) {
         this.states = states;
+        markDirty("states");
     }
 
     @Override
     public Collection<SEAction> getAction() {
-        return action;
+        return tracked("action", action);
     }
 
     public void setAction(Collection<SEAction> action) {
         this.action = action;
+        markDirty("action");
     }
 
     @Override
@@ -151,33 +153,37 @@ public class SEAlpha extends SEBasicElement implements Alpha {
 
     public void setActivitySpace(SEActivitySpace activitySpace) {
         this.activitySpace = activitySpace;
+        markDirty("activitySpace");
     }
 
     @Override
     public Collection<SEAlphaContainment> getAlphaContainment() {
-        return alphaContainment;
+        return tracked("alphaContainment", alphaContainment);
     }
 
     public void setAlphaContainment(Collection<SEAlphaContainment> alphaContainment) {
         this.alphaContainment = alphaContainment;
+        markDirty("alphaContainment");
     }
 
     @Override
     public Collection<SEAlphaAssociation> getAlphaAssociation() {
-        return alphaAssociation;
+        return tracked("alphaAssociation", alphaAssociation);
     }
 
     public void setAlphaAssociation(Collection<SEAlphaAssociation> alphaAssociation) {
         this.alphaAssociation = alphaAssociation;
+        markDirty("alphaAssociation");
     }
 
     @Override
     public Collection<SEWorkProductManifest> getWorkProductManifest() {
-        return workProductManifest;
+        return tracked("workProductManifest", workProductManifest);
     }
 
     public void setWorkProductManifest(Collection<SEWorkProductManifest> workProductManifest) {
         this.workProductManifest = workProductManifest;
+        markDirty("workProductManifest");
     }
 
 }
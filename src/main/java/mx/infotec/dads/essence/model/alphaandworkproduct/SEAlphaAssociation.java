@@ -98,6 +98,7 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setEnd1lowerBound(int end1lowerBound) {
         this.end1lowerBound = end1lowerBound;
+        markDirty("end1lowerBound");
     }
 
     @Override
@@ -107,6 +108,7 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setEnd1upperBound(int end1upperBound) {
         this.end1upperBound = end1upperBound;
+        markDirty("end1upperBound");
     }
 
     @Override
@@ -116,6 +118,7 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setEnd2lowerBound(int end2lowerBound) {
         this.end2lowerBound = end2lowerBound;
+        markDirty("end2lowerBound");
     }
 
     @Override
@@ -125,6 +128,7 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setEnd2upperBound(int end2upperBound) {
         this.end2upperBound = end2upperBound;
+        markDirty("end2upperBound");
     }
 
     @Override
@@ -134,6 +138,7 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -143,6 +148,7 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setEnd1(SEAlpha end1) {
         this.end1 = end1;
+        markDirty("end1");
     }
 
     @Override
@@ -152,5 +158,6 @@ public class SEAlphaAssociation extends SELanguageElement implements AlphaAssoci
 
     public void setEnd2(SEAlpha end2) {
         this.end2 = end2;
+        markDirty("end2");
     }
 }
@@ -87,6 +87,7 @@ public class SEAlphaContainment extends SELanguageElement implements AlphaContai
 
     public void setLowerBound(int lowerBound) {
         this.lowerBound = lowerBound;
+        markDirty("lowerBound");
     }
 
     @Override
@@ -96,6 +97,7 @@ public class SEAlphaContainment extends SELanguageElement implements AlphaContai
 
     public void setUpperBound(int upperBound) {
         this.upperBound = upperBound;
+        markDirty("upperBound");
     }
 
     @Override
@@ -105,6 +107,7 @@ public class SEAlphaContainment extends SELanguageElement implements AlphaContai
 
     public void setSuperAlpha(SEAlpha superAlpha) {
         this.superAlpha = superAlpha;
+        markDirty("superAlpha");
     }
 
     @Override
@@ -114,6 +117,7 @@ public class SEAlphaContainment extends SELanguageElement implements AlphaContai
 
     public void setSubordinateAlpha(SEAlpha subordinateAlpha) {
         this.subordinateAlpha = subordinateAlpha;
+        markDirty("subordinateAlpha");
     }
 
 }
@@ -127,6 +127,7 @@ public class SELevelOfDetail extends SELanguageElement implements LevelOfDetail
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     @Override
@@ -136,6 +137,7 @@ public class SELevelOfDetail extends SELanguageElement implements LevelOfDetail
 
     public void setSufficientLevel(boolean isSufficientLevel) {
         this.isSufficientLevel = isSufficientLevel;
+        markDirty("isSufficientLevel");
     }
 
     @Override
@@ -145,15 +147,17 @@ public class SELevelOfDetail extends SELanguageElement implements LevelOfDetail
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
     public Collection<SECheckpoint> getCheckListItem() {
-        return checkListItem;
+        return tracked("checkListItem", checkListItem);
     }
 
     public void setCheckListItem(Collection<SECheckpoint> checkListItem) {
         this.checkListItem = checkListItem;
+        markDirty("checkListItem");
     }
 
     @Override
@@ -163,15 +167,17 @@ public class SELevelOfDetail extends SELanguageElement implements LevelOfDetail
 
     public void setSuccessor(SELevelOfDetail successor) {
         this.successor = successor;
+        markDirty("successor");
     }
 
     @Override
     public Collection<SECriterion> getCriterion() {
-        return criterion;
+        return tracked("criterion", criterion);
     }
 
     public void setCriterion(Collection<SECriterion> criterion) {
         this.criterion = criterion;
+        markDirty("criterion");
     }
 
     @Override
@@ -181,6 +187,7 @@ public class SELevelOfDetail extends SELanguageElement implements LevelOfDetail
 
     public void setPredecessor(SELevelOfDetail predecessor) {
         this.predecessor = predecessor;
+        markDirty("predecessor");
     }
 
     @Override
@@ -190,6 +197,7 @@ public class SELevelOfDetail extends SELanguageElement implements LevelOfDetail
 
     public void setWorkProduct(SEWorkProduct workProduct) {
         this.workProduct = workProduct;
+        markDirty("workProduct");
     }
 
 }
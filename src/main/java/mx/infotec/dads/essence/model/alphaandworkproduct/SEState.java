@@ -113,6 +113,7 @@ public class SEState extends SELanguageElement implements State {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -122,15 +123,17 @@ public class SEState extends SELanguageElement implements State {
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     @Override
     public Collection<SECheckpoint> getCheckListItem() {
-        return checkListItem;
+        return tracked("checkListItem", checkListItem);
     }
 
     public void setCheckListItem(Collection<SECheckpoint> checkListItem) {
         this.checkListItem = checkListItem;
+        markDirty("checkListItem");
     }
 
     @Override
@@ -140,15 +143,17 @@ public class SEState extends SELanguageElement implements State {
 
     public void setSuccessor(SEState successor) {
         this.successor = successor;
+        markDirty("successor");
     }
 
     @Override
     public Collection<SECriterion> getCriterion() {
-        return criterion;
+        return tracked("criterion", criterion);
     }
 
     public void setCriterion(Collection<SECriterion> criterion) {
         this.criterion = criterion;
+        markDirty("criterion");
     }
 
     @Override
@@ -158,6 +163,7 @@ public class SEState extends SELanguageElement implements State {
 
     public void setAlpha(SEAlpha alpha) {
         this.alpha = alpha;
+        markDirty("alpha");
     }
 
     @Override
@@ -167,6 +173,7 @@ public class SEState extends SELanguageElement implements State {
 
     public void setPredecessor(SEState predecessor) {
         this.predecessor = predecessor;
+        markDirty("predecessor");
     }
 
 }
@@ -93,29 +93,32 @@ public class SEWorkProduct extends SEBasicElement implements WorkProduct {
 
     @Override
     public Collection<SELevelOfDetail> getLevelOfDetail() {
-        return levelOfDetail;
+        return tracked("levelOfDetail", levelOfDetail);
     }
 
     public void setLevelOfDetail(Collection<SELevelOfDetail> levelOfDetail) {
         this.levelOfDetail = levelOfDetail;
+        markDirty("levelOfDetail");
     }
 
     @Override
     public Collection<SEAction> getAction() {
-        return action;
+        return tracked("action", action);
     }
 
     public void setAction(Collection<SEAction> action) {
         this.action = action;
+        markDirty("action");
     }
 
     @Override
     public Collection<SEWorkProductManifest> getWorkProductManifest() {
-        return workProductManifest;
+        return tracked("workProductManifest", workProductManifest);
     }
 
     public void setWorkProductManifest(Collection<SEWorkProductManifest> workProductManifest) {
         this.workProductManifest = workProductManifest;
+        markDirty("workProductManifest");
     }
 
 }
@@ -94,6 +94,7 @@ public class SEWorkProductManifest extends SELanguageElement implements WorkProd
 
     public void setLowerBound(int lowerBound) {
         this.lowerBound = lowerBound;
+        markDirty("lowerBound");
     }
 
     public int getUpperBound() {
@@ -102,6 +103,7 @@ public class SEWorkProductManifest extends SELanguageElement implements WorkProd
 
     public void setUpperBound(int upperBound) {
         this.upperBound = upperBound;
+        markDirty("upperBound");
     }
 
     public SEAlpha getAlpha() {
@@ -110,6 +112,7 @@ public class SEWorkProductManifest extends SELanguageElement implements WorkProd
 
     public void setAlpha(SEAlpha alpha) {
         this.alpha = alpha;
+        markDirty("alpha");
     }
 
     public SEWorkProduct getWorkProduct() {
@@ -118,6 +121,7 @@ public class SEWorkProductManifest extends SELanguageElement implements WorkProd
 
     public void setWorkProduct(SEWorkProduct workProduct) {
         this.workProduct = workProduct;
+        markDirty("workProduct");
     }
 
     @Override
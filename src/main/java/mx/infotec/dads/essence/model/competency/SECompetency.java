@@ -77,11 +77,12 @@ public class SECompetency extends SEBasicElement implements Competency {
 
     @Override
     public Collection<CompetencyLevel> getPossibleLevel() {
-        return possibleLevel;
+        return tracked("possibleLevel", possibleLevel);
     }
 
     public void setPossibleLevel(Collection<CompetencyLevel> possibleLevel) {
         this.possibleLevel = possibleLevel;
+        markDirty("possibleLevel");
     }
 
 }
\ No newline at end of file
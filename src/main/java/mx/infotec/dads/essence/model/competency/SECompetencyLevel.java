@@ -102,6 +102,7 @@ public class SECompetencyLevel extends SELanguageElement implements CompetencyLe
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -111,6 +112,7 @@ public class SECompetencyLevel extends SELanguageElement implements CompetencyLe
 
     public void setBriefDescription(String briefDescription) {
         this.briefDescription = briefDescription;
+        markDirty("briefDescription");
     }
 
     @Override
@@ -120,15 +122,17 @@ public class SECompetencyLevel extends SELanguageElement implements CompetencyLe
 
     public void setLevel(int level) {
         this.level = level;
+        markDirty("level");
     }
 
     @Override
     public Collection<Activity> getActivity() {
-        return activity;
+        return tracked("activity", activity);
     }
 
     public void setActivity(Collection<Activity> activity) {
         this.activity = activity;
+        markDirty("activity");
     }
 
     @Override
@@ -138,15 +142,17 @@ public class SECompetencyLevel extends SELanguageElement implements CompetencyLe
 
     public void setCompetency(Competency competency) {
         this.competency = competency;
+        markDirty("competency");
     }
 
     @Override
     public Collection<Checkpoint> getChecklistItem() {
-        return checklistItem;
+        return tracked("checklistItem", checklistItem);
     }
 
     public void setChecklistItem(Collection<Checkpoint> checklistItem) {
         this.checklistItem = checklistItem;
+        markDirty("checklistItem");
     }
 
 }
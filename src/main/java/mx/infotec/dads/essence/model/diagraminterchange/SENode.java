@@ -25,6 +25,7 @@ package mx.infotec.dads.essence.model.diagraminterchange;
 
 import org.omg.essence.model.diagraminterchange.Label;
 import org.omg.essence.model.diagraminterchange.Node;
+import org.omg.essence.model.foundation.BasicElement;
 
 /**
  * The Class Node.
@@ -41,6 +42,9 @@ public class SENode extends SEDiagramElement implements Node {
     /** The name. */
     private Label name;
 
+    /** The model element shown by the node. */
+    private BasicElement modelElement;
+
     @Override
     public Label getBottomRightLabel() {
         return bottomRightLabel;
@@ -59,4 +63,12 @@ public class SENode extends SEDiagramElement implements Node {
         this.name = name;
     }
 
+    public BasicElement getModelElement() {
+        return modelElement;
+    }
+
+    public void setModelElement(BasicElement modelElement) {
+        this.modelElement = modelElement;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.model.foundation;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * DirtyCollection, a view of a collection field of a language element that
+ * marks the field dirty on every mutation
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+class DirtyCollection<E> extends AbstractCollection<E> {
+
+    private final Collection<E> values;
+
+    private final Runnable onChange;
+
+    DirtyCollection(Collection<E> values, Runnable onChange) {
+        this.values = values;
+        this.onChange = onChange;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> iterator = values.iterator();
+        return new Iterator<E>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                onChange.run();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return values.contains(o);
+    }
+
+    @Override
+    public boolean add(E e) {
+        boolean changed = values.add(e);
+        if (changed) {
+            onChange.run();
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean changed = values.remove(o);
+        if (changed) {
+            onChange.run();
+        }
+        return changed;
+    }
+
+    @Override
+    public void clear() {
+        if (!values.isEmpty()) {
+            values.clear();
+            onChange.run();
+        }
+    }
+
+}
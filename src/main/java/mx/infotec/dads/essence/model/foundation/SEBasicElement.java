@@ -96,6 +96,7 @@ public abstract class SEBasicElement extends SELanguageElement implements BasicE
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -105,6 +106,7 @@ public abstract class SEBasicElement extends SELanguageElement implements BasicE
 
     public void setIcon(GraphicalElement icon) {
         this.icon = icon;
+        markDirty("icon");
     }
 
     @Override
@@ -114,6 +116,7 @@ public abstract class SEBasicElement extends SELanguageElement implements BasicE
 
     public void setBriefDescription(String briefDescription) {
         this.briefDescription = briefDescription;
+        markDirty("briefDescription");
     }
 
     @Override
@@ -123,6 +126,7 @@ public abstract class SEBasicElement extends SELanguageElement implements BasicE
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
 }
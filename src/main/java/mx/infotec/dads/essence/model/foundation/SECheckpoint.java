@@ -98,6 +98,7 @@ public class SECheckpoint extends SELanguageElement implements Checkpoint {
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -107,6 +108,7 @@ public class SECheckpoint extends SELanguageElement implements Checkpoint {
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     @Override
@@ -116,6 +118,7 @@ public class SECheckpoint extends SELanguageElement implements Checkpoint {
 
     public void setShortDescription(String shortDescription) {
         this.shortDescription = shortDescription;
+        markDirty("shortDescription");
     }
 
     @Override
@@ -125,6 +128,7 @@ public class SECheckpoint extends SELanguageElement implements Checkpoint {
 
     public void setLevel(LevelOfDetail level) {
         this.level = level;
+        markDirty("level");
     }
 
     @Override
@@ -134,6 +138,7 @@ public class SECheckpoint extends SELanguageElement implements Checkpoint {
 
     public void setState(State state) {
         this.state = state;
+        markDirty("state");
     }
 
     @Override
@@ -143,6 +148,7 @@ public class SECheckpoint extends SELanguageElement implements Checkpoint {
 
     public void setCompetencyLevel(CompetencyLevel competencyLevel) {
         this.competencyLevel = competencyLevel;
+        markDirty("competencyLevel");
     }
 
 }
\ No newline at end of file
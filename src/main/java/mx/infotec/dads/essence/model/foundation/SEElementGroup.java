@@ -128,6 +128,7 @@ public abstract class SEElementGroup extends SELanguageElement implements Elemen
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -137,6 +138,7 @@ public abstract class SEElementGroup extends SELanguageElement implements Elemen
 
     public void setIcon(SEGraphicalElement icon) {
         this.icon = icon;
+        markDirty("icon");
     }
 
     @Override
@@ -146,6 +148,7 @@ public abstract class SEElementGroup extends SELanguageElement implements Elemen
 
     public void setBriefDescription(String briefDescription) {
         this.briefDescription = briefDescription;
+        markDirty("briefDescription");
     }
 
     @Override
@@ -155,33 +158,37 @@ public abstract class SEElementGroup extends SELanguageElement implements Elemen
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     @Override
     public Collection<SEMergeResolution> getMergeResolution() {
-        return mergeResolution;
+        return tracked("mergeResolution", mergeResolution);
     }
 
     public void setMergeResolution(Collection<SEMergeResolution> mergeResolution) {
         this.mergeResolution = mergeResolution;
+        markDirty("mergeResolution");
     }
 
     @Override
     public Collection<SELanguageElement> getOwnedElements() {
-        return ownedElements;
+        return tracked("ownedElements", ownedElements);
     }
 
     public void setOwnedElements(Collection<SELanguageElement> ownedElements) {
         this.ownedElements = ownedElements;
+        markDirty("ownedElements");
     }
 
     @Override
     public Collection<SELanguageElement> getReferredElements() {
-        return referredElements;
+        return tracked("referredElements", referredElements);
     }
 
     public void setReferredElements(Collection<SELanguageElement> referredElements) {
         this.referredElements = referredElements;
+        markDirty("referredElements");
     }
     
 }
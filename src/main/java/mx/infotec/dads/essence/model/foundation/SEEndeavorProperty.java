@@ -24,6 +24,7 @@
 package mx.infotec.dads.essence.model.foundation;
 
 import org.omg.essence.model.foundation.EndeavorProperty;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -62,6 +63,10 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Document(collection = "endeavorproperties")
 public class SEEndeavorProperty implements EndeavorProperty {
 
+    /** The mongodb Id */
+    @Id
+    private String id;
+
     /** The language element. */
     @DBRef
     private SELanguageElement languageElement;
@@ -153,4 +158,12 @@ public class SEEndeavorProperty implements EndeavorProperty {
         this.upperBound = upperBound;
     }
 
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
 }
@@ -84,6 +84,7 @@ public class SEExtensionElement extends SELanguageElement implements ExtensionEl
 
     public void setElementGroup(SEElementGroup elementGroup) {
         this.elementGroup = elementGroup;
+        markDirty("elementGroup");
     }
 
     @Override
@@ -93,6 +94,7 @@ public class SEExtensionElement extends SELanguageElement implements ExtensionEl
 
     public void setTargetElement(SELanguageElement targetElement) {
         this.targetElement = targetElement;
+        markDirty("targetElement");
     }
 
     @Override
@@ -102,6 +104,7 @@ public class SEExtensionElement extends SELanguageElement implements ExtensionEl
 
     public void setTargetAttribute(String targetAttribute) {
         this.targetAttribute = targetAttribute;
+        markDirty("targetAttribute");
     }
 
     @Override
@@ -111,5 +114,6 @@ public class SEExtensionElement extends SELanguageElement implements ExtensionEl
 
     public void setExtensionFunction(String extensionFunction) {
         this.extensionFunction = extensionFunction;
+        markDirty("extensionFunction");
     }
 }
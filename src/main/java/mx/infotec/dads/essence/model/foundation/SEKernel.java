@@ -108,11 +108,12 @@ public class SEKernel extends SEElementGroup implements Kernel {
 
     @Override
     public Collection<SEMethod> getReferringMethod() {
-        return referringMethod;
+        return tracked("referringMethod", referringMethod);
     }
 
     public void setReferringMethod(Collection<SEMethod> referringMethod) {
         this.referringMethod = referringMethod;
+        markDirty("referringMethod");
     }
 
     @Override
@@ -122,6 +123,7 @@ public class SEKernel extends SEElementGroup implements Kernel {
 
     public void setConsistencyRules(String consistencyRules) {
         this.consistencyRules = consistencyRules;
+        markDirty("consistencyRules");
     }
 
 }
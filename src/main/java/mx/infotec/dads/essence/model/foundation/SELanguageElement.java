@@ -23,13 +23,20 @@
  */
 package mx.infotec.dads.essence.model.foundation;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.joda.time.DateTime;
 import org.omg.essence.model.foundation.LanguageElement;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 
 import mx.infotec.dads.essence.audit.Auditable;
@@ -129,11 +136,37 @@ public abstract class SELanguageElement implements LanguageElement, Auditable {
 
     /** The created Date **/
     @CreatedDate
-    private DateTime createdDate;
+    private Instant createdDate;
 
     /** The last modified Date **/
     @LastModifiedDate
-    private DateTime lastModifiedDate;
+    private Instant lastModifiedDate;
+
+    /**
+     * The version of the document, a save based on a stale version fails with
+     * an OptimisticLockingFailureException
+     */
+    @Version
+    private Long version;
+
+    /**
+     * The fields set or mutated since the element was loaded or saved, the
+     * id, version and dates are managed by the persistence and not tracked.
+     */
+    @Transient
+    private transient Set<String> dirtyFields = new LinkedHashSet<>();
+
+    /**
+     * The stored form of the values held by the element that are not
+     * language elements, like the icon, compared on save to find the ones
+     * mutated in place
+     */
+    @Transient
+    private transient Map<String, Object> storedValues = Collections.emptyMap();
+
+    /** Whether the element mirrors a stored document */
+    @Transient
+    private transient boolean tracked;
 
     @Override
     public boolean isSuppressable() {
@@ -142,6 +175,7 @@ public abstract class SELanguageElement implements LanguageElement, Auditable {
 
     public void setSuppressable(boolean isSuppressable) {
         this.isSuppressable = isSuppressable;
+        markDirty("isSuppressable");
     }
 
     @Override
@@ -151,78 +185,87 @@ public abstract class SELanguageElement implements LanguageElement, Auditable {
 
     public void setOwner(SEElementGroup owner) {
         this.owner = owner;
+        markDirty("owner");
     }
 
     @Override
     public Collection<SETag> getTag() {
-        return tag;
+        return tracked("tag", tag);
     }
 
     public void setTag(Collection<SETag> tag) {
         this.tag = tag;
+        markDirty("tag");
     }
 
     @Override
     public Collection<SEResource> getResource() {
-        return resource;
+        return tracked("resource", resource);
     }
 
     public void setResource(Collection<SEResource> resource) {
         this.resource = resource;
+        markDirty("resource");
     }
 
     @Override
     public Collection<SEEndeavorProperty> getProperties() {
-        return properties;
+        return tracked("properties", properties);
     }
 
     public void setProperties(Collection<SEEndeavorProperty> properties) {
         this.properties = properties;
+        markDirty("properties");
     }
 
     @Override
     public Collection<SEViewSelection> getViewSelection() {
-        return viewSelection;
+        return tracked("viewSelection", viewSelection);
     }
 
     public void setViewSelection(Collection<SEViewSelection> viewSelection) {
         this.viewSelection = viewSelection;
+        markDirty("viewSelection");
     }
 
     @Override
     public Collection<SEFeatureSelection> getFeatureSelection() {
-        return featureSelection;
+        return tracked("featureSelection", featureSelection);
     }
 
     public void setFeatureSelection(Collection<SEFeatureSelection> featureSelection) {
         this.featureSelection = featureSelection;
+        markDirty("featureSelection");
     }
 
     @Override
     public Collection<SEExtensionElement> getExtension() {
-        return extension;
+        return tracked("extension", extension);
     }
 
     public void setExtension(Collection<SEExtensionElement> extension) {
         this.extension = extension;
+        markDirty("extension");
     }
 
     @Override
     public Collection<SEElementGroup> getReferrer() {
-        return referrer;
+        return tracked("referrer", referrer);
     }
 
     public void setReferrer(Collection<SEElementGroup> referrer) {
         this.referrer = referrer;
+        markDirty("referrer");
     }
 
     @Override
     public Collection<SEPatternAssociation> getPatternAssociation() {
-        return patternAssociation;
+        return tracked("patternAssociation", patternAssociation);
     }
 
     public void setPatternAssociation(Collection<SEPatternAssociation> patternAssociation) {
         this.patternAssociation = patternAssociation;
+        markDirty("patternAssociation");
     }
 
     public String getId() {
@@ -234,23 +277,139 @@ public abstract class SELanguageElement implements LanguageElement, Auditable {
     }
 
     @Override
-    public DateTime getCreatedDate() {
+    public Instant getCreatedDate() {
         return createdDate;
     }
 
     @Override
-    public void setCreatedDate(DateTime createdDate) {
+    public void setCreatedDate(Instant createdDate) {
         this.createdDate = createdDate;
     }
 
     @Override
-    public DateTime getLastModifiedDate() {
+    public Instant getLastModifiedDate() {
         return lastModifiedDate;
     }
 
     @Override
-    public void setLastModifiedDate(DateTime lastModifiedDate) {
+    public void setLastModifiedDate(Instant lastModifiedDate) {
         this.lastModifiedDate = lastModifiedDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Whether the element mirrors a stored document, only then the dirty
+     * fields tell what a save has to write
+     * 
+     * @return boolean
+     */
+    public boolean isTracked() {
+        return tracked;
+    }
+
+    public boolean isDirty() {
+        return !dirtyFields.isEmpty();
+    }
+
+    /**
+     * The fields set or mutated since the element was loaded or saved
+     * 
+     * @return Set<String> the field names
+     */
+    public Set<String> getDirtyFields() {
+        return Collections.unmodifiableSet(dirtyFields);
+    }
+
+    /**
+     * Start tracking the changes from the stored state, called after the
+     * element is loaded or saved
+     */
+    public void markClean() {
+        dirtyFields.clear();
+        tracked = true;
+    }
+
+    /**
+     * Forget the changes of some fields, called after they are written
+     * 
+     * @param fields
+     */
+    public void markClean(Collection<String> fields) {
+        dirtyFields.removeAll(fields);
+    }
+
+    /**
+     * Start tracking the changes from the stored state, including the
+     * values that are not language elements
+     * 
+     * @param storedValues
+     *            the stored values by field
+     */
+    public void markClean(Map<String, Object> storedValues) {
+        markClean();
+        this.storedValues = storedValues;
+    }
+
+    /**
+     * Forget the changes of some fields, keeping the stored form of the
+     * values that are not language elements, called after they are written
+     * 
+     * @param fields
+     * @param storedValues
+     *            the stored values by field
+     */
+    public void markClean(Collection<String> fields, Map<String, Object> storedValues) {
+        markClean(fields);
+        this.storedValues = storedValues;
+    }
+
+    /**
+     * The stored form of the values that are not language elements when the
+     * element was loaded or saved
+     * 
+     * @return Map<String, Object> by field
+     */
+    public Map<String, Object> getStoredValues() {
+        return storedValues;
+    }
+
+    /**
+     * Mark a field changed, the setters and collections call it, the
+     * partial updates keep with it a local edit they did not write
+     * 
+     * @param field
+     */
+    public void markDirty(String field) {
+        dirtyFields.add(field);
+    }
+
+    /**
+     * A view of a collection field that marks the field dirty when it is
+     * mutated
+     * 
+     * @param field
+     * @param values
+     * @return Collection<E> or null if the field is null
+     */
+    protected <E> Collection<E> tracked(String field, Collection<E> values) {
+        return values == null ? null : new DirtyCollection<>(values, () -> markDirty(field));
+    }
+
+    /**
+     * A view of a list field that marks the field dirty when it is mutated
+     * 
+     * @param field
+     * @param values
+     * @return List<E> or null if the field is null
+     */
+    protected <E> List<E> tracked(String field, List<E> values) {
+        return values == null ? null : new DirtyList<>(values, () -> markDirty(field));
+    }
 }
@@ -82,6 +82,7 @@ public class SEMergeResolution extends SELanguageElement implements MergeResolut
 
     public void setTargetAttribute(String targetAttribute) {
         this.targetAttribute = targetAttribute;
+        markDirty("targetAttribute");
     }
 
     @Override
@@ -91,6 +92,7 @@ public class SEMergeResolution extends SELanguageElement implements MergeResolut
 
     public void setTargetName(String targetName) {
         this.targetName = targetName;
+        markDirty("targetName");
     }
 
     @Override
@@ -100,6 +102,7 @@ public class SEMergeResolution extends SELanguageElement implements MergeResolut
 
     public void setResolutionFunction(String resolutionFunction) {
         this.resolutionFunction = resolutionFunction;
+        markDirty("resolutionFunction");
     }
 
     @Override
@@ -109,6 +112,7 @@ public class SEMergeResolution extends SELanguageElement implements MergeResolut
 
     public void setElementGroup(SEElementGroup elementGroup) {
         this.elementGroup = elementGroup;
+        markDirty("elementGroup");
     }
 
 }
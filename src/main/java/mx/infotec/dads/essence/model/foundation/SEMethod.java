@@ -92,6 +92,7 @@ public class SEMethod extends SEElementGroup implements Method {
 
     public void setPurpose(String purpose) {
         this.purpose = purpose;
+        markDirty("purpose");
     }
 
     @Override
@@ -101,6 +102,7 @@ public class SEMethod extends SEElementGroup implements Method {
 
     public void setBaseKernel(Kernel baseKernel) {
         this.baseKernel = baseKernel;
+        markDirty("baseKernel");
     }
 
 }
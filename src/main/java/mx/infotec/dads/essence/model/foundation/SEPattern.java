@@ -76,10 +76,11 @@ public class SEPattern extends SEBasicElement implements Pattern {
 
     @Override
     public Collection<PatternAssociation> getAssociation() {
-        return association;
+        return tracked("association", association);
     }
 
     public void setAssociation(Collection<PatternAssociation> association) {
         this.association = association;
+        markDirty("association");
     }
 }
@@ -87,15 +87,17 @@ public class SEPatternAssociation extends SELanguageElement implements PatternAs
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
     public Collection<SELanguageElement> getElements() {
-        return elements;
+        return tracked("elements", elements);
     }
 
     public void setElements(Collection<SELanguageElement> elements) {
         this.elements = elements;
+        markDirty("elements");
     }
 
     @Override
@@ -105,6 +107,7 @@ public class SEPatternAssociation extends SELanguageElement implements PatternAs
 
     public void setPattern(SEPattern pattern) {
         this.pattern = pattern;
+        markDirty("pattern");
     }
 
 }
@@ -191,6 +191,7 @@ public class SEPractice extends SEElementGroup implements Practice, KeyWordsInde
 
     public void setConsistencyRules(String consistencyRules) {
         this.consistencyRules = consistencyRules;
+        markDirty("consistencyRules");
     }
 
     @Override
@@ -200,42 +201,47 @@ public class SEPractice extends SEElementGroup implements Practice, KeyWordsInde
 
     public void setObjective(String objective) {
         this.objective = objective;
+        markDirty("objective");
     }
 
     @Override
     public Collection<String> getMeasures() {
-        return measures;
+        return tracked("measures", measures);
     }
 
     public void setMeasures(Collection<String> measures) {
         this.measures = measures;
+        markDirty("measures");
     }
 
     @Override
     public Collection<String> getEntry() {
-        return entry;
+        return tracked("entry", entry);
     }
 
     public void setEntry(Collection<String> entry) {
         this.entry = entry;
+        markDirty("entry");
     }
 
     @Override
     public Collection<String> getResult() {
-        return result;
+        return tracked("result", result);
     }
 
     public void setResult(Collection<String> result) {
         this.result = result;
+        markDirty("result");
     }
 
     @Override
     public List<String> getKeyWords() {
-        return keyWords;
+        return tracked("keyWords", keyWords);
     }
 
     public void setKeyWords(List<String> keyWords) {
         this.keyWords = keyWords;
+        markDirty("keyWords");
     }
 
     public String getAuthor() {
@@ -244,5 +250,6 @@ public class SEPractice extends SEElementGroup implements Practice, KeyWordsInde
 
     public void setAuthor(String author) {
         this.author = author;
+        markDirty("author");
     }
 }
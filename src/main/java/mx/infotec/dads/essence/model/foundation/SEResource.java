@@ -83,6 +83,7 @@ public class SEResource extends SELanguageElement implements Resource{
 
     public void setContent(String content) {
         this.content = content;
+        markDirty("content");
     }
 
     @Override
@@ -92,6 +93,7 @@ public class SEResource extends SELanguageElement implements Resource{
 
     public void setLanguageElement(SELanguageElement languageElement) {
         this.languageElement = languageElement;
+        markDirty("languageElement");
     }
 
 }
@@ -78,6 +78,7 @@ public class SETag extends SELanguageElement implements Tag {
 
     public void setValue(String value) {
         this.value = value;
+        markDirty("value");
     }
 
     @Override
@@ -87,6 +88,7 @@ public class SETag extends SELanguageElement implements Tag {
 
     public void setLanguageElement(SELanguageElement languageElement) {
         this.languageElement = languageElement;
+        markDirty("languageElement");
     }
 
 }
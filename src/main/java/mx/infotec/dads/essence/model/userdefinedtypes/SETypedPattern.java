@@ -74,6 +74,7 @@ public class SETypedPattern extends SEPattern implements TypedPattern {
 
     public void setKind(UserDefinedType kind) {
         this.kind = kind;
+        markDirty("kind");
     }
 
 }
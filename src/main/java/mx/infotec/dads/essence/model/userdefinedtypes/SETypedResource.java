@@ -74,6 +74,7 @@ public class SETypedResource extends SEResource implements TypedResource {
 
     public void setKind(UserDefinedType kind) {
         this.kind = kind;
+        markDirty("kind");
     }
 
 }
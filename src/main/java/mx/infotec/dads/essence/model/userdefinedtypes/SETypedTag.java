@@ -74,6 +74,7 @@ public class SETypedTag extends SETag implements TypedTag {
 
     public void setKind(UserDefinedType kind) {
         this.kind = kind;
+        markDirty("kind");
     }
 
 }
@@ -104,6 +104,7 @@ public class SEUserDefinedType extends SELanguageElement implements UserDefinedT
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -113,6 +114,7 @@ public class SEUserDefinedType extends SELanguageElement implements UserDefinedT
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     @Override
@@ -122,33 +124,37 @@ public class SEUserDefinedType extends SELanguageElement implements UserDefinedT
 
     public void setConstraint(String constraint) {
         this.constraint = constraint;
+        markDirty("constraint");
     }
 
     @Override
     public Collection<TypedResource> getTypedResource() {
-        return typedResource;
+        return tracked("typedResource", typedResource);
     }
 
     public void setTypedResource(Collection<TypedResource> typedResource) {
         this.typedResource = typedResource;
+        markDirty("typedResource");
     }
 
     @Override
     public Collection<TypedPattern> getTypedPattern() {
-        return typedPattern;
+        return tracked("typedPattern", typedPattern);
     }
 
     public void setTypedPattern(Collection<TypedPattern> typedPattern) {
         this.typedPattern = typedPattern;
+        markDirty("typedPattern");
     }
 
     @Override
     public Collection<TypedTag> getTypedTag() {
-        return typedTag;
+        return tracked("typedTag", typedTag);
     }
 
     public void setTypedTag(Collection<TypedTag> typedTag) {
         this.typedTag = typedTag;
+        markDirty("typedTag");
     }
 
 }
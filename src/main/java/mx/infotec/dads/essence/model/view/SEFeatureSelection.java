@@ -80,6 +80,7 @@ public class SEFeatureSelection extends SELanguageElement implements FeatureSele
 
     public void setFeatureName(String featureName) {
         this.featureName = featureName;
+        markDirty("featureName");
     }
 
     @Override
@@ -89,6 +90,7 @@ public class SEFeatureSelection extends SELanguageElement implements FeatureSele
 
     public void setConstruct(SELanguageElement construct) {
         this.construct = construct;
+        markDirty("construct");
     }
 
 }
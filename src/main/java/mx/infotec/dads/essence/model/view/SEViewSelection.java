@@ -99,6 +99,7 @@ public class SEViewSelection extends SELanguageElement implements ViewSelection
 
     public void setName(String name) {
         this.name = name;
+        markDirty("name");
     }
 
     @Override
@@ -108,33 +109,37 @@ public class SEViewSelection extends SELanguageElement implements ViewSelection
 
     public void setDescription(String description) {
         this.description = description;
+        markDirty("description");
     }
 
     @Override
     public Collection<SEViewSelection> getReferringViewSelection() {
-        return referringViewSelection;
+        return tracked("referringViewSelection", referringViewSelection);
     }
 
     public void setReferringViewSelection(Collection<SEViewSelection> referringViewSelection) {
         this.referringViewSelection = referringViewSelection;
+        markDirty("referringViewSelection");
     }
 
     @Override
     public Collection<SELanguageElement> getConstructSelection() {
-        return constructSelection;
+        return tracked("constructSelection", constructSelection);
     }
 
     public void setConstructSelection(Collection<SELanguageElement> constructSelection) {
         this.constructSelection = constructSelection;
+        markDirty("constructSelection");
     }
 
     @Override
     public Collection<SEViewSelection> getIncludedViewSelection() {
-        return includedViewSelection;
+        return tracked("includedViewSelection", includedViewSelection);
     }
 
     public void setIncludedViewSelection(Collection<SEViewSelection> includedViewSelection) {
         this.includedViewSelection = includedViewSelection;
+        markDirty("includedViewSelection");
     }
 
 }
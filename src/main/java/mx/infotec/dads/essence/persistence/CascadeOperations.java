@@ -0,0 +1,321 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+import com.mongodb.WriteResult;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.tenant.Tenants;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * CascadeOperations, saves and deletes an element together with the elements
+ * of its cascading relationships, configured by field name in
+ * essence.persistence.cascade. Saving a practice inserts its new owned
+ * elements and updates the changed ones; deleting an alpha deletes its
+ * states with their checkpoints and criteria.
+ * 
+ * <p>
+ * The writes of a cascade are sent as one bulk write per collection through
+ * a {@link PartialUpdates.Batch}. The stored documents of the related
+ * elements are read with one query per collection and only the elements
+ * that differ from them are written, the rest of the graph costs nothing.
+ * The related elements that were not loaded, the id only elements left by
+ * the read limits, are neither written nor followed.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class CascadeOperations implements ApplicationEventPublisherAware {
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private PartialUpdates partialUpdates;
+
+    @Autowired
+    private EmbeddedLayout embeddedLayout;
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private Tenants tenants;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Save an element with the new and changed elements of its save
+     * cascading relationships
+     * 
+     * @param element
+     * @return T the saved element
+     * @throws org.springframework.dao.OptimisticLockingFailureException
+     *             if some elements were modified after they were loaded
+     */
+    public <T extends SELanguageElement> T save(T element) {
+        List<SELanguageElement> inserts = new ArrayList<>();
+        Map<String, List<SELanguageElement>> updates = new LinkedHashMap<>();
+        collectSaves(element, inserts, updates);
+        PartialUpdates.Batch batch = partialUpdates.batch();
+        for (Map.Entry<String, List<SELanguageElement>> entry : updates.entrySet()) {
+            Map<String, DBObject> stored = findStored(entry.getKey(), entry.getValue());
+            for (SELanguageElement current : entry.getValue()) {
+                DBObject document = stored.get(current.getId());
+                if (document == null) {
+                    batch.insert(current);
+                } else {
+                    batch.add(new ElementSnapshot<>(current, document));
+                }
+            }
+        }
+        for (SELanguageElement current : inserts) {
+            batch.insert(current);
+        }
+        batch.execute();
+        return element;
+    }
+
+    /**
+     * Delete a stored element with the elements of its delete cascading
+     * relationships. The relationships are followed over the stored
+     * documents, so the elements not loaded are deleted too. The quota of
+     * the current tenant is released by the number of removed documents.
+     * 
+     * @param element
+     * @return int the number of deleted elements
+     */
+    public int delete(SELanguageElement element) {
+        if (element.getId() == null) {
+            throw new EssenceCoreException("Only stored elements can be deleted");
+        }
+        Map<String, Set<Object>> deleted = new LinkedHashMap<>();
+        Map<String, Set<Object>> level = new HashMap<>();
+        level.put(mongoOperations.getCollectionName(element.getClass()),
+                Collections.singleton(MongoEvents.toStoredId(element.getId())));
+        while (!level.isEmpty()) {
+            Map<String, Set<Object>> next = new HashMap<>();
+            for (Map.Entry<String, Set<Object>> entry : level.entrySet()) {
+                Set<Object> ids = new LinkedHashSet<>(entry.getValue());
+                ids.removeAll(deleted.getOrDefault(entry.getKey(), Collections.emptySet()));
+                if (!ids.isEmpty()) {
+                    deleted.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).addAll(ids);
+                    collectDeletes(entry.getKey(), ids, next);
+                }
+            }
+            level = next;
+        }
+        List<String> collections = new ArrayList<>(deleted.keySet());
+        Collections.reverse(collections);
+        String tenant = TenantContext.get();
+        int count = 0;
+        for (String collectionName : collections) {
+            Set<Object> ids = deleted.get(collectionName);
+            WriteResult result = mongoOperations.getCollection(collectionName).remove(
+                    new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", new ArrayList<>(ids))));
+            KernelEnum elementType = KernelEnum.fromCollection(collectionName);
+            if (tenant != null && elementType != null && result.getN() > 0) {
+                tenants.release(tenant, result.getN());
+            }
+            Class<?> type = elementType == null ? Object.class : elementType.getType();
+            for (Object id : ids) {
+                publishDeleted(type, id, collectionName);
+            }
+            count += ids.size();
+        }
+        return count;
+    }
+
+    private <T> void publishDeleted(Class<T> type, Object id, String collectionName) {
+        eventPublisher.publishEvent(
+                new AfterDeleteEvent<>(new BasicDBObject(MongoEvents.ID_FIELD, id), type, collectionName));
+    }
+
+    /**
+     * Walk the save cascading relationships, the new elements are given an
+     * id first so the converted documents can refer them
+     */
+    private void collectSaves(SELanguageElement root, List<SELanguageElement> inserts,
+            Map<String, List<SELanguageElement>> updates) {
+        Set<SELanguageElement> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> ids = new HashSet<>();
+        Deque<SELanguageElement> pending = new ArrayDeque<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            SELanguageElement element = pending.poll();
+            if (!visited.add(element) || (element.getId() != null && !ids.add(element.getId()))) {
+                continue;
+            }
+            if (element.getId() == null) {
+                element.setId(new ObjectId().toString());
+                inserts.add(element);
+            } else if (element == root || isLoaded(element)) {
+                updates.computeIfAbsent(mongoOperations.getCollectionName(element.getClass()),
+                        k -> new ArrayList<>()).add(element);
+            } else {
+                continue;
+            }
+            MongoPersistentEntity<?> entity = getPersistentEntity(element.getClass());
+            PersistentPropertyAccessor accessor = entity.getPropertyAccessor(element);
+            for (MongoPersistentProperty property : getCascading(entity, CascadeType::isSave)) {
+                Object value = accessor.getProperty(property);
+                Collection<?> children = value instanceof Collection ? (Collection<?>) value
+                        : Collections.singleton(value);
+                for (Object child : children) {
+                    if (child instanceof SELanguageElement) {
+                        pending.add((SELanguageElement) child);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the references of the delete cascading relationships of stored
+     * elements
+     */
+    private void collectDeletes(String collectionName, Set<Object> ids, Map<String, Set<Object>> next) {
+        KernelEnum elementType = KernelEnum.fromCollection(collectionName);
+        if (elementType == null) {
+            return;
+        }
+        List<MongoPersistentProperty> cascading = getCascading(getPersistentEntity(elementType.getType()),
+                CascadeType::isDelete);
+        if (cascading.isEmpty()) {
+            return;
+        }
+        BasicDBObject fields = new BasicDBObject();
+        for (MongoPersistentProperty property : cascading) {
+            fields.append(property.getFieldName(), 1);
+        }
+        try (DBCursor cursor = mongoOperations.getCollection(collectionName).find(
+                new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", new ArrayList<>(ids))), fields)) {
+            for (DBObject document : cursor) {
+                for (MongoPersistentProperty property : cascading) {
+                    Object value = document.get(property.getFieldName());
+                    Collection<?> refs = value instanceof Collection ? (Collection<?>) value
+                            : Collections.singleton(value);
+                    for (Object ref : refs) {
+                        if (ref instanceof DBRef) {
+                            next.computeIfAbsent(((DBRef) ref).getCollectionName(), k -> new LinkedHashSet<>())
+                                    .add(((DBRef) ref).getId());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The stored documents of elements of a collection by id
+     */
+    private Map<String, DBObject> findStored(String collectionName, List<SELanguageElement> elements) {
+        List<Object> ids = new ArrayList<>(elements.size());
+        for (SELanguageElement element : elements) {
+            ids.add(MongoEvents.toStoredId(element.getId()));
+        }
+        Map<String, DBObject> stored = new HashMap<>();
+        DBCollection collection = mongoOperations.getCollection(collectionName);
+        try (DBCursor cursor = collection.find(new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", ids)))) {
+            for (DBObject document : cursor) {
+                stored.put(MongoEvents.getId(document), document);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * The cascading relationships of an entity, the owned value fields of
+     * the embedded layout are stored with their owner and are never
+     * cascaded
+     */
+    private List<MongoPersistentProperty> getCascading(MongoPersistentEntity<?> entity,
+            Predicate<CascadeType> predicate) {
+        List<String> embedded = embeddedLayout.isEmbedded() ? OwnedValueElements.fieldsOf(entity.getType())
+                : Collections.emptyList();
+        List<MongoPersistentProperty> cascading = new ArrayList<>();
+        for (Map.Entry<String, CascadeType> entry : properties.getPersistence().getCascade().entrySet()) {
+            MongoPersistentProperty property = entity.getPersistentProperty(entry.getKey());
+            if (property != null && predicate.test(entry.getValue()) && !embedded.contains(entry.getKey())) {
+                cascading.add(property);
+            }
+        }
+        return cascading;
+    }
+
+    private MongoPersistentEntity<?> getPersistentEntity(Class<?> type) {
+        return mongoOperations.getConverter().getMappingContext().getPersistentEntity(type);
+    }
+
+    /**
+     * The id only elements have neither version nor dates
+     */
+    private static boolean isLoaded(SELanguageElement element) {
+        return element.getVersion() != null || element.getLastModifiedDate() != null
+                || element.getCreatedDate() != null;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * ConcurrentEdits, saves of versioned elements that retry on a version
+ * conflict. On a conflict the latest version of the element is loaded and the
+ * edit is merged into it before saving again.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ConcurrentEdits {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentEdits.class);
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    /**
+     * Load the latest version of an element, apply the edit and save it. The
+     * edit is applied again over a fresh copy when another editor saved the
+     * element in the meantime.
+     * 
+     * @param type
+     * @param id
+     * @param edit
+     * @return T the saved element
+     */
+    public <T extends SELanguageElement> T edit(Class<T> type, String id, Consumer<T> edit) {
+        return edit(type, id, edit, 1);
+    }
+
+    /**
+     * The edit loop, starting at the given attempt so the saves already tried
+     * count against the maximum attempts
+     */
+    private <T extends SELanguageElement> T edit(Class<T> type, String id, Consumer<T> edit, int firstAttempt) {
+        int maxAttempts = properties.getPersistence().getMaxAttempts();
+        for (int attempt = firstAttempt;; attempt++) {
+            T latest = findLatest(type, id);
+            edit.accept(latest);
+            try {
+                mongoOperations.save(latest);
+                return latest;
+            } catch (OptimisticLockingFailureException e) {
+                onConflict(type, id, attempt, maxAttempts, e);
+            }
+        }
+    }
+
+    /**
+     * Save an element modified by the caller. When the element is stale the
+     * merge function receives the latest stored version and the modified
+     * element, and it must copy the edited fields into the latest version,
+     * which is saved instead.
+     * 
+     * @param modified
+     * @param merge
+     *            (latest, modified) -> void
+     * @return T the saved element
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends SELanguageElement> T save(T modified, BiConsumer<T, T> merge) {
+        Class<T> type = (Class<T>) modified.getClass();
+        Long version = modified.getVersion();
+        try {
+            mongoOperations.save(modified);
+            return modified;
+        } catch (OptimisticLockingFailureException e) {
+            modified.setVersion(version);
+            onConflict(type, modified.getId(), 1, properties.getPersistence().getMaxAttempts(), e);
+        }
+        return edit(type, modified.getId(), latest -> merge.accept(latest, modified), 2);
+    }
+
+    private <T extends SELanguageElement> T findLatest(Class<T> type, String id) {
+        T latest = mongoOperations.findById(id, type);
+        if (latest == null) {
+            throw new EssenceCoreException("The element " + id + " does not exist");
+        }
+        return latest;
+    }
+
+    private static void onConflict(Class<?> type, String id, int attempt, int maxAttempts,
+            OptimisticLockingFailureException e) {
+        if (attempt >= maxAttempts) {
+            throw e;
+        }
+        LOGGER.debug("Version conflict saving {} {}, attempt {} of {}", type.getSimpleName(), id, attempt,
+                maxAttempts);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * DirtySaveInterceptor, turns the save of a tracked element into the update
+ * of its dirty fields. The save of a clean element does not reach the
+ * database; new and untracked elements are saved as whole documents.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class DirtySaveInterceptor implements MethodInterceptor {
+
+    private static final String SAVE = "save";
+
+    private final Supplier<PartialUpdates> partialUpdates;
+
+    /**
+     * @param partialUpdates
+     *            resolved on the first save, the repositories are created
+     *            before the rest of the persistence components
+     */
+    public DirtySaveInterceptor(Supplier<PartialUpdates> partialUpdates) {
+        this.partialUpdates = partialUpdates;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object[] arguments = invocation.getArguments();
+        if (!SAVE.equals(invocation.getMethod().getName()) || arguments.length != 1) {
+            return invocation.proceed();
+        }
+        if (arguments[0] instanceof SELanguageElement) {
+            SELanguageElement element = (SELanguageElement) arguments[0];
+            if (!isTracked(element)) {
+                return invocation.proceed();
+            }
+            partialUpdates.get().updateDirty(element);
+            return element;
+        }
+        if (arguments[0] instanceof Iterable) {
+            return saveAll(invocation, (Iterable<?>) arguments[0]);
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * The tracked elements are updated with one bulk write per collection,
+     * the rest are saved by the repository
+     */
+    private Object saveAll(MethodInvocation invocation, Iterable<?> entities) throws Throwable {
+        List<Object> saved = new ArrayList<>();
+        List<Object> untracked = new ArrayList<>();
+        PartialUpdates.Batch batch = null;
+        for (Object entity : entities) {
+            saved.add(entity);
+            if (entity instanceof SELanguageElement && isTracked((SELanguageElement) entity)) {
+                if (batch == null) {
+                    batch = partialUpdates.get().batch();
+                }
+                batch.addDirty((SELanguageElement) entity);
+            } else {
+                untracked.add(entity);
+            }
+        }
+        if (batch == null) {
+            return invocation.proceed();
+        }
+        batch.execute();
+        if (!untracked.isEmpty()) {
+            invocation.getArguments()[0] = untracked;
+            invocation.proceed();
+        }
+        return saved;
+    }
+
+    private static boolean isTracked(SELanguageElement element) {
+        return element.isTracked() && element.getId() != null;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * DirtyTracking, translates the dirty fields recorded by the setters and
+ * collections of the language elements into the fields of their documents.
+ * With the {@link PersistenceLayout#EMBEDDED} layout the owned value
+ * elements are part of the document of their owner, a change of a checkpoint
+ * makes the checkListItem field of its state dirty.
+ * 
+ * <p>
+ * The values held by an element that are not language elements, like the
+ * icon, can be mutated in place without a setter. Their stored form is kept
+ * when the element is loaded or saved, and compared with their converted
+ * form on the next save.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class DirtyTracking {
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private EmbeddedLayout embeddedLayout;
+
+    private final Map<Class<?>, List<String>> valueFieldsByType = new ConcurrentHashMap<>();
+
+    /**
+     * The document fields to write for the changes of an element
+     * 
+     * @param element
+     * @return Set<String> empty if the element is clean
+     */
+    public Set<String> getDirtyFields(SELanguageElement element) {
+        MongoPersistentEntity<?> entity = getPersistentEntity(element);
+        Set<String> fields = new LinkedHashSet<>();
+        for (String name : element.getDirtyFields()) {
+            MongoPersistentProperty property = entity.getPersistentProperty(name);
+            if (property != null) {
+                fields.add(property.getFieldName());
+            }
+        }
+        if (embeddedLayout.isEmbedded()) {
+            PersistentPropertyAccessor accessor = entity.getPropertyAccessor(element);
+            for (String name : OwnedValueElements.fieldsOf(element.getClass())) {
+                MongoPersistentProperty property = entity.getPersistentProperty(name);
+                if (property != null && !fields.contains(property.getFieldName())) {
+                    for (SELanguageElement child : getOwnedValues(accessor, property)) {
+                        if (!getDirtyFields(child).isEmpty()) {
+                            fields.add(property.getFieldName());
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * The embedded values of an element that differ from their stored form
+     * 
+     * @param element
+     * @param document
+     *            the element converted as it is now
+     * @return Set<String> the document fields of the changed values
+     */
+    public Set<String> getChangedValues(SELanguageElement element, DBObject document) {
+        Map<String, Object> stored = element.getStoredValues();
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : getValueFields(element)) {
+            if (!Objects.equals(stored.get(field), document.get(field))) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Start tracking an element that mirrors its stored document
+     * 
+     * @param element
+     */
+    public void markClean(SELanguageElement element) {
+        element.markClean();
+        markEmbeddedClean(element, null);
+    }
+
+    /**
+     * Start tracking an element that mirrors its stored document, keeping
+     * the stored form of its embedded values
+     * 
+     * @param element
+     * @param document
+     *            the stored document
+     */
+    public void markClean(SELanguageElement element, DBObject document) {
+        Map<String, Object> values = new HashMap<>();
+        for (String field : getValueFields(element)) {
+            values.put(field, document.get(field));
+        }
+        element.markClean(values);
+        markEmbeddedClean(element, null);
+    }
+
+    /**
+     * Forget the changes of the written fields of an element
+     * 
+     * @param element
+     * @param fields
+     *            the written document fields, dotted paths are cleaned by
+     *            their first field
+     */
+    public void markClean(SELanguageElement element, Collection<String> fields) {
+        markClean(element, fields, null);
+    }
+
+    /**
+     * Forget the changes of the written fields of an element, keeping the
+     * written form of its embedded values
+     * 
+     * @param element
+     * @param fields
+     *            the written document fields, dotted paths are cleaned by
+     *            their first field
+     * @param document
+     *            the written document, null to keep the embedded values
+     */
+    public void markClean(SELanguageElement element, Collection<String> fields, DBObject document) {
+        Set<String> written = new LinkedHashSet<>();
+        for (String field : fields) {
+            int dot = field.indexOf('.');
+            written.add(dot < 0 ? field : field.substring(0, dot));
+        }
+        MongoPersistentEntity<?> entity = getPersistentEntity(element);
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : element.getDirtyFields()) {
+            MongoPersistentProperty property = entity.getPersistentProperty(name);
+            if (property == null || written.contains(property.getFieldName())) {
+                names.add(name);
+            }
+        }
+        Map<String, Object> values = new HashMap<>(element.getStoredValues());
+        if (document != null) {
+            for (String field : getValueFields(element)) {
+                if (written.contains(field)) {
+                    values.put(field, document.get(field));
+                }
+            }
+        }
+        element.markClean(names, values);
+        markEmbeddedClean(element, written);
+    }
+
+    private void markEmbeddedClean(SELanguageElement element, Set<String> written) {
+        if (!embeddedLayout.isEmbedded()) {
+            return;
+        }
+        MongoPersistentEntity<?> entity = getPersistentEntity(element);
+        PersistentPropertyAccessor accessor = entity.getPropertyAccessor(element);
+        for (String name : OwnedValueElements.fieldsOf(element.getClass())) {
+            MongoPersistentProperty property = entity.getPersistentProperty(name);
+            if (property != null && (written == null || written.contains(property.getFieldName()))) {
+                for (SELanguageElement child : getOwnedValues(accessor, property)) {
+                    markClean(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * The fields of the values that are not language elements, with the
+     * embedded layout the owned value elements too, a checkpoint changed in
+     * place changes the checkListItem field of its state
+     */
+    private List<String> getValueFields(SELanguageElement element) {
+        return valueFieldsByType.computeIfAbsent(element.getClass(), type -> {
+            MongoPersistentEntity<?> entity = getPersistentEntity(element);
+            List<String> fields = new ArrayList<>();
+            entity.doWithProperties((MongoPersistentProperty property) -> {
+                if (property.isEntity() && !property.isIdProperty() && !property.isVersionProperty()
+                        && !SELanguageElement.class.isAssignableFrom(property.getActualType())) {
+                    fields.add(property.getFieldName());
+                }
+            });
+            if (embeddedLayout.isEmbedded()) {
+                for (String name : OwnedValueElements.fieldsOf(type)) {
+                    MongoPersistentProperty property = entity.getPersistentProperty(name);
+                    if (property != null) {
+                        fields.add(property.getFieldName());
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<SELanguageElement> getOwnedValues(PersistentPropertyAccessor accessor,
+            MongoPersistentProperty property) {
+        Object value = accessor.getProperty(property);
+        return value instanceof Collection ? (Collection<SELanguageElement>) value : Collections.emptyList();
+    }
+
+    private MongoPersistentEntity<?> getPersistentEntity(SELanguageElement element) {
+        return mongoOperations.getConverter().getMappingContext().getPersistentEntity(element.getClass());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * DirtyTrackingListener, starts the tracking of the changes of the elements
+ * when they are loaded and forgets the changes already written
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class DirtyTrackingListener extends AbstractMongoEventListener<SELanguageElement> {
+
+    @Autowired
+    private DirtyTracking dirtyTracking;
+
+    @Override
+    public void onAfterConvert(AfterConvertEvent<SELanguageElement> event) {
+        dirtyTracking.markClean(event.getSource(), event.getDBObject());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<SELanguageElement> event) {
+        if (event instanceof PartialSaveEvent) {
+            dirtyTracking.markClean(event.getSource(), ((PartialSaveEvent<?>) event).getChangedFields(),
+                    event.getDBObject());
+        } else {
+            dirtyTracking.markClean(event.getSource(), event.getDBObject());
+        }
+    }
+}
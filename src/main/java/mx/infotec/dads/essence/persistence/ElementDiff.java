@@ -0,0 +1,287 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * ElementDiff, the minimal update between two converted versions of a
+ * document. The comparison is made field by field: new or modified fields are
+ * $set, removed fields are $unset and arrays that only grew at the end are
+ * $push-ed with $each.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ElementDiff {
+
+    private static final Set<String> IGNORED_FIELDS = Collections.singleton("_id");
+
+    private final Map<String, Object> set = new LinkedHashMap<>();
+
+    private final Set<String> unset = new LinkedHashSet<>();
+
+    private final Map<String, List<Object>> push = new LinkedHashMap<>();
+
+    private ElementDiff() {
+
+    }
+
+    /**
+     * Compare two versions of a document
+     * 
+     * @param before
+     *            the stored version
+     * @param after
+     *            the modified version
+     * @return ElementDiff
+     */
+    public static ElementDiff between(DBObject before, DBObject after) {
+        ElementDiff diff = new ElementDiff();
+        for (String field : after.keySet()) {
+            if (IGNORED_FIELDS.contains(field)) {
+                continue;
+            }
+            Object newValue = after.get(field);
+            if (!before.containsField(field)) {
+                if (newValue != null) {
+                    diff.set.put(field, newValue);
+                }
+            } else {
+                Object oldValue = before.get(field);
+                if (newValue == null) {
+                    if (oldValue != null) {
+                        diff.unset.add(field);
+                    }
+                } else if (!Objects.equals(oldValue, newValue)) {
+                    List<Object> appended = getAppended(oldValue, newValue);
+                    if (appended != null) {
+                        diff.push.put(field, appended);
+                    } else {
+                        diff.set.put(field, newValue);
+                    }
+                }
+            }
+        }
+        for (String field : before.keySet()) {
+            if (!IGNORED_FIELDS.contains(field) && !after.containsField(field) && before.get(field) != null) {
+                diff.unset.add(field);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * The changes of some fields of a document, known to be modified, the
+     * fields are written as they are in the document
+     * 
+     * @param document
+     *            the modified version
+     * @param fields
+     * @return ElementDiff
+     */
+    public static ElementDiff of(DBObject document, Collection<String> fields) {
+        ElementDiff diff = new ElementDiff();
+        for (String field : fields) {
+            Object value = document.get(field);
+            if (value == null) {
+                diff.unset.add(field);
+            } else {
+                diff.set.put(field, value);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * The items appended to an array, or null if the new value is not the old
+     * array with more items at the end
+     */
+    private static List<Object> getAppended(Object oldValue, Object newValue) {
+        if (!(oldValue instanceof BasicDBList) || !(newValue instanceof BasicDBList)) {
+            return null;
+        }
+        BasicDBList oldList = (BasicDBList) oldValue;
+        BasicDBList newList = (BasicDBList) newValue;
+        if (oldList.isEmpty() || newList.size() <= oldList.size()) {
+            return null;
+        }
+        for (int i = 0; i < oldList.size(); i++) {
+            if (!Objects.equals(oldList.get(i), newList.get(i))) {
+                return null;
+            }
+        }
+        return new ArrayList<>(newList.subList(oldList.size(), newList.size()));
+    }
+
+    /**
+     * Force the value of a field, used for the fields maintained by the
+     * persistence layer like the last modified date
+     * 
+     * @param field
+     * @param value
+     * @return ElementDiff this diff
+     */
+    public ElementDiff set(String field, Object value) {
+        unset.remove(field);
+        push.remove(field);
+        set.put(field, value);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return set.isEmpty() && unset.isEmpty() && push.isEmpty();
+    }
+
+    /**
+     * The names of the modified fields
+     * 
+     * @return Set<String>
+     */
+    public Set<String> getChangedFields() {
+        Set<String> fields = new LinkedHashSet<>(set.keySet());
+        fields.addAll(unset);
+        fields.addAll(push.keySet());
+        return fields;
+    }
+
+    public Map<String, Object> getSet() {
+        return Collections.unmodifiableMap(set);
+    }
+
+    public Set<String> getUnset() {
+        return Collections.unmodifiableSet(unset);
+    }
+
+    public Map<String, List<Object>> getPush() {
+        return Collections.unmodifiableMap(push);
+    }
+
+    /**
+     * The raw update document, the values are already converted so it is
+     * sent to the collection as is
+     * 
+     * @return DBObject
+     */
+    public DBObject toUpdateObject() {
+        BasicDBObject update = new BasicDBObject();
+        if (!set.isEmpty()) {
+            update.put("$set", new BasicDBObject(set));
+        }
+        if (!unset.isEmpty()) {
+            BasicDBObject fields = new BasicDBObject();
+            for (String field : unset) {
+                fields.put(field, 1);
+            }
+            update.put("$unset", fields);
+        }
+        if (!push.isEmpty()) {
+            BasicDBObject fields = new BasicDBObject();
+            for (Map.Entry<String, List<Object>> entry : push.entrySet()) {
+                fields.put(entry.getKey(), new BasicDBObject("$each", entry.getValue()));
+            }
+            update.put("$push", fields);
+        }
+        return update;
+    }
+
+    /**
+     * Apply the diff to a copy of the document it was computed from
+     * 
+     * @param document
+     *            the before version
+     * @return DBObject the after version
+     */
+    public DBObject applyTo(DBObject document) {
+        BasicDBObject result = new BasicDBObject(document.toMap());
+        result.putAll(set);
+        for (String field : unset) {
+            result.removeField(field);
+        }
+        for (Map.Entry<String, List<Object>> entry : push.entrySet()) {
+            BasicDBList list = new BasicDBList();
+            Object current = result.get(entry.getKey());
+            if (current instanceof List) {
+                list.addAll((List<?>) current);
+            }
+            list.addAll(entry.getValue());
+            result.put(entry.getKey(), list);
+        }
+        return result;
+    }
+
+    /**
+     * The diff as a document that can be stored, the update operators are not
+     * valid field names of a stored document
+     * 
+     * @return DBObject
+     */
+    public DBObject toDBObject() {
+        BasicDBList unsetFields = new BasicDBList();
+        unsetFields.addAll(unset);
+        return new BasicDBObject("set", new BasicDBObject(set)).append("unset", unsetFields).append("push",
+                new BasicDBObject(push));
+    }
+
+    /**
+     * Read a diff stored with {@link #toDBObject()}
+     * 
+     * @param dbo
+     * @return ElementDiff
+     */
+    @SuppressWarnings("unchecked")
+    public static ElementDiff fromDBObject(DBObject dbo) {
+        ElementDiff diff = new ElementDiff();
+        DBObject setFields = (DBObject) dbo.get("set");
+        if (setFields != null) {
+            for (String field : setFields.keySet()) {
+                diff.set.put(field, setFields.get(field));
+            }
+        }
+        Object unsetFields = dbo.get("unset");
+        if (unsetFields != null) {
+            diff.unset.addAll((List<String>) unsetFields);
+        }
+        DBObject pushFields = (DBObject) dbo.get("push");
+        if (pushFields != null) {
+            for (String field : pushFields.keySet()) {
+                diff.push.put(field, new ArrayList<>((List<Object>) pushFields.get(field)));
+            }
+        }
+        return diff;
+    }
+}
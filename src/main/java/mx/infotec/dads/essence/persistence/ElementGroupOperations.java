@@ -0,0 +1,198 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.model.foundation.SEElementGroup;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ElementGroupOperations, atomic membership changes over the ownedElements
+ * and referredElements of an element group. Each change is a single
+ * $addToSet or $pull, so concurrent editors of the same kernel or practice
+ * never lose each other's members. The updates are guarded by the current
+ * membership so the version is only incremented when the members change.
+ * 
+ * <p>
+ * The version of the group is incremented, a full save of a stale copy of
+ * the group fails instead of overwriting the new members.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ElementGroupOperations implements ApplicationEventPublisherAware {
+
+    public static final String OWNED_ELEMENTS = "ownedElements";
+
+    public static final String REFERRED_ELEMENTS = "referredElements";
+
+    private static final String VERSION = "version";
+
+    private static final String LAST_MODIFIED_DATE = "lastModifiedDate";
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean addOwnedElement(SEElementGroup group, SELanguageElement element) {
+        return addToSet(group, OWNED_ELEMENTS, element, () -> {
+            if (group.getOwnedElements() == null) {
+                group.setOwnedElements(new ArrayList<>());
+            }
+            addIfAbsent(group.getOwnedElements(), element);
+        });
+    }
+
+    public boolean removeOwnedElement(SEElementGroup group, SELanguageElement element) {
+        return pull(group, OWNED_ELEMENTS, element, () -> removeById(group.getOwnedElements(), element));
+    }
+
+    public boolean addReferredElement(SEElementGroup group, SELanguageElement element) {
+        return addToSet(group, REFERRED_ELEMENTS, element, () -> {
+            if (group.getReferredElements() == null) {
+                group.setReferredElements(new ArrayList<>());
+            }
+            addIfAbsent(group.getReferredElements(), element);
+        });
+    }
+
+    public boolean removeReferredElement(SEElementGroup group, SELanguageElement element) {
+        return pull(group, REFERRED_ELEMENTS, element, () -> removeById(group.getReferredElements(), element));
+    }
+
+    private boolean addToSet(SEElementGroup group, String field, SELanguageElement element, Runnable inMemory) {
+        DBRef ref = toDBRef(element);
+        return update(group, field, new BasicDBObject("$ne", ref),
+                new BasicDBObject("$addToSet", new BasicDBObject(field, ref)), inMemory);
+    }
+
+    private boolean pull(SEElementGroup group, String field, SELanguageElement element, Runnable inMemory) {
+        DBRef ref = toDBRef(element);
+        return update(group, field, ref, new BasicDBObject("$pull", new BasicDBObject(field, ref)), inMemory);
+    }
+
+    /**
+     * Apply a membership update, the update and the version increment are a
+     * single atomic write. The in-memory group receives the same membership
+     * change. It takes the stored version and modification date only when
+     * the update was the only write since it was loaded, a stale group keeps
+     * its version so a later save still fails the version check instead of
+     * overwriting the other edits. A local edit of the field done before the
+     * call keeps the field dirty. The updated document is published as a
+     * {@link PartialSaveEvent} to keep the listeners of the saves in sync.
+     * 
+     * @return boolean true if the group was modified
+     */
+    private boolean update(SEElementGroup group, String field, Object membership, BasicDBObject update,
+            Runnable inMemory) {
+        if (group.getId() == null) {
+            throw new EssenceCoreException("The element group must be saved before changing its members");
+        }
+        String collectionName = mongoOperations.getCollectionName(group.getClass());
+        DBCollection collection = mongoOperations.getCollection(collectionName);
+        BasicDBObject query = new BasicDBObject(MongoEvents.ID_FIELD, MongoEvents.toStoredId(group.getId()));
+        update.append("$inc", new BasicDBObject(VERSION, 1L)).append("$set",
+                new BasicDBObject(LAST_MODIFIED_DATE, new Date()));
+        DBObject updated = collection.findAndModify(new BasicDBObject(query).append(field, membership),
+                null, null, false, update, true, false);
+        if (updated == null && collection.count(query) == 0) {
+            throw new EssenceCoreException("The element group " + group.getId() + " does not exist");
+        }
+        boolean wasDirty = group.getDirtyFields().contains(field);
+        inMemory.run();
+        if (updated == null) {
+            // the stored membership already had the change
+            if (!wasDirty) {
+                group.markClean(Collections.singleton(field));
+            }
+            return false;
+        }
+        Object version = updated.get(VERSION);
+        if (version instanceof Number && group.getVersion() != null
+                && ((Number) version).longValue() == group.getVersion() + 1) {
+            group.setVersion(((Number) version).longValue());
+            Object lastModifiedDate = updated.get(LAST_MODIFIED_DATE);
+            if (lastModifiedDate instanceof Date) {
+                group.setLastModifiedDate(((Date) lastModifiedDate).toInstant());
+            }
+        }
+        eventPublisher.publishEvent(new PartialSaveEvent<Object>(group, updated, collectionName,
+                new HashSet<>(Arrays.asList(field, VERSION, LAST_MODIFIED_DATE))));
+        if (wasDirty) {
+            // the listeners forget the written field, the local edit is still
+            // to be saved
+            group.markDirty(field);
+        }
+        return true;
+    }
+
+    private DBRef toDBRef(SELanguageElement element) {
+        if (element.getId() == null) {
+            throw new EssenceCoreException("The element must be saved before adding it to a group");
+        }
+        return mongoOperations.getConverter().toDBRef(element, null);
+    }
+
+    private static void addIfAbsent(Collection<SELanguageElement> members, SELanguageElement element) {
+        for (SELanguageElement member : members) {
+            if (element.getId().equals(member.getId())) {
+                return;
+            }
+        }
+        members.add(element);
+    }
+
+    private static void removeById(Collection<SELanguageElement> members, SELanguageElement element) {
+        if (members != null) {
+            members.removeIf(member -> element.getId().equals(member.getId()));
+        }
+    }
+}
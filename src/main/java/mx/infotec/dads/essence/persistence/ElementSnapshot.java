@@ -0,0 +1,73 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * ElementSnapshot, the converted state of an element when it was loaded,
+ * used by {@link PartialUpdates} to compute what changed
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ElementSnapshot<T extends SELanguageElement> {
+
+    private final T element;
+
+    private final DBObject document;
+
+    private final Long version;
+
+    ElementSnapshot(T element, DBObject document) {
+        this.element = element;
+        this.document = document;
+        this.version = element.getVersion();
+    }
+
+    /**
+     * The element the snapshot was taken from
+     * 
+     * @return T
+     */
+    public T getElement() {
+        return element;
+    }
+
+    public DBObject getDocument() {
+        return document;
+    }
+
+    /**
+     * The version of the element when the snapshot was taken
+     * 
+     * @return Long
+     */
+    public Long getVersion() {
+        return version;
+    }
+}
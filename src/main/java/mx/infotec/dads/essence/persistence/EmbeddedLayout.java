@@ -0,0 +1,127 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * EmbeddedLayout, when the {@link PersistenceLayout#EMBEDDED} layout is
+ * configured the references to the owned value elements are replaced by the
+ * documents of the elements, so an SEState is stored together with its
+ * checkpoints and criteria and read back with a single query.
+ * 
+ * <p>
+ * The owned elements receive an id before the conversion, that way the
+ * converter can write the references of the owner and the back references
+ * of the children (for instance SECheckpoint.state) even for new elements.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class EmbeddedLayout {
+
+    @Autowired
+    private EssenceProperties properties;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    public boolean isEmbedded() {
+        return properties.getPersistence().getLayout() == PersistenceLayout.EMBEDDED;
+    }
+
+    /**
+     * Give an id to the element and its owned value elements, it must be
+     * called before converting the element
+     * 
+     * @param element
+     */
+    public void assignIds(Object element) {
+        MongoPersistentEntity<?> entity = getPersistentEntity(element);
+        PersistentPropertyAccessor accessor = entity.getPropertyAccessor(element);
+        if (entity.hasIdProperty() && accessor.getProperty(entity.getIdProperty()) == null) {
+            accessor.setProperty(entity.getIdProperty(), new ObjectId().toString());
+        }
+        for (String field : OwnedValueElements.fieldsOf(element.getClass())) {
+            for (Object child : getOwnedValues(entity, accessor, field)) {
+                assignIds(child);
+            }
+        }
+    }
+
+    /**
+     * Replace the references to the owned value elements of a converted
+     * element by their documents
+     * 
+     * @param element
+     * @param dbo
+     *            the converted element
+     */
+    public void embed(Object element, DBObject dbo) {
+        MongoPersistentEntity<?> entity = getPersistentEntity(element);
+        PersistentPropertyAccessor accessor = entity.getPropertyAccessor(element);
+        for (String field : OwnedValueElements.fieldsOf(element.getClass())) {
+            Collection<?> children = getOwnedValues(entity, accessor, field);
+            if (children.isEmpty()) {
+                continue;
+            }
+            BasicDBList embedded = new BasicDBList();
+            for (Object child : children) {
+                DBObject childDbo = new BasicDBObject();
+                mongoOperations.getConverter().write(child, childDbo);
+                embed(child, childDbo);
+                embedded.add(childDbo);
+            }
+            dbo.put(entity.getPersistentProperty(field).getFieldName(), embedded);
+        }
+    }
+
+    private static Collection<?> getOwnedValues(MongoPersistentEntity<?> entity, PersistentPropertyAccessor accessor,
+            String field) {
+        MongoPersistentProperty property = entity.getPersistentProperty(field);
+        Object value = property == null ? null : accessor.getProperty(property);
+        return value instanceof Collection ? (Collection<?>) value : Collections.emptyList();
+    }
+
+    private MongoPersistentEntity<?> getPersistentEntity(Object element) {
+        return mongoOperations.getConverter().getMappingContext().getPersistentEntity(element.getClass());
+    }
+}
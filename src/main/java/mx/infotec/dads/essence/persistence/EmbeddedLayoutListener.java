@@ -0,0 +1,61 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * EmbeddedLayoutListener, applies the {@link EmbeddedLayout} to the elements
+ * saved through the repositories
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class EmbeddedLayoutListener extends AbstractMongoEventListener<SELanguageElement> {
+
+    @Autowired
+    private EmbeddedLayout embeddedLayout;
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<SELanguageElement> event) {
+        if (embeddedLayout.isEmbedded()) {
+            embeddedLayout.assignIds(event.getSource());
+        }
+    }
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<SELanguageElement> event) {
+        if (embeddedLayout.isEmbedded()) {
+            embeddedLayout.embed(event.getSource(), event.getDBObject());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+
+import com.mongodb.DBObject;
+
+/**
+ * InsertFailedEvent, published when documents announced by a BeforeInsertEvent
+ * could not be inserted. The event carries the documents that were not
+ * stored, the listeners undo what they did before the write.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class InsertFailedEvent extends MongoMappingEvent<List<DBObject>> {
+
+    private static final long serialVersionUID = 1L;
+
+    public InsertFailedEvent(List<DBObject> documents, String collectionName) {
+        super(Collections.unmodifiableList(documents), null, collectionName);
+    }
+
+    public List<DBObject> getDocuments() {
+        return getSource();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEAbstractActivity;
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivity;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SELevelOfDetail;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEState;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * OwnedValueElements, the reference fields whose elements belong to a single
+ * owner: checkpoints, criteria, approaches, tags, resources and endeavor
+ * properties. These are the fields embedded by the
+ * {@link PersistenceLayout#EMBEDDED} layout.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class OwnedValueElements {
+
+    private static final Map<Class<?>, List<String>> DECLARED = new HashMap<>();
+
+    private static final Map<Class<?>, List<String>> RESOLVED = new ConcurrentHashMap<>();
+
+    static {
+        DECLARED.put(SELanguageElement.class, Arrays.asList("tag", "resource", "properties"));
+        DECLARED.put(SEState.class, Arrays.asList("checkListItem", "criterion"));
+        DECLARED.put(SELevelOfDetail.class, Arrays.asList("checkListItem", "criterion"));
+        DECLARED.put(SEAbstractActivity.class, Collections.singletonList("criterion"));
+        DECLARED.put(SEActivity.class, Collections.singletonList("approach"));
+    }
+
+    private OwnedValueElements() {
+
+    }
+
+    /**
+     * The owned value fields of a class, including the inherited ones
+     * 
+     * @param type
+     * @return List<String> the field names, empty if the class owns no values
+     */
+    public static List<String> fieldsOf(Class<?> type) {
+        return RESOLVED.computeIfAbsent(type, OwnedValueElements::resolve);
+    }
+
+    private static List<String> resolve(Class<?> type) {
+        List<String> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            List<String> declared = DECLARED.get(current);
+            if (declared != null) {
+                fields.addAll(declared);
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+}
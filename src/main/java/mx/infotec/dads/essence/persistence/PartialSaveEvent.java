@@ -0,0 +1,56 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import com.mongodb.DBObject;
+
+/**
+ * PartialSaveEvent, published after an element is modified by a partial
+ * update instead of a whole document save. The event carries the full
+ * document, like any AfterSaveEvent, plus the names of the modified fields.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class PartialSaveEvent<E> extends AfterSaveEvent<E> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> changedFields;
+
+    public PartialSaveEvent(E source, DBObject dbo, String collectionName, Set<String> changedFields) {
+        super(source, dbo, collectionName);
+        this.changedFields = Collections.unmodifiableSet(changedFields);
+    }
+
+    public Set<String> getChangedFields() {
+        return changedFields;
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.tenant.Tenants;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * PartialUpdates, saves only what changed in an element since it was loaded.
+ * A snapshot is taken after loading the element, and on update the element
+ * is compared with the snapshot to send the minimal $set, $unset and $push
+ * operations instead of the whole document.
+ * 
+ * <pre>
+ * ElementSnapshot&lt;SEPractice&gt; snapshot = partialUpdates.snapshot(practice);
+ * practice.setName("Scrum");
+ * practice.getKeyWords().add("agile");
+ * partialUpdates.update(snapshot);
+ * </pre>
+ * 
+ * The elements loaded from the database track their own changes, for them
+ * {@link #updateDirty(SELanguageElement)} writes the dirty fields without a
+ * snapshot; the repositories save tracked elements that way.
+ * 
+ * <p>
+ * Versioned elements are only updated if they were not modified after the
+ * snapshot, otherwise an OptimisticLockingFailureException is thrown. Every
+ * applied update publishes a {@link PartialSaveEvent} with the full document,
+ * so the listeners of the saves stay in sync.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class PartialUpdates implements ApplicationEventPublisherAware {
+
+    private static final String VERSION_FIELD = "version";
+
+    private static final String LAST_MODIFIED_DATE_FIELD = "lastModifiedDate";
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private EmbeddedLayout embeddedLayout;
+
+    @Autowired
+    private DirtyTracking dirtyTracking;
+
+    @Autowired
+    private Tenants tenants;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Take the snapshot of a stored element
+     * 
+     * @param element
+     * @return ElementSnapshot<T>
+     */
+    public <T extends SELanguageElement> ElementSnapshot<T> snapshot(T element) {
+        if (element.getId() == null) {
+            throw new EssenceCoreException("Only stored elements can be partially updated");
+        }
+        return new ElementSnapshot<>(element, toDBObject(element));
+    }
+
+    /**
+     * Compute the changes of an element since its snapshot without applying
+     * them
+     * 
+     * @param snapshot
+     * @return ElementDiff
+     */
+    public ElementDiff diff(ElementSnapshot<?> snapshot) {
+        return ElementDiff.between(snapshot.getDocument(), toDBObject(snapshot.getElement()));
+    }
+
+    /**
+     * Apply the changes of an element since its snapshot
+     * 
+     * @param snapshot
+     * @return boolean true if there was something to update
+     */
+    public boolean update(ElementSnapshot<?> snapshot) {
+        return batch().add(snapshot).execute() > 0;
+    }
+
+    /**
+     * Write the dirty fields of a stored element
+     * 
+     * @param element
+     * @return boolean true if there was something to update
+     */
+    public boolean updateDirty(SELanguageElement element) {
+        return batch().addDirty(element).execute() > 0;
+    }
+
+    /**
+     * Start a batch of partial updates and inserts, they are sent with one
+     * bulk write per collection
+     * 
+     * @return Batch
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    private DBObject toDBObject(SELanguageElement element) {
+        DBObject dbo = new BasicDBObject();
+        if (embeddedLayout.isEmbedded()) {
+            embeddedLayout.assignIds(element);
+        }
+        mongoOperations.getConverter().write(element, dbo);
+        if (embeddedLayout.isEmbedded()) {
+            embeddedLayout.embed(element, dbo);
+        }
+        return dbo;
+    }
+
+    /**
+     * A set of partial updates over many elements
+     */
+    public class Batch {
+
+        private final Map<String, List<PendingUpdate>> pendingByCollection = new LinkedHashMap<>();
+
+        private Batch() {
+
+        }
+
+        /**
+         * Add the changes of an element since its snapshot, elements without
+         * changes are ignored
+         * 
+         * @param snapshot
+         * @return Batch this batch
+         */
+        public Batch add(ElementSnapshot<?> snapshot) {
+            SELanguageElement element = snapshot.getElement();
+            DBObject document = toDBObject(element);
+            ElementDiff diff = ElementDiff.between(snapshot.getDocument(), document);
+            if (diff.isEmpty()) {
+                return this;
+            }
+            return queue(element, document, diff, snapshot.getVersion());
+        }
+
+        /**
+         * Add the dirty fields of a stored element, only those fields are
+         * converted into the update. Clean elements are ignored.
+         * 
+         * @param element
+         * @return Batch this batch
+         */
+        public Batch addDirty(SELanguageElement element) {
+            if (element.getId() == null) {
+                throw new EssenceCoreException("Only stored elements can be partially updated");
+            }
+            Set<String> fields = dirtyTracking.getDirtyFields(element);
+            DBObject document = null;
+            if (!element.getStoredValues().isEmpty()) {
+                document = toDBObject(element);
+                fields.addAll(dirtyTracking.getChangedValues(element, document));
+            }
+            if (fields.isEmpty()) {
+                return this;
+            }
+            if (document == null) {
+                document = toDBObject(element);
+            }
+            return queue(element, document, ElementDiff.of(document, fields), element.getVersion());
+        }
+
+        private Batch queue(SELanguageElement element, DBObject document, ElementDiff diff, Long version) {
+            Date now = new Date();
+            diff.set(LAST_MODIFIED_DATE_FIELD, now);
+            document.put(LAST_MODIFIED_DATE_FIELD, now);
+            BasicDBObject query = new BasicDBObject(MongoEvents.ID_FIELD, document.get(MongoEvents.ID_FIELD));
+            DBObject update = diff.toUpdateObject();
+            if (version != null) {
+                query.append(VERSION_FIELD, version);
+                update.put("$inc", new BasicDBObject(VERSION_FIELD, 1L));
+                document.put(VERSION_FIELD, version + 1);
+            }
+            String collectionName = mongoOperations.getCollectionName(element.getClass());
+            pendingByCollection.computeIfAbsent(collectionName, k -> new ArrayList<>())
+                    .add(new PendingUpdate(element, document, query, update, now, diff.getChangedFields()));
+            return this;
+        }
+
+        /**
+         * Add a new element, it is inserted with the updates of its
+         * collection. The element is given an id if it has none, so the
+         * elements converted afterwards can refer it.
+         * 
+         * @param element
+         * @return Batch this batch
+         */
+        public Batch insert(SELanguageElement element) {
+            if (element.getId() == null) {
+                element.setId(new ObjectId().toString());
+            }
+            Date now = new Date();
+            if (element.getCreatedDate() == null) {
+                element.setCreatedDate(now.toInstant());
+            }
+            element.setLastModifiedDate(now.toInstant());
+            element.setVersion(0L);
+            DBObject document = toDBObject(element);
+            String collectionName = mongoOperations.getCollectionName(element.getClass());
+            pendingByCollection.computeIfAbsent(collectionName, k -> new ArrayList<>())
+                    .add(new PendingUpdate(element, document, null, null, now, null));
+            return this;
+        }
+
+        /**
+         * Send the inserts and updates. The quota of the tenant is reserved
+         * for all the inserts before writing, and released for the inserts
+         * that fail.
+         * 
+         * @return int the number of inserted and updated elements
+         * @throws OptimisticLockingFailureException
+         *             if some elements were modified after their snapshot,
+         *             the rest of the batch is applied anyway
+         * @throws BulkWriteException
+         *             if some writes failed, the rest of the batch is applied
+         *             anyway
+         */
+        public int execute() {
+            String tenant = TenantContext.get();
+            int reserved = 0;
+            if (tenant != null) {
+                for (List<PendingUpdate> pending : pendingByCollection.values()) {
+                    reserved += (int) pending.stream().filter(PendingUpdate::isInsert).count();
+                }
+                tenants.reserve(tenant, reserved);
+            }
+            int updated = 0;
+            List<String> conflicts = new ArrayList<>();
+            BulkWriteException failure = null;
+            try {
+                for (Map.Entry<String, List<PendingUpdate>> entry : pendingByCollection.entrySet()) {
+                    DBCollection collection = mongoOperations.getCollection(entry.getKey());
+                    List<PendingUpdate> writes = entry.getValue();
+                    BulkWriteOperation bulk = collection.initializeUnorderedBulkOperation();
+                    for (PendingUpdate update : writes) {
+                        if (update.isInsert()) {
+                            bulk.insert(update.document);
+                        } else {
+                            bulk.find(update.query).updateOne(update.update);
+                        }
+                    }
+                    Set<Integer> failed = new HashSet<>();
+                    BulkWriteResult result;
+                    try {
+                        result = bulk.execute();
+                    } catch (BulkWriteException e) {
+                        result = e.getWriteResult();
+                        for (BulkWriteError error : e.getWriteErrors()) {
+                            failed.add(error.getIndex());
+                        }
+                        failure = failure == null ? e : failure;
+                    }
+                    List<PendingUpdate> inserts = new ArrayList<>();
+                    List<PendingUpdate> pending = new ArrayList<>();
+                    for (int i = 0; i < writes.size(); i++) {
+                        PendingUpdate update = writes.get(i);
+                        if (update.isInsert()) {
+                            reserved--;
+                            if (!failed.contains(i)) {
+                                inserts.add(update);
+                            } else if (tenant != null) {
+                                tenants.release(tenant);
+                            }
+                        } else if (!failed.contains(i)) {
+                            pending.add(update);
+                        }
+                    }
+                    List<PendingUpdate> applied = result.getMatchedCount() == pending.size() ? pending
+                            : findApplied(collection, pending, conflicts);
+                    for (PendingUpdate insert : inserts) {
+                        eventPublisher.publishEvent(
+                                new AfterInsertEvent<Object>(insert.element, insert.document, entry.getKey()));
+                    }
+                    for (PendingUpdate update : applied) {
+                        update.onApplied();
+                        eventPublisher.publishEvent(new PartialSaveEvent<Object>(update.element, update.document,
+                                entry.getKey(), update.changedFields));
+                    }
+                    updated += inserts.size() + applied.size();
+                }
+            } finally {
+                // the inserts of the collections not written
+                if (tenant != null) {
+                    tenants.release(tenant, reserved);
+                }
+                pendingByCollection.clear();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (!conflicts.isEmpty()) {
+                throw new OptimisticLockingFailureException(
+                        "The elements " + conflicts + " were modified after their snapshot");
+            }
+            return updated;
+        }
+
+        /**
+         * The bulk result does not tell which updates failed, an update was
+         * applied if the stored element has its version and modification
+         * date
+         */
+        private List<PendingUpdate> findApplied(DBCollection collection, List<PendingUpdate> pending,
+                List<String> conflicts) {
+            List<Object> ids = new ArrayList<>(pending.size());
+            for (PendingUpdate update : pending) {
+                ids.add(update.document.get(MongoEvents.ID_FIELD));
+            }
+            Map<Object, DBObject> stored = new HashMap<>();
+            try (DBCursor cursor = collection.find(
+                    new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", ids)),
+                    new BasicDBObject(VERSION_FIELD, 1).append(LAST_MODIFIED_DATE_FIELD, 1))) {
+                for (DBObject dbo : cursor) {
+                    stored.put(dbo.get(MongoEvents.ID_FIELD), dbo);
+                }
+            }
+            List<PendingUpdate> applied = new ArrayList<>();
+            for (PendingUpdate update : pending) {
+                DBObject dbo = stored.get(update.document.get(MongoEvents.ID_FIELD));
+                if (dbo != null && Objects.equals(dbo.get(VERSION_FIELD), update.document.get(VERSION_FIELD))
+                        && update.lastModifiedDate.equals(dbo.get(LAST_MODIFIED_DATE_FIELD))) {
+                    applied.add(update);
+                } else {
+                    conflicts.add(update.element.getId());
+                }
+            }
+            return applied;
+        }
+    }
+
+    private static class PendingUpdate {
+
+        private final SELanguageElement element;
+
+        private final DBObject document;
+
+        private final DBObject query;
+
+        private final DBObject update;
+
+        private final Date lastModifiedDate;
+
+        private final Set<String> changedFields;
+
+        private PendingUpdate(SELanguageElement element, DBObject document, DBObject query, DBObject update,
+                Date lastModifiedDate, Set<String> changedFields) {
+            this.element = element;
+            this.document = document;
+            this.query = query;
+            this.update = update;
+            this.lastModifiedDate = lastModifiedDate;
+            this.changedFields = changedFields;
+        }
+
+        private boolean isInsert() {
+            return query == null;
+        }
+
+        private void onApplied() {
+            element.setLastModifiedDate(lastModifiedDate.toInstant());
+            Object version = document.get(VERSION_FIELD);
+            if (version instanceof Long) {
+                element.setVersion((Long) version);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.render;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * RenderCache, a content addressed cache of renderings with a memory tier
+ * and a disk tier. Since a hash names a single content, the entries are never
+ * updated nor invalidated, an old entry simply stops being looked up and
+ * ages out of the memory tier.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class RenderCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RenderCache.class);
+
+    private static final String SUFFIX = ".svg";
+
+    private final Map<String, byte[]> memory;
+
+    private final Path directory;
+
+    public RenderCache(EssenceProperties properties) {
+        EssenceProperties.Rendering rendering = properties.getRendering();
+        int memoryEntries = Math.max(1, rendering.getMemoryEntries());
+        this.memory = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        this.directory = StringUtils.hasText(rendering.getCacheDirectory())
+                ? Paths.get(rendering.getCacheDirectory()) : null;
+    }
+
+    /**
+     * The content cached under a hash, looked up in memory and then on disk
+     * 
+     * @param hash
+     * @return byte[], null if it is not cached
+     */
+    public byte[] get(String hash) {
+        synchronized (memory) {
+            byte[] content = memory.get(hash);
+            if (content != null) {
+                return content;
+            }
+        }
+        byte[] content = readFromDisk(hash);
+        if (content != null) {
+            synchronized (memory) {
+                memory.put(hash, content);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Cache a content under its hash
+     * 
+     * @param hash
+     * @param content
+     */
+    public void put(String hash, byte[] content) {
+        synchronized (memory) {
+            memory.put(hash, content);
+        }
+        writeToDisk(hash, content);
+    }
+
+    private byte[] readFromDisk(String hash) {
+        if (directory == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(directory.resolve(hash + SUFFIX));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read the rendering {} from {}", hash, directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * The file is written aside and moved in place, so a concurrent reader
+     * never sees a partial rendering
+     */
+    private void writeToDisk(String hash, byte[] content) {
+        if (directory == null) {
+            return;
+        }
+        Path target = directory.resolve(hash + SUFFIX);
+        if (Files.exists(target)) {
+            return;
+        }
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, hash, ".tmp");
+            Files.write(temporary, content);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write the rendering {} to {}", hash, directory, e);
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.render;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rendering, a rendered image and the entity tag that identifies it
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class Rendering {
+
+    public static final String CONTENT_TYPE = "image/svg+xml";
+
+    private final String hash;
+
+    private final byte[] content;
+
+    Rendering(String hash, byte[] content) {
+        this.hash = hash;
+        this.content = content;
+    }
+
+    /**
+     * The hash the rendering is cached under
+     * 
+     * @return String
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * The entity tag of the rendering, as sent in an ETag header
+     * 
+     * @return String
+     */
+    public String getETag() {
+        return eTagOf(hash);
+    }
+
+    /**
+     * The SVG document, UTF-8 encoded
+     * 
+     * @return byte[]
+     */
+    public byte[] getContent() {
+        return content.clone();
+    }
+
+    public String getSvg() {
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether an If-None-Match header already names this rendering
+     * 
+     * @param ifNoneMatch
+     * @return boolean
+     */
+    public boolean matches(String ifNoneMatch) {
+        return matches(hash, ifNoneMatch);
+    }
+
+    static String eTagOf(String hash) {
+        return '"' + hash + '"';
+    }
+
+    static boolean matches(String hash, String ifNoneMatch) {
+        if (hash == null || ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || eTagOf(hash).equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.render;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
+
+import org.omg.essence.model.diagraminterchange.Card;
+import org.omg.essence.model.diagraminterchange.DetailCard;
+import org.omg.essence.model.diagraminterchange.Diagram;
+import org.omg.essence.model.foundation.BasicElement;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.diagram.DiagramLayoutEngine;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
+
+/**
+ * SvgRenderer, renders cards, detail cards and diagrams as SVG.
+ * 
+ * A rendering is cached under a hash of what it is drawn from: the id,
+ * version and last modified date of the element of a card, or the model and
+ * version of a diagram. A repeated render, or the revalidation of an entity
+ * tag, costs the computation of that hash and a cache lookup.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class SvgRenderer {
+
+    /** Changes whenever the drawing changes, so older renderings are not served */
+    private static final String FORMAT = "svg-1";
+
+    private final EssenceProperties.Diagrams sizes;
+
+    private final DiagramLayoutEngine layoutEngine;
+
+    private final RenderCache cache;
+
+    public SvgRenderer(EssenceProperties properties, DiagramLayoutEngine layoutEngine, RenderCache cache) {
+        this.sizes = properties.getDiagrams();
+        this.layoutEngine = layoutEngine;
+        this.cache = cache;
+    }
+
+    /**
+     * Render a card
+     * 
+     * @param card
+     * @return Rendering
+     */
+    public Rendering render(Card card) {
+        BasicElement element = card.getModelElement();
+        return render(hashOf("card", element), () -> SvgWriter.card(sizes.getCardWidth(), sizes.getCardHeight(),
+                element == null ? null : element.getName(), element == null ? null : element.getBriefDescription()));
+    }
+
+    /**
+     * Render a detail card
+     * 
+     * @param card
+     * @return Rendering
+     */
+    public Rendering render(DetailCard card) {
+        BasicElement element = card.getModelElement();
+        return render(hashOf("detail", element),
+                () -> SvgWriter.detailCard(sizes.getCardWidth(), 2 * sizes.getCardHeight(),
+                        element == null ? null : element.getName(),
+                        element == null ? null : element.getDescription(), typeOf(element)));
+    }
+
+    /**
+     * Render a diagram of a model
+     * 
+     * @param modelId
+     * @param version
+     *            the version of the model
+     * @param diagram
+     * @return Rendering
+     */
+    public Rendering render(String modelId, long version, Diagram diagram) {
+        return render(hashOf(modelId, version),
+                () -> SvgWriter.diagram(layoutEngine.layout(modelId, version, diagram).getLayout()));
+    }
+
+    /**
+     * Whether the rendering of a card named by an If-None-Match header is
+     * still current, without rendering it
+     * 
+     * @param card
+     * @param ifNoneMatch
+     * @return boolean
+     */
+    public boolean isNotModified(Card card, String ifNoneMatch) {
+        return Rendering.matches(hashOf("card", card.getModelElement()), ifNoneMatch);
+    }
+
+    public boolean isNotModified(DetailCard card, String ifNoneMatch) {
+        return Rendering.matches(hashOf("detail", card.getModelElement()), ifNoneMatch);
+    }
+
+    public boolean isNotModified(String modelId, long version, String ifNoneMatch) {
+        return Rendering.matches(hashOf(modelId, version), ifNoneMatch);
+    }
+
+    private Rendering render(String hash, Supplier<String> drawing) {
+        if (hash != null) {
+            byte[] cached = cache.get(hash);
+            if (cached != null) {
+                return new Rendering(hash, cached);
+            }
+        }
+        byte[] content = drawing.get().getBytes(StandardCharsets.UTF_8);
+        if (hash == null) {
+            // an element that was never saved, the rendering is named by
+            // its content and is not worth caching
+            return new Rendering(sha256(content), content);
+        }
+        cache.put(hash, content);
+        return new Rendering(hash, content);
+    }
+
+    /**
+     * The hash of the rendering of a card, null when the element has no
+     * identity or modification date to name it by
+     */
+    private String hashOf(String kind, BasicElement element) {
+        if (!(element instanceof SELanguageElement)) {
+            return null;
+        }
+        SELanguageElement languageElement = (SELanguageElement) element;
+        if (languageElement.getId() == null || languageElement.getLastModifiedDate() == null) {
+            return null;
+        }
+        return sha256((FORMAT + '|' + kind + '|' + sizes.getCardWidth() + 'x' + sizes.getCardHeight() + '|'
+                + element.getClass().getName() + '|' + languageElement.getId() + '|'
+                + languageElement.getVersion() + '|' + languageElement.getLastModifiedDate().toEpochMilli())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String hashOf(String modelId, long version) {
+        return sha256((FORMAT + "|diagram|" + sizes.getNodeWidth() + 'x' + sizes.getNodeHeight() + '|'
+                + sizes.getGap() + '|' + modelId + '|' + version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String typeOf(BasicElement element) {
+        if (element == null) {
+            return null;
+        }
+        String name = element.getClass().getSimpleName();
+        return name.startsWith("SE") ? name.substring(2) : name;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new EssenceCoreException("SHA-256 is not available", e);
+        }
+    }
+}
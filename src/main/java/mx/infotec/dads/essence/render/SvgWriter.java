@@ -0,0 +1,198 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.render;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import mx.infotec.dads.essence.diagram.Bounds;
+import mx.infotec.dads.essence.diagram.Layout;
+import mx.infotec.dads.essence.diagram.Point;
+
+/**
+ * SvgWriter, writes the shapes of a card or a diagram as an SVG document
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+final class SvgWriter {
+
+    private static final double PADDING = 12;
+
+    private static final double LINE_HEIGHT = 16;
+
+    /** An approximation of the width of a character of the body font */
+    private static final double CHARACTER_WIDTH = 7;
+
+    private final StringBuilder svg = new StringBuilder();
+
+    private SvgWriter(double width, double height) {
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(number(width))
+                .append("\" height=\"").append(number(height)).append("\" viewBox=\"0 0 ").append(number(width))
+                .append(' ').append(number(height)).append("\">");
+    }
+
+    /**
+     * A card: a header with the name of its element and a body with its
+     * description
+     */
+    static String card(double width, double height, String title, String body) {
+        SvgWriter writer = new SvgWriter(width, height);
+        writer.rect(new Bounds(0.5, 0.5, width - 1, height - 1), "card");
+        writer.text(PADDING, PADDING + LINE_HEIGHT, title, "title");
+        writer.line(0, 2 * PADDING + LINE_HEIGHT, width, 2 * PADDING + LINE_HEIGHT);
+        writer.paragraph(3 * PADDING + LINE_HEIGHT, width, height - PADDING, body);
+        return writer.end();
+    }
+
+    /**
+     * A detail card: a header, a body and a footer
+     */
+    static String detailCard(double width, double height, String title, String body, String footer) {
+        SvgWriter writer = new SvgWriter(width, height);
+        writer.rect(new Bounds(0.5, 0.5, width - 1, height - 1), "card detail");
+        writer.text(PADDING, PADDING + LINE_HEIGHT, title, "title");
+        writer.line(0, 2 * PADDING + LINE_HEIGHT, width, 2 * PADDING + LINE_HEIGHT);
+        double footerTop = height - 2 * PADDING - LINE_HEIGHT;
+        writer.paragraph(3 * PADDING + LINE_HEIGHT, width, footerTop - PADDING, body);
+        writer.line(0, footerTop, width, footerTop);
+        writer.text(PADDING, height - PADDING, footer, "footer");
+        return writer.end();
+    }
+
+    /**
+     * A diagram: a box for each node and an arrow for each link
+     */
+    static String diagram(Layout layout) {
+        SvgWriter writer = new SvgWriter(Math.max(1, layout.getWidth()), Math.max(1, layout.getHeight()));
+        writer.svg.append("<defs><marker id=\"arrow\" markerWidth=\"10\" markerHeight=\"10\" refX=\"9\" refY=\"5\" ")
+                .append("orient=\"auto\"><path d=\"M0,0 L10,5 L0,10 z\"/></marker></defs>");
+        layout.getNodes().values().forEach(bounds -> writer.rect(bounds, "node"));
+        layout.getLinks().values().forEach(writer::polyline);
+        return writer.end();
+    }
+
+    private void rect(Bounds bounds, String styleClass) {
+        svg.append("<rect class=\"").append(styleClass).append("\" x=\"").append(number(bounds.getX()))
+                .append("\" y=\"").append(number(bounds.getY())).append("\" width=\"")
+                .append(number(bounds.getWidth())).append("\" height=\"").append(number(bounds.getHeight()))
+                .append("\" rx=\"6\" fill=\"#fff\" stroke=\"#333\"/>");
+    }
+
+    private void line(double x1, double y1, double x2, double y2) {
+        svg.append("<line x1=\"").append(number(x1)).append("\" y1=\"").append(number(y1)).append("\" x2=\"")
+                .append(number(x2)).append("\" y2=\"").append(number(y2)).append("\" stroke=\"#333\"/>");
+    }
+
+    private void polyline(List<Point> route) {
+        svg.append("<polyline class=\"link\" fill=\"none\" stroke=\"#333\" marker-end=\"url(#arrow)\" points=\"");
+        for (int i = 0; i < route.size(); i++) {
+            if (i > 0) {
+                svg.append(' ');
+            }
+            svg.append(number(route.get(i).getX())).append(',').append(number(route.get(i).getY()));
+        }
+        svg.append("\"/>");
+    }
+
+    private void text(double x, double y, String text, String styleClass) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        svg.append("<text class=\"").append(styleClass).append("\" x=\"").append(number(x)).append("\" y=\"")
+                .append(number(y)).append("\">");
+        escape(text);
+        svg.append("</text>");
+    }
+
+    /**
+     * The text wrapped to the width, the lines that do not fit the height are
+     * left out
+     */
+    private void paragraph(double top, double width, double bottom, String text) {
+        int maxLines = (int) ((bottom - top) / LINE_HEIGHT);
+        List<String> lines = wrap(text, (int) ((width - 2 * PADDING) / CHARACTER_WIDTH));
+        for (int i = 0; i < Math.min(maxLines, lines.size()); i++) {
+            text(PADDING, top + (i + 1) * LINE_HEIGHT, lines.get(i), "body");
+        }
+    }
+
+    private String end() {
+        return svg.append("</svg>").toString();
+    }
+
+    static List<String> wrap(String text, int columns) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.trim().isEmpty()) {
+            return lines;
+        }
+        int width = Math.max(1, columns);
+        StringBuilder line = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            if (line.length() > 0 && line.length() + 1 + word.length() > width) {
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append(word);
+        }
+        lines.add(line.toString());
+        return lines;
+    }
+
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '<':
+                svg.append("&lt;");
+                break;
+            case '>':
+                svg.append("&gt;");
+                break;
+            case '&':
+                svg.append("&amp;");
+                break;
+            case '"':
+                svg.append("&quot;");
+                break;
+            default:
+                if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                    svg.append(c);
+                }
+            }
+        }
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
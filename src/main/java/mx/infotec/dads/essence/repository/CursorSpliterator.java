@@ -0,0 +1,218 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * CursorSpliterator, a spliterator over a cursor. A split takes the next
+ * batch of elements off the cursor into an array, so the cursor is only read
+ * by the thread that owns this spliterator while the batches are processed by
+ * any thread.
+ * 
+ * <p>
+ * The size of a cursor is unknown, a parallel stream keeps splitting it. A
+ * split waits for a permit, released when a batch is fully processed, so at
+ * most maxBatches batches are held in memory. A split that waits longer than
+ * {@link #SPLIT_WAIT_MILLIS}, e.g. because the stream was short-circuited
+ * and its batches are never processed, leaves the rest of the cursor to the
+ * thread that owns this spliterator.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+final class CursorSpliterator<T> implements Spliterator<T> {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    /**
+     * One batch in process and one waiting for each thread of the common
+     * pool and for the thread that starts the stream
+     */
+    static final int DEFAULT_MAX_BATCHES = 2 * (ForkJoinPool.getCommonPoolParallelism() + 1);
+
+    static final long SPLIT_WAIT_MILLIS = 1000;
+
+    private final CloseableIterator<T> cursor;
+
+    private final int batchSize;
+
+    private final Semaphore permits;
+
+    CursorSpliterator(CloseableIterator<T> cursor, int batchSize) {
+        this(cursor, batchSize, DEFAULT_MAX_BATCHES);
+    }
+
+    CursorSpliterator(CloseableIterator<T> cursor, int batchSize, int maxBatches) {
+        this.cursor = cursor;
+        this.batchSize = Math.max(1, batchSize);
+        this.permits = new Semaphore(Math.max(1, maxBatches));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!cursor.hasNext()) {
+            return false;
+        }
+        action.accept(cursor.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (cursor.hasNext()) {
+            action.accept(cursor.next());
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (!cursor.hasNext() || !acquire()) {
+            return null;
+        }
+        Object[] batch = new Object[batchSize];
+        int size = 0;
+        while (size < batchSize && cursor.hasNext()) {
+            batch[size++] = cursor.next();
+        }
+        return new Batch<>(batch, size, permits);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    /**
+     * Wait for a permit, the pool compensates a worker blocked here so the
+     * batches already split keep being processed
+     */
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        PermitBlocker blocker = new PermitBlocker();
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return blocker.acquired;
+    }
+
+    private final class PermitBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private boolean acquired;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            acquired = permits.tryAcquire(SPLIT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!acquired) {
+                acquired = permits.tryAcquire();
+            }
+            return acquired;
+        }
+    }
+
+    /**
+     * A batch taken off the cursor, it gives its permit back once all its
+     * elements are processed
+     */
+    private static final class Batch<T> implements Spliterator<T> {
+
+        private final Object[] elements;
+
+        private final int size;
+
+        private final Semaphore permits;
+
+        private int index;
+
+        Batch(Object[] elements, int size, Semaphore permits) {
+            this.elements = elements;
+            this.size = size;
+            this.permits = permits;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= size) {
+                return false;
+            }
+            action.accept((T) elements[index++]);
+            if (index == size) {
+                permits.release();
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (index >= size) {
+                return;
+            }
+            try {
+                while (index < size) {
+                    action.accept((T) elements[index++]);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return size - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+}
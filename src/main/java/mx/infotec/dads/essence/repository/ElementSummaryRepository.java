@@ -0,0 +1,74 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Query;
+
+import mx.infotec.dads.essence.summary.ElementSummary;
+
+/**
+ * ElementSummaryRepository, the browse queries only project indexed fields so
+ * they are covered by the summary indexes
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public interface ElementSummaryRepository extends EssenceRepository<ElementSummary, String> {
+
+    /**
+     * Browse all the elements of a type, sort by name to use the index order
+     * 
+     * @param elementType
+     * @param pageable
+     * @return Page<ElementSummary>
+     */
+    @Query(value = "{ 'elementType' : ?0 }", fields = ElementSummary.BROWSE_FIELDS)
+    Page<ElementSummary> findByElementType(KernelEnum elementType, Pageable pageable);
+
+    /**
+     * Browse the elements owned by an element group
+     * 
+     * @param ownerId
+     * @param sort
+     * @return List<ElementSummary>
+     */
+    @Query(value = "{ 'ownerId' : ?0 }", fields = ElementSummary.BROWSE_FIELDS)
+    List<ElementSummary> findByOwnerId(String ownerId, Sort sort);
+
+    /**
+     * Browse the elements of a type owned by an element group
+     * 
+     * @param ownerId
+     * @param elementType
+     * @param sort
+     * @return List<ElementSummary>
+     */
+    @Query(value = "{ 'ownerId' : ?0, 'elementType' : ?1 }", fields = ElementSummary.BROWSE_FIELDS)
+    List<ElementSummary> findByOwnerIdAndElementType(String ownerId, KernelEnum elementType, Sort sort);
+}
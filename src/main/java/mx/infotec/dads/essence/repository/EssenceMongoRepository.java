@@ -0,0 +1,95 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import java.io.Serializable;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.data.util.CloseableIterator;
+
+import com.mongodb.BasicDBObject;
+
+import mx.infotec.dads.essence.routing.RoutingMongoTemplate;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * EssenceMongoRepository, the implementation of {@link EssenceRepository}
+ * shared by every repository of the elements
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class EssenceMongoRepository<T, ID extends Serializable> extends SimpleMongoRepository<T, ID>
+        implements EssenceRepository<T, ID> {
+
+    private final MongoEntityInformation<T, ID> entityInformation;
+
+    private final MongoOperations mongoOperations;
+
+    public EssenceMongoRepository(MongoEntityInformation<T, ID> metadata, MongoOperations mongoOperations) {
+        super(metadata, mongoOperations);
+        this.entityInformation = metadata;
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return streamAll(DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public Stream<T> streamAll(int batchSize) {
+        return streamAll(batchSize, false);
+    }
+
+    @Override
+    public Stream<T> streamAll(int batchSize, boolean parallel) {
+        CloseableIterator<T> cursor = iterateAll(batchSize);
+        return StreamSupport.stream(new CursorSpliterator<>(cursor, batchSize), parallel).onClose(cursor::close);
+    }
+
+    @Override
+    public CloseableIterator<T> iterateAll(int batchSize) {
+        // the collection name is resolved on each call, it depends on the
+        // tenant of the thread
+        String collectionName = entityInformation.getCollectionName();
+        if (mongoOperations instanceof RoutingMongoTemplate) {
+            return ((RoutingMongoTemplate) mongoOperations).stream(new Query(), entityInformation.getJavaType(),
+                    collectionName, batchSize);
+        }
+        return mongoOperations.stream(new Query(), entityInformation.getJavaType(), collectionName);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mongoOperations.getCollection(entityInformation.getCollectionName()).findOne(new BasicDBObject(),
+                new BasicDBObject(MongoEvents.ID_FIELD, 1)) == null;
+    }
+}
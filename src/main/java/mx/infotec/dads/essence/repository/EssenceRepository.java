@@ -0,0 +1,96 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * EssenceRepository, the base of the repositories of the elements. Besides
+ * the list based finds it scans a collection over a cursor, in constant
+ * memory, and answers whether it is empty without reading it.
+ * 
+ * <p>
+ * The streams and iterators hold a cursor open, they must be closed, e.g.
+ * with a try-with-resources block.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@NoRepositoryBean
+public interface EssenceRepository<T, ID extends Serializable> extends MongoRepository<T, ID> {
+
+    /** The number of documents of each batch of a scan when none is given */
+    int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * Stream every element of the collection
+     * 
+     * @return Stream<T>
+     */
+    Stream<T> streamAll();
+
+    /**
+     * Stream every element of the collection, reading batches of the given
+     * size
+     * 
+     * @param batchSize
+     * @return Stream<T>
+     */
+    Stream<T> streamAll(int batchSize);
+
+    /**
+     * Stream every element of the collection. A parallel stream is split in
+     * batches of the given size, each one is read from the cursor by a single
+     * thread and processed by any of them. The cursor is only read ahead by a
+     * few batches per thread, a new batch waits for one to be processed.
+     * 
+     * @param batchSize
+     * @param parallel
+     * @return Stream<T>
+     */
+    Stream<T> streamAll(int batchSize, boolean parallel);
+
+    /**
+     * Iterate over every element of the collection, reading batches of the
+     * given size
+     * 
+     * @param batchSize
+     * @return CloseableIterator<T>
+     */
+    CloseableIterator<T> iterateAll(int batchSize);
+
+    /**
+     * Whether the collection has no elements, it reads at most the id of one
+     * document
+     * 
+     * @return boolean
+     */
+    boolean isEmpty();
+}
@@ -1,7 +1,7 @@
 /*
  *  
  * The MIT License (MIT)
- * Copyright (c) 2016 Daniel Cortes Pichardo
+ * Copyright (c) 2017 Daniel Cortes Pichardo
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -23,13 +23,172 @@
  */
 package mx.infotec.dads.essence.repository;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEAction;
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivity;
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivityAssociation;
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivitySpace;
+import mx.infotec.dads.essence.model.activityspaceandactivity.SECompletionCriterion;
+import mx.infotec.dads.essence.model.activityspaceandactivity.SEEntryCriterion;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlphaAssociation;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlphaContainment;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SELevelOfDetail;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEState;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEWorkProduct;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEWorkProductManifest;
+import mx.infotec.dads.essence.model.competency.SECompetency;
+import mx.infotec.dads.essence.model.competency.SECompetencyLevel;
+import mx.infotec.dads.essence.model.foundation.SEBasicElement;
+import mx.infotec.dads.essence.model.foundation.SECheckpoint;
+import mx.infotec.dads.essence.model.foundation.SEElementGroup;
+import mx.infotec.dads.essence.model.foundation.SEEndeavorProperty;
+import mx.infotec.dads.essence.model.foundation.SEExtensionElement;
+import mx.infotec.dads.essence.model.foundation.SEKernel;
+import mx.infotec.dads.essence.model.foundation.SELibrary;
+import mx.infotec.dads.essence.model.foundation.SEMergeResolution;
+import mx.infotec.dads.essence.model.foundation.SEMethod;
+import mx.infotec.dads.essence.model.foundation.SEPattern;
+import mx.infotec.dads.essence.model.foundation.SEPatternAssociation;
+import mx.infotec.dads.essence.model.foundation.SEPractice;
+import mx.infotec.dads.essence.model.foundation.SEPracticeAsset;
+import mx.infotec.dads.essence.model.foundation.SEResource;
+import mx.infotec.dads.essence.model.foundation.SETag;
+import mx.infotec.dads.essence.model.userdefinedtypes.SETypedPattern;
+import mx.infotec.dads.essence.model.userdefinedtypes.SETypedResource;
+import mx.infotec.dads.essence.model.userdefinedtypes.SETypedTag;
+import mx.infotec.dads.essence.model.userdefinedtypes.SEUserDefinedType;
+import mx.infotec.dads.essence.model.view.SEFeatureSelection;
+import mx.infotec.dads.essence.model.view.SEViewSelection;
+import mx.infotec.dads.essence.tenant.TenantContext;
+
 /**
- * Kernel Enum, for the Essence Core
+ * Kernel Enum, for the Essence Core. Each constant is bound to the concrete
+ * {@link Document} class that is persisted and to its mongodb collection.
  * 
  * @author Daniel Cortes Pichardo
  * @since essence 1.1
  * @version 1.1
  */
 public enum KernelEnum {
-    KERNEL, METHOD, PRACTICE, ALPHA, COMPETENCY, COMPETENCYLEVEL, ACTION, ACTIVITY, ACTIVITYASSOCIATION, ACTIVITYSPACE, COMPLETIONCRITERION, ENTRYCRITERION, ALPHAASSOCIATION, ALPHACONTAINMENT, LEVELOFDETAIL, STATE, WORKPRODUCT, WORKPRODUCTMANIFEST, CHECKPOINT, ENDEAVORPROPERTY, EXTENSIONELEMENT, LIBRARY, MERGERESOLUTION, PATTERN, PATTERNASSOCIATION, PRACTICEASSET, RESOURCE, TAG, TYPEDPATTERN, TYPEDRESOURCE, TYPEDTAG, USERDEFINEDTYPE, FEATURESELECTION, VIEWSELECTION
+    KERNEL(SEKernel.class),
+    METHOD(SEMethod.class),
+    PRACTICE(SEPractice.class),
+    ALPHA(SEAlpha.class),
+    COMPETENCY(SECompetency.class),
+    COMPETENCYLEVEL(SECompetencyLevel.class),
+    ACTION(SEAction.class),
+    ACTIVITY(SEActivity.class),
+    ACTIVITYASSOCIATION(SEActivityAssociation.class),
+    ACTIVITYSPACE(SEActivitySpace.class),
+    COMPLETIONCRITERION(SECompletionCriterion.class),
+    ENTRYCRITERION(SEEntryCriterion.class),
+    ALPHAASSOCIATION(SEAlphaAssociation.class),
+    ALPHACONTAINMENT(SEAlphaContainment.class),
+    LEVELOFDETAIL(SELevelOfDetail.class),
+    STATE(SEState.class),
+    WORKPRODUCT(SEWorkProduct.class),
+    WORKPRODUCTMANIFEST(SEWorkProductManifest.class),
+    CHECKPOINT(SECheckpoint.class),
+    ENDEAVORPROPERTY(SEEndeavorProperty.class),
+    EXTENSIONELEMENT(SEExtensionElement.class),
+    LIBRARY(SELibrary.class),
+    MERGERESOLUTION(SEMergeResolution.class),
+    PATTERN(SEPattern.class),
+    PATTERNASSOCIATION(SEPatternAssociation.class),
+    PRACTICEASSET(SEPracticeAsset.class),
+    RESOURCE(SEResource.class),
+    TAG(SETag.class),
+    TYPEDPATTERN(SETypedPattern.class),
+    TYPEDRESOURCE(SETypedResource.class),
+    TYPEDTAG(SETypedTag.class),
+    USERDEFINEDTYPE(SEUserDefinedType.class),
+    FEATURESELECTION(SEFeatureSelection.class),
+    VIEWSELECTION(SEViewSelection.class);
+
+    private static final Map<Class<?>, KernelEnum> BY_TYPE = new HashMap<>();
+    private static final Map<String, KernelEnum> BY_COLLECTION = new HashMap<>();
+
+    static {
+        for (KernelEnum kernelEnum : values()) {
+            BY_TYPE.put(kernelEnum.type, kernelEnum);
+            BY_COLLECTION.put(kernelEnum.collection, kernelEnum);
+        }
+    }
+
+    private final Class<?> type;
+    private final String collection;
+
+    private KernelEnum(final Class<?> type) {
+        this.type = type;
+        this.collection = type.getAnnotation(Document.class).collection();
+    }
+
+    /**
+     * The concrete class persisted for this element type
+     * 
+     * @return Class
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * The mongodb collection where the elements of this type are stored for
+     * the current tenant
+     * 
+     * @return String
+     */
+    public String getCollection() {
+        return TenantContext.collectionName(collection);
+    }
+
+    /**
+     * The collection shared by all the tenants, as declared by the
+     * {@link Document}
+     * 
+     * @return String
+     */
+    public String getBaseCollection() {
+        return collection;
+    }
+
+    public boolean isElementGroup() {
+        return SEElementGroup.class.isAssignableFrom(type);
+    }
+
+    public boolean isBasicElement() {
+        return SEBasicElement.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Find the element type of a persisted class. Proxies and anonymous
+     * subclasses are resolved through their super classes.
+     * 
+     * @param type
+     * @return KernelEnum or null if the class is not persisted
+     */
+    public static KernelEnum of(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            KernelEnum kernelEnum = BY_TYPE.get(current);
+            if (kernelEnum != null) {
+                return kernelEnum;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the element type stored into a collection, shared or of a tenant
+     * 
+     * @param collection
+     * @return KernelEnum or null if the collection is unknown
+     */
+    public static KernelEnum fromCollection(String collection) {
+        return BY_COLLECTION.get(TenantContext.baseCollectionName(collection));
+    }
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.activityspaceandactivity.SEAction;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.activityspaceandactivity.SEAction;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEActionRepository extends MongoRepository<SEAction, String> {
+public interface SEActionRepository extends EssenceRepository<SEAction, String> {
 
 }
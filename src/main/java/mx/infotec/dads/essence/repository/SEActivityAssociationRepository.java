@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivityAssociation;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivityAssociat
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEActivityAssociationRepository extends MongoRepository<SEActivityAssociation, String> {
+public interface SEActivityAssociationRepository extends EssenceRepository<SEActivityAssociation, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivity;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivity;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEActivityRepository extends MongoRepository<SEActivity, String> {
+public interface SEActivityRepository extends EssenceRepository<SEActivity, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivitySpace;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.activityspaceandactivity.SEActivitySpace;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEActivitySpaceRepository extends MongoRepository<SEActivitySpace, String> {
+public interface SEActivitySpaceRepository extends EssenceRepository<SEActivitySpace, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlphaAssociation;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlphaAssociation;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEAlphaAssociationRepository extends MongoRepository<SEAlphaAssociation, String> {
+public interface SEAlphaAssociationRepository extends EssenceRepository<SEAlphaAssociation, String> {
 
 }
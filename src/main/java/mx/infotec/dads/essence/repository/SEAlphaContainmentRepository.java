@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlphaContainment;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlphaContainment;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEAlphaContainmentRepository extends MongoRepository<SEAlphaContainment, String> {
+public interface SEAlphaContainmentRepository extends EssenceRepository<SEAlphaContainment, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEAlphaRepository extends MongoRepository<SEAlpha, String> {
+public interface SEAlphaRepository extends EssenceRepository<SEAlpha, String> {
 
 }
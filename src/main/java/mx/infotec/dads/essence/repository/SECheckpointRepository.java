@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SECheckpoint;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SECheckpoint;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SECheckpointRepository extends MongoRepository<SECheckpoint, String> {
+public interface SECheckpointRepository extends EssenceRepository<SECheckpoint, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.competency.SECompetencyLevel;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.competency.SECompetencyLevel;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SECompetencyLevelRepository extends MongoRepository<SECompetencyLevel, String> {
+public interface SECompetencyLevelRepository extends EssenceRepository<SECompetencyLevel, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.competency.SECompetency;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.competency.SECompetency;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SECompetencyRepository extends MongoRepository<SECompetency, String> {
+public interface SECompetencyRepository extends EssenceRepository<SECompetency, String> {
 
 }
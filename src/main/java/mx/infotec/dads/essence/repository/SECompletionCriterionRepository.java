@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.activityspaceandactivity.SECompletionCriterion;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.activityspaceandactivity.SECompletionCriter
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SECompletionCriterionRepository extends MongoRepository<SECompletionCriterion, String> {
+public interface SECompletionCriterionRepository extends EssenceRepository<SECompletionCriterion, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEEndeavorProperty;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEEndeavorProperty;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEEndeavorPropertyRepository extends MongoRepository<SEEndeavorProperty, String> {
+public interface SEEndeavorPropertyRepository extends EssenceRepository<SEEndeavorProperty, String> {
 
 }
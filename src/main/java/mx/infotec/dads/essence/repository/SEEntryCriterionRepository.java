@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.activityspaceandactivity.SEEntryCriterion;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.activityspaceandactivity.SEEntryCriterion;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEEntryCriterionRepository extends MongoRepository<SEEntryCriterion, String> {
+public interface SEEntryCriterionRepository extends EssenceRepository<SEEntryCriterion, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEExtensionElement;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEExtensionElement;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEExtensionElementRepository extends MongoRepository<SEExtensionElement, String> {
+public interface SEExtensionElementRepository extends EssenceRepository<SEExtensionElement, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.view.SEFeatureSelection;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.view.SEFeatureSelection;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEFeatureSelectionRepository extends MongoRepository<SEFeatureSelection, String> {
+public interface SEFeatureSelectionRepository extends EssenceRepository<SEFeatureSelection, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEKernel;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEKernel;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEKernelRepository extends MongoRepository<SEKernel, String> {
+public interface SEKernelRepository extends EssenceRepository<SEKernel, String> {
 
 }
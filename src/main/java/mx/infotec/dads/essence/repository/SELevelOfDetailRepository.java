@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SELevelOfDetail;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SELevelOfDetail;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SELevelOfDetailRepository extends MongoRepository<SELevelOfDetail, String> {
+public interface SELevelOfDetailRepository extends EssenceRepository<SELevelOfDetail, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SELibrary;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SELibrary;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SELibraryRepository extends MongoRepository<SELibrary, String> {
+public interface SELibraryRepository extends EssenceRepository<SELibrary, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEMergeResolution;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEMergeResolution;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEMergeResolutionRepository extends MongoRepository<SEMergeResolution, String> {
+public interface SEMergeResolutionRepository extends EssenceRepository<SEMergeResolution, String> {
 
 }
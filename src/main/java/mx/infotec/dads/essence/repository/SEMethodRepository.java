@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEMethod;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEMethod;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEMethodRepository extends MongoRepository<SEMethod, String> {
+public interface SEMethodRepository extends EssenceRepository<SEMethod, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEPatternAssociation;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEPatternAssociation;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEPatternAssociationRepository extends MongoRepository<SEPatternAssociation, String> {
+public interface SEPatternAssociationRepository extends EssenceRepository<SEPatternAssociation, String> {
 
 }
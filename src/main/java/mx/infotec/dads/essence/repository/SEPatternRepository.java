@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEPattern;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEPattern;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEPatternRepository extends MongoRepository<SEPattern, String> {
+public interface SEPatternRepository extends EssenceRepository<SEPattern, String> {
 
 }
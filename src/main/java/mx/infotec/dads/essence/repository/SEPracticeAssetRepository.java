@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEPracticeAsset;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEPracticeAsset;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEPracticeAssetRepository extends MongoRepository<SEPracticeAsset, String> {
+public interface SEPracticeAssetRepository extends EssenceRepository<SEPracticeAsset, String> {
 
 }
@@ -27,9 +27,10 @@ import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.MongoRepository;
 
 import mx.infotec.dads.essence.model.foundation.SEPractice;
+import mx.infotec.dads.essence.routing.ReadFrom;
+import mx.infotec.dads.essence.routing.ReadMode;
 
 /**
  * SEPracticeRepository
@@ -37,7 +38,7 @@ import mx.infotec.dads.essence.model.foundation.SEPractice;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEPracticeRepository extends MongoRepository<SEPractice, String> {
+public interface SEPracticeRepository extends EssenceRepository<SEPractice, String> {
 
     /**
      * Execute a query to mongodb engine
@@ -46,6 +47,7 @@ public interface SEPracticeRepository extends MongoRepository<SEPractice, String
      * @return List<SEPractice> the list of practices that matching the query
      *         finBy
      */
+    @ReadFrom(ReadMode.SECONDARY_PREFERRED)
     List<SEPractice> findByName(String name);
 
     /**
@@ -57,5 +59,6 @@ public interface SEPracticeRepository extends MongoRepository<SEPractice, String
      * @param page
      * @return Page<SEPractice>
      */
+    @ReadFrom(ReadMode.SECONDARY_PREFERRED)
     Page<SEPractice> findByKeyWordsIn(List<String> keyWords, Pageable pageable);
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SEResource;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SEResource;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEResourceRepository extends MongoRepository<SEResource, String> {
+public interface SEResourceRepository extends EssenceRepository<SEResource, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEState;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SEState;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEStateRepository extends MongoRepository<SEState, String> {
+public interface SEStateRepository extends EssenceRepository<SEState, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.foundation.SETag;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.foundation.SETag;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SETagRepository extends MongoRepository<SETag, String> {
+public interface SETagRepository extends EssenceRepository<SETag, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.userdefinedtypes.SETypedPattern;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.userdefinedtypes.SETypedPattern;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SETypedPatternRepository extends MongoRepository<SETypedPattern, String> {
+public interface SETypedPatternRepository extends EssenceRepository<SETypedPattern, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.userdefinedtypes.SETypedResource;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.userdefinedtypes.SETypedResource;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SETypedResourceRepository extends MongoRepository<SETypedResource, String> {
+public interface SETypedResourceRepository extends EssenceRepository<SETypedResource, String> {
 
 }
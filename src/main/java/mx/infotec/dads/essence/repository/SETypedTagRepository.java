@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.userdefinedtypes.SETypedTag;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.userdefinedtypes.SETypedTag;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SETypedTagRepository extends MongoRepository<SETypedTag, String> {
+public interface SETypedTagRepository extends EssenceRepository<SETypedTag, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.userdefinedtypes.SEUserDefinedType;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.userdefinedtypes.SEUserDefinedType;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEUserDefinedTypeRepository extends MongoRepository<SEUserDefinedType, String> {
+public interface SEUserDefinedTypeRepository extends EssenceRepository<SEUserDefinedType, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.view.SEViewSelection;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.view.SEViewSelection;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEViewSelectionRepository extends MongoRepository<SEViewSelection, String> {
+public interface SEViewSelectionRepository extends EssenceRepository<SEViewSelection, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEWorkProductManifest;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SEWorkProductManifest;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEWorkProductManifestRepository extends MongoRepository<SEWorkProductManifest, String> {
+public interface SEWorkProductManifestRepository extends EssenceRepository<SEWorkProductManifest, String> {
 
 }
@@ -23,8 +23,6 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEWorkProduct;
 
 /**
@@ -33,6 +31,6 @@ import mx.infotec.dads.essence.model.alphaandworkproduct.SEWorkProduct;
  * @author Daniel Cortes Pichardo
  *
  */
-public interface SEWorkProductRepository extends MongoRepository<SEWorkProduct, String> {
+public interface SEWorkProductRepository extends EssenceRepository<SEWorkProduct, String> {
 
 }
@@ -0,0 +1,101 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import java.util.concurrent.Callable;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+
+/**
+ * ReadRouting, the read mode of the reads done by the current thread.
+ * It is set by the repositories annotated with {@link ReadFrom} and applied
+ * by the {@link RoutingMongoTemplate}; without it the reads go to the
+ * primary.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<ReadMode> CURRENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+
+    }
+
+    /**
+     * The read mode of the current thread
+     * 
+     * @return ReadMode or null for the primary
+     */
+    public static ReadMode current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run a task with a read mode, the previous one is restored
+     * afterwards
+     * 
+     * @param readMode
+     * @param task
+     * @return T the result of the task
+     */
+    public static <T> T call(ReadMode readMode, Callable<T> task) {
+        ReadMode previous = enter(readMode);
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EssenceCoreException("Routed read failed", e);
+        } finally {
+            exit(previous);
+        }
+    }
+
+    /**
+     * Run a task reading from the primary, for the reads of an edit flow
+     * 
+     * @param task
+     * @return T the result of the task
+     */
+    public static <T> T primary(Callable<T> task) {
+        return call(ReadMode.PRIMARY, task);
+    }
+
+    static ReadMode enter(ReadMode readMode) {
+        ReadMode previous = CURRENT.get();
+        CURRENT.set(readMode);
+        return previous;
+    }
+
+    static void exit(ReadMode previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
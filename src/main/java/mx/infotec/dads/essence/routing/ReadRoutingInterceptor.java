@@ -0,0 +1,77 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotationUtils;
+
+/**
+ * ReadRoutingInterceptor, sets the read mode declared by
+ * {@link ReadFrom} on a repository method, or on the repository interface,
+ * while the method runs
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ReadRoutingInterceptor implements MethodInterceptor {
+
+    private final ReadFrom repositoryReadFrom;
+
+    private final Map<Method, Optional<ReadMode>> readModes = new ConcurrentHashMap<>();
+
+    public ReadRoutingInterceptor(Class<?> repositoryInterface) {
+        this.repositoryReadFrom = AnnotationUtils.findAnnotation(repositoryInterface, ReadFrom.class);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Optional<ReadMode> readMode = readModes.computeIfAbsent(invocation.getMethod(),
+                this::resolve);
+        if (!readMode.isPresent() || ReadRouting.current() != null) {
+            // an explicit routing of the caller wins over the declared one
+            return invocation.proceed();
+        }
+        ReadMode previous = ReadRouting.enter(readMode.get());
+        try {
+            return invocation.proceed();
+        } finally {
+            ReadRouting.exit(previous);
+        }
+    }
+
+    private Optional<ReadMode> resolve(Method method) {
+        ReadFrom readFrom = AnnotationUtils.findAnnotation(method, ReadFrom.class);
+        if (readFrom == null) {
+            readFrom = repositoryReadFrom;
+        }
+        return readFrom == null ? Optional.empty() : Optional.of(readFrom.value());
+    }
+}
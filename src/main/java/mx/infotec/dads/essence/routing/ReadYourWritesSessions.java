@@ -0,0 +1,110 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+
+/**
+ * ReadYourWritesSessions, binds the {@link ReadYourWritesToken} of an editing
+ * session to the thread that serves one of its requests and unbinds it
+ * afterwards. The saves of the request are recorded in the token, the next
+ * requests of the session read those collections from the primary during the
+ * read-your-writes window.
+ * 
+ * <p>
+ * A token is only kept while it has writes inside the window, a session that
+ * stops writing holds no memory.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ReadYourWritesSessions {
+
+    private final Map<String, ReadYourWritesToken> tokens = new ConcurrentHashMap<>();
+
+    private final long readYourWritesMillis;
+
+    @Autowired
+    public ReadYourWritesSessions(EssenceProperties properties) {
+        this.readYourWritesMillis = properties.getRouting().getReadYourWritesMillis();
+    }
+
+    /**
+     * Run a request of a session with the token of the session bound to the
+     * thread, the previous token of the thread is restored afterwards
+     * 
+     * @param sessionId
+     * @param task
+     * @return T the result of the task
+     */
+    public <T> T call(String sessionId, Callable<T> task) {
+        ReadYourWritesToken previous = ReadYourWritesToken.current();
+        ReadYourWritesToken token = tokens.computeIfAbsent(sessionId, id -> new ReadYourWritesToken());
+        ReadYourWritesToken.bind(token);
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EssenceCoreException("Session request failed", e);
+        } finally {
+            if (previous == null) {
+                ReadYourWritesToken.unbind();
+            } else {
+                ReadYourWritesToken.bind(previous);
+            }
+            tokens.computeIfPresent(sessionId,
+                    (id, current) -> current.hasRecentWrites(readYourWritesMillis) ? current : null);
+        }
+    }
+
+    /**
+     * The token of a session, e.g. to carry it encoded to another node
+     * 
+     * @param sessionId
+     * @return ReadYourWritesToken or null if the session has no recent writes
+     */
+    public ReadYourWritesToken getToken(String sessionId) {
+        return tokens.get(sessionId);
+    }
+
+    /**
+     * Forget a session, when it ends
+     * 
+     * @param sessionId
+     */
+    public void end(String sessionId) {
+        tokens.remove(sessionId);
+    }
+}
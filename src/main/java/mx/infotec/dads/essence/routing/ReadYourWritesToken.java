@@ -0,0 +1,135 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ReadYourWritesToken, the writes of an editing session. The collections
+ * written by the session in the last moments are read from the primary, so
+ * an editor always sees its own saves while the replicas catch up. The token
+ * is bound to the thread that serves the session by
+ * {@link ReadYourWritesSessions} and can be encoded to be carried between
+ * requests.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ReadYourWritesToken {
+
+    private static final ThreadLocal<ReadYourWritesToken> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * The token bound to the current thread
+     * 
+     * @return ReadYourWritesToken or null
+     */
+    public static ReadYourWritesToken current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(ReadYourWritesToken token) {
+        CURRENT.set(token);
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Record a write of the session
+     * 
+     * @param collection
+     */
+    public void recordWrite(String collection) {
+        lastWrites.put(collection, System.currentTimeMillis());
+    }
+
+    /**
+     * If the session wrote to a collection during the window
+     * 
+     * @param collection
+     * @param windowMillis
+     * @return boolean
+     */
+    public boolean hasRecentWrite(String collection, long windowMillis) {
+        Long lastWrite = lastWrites.get(collection);
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < windowMillis;
+    }
+
+    /**
+     * If the session wrote to any collection during the window
+     * 
+     * @param windowMillis
+     * @return boolean
+     */
+    public boolean hasRecentWrites(long windowMillis) {
+        long now = System.currentTimeMillis();
+        return lastWrites.values().stream().anyMatch(lastWrite -> now - lastWrite < windowMillis);
+    }
+
+    /**
+     * The token as <code>collection=millis</code> pairs separated by commas
+     * 
+     * @return String
+     */
+    public String encode() {
+        StringBuilder encoded = new StringBuilder();
+        lastWrites.forEach((collection, millis) -> {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(collection).append('=').append(millis);
+        });
+        return encoded.toString();
+    }
+
+    /**
+     * Rebuild an encoded token, malformed pairs are ignored
+     * 
+     * @param encoded
+     * @return ReadYourWritesToken
+     */
+    public static ReadYourWritesToken decode(String encoded) {
+        ReadYourWritesToken token = new ReadYourWritesToken();
+        if (encoded == null || encoded.isEmpty()) {
+            return token;
+        }
+        for (String pair : encoded.split(",")) {
+            int separator = pair.lastIndexOf('=');
+            if (separator > 0) {
+                try {
+                    token.lastWrites.put(pair.substring(0, separator), Long.parseLong(pair.substring(separator + 1)));
+                } catch (NumberFormatException e) {
+                    // a tampered pair only loses its read-your-writes guarantee
+                }
+            }
+        }
+        return token;
+    }
+}
@@ -0,0 +1,429 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoWriter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Meta;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteResult;
+
+import mx.infotec.dads.essence.codec.ElementCodecs;
+import mx.infotec.dads.essence.codec.ReadLimits;
+import mx.infotec.dads.essence.persistence.AfterInsertEvent;
+import mx.infotec.dads.essence.persistence.BeforeInsertEvent;
+import mx.infotec.dads.essence.persistence.InsertFailedEvent;
+import mx.infotec.dads.essence.persistence.RemoveResultEvent;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * RoutingMongoTemplate, sends the finds of a thread routed to
+ * {@link ReadMode#SECONDARY_PREFERRED} ({@link ReadRouting}) to the
+ * secondaries. The routing is carried by the slaveOk flag of each query, the
+ * collections are shared by all the threads and keep their read preference.
+ * A collection written by the session bound to the thread during the
+ * read-your-writes window is read from the primary. Counts, aggregations and
+ * raw collection access always use the primary.
+ * 
+ * <p>
+ * The finds of an element type projected by the {@link ReadLimits} of the
+ * thread load only the selected fields.
+ * 
+ * <p>
+ * The streams are routed and projected like the finds, and they can be opened
+ * with the batch size of their cursor.
+ * 
+ * <p>
+ * With the {@link ElementCodecs} the results of a find are read in a single
+ * context, the references of all of them are fetched together.
+ * 
+ * <p>
+ * The save events of the inserts are published as {@link BeforeInsertEvent}
+ * and {@link AfterInsertEvent}. An insert is a document written by an insert
+ * of the template or by a save of an unversioned entity without id, the save
+ * of an unversioned entity with an assigned id replaces the stored document
+ * and it is an update.
+ * 
+ * <p>
+ * The inserts that fail publish an {@link InsertFailedEvent} and the removes
+ * publish a {@link RemoveResultEvent} with the number of deleted documents,
+ * so the listeners that act before a write can undo it.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class RoutingMongoTemplate extends MongoTemplate {
+
+    /**
+     * The entities being inserted by the thread
+     */
+    private static final ThreadLocal<Set<Object>> INSERTING = ThreadLocal
+            .withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private final long readYourWritesMillis;
+
+    private ElementCodecs elementCodecs;
+
+    public RoutingMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter,
+            long readYourWritesMillis) {
+        super(mongoDbFactory, mongoConverter);
+        this.readYourWritesMillis = readYourWritesMillis;
+    }
+
+    /**
+     * The codecs that read the elements, when they are enabled
+     * 
+     * @param elementCodecs
+     */
+    public void setElementCodecs(ElementCodecs elementCodecs) {
+        this.elementCodecs = elementCodecs;
+    }
+
+    @Override
+    public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+        if (query == null) {
+            return super.find(query, entityClass, collectionName);
+        }
+        Query routed = copy(query);
+        if (isSecondaryOk(collectionName)) {
+            routed.slaveOk();
+        }
+        project(routed, entityClass);
+        if (elementCodecs == null) {
+            return super.find(routed, entityClass, collectionName);
+        }
+        return elementCodecs.readTogether(() -> super.find(routed, entityClass, collectionName));
+    }
+
+    @Override
+    public <T> CloseableIterator<T> stream(Query query, Class<T> entityClass, String collectionName) {
+        return stream(query, entityClass, collectionName, 0);
+    }
+
+    /**
+     * Stream the results of a query over a cursor, holding a single batch of
+     * documents at a time
+     * 
+     * @param query
+     * @param entityClass
+     * @param collectionName
+     * @param batchSize
+     *            the number of documents of each batch of the cursor, zero
+     *            for the default of the server
+     * @return CloseableIterator<T>, it must be closed to release the cursor
+     */
+    public <T> CloseableIterator<T> stream(Query query, Class<T> entityClass, String collectionName,
+            int batchSize) {
+        boolean secondaryOk = isSecondaryOk(collectionName);
+        Query projected = copy(query);
+        project(projected, entityClass);
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = getConverter()
+                .getMappingContext();
+        MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+        QueryMapper queryMapper = new QueryMapper(getConverter());
+        DBCursor cursor = execute(collectionName, collection -> {
+            DBCursor opened = collection.find(queryMapper.getMappedObject(projected.getQueryObject(), entity),
+                    queryMapper.getMappedFields(projected.getFieldsObject(), entity));
+            if (projected.getSortObject() != null) {
+                opened.sort(queryMapper.getMappedSort(projected.getSortObject(), entity));
+            }
+            if (projected.getSkip() > 0) {
+                opened.skip(projected.getSkip());
+            }
+            if (projected.getLimit() > 0) {
+                opened.limit(projected.getLimit());
+            }
+            if (batchSize > 0) {
+                opened.batchSize(batchSize);
+            }
+            if (secondaryOk) {
+                opened.setReadPreference(ReadPreference.secondaryPreferred());
+            }
+            return opened;
+        });
+        return new CursorIterator<>(cursor, entityClass, collectionName);
+    }
+
+    @Override
+    public <T> List<T> findAll(Class<T> entityClass, String collectionName) {
+        return find(new Query(), entityClass, collectionName);
+    }
+
+    @Override
+    public <T> T findOne(Query query, Class<T> entityClass, String collectionName) {
+        if (!isSecondaryOk(collectionName) && getProjectedFields(entityClass) == null) {
+            return super.findOne(query, entityClass, collectionName);
+        }
+        // the single document finds have no cursor nor projection, the query
+        // goes through find
+        List<T> result = find(copy(query).limit(1), entityClass, collectionName);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public <T> T findById(Object id, Class<T> entityClass, String collectionName) {
+        if (!isSecondaryOk(collectionName) && getProjectedFields(entityClass) == null) {
+            return super.findById(id, entityClass, collectionName);
+        }
+        return findOne(Query.query(Criteria.where(MongoEvents.ID_FIELD).is(id)), entityClass, collectionName);
+    }
+
+    @Override
+    public void save(Object objectToSave, String collectionName) {
+        try {
+            super.save(objectToSave, collectionName);
+        } finally {
+            INSERTING.get().remove(objectToSave);
+        }
+    }
+
+    @Override
+    protected <T> void doInsert(String collectionName, T objectToSave, MongoWriter<T> writer) {
+        INSERTING.get().add(objectToSave);
+        try {
+            super.doInsert(collectionName, objectToSave, writer);
+        } finally {
+            INSERTING.get().remove(objectToSave);
+        }
+    }
+
+    @Override
+    protected <T> void doInsertBatch(String collectionName, Collection<? extends T> batchToSave,
+            MongoWriter<T> writer) {
+        INSERTING.get().addAll(batchToSave);
+        try {
+            super.doInsertBatch(collectionName, batchToSave, writer);
+        } finally {
+            INSERTING.get().removeAll(batchToSave);
+        }
+    }
+
+    @Override
+    protected Object saveDBObject(String collectionName, DBObject dbDoc, Class<?> entityClass) {
+        // the driver assigns the id of an insert before writing it
+        boolean insert = dbDoc.get(MongoEvents.ID_FIELD) == null;
+        try {
+            return super.saveDBObject(collectionName, dbDoc, entityClass);
+        } catch (RuntimeException e) {
+            if (insert) {
+                maybeEmitEvent(new InsertFailedEvent(Collections.singletonList(dbDoc), collectionName));
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    protected Object insertDBObject(String collectionName, DBObject dbDoc, Class<?> entityClass) {
+        try {
+            return super.insertDBObject(collectionName, dbDoc, entityClass);
+        } catch (RuntimeException e) {
+            maybeEmitEvent(new InsertFailedEvent(Collections.singletonList(dbDoc), collectionName));
+            throw e;
+        }
+    }
+
+    @Override
+    protected List<ObjectId> insertDBObjectList(String collectionName, List<DBObject> dbDocList) {
+        try {
+            return super.insertDBObjectList(collectionName, dbDocList);
+        } catch (RuntimeException e) {
+            maybeEmitEvent(new InsertFailedEvent(getNotStored(collectionName, dbDocList), collectionName));
+            throw e;
+        }
+    }
+
+    @Override
+    protected <T> WriteResult doRemove(String collectionName, Query query, Class<T> entityClass) {
+        WriteResult result = super.doRemove(collectionName, query, entityClass);
+        if (result != null && result.wasAcknowledged()) {
+            maybeEmitEvent(new RemoveResultEvent(query.getQueryObject(), collectionName, result.getN()));
+        }
+        return result;
+    }
+
+    /**
+     * The save events of the inserts are replaced by their insert events
+     */
+    @Override
+    protected <T> void maybeEmitEvent(MongoMappingEvent<T> event) {
+        if (event instanceof BeforeSaveEvent && !(event instanceof BeforeInsertEvent)) {
+            Set<Object> inserting = INSERTING.get();
+            // a save without id inserts the document, the save override
+            // forgets the entity
+            if (inserting.contains(event.getSource()) || event.getDBObject().get(MongoEvents.ID_FIELD) == null) {
+                inserting.add(event.getSource());
+                super.maybeEmitEvent(
+                        new BeforeInsertEvent<>(event.getSource(), event.getDBObject(), event.getCollectionName()));
+                return;
+            }
+        } else if (event instanceof AfterSaveEvent && !(event instanceof AfterInsertEvent)
+                && INSERTING.get().contains(event.getSource())) {
+            super.maybeEmitEvent(
+                    new AfterInsertEvent<>(event.getSource(), event.getDBObject(), event.getCollectionName()));
+            return;
+        }
+        super.maybeEmitEvent(event);
+    }
+
+    /**
+     * The documents of a failed batch insert that are not stored, an ordered
+     * insert stops at the first failure and keeps the documents before it
+     */
+    private List<DBObject> getNotStored(String collectionName, List<DBObject> dbDocList) {
+        List<Object> ids = new ArrayList<>();
+        for (DBObject dbDoc : dbDocList) {
+            if (dbDoc.get(MongoEvents.ID_FIELD) != null) {
+                ids.add(dbDoc.get(MongoEvents.ID_FIELD));
+            }
+        }
+        Set<Object> stored = new HashSet<>();
+        getCollection(collectionName).find(new BasicDBObject(MongoEvents.ID_FIELD, new BasicDBObject("$in", ids)),
+                new BasicDBObject(MongoEvents.ID_FIELD, 1)).forEach(dbo -> stored.add(dbo.get(MongoEvents.ID_FIELD)));
+        List<DBObject> notStored = new ArrayList<>();
+        for (DBObject dbDoc : dbDocList) {
+            if (!stored.contains(dbDoc.get(MongoEvents.ID_FIELD))) {
+                notStored.add(dbDoc);
+            }
+        }
+        return notStored;
+    }
+
+    /**
+     * A copy of a query, the routing and the projection change the copy and
+     * never the query of the caller
+     */
+    private static Query copy(Query query) {
+        BasicQuery copy = new BasicQuery(query.getQueryObject(), query.getFieldsObject());
+        copy.setSortObject(query.getSortObject());
+        copy.skip(query.getSkip()).limit(query.getLimit());
+        if (query.getHint() != null) {
+            copy.withHint(query.getHint());
+        }
+        Meta source = query.getMeta();
+        Meta meta = new Meta();
+        if (source.getMaxTimeMsec() != null) {
+            meta.setMaxTimeMsec(source.getMaxTimeMsec());
+        }
+        if (source.getMaxScan() != null) {
+            meta.setMaxScan(source.getMaxScan());
+        }
+        meta.setComment(source.getComment());
+        meta.setSnapshot(source.getSnapshot());
+        source.getFlags().forEach(meta::addFlag);
+        copy.setMeta(meta);
+        return copy;
+    }
+
+    private static void project(Query query, Class<?> entityClass) {
+        Set<String> fields = getProjectedFields(entityClass);
+        if (fields != null && query.getFieldsObject() == null) {
+            fields.forEach(field -> query.fields().include(field));
+            ReadLimits.ALWAYS_LOADED.forEach(field -> query.fields().include(field));
+        }
+    }
+
+    private static Set<String> getProjectedFields(Class<?> entityClass) {
+        ReadLimits limits = ReadLimits.current();
+        return limits == null ? null : limits.getFields(KernelEnum.of(entityClass));
+    }
+
+    private boolean isSecondaryOk(String collectionName) {
+        if (ReadRouting.current() != ReadMode.SECONDARY_PREFERRED) {
+            return false;
+        }
+        ReadYourWritesToken token = ReadYourWritesToken.current();
+        return token == null || !token.hasRecentWrite(collectionName, readYourWritesMillis);
+    }
+
+    /**
+     * The documents of a cursor read as entities, with the same mapping
+     * events as the finds
+     */
+    private final class CursorIterator<T> implements CloseableIterator<T> {
+
+        private final DBCursor cursor;
+
+        private final Class<T> entityClass;
+
+        private final String collectionName;
+
+        CursorIterator(DBCursor cursor, Class<T> entityClass, String collectionName) {
+            this.cursor = cursor;
+            this.entityClass = entityClass;
+            this.collectionName = collectionName;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor.hasNext();
+        }
+
+        @Override
+        public T next() {
+            DBObject document = cursor.next();
+            maybeEmitEvent(new AfterLoadEvent<>(document, entityClass, collectionName));
+            T entity = getConverter().read(entityClass, document);
+            if (entity != null) {
+                maybeEmitEvent(new AfterConvertEvent<>(document, entity, collectionName));
+            }
+            return entity;
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventSink;
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.summary.ElementSummaries;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ElementTypeahead, the name completion of the element groups and basic
+ * elements. Each tenant has its own {@link NameTrie}, loaded from the
+ * collections the first time the tenant asks for a completion and kept up to
+ * date from the change events.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ElementTypeahead implements ChangeEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementTypeahead.class);
+
+    private static final String SHARED = "";
+
+    private static final String NAME = "name";
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    private final Map<String, Index> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return "typeahead";
+    }
+
+    /**
+     * The most used elements of the current tenant whose name has a word
+     * starting with the prefix
+     * 
+     * @param prefix
+     * @param limit
+     * @param elementTypes
+     *            the accepted types, all of them when empty
+     * @return List<NameTrie.Suggestion>
+     */
+    public List<NameTrie.Suggestion> complete(String prefix, int limit, Collection<KernelEnum> elementTypes) {
+        Index index = getIndex();
+        index.lock.readLock().lock();
+        try {
+            return index.trie.complete(prefix, limit, elementTypes);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the choice of a suggestion, the usage ranks the suggestions
+     * 
+     * @param id
+     */
+    public void recordUsage(String id) {
+        Index index = getIndex();
+        index.lock.writeLock().lock();
+        try {
+            index.trie.recordUsage(id);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            String tenant = TenantContext.tenantOf(event.getCollection());
+            Index index = indexes.get(tenant == null ? SHARED : tenant);
+            if (index == null || !ElementSummaries.isSummarized(event.getElementType())) {
+                // not loaded yet, the load will read the current names
+                continue;
+            }
+            index.lock.writeLock().lock();
+            try {
+                if (event.getChangeType() == ChangeType.DELETED) {
+                    index.trie.remove(event.getElementId());
+                } else if (event.getChangedFields().contains(NAME) && event.getDocument() != null) {
+                    index.trie.put(event.getElementId(), (String) event.getDocument().get(NAME),
+                            event.getElementType());
+                }
+            } finally {
+                index.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Index getIndex() {
+        String tenant = TenantContext.get();
+        return indexes.computeIfAbsent(tenant == null ? SHARED : tenant, key -> load());
+    }
+
+    private Index load() {
+        Index index = new Index();
+        DBObject fields = new BasicDBObject(NAME, 1);
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (!ElementSummaries.isSummarized(elementType)) {
+                continue;
+            }
+            try (DBCursor cursor = mongoOperations.getCollection(elementType.getCollection())
+                    .find(new BasicDBObject(), fields)) {
+                while (cursor.hasNext()) {
+                    DBObject dbo = cursor.next();
+                    index.trie.put(MongoEvents.getId(dbo), (String) dbo.get(NAME), elementType);
+                }
+            }
+        }
+        LOGGER.info("Typeahead of tenant {} loaded with {} names", TenantContext.get(), index.trie.size());
+        return index;
+    }
+
+    private static class Index {
+
+        private final NameTrie trie = new NameTrie();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+}
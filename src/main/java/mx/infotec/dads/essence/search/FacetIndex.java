@@ -0,0 +1,273 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * FacetIndex, an in-memory bitmap index for faceted search. Every document
+ * gets an ordinal and every facet value a bitmap of the ordinals of its
+ * documents. A search intersects the bitmaps of the selected values and
+ * counts the values of each facet over the documents matching the filters
+ * of the other facets, so the counts tell what a drill-down or a widening
+ * of the facet would return. The counts over all the documents are kept up
+ * to date on every change, a filtered count tallies only the matching
+ * documents.
+ * 
+ * <p>
+ * It is not thread safe.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ * @param <F>
+ *            the facets
+ */
+public class FacetIndex<F extends Enum<F>> {
+
+    private final Class<F> facetType;
+
+    private final Map<F, Map<String, BitSet>> postings;
+
+    private final Map<F, Map<String, String>> labels;
+
+    /** The number of documents of each value, the counts of a search without filters */
+    private final Map<F, Map<String, int[]>> counts;
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+
+    private final List<String> ids = new ArrayList<>();
+
+    private final List<Map<F, Collection<String>>> values = new ArrayList<>();
+
+    private final BitSet live = new BitSet();
+
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    public FacetIndex(Class<F> facetType) {
+        this.facetType = facetType;
+        this.postings = new EnumMap<>(facetType);
+        this.labels = new EnumMap<>(facetType);
+        this.counts = new EnumMap<>(facetType);
+        for (F facet : facetType.getEnumConstants()) {
+            postings.put(facet, new HashMap<>());
+            labels.put(facet, new HashMap<>());
+            counts.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Add or replace the facet values of a document
+     * 
+     * @param id
+     * @param documentValues
+     */
+    public void put(String id, Map<F, ? extends Collection<String>> documentValues) {
+        remove(id);
+        int ordinal = freeOrdinals.isEmpty() ? ids.size() : freeOrdinals.pop();
+        Map<F, Collection<String>> stored = new EnumMap<>(facetType);
+        for (Map.Entry<F, ? extends Collection<String>> entry : documentValues.entrySet()) {
+            Map<String, BitSet> facetPostings = postings.get(entry.getKey());
+            Map<String, int[]> facetCounts = counts.get(entry.getKey());
+            Collection<String> distinct = new LinkedHashSet<>(entry.getValue());
+            for (String value : distinct) {
+                facetPostings.computeIfAbsent(value, key -> new BitSet()).set(ordinal);
+                facetCounts.computeIfAbsent(value, key -> new int[1])[0]++;
+            }
+            stored.put(entry.getKey(), distinct);
+        }
+        if (ordinal == ids.size()) {
+            ids.add(id);
+            values.add(stored);
+        } else {
+            ids.set(ordinal, id);
+            values.set(ordinal, stored);
+        }
+        ordinals.put(id, ordinal);
+        live.set(ordinal);
+    }
+
+    /**
+     * Remove a document, its ordinal is reused by the next one added
+     * 
+     * @param id
+     * @return boolean if the document was indexed
+     */
+    public boolean remove(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return false;
+        }
+        for (Map.Entry<F, Collection<String>> entry : values.get(ordinal).entrySet()) {
+            Map<String, BitSet> facetPostings = postings.get(entry.getKey());
+            Map<String, int[]> facetCounts = counts.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                BitSet bits = facetPostings.get(value);
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    facetPostings.remove(value);
+                    facetCounts.remove(value);
+                } else {
+                    facetCounts.get(value)[0]--;
+                }
+            }
+        }
+        ids.set(ordinal, null);
+        values.set(ordinal, null);
+        live.clear(ordinal);
+        freeOrdinals.push(ordinal);
+        return true;
+    }
+
+    /**
+     * The display label of a facet value, the value itself by default
+     * 
+     * @param facet
+     * @param value
+     * @param label
+     */
+    public void setLabel(F facet, String value, String label) {
+        labels.get(facet).put(value, label);
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * Search the documents matching the filters
+     * 
+     * @param filters
+     *            the selected values of each facet, a document must have one
+     *            of the selected values of every filtered facet
+     * @param offset
+     *            the first document of the page
+     * @param limit
+     *            the size of the page
+     * @param maxValues
+     *            the number of values counted per facet, the most frequent
+     * @return FacetResult<F>
+     */
+    public FacetResult<F> search(Map<F, ? extends Collection<String>> filters, int offset, int limit,
+            int maxValues) {
+        Map<F, BitSet> selections = new EnumMap<>(facetType);
+        for (Map.Entry<F, ? extends Collection<String>> filter : filters.entrySet()) {
+            if (!filter.getValue().isEmpty()) {
+                selections.put(filter.getKey(), union(filter.getKey(), filter.getValue()));
+            }
+        }
+        BitSet matches = intersect(selections, null);
+        List<String> page = new ArrayList<>();
+        int skipped = 0;
+        for (int i = matches.nextSetBit(0); i >= 0 && page.size() < limit; i = matches.nextSetBit(i + 1)) {
+            if (skipped++ >= offset) {
+                page.add(ids.get(i));
+            }
+        }
+        Map<F, List<FacetResult.FacetCount>> counts = new EnumMap<>(facetType);
+        for (F facet : facetType.getEnumConstants()) {
+            BitSet base = selections.containsKey(facet) ? intersect(selections, facet) : matches;
+            counts.put(facet, count(facet, base, maxValues));
+        }
+        return new FacetResult<>(matches.cardinality(), page, counts);
+    }
+
+    private BitSet union(F facet, Collection<String> selected) {
+        BitSet union = new BitSet();
+        for (String value : selected) {
+            BitSet bits = postings.get(facet).get(value);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * The live documents matching every selection except the one of a facet
+     */
+    private BitSet intersect(Map<F, BitSet> selections, F excluded) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<F, BitSet> selection : selections.entrySet()) {
+            if (selection.getKey() != excluded) {
+                result.and(selection.getValue());
+            }
+        }
+        return result;
+    }
+
+    private List<FacetResult.FacetCount> count(F facet, BitSet base, int maxValues) {
+        Map<String, int[]> tally;
+        if (base.cardinality() == size()) {
+            tally = counts.get(facet);
+        } else {
+            // tally the values of the matching documents, it costs as many
+            // steps as values they have whatever the number of distinct values
+            tally = new HashMap<>();
+            for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+                Collection<String> documentValues = values.get(i).get(facet);
+                if (documentValues != null) {
+                    for (String value : documentValues) {
+                        tally.computeIfAbsent(value, key -> new int[1])[0]++;
+                    }
+                }
+            }
+        }
+        PriorityQueue<FacetResult.FacetCount> top = new PriorityQueue<>(FacetResult.FacetCount.BY_COUNT.reversed());
+        Map<String, String> facetLabels = labels.get(facet);
+        for (Map.Entry<String, int[]> entry : tally.entrySet()) {
+            String value = entry.getKey();
+            top.add(new FacetResult.FacetCount(value, facetLabels.getOrDefault(value, value), entry.getValue()[0]));
+            if (top.size() > maxValues) {
+                top.poll();
+            }
+        }
+        List<FacetResult.FacetCount> result = new ArrayList<>(top);
+        result.sort(FacetResult.FacetCount.BY_COUNT);
+        return result;
+    }
+
+    /**
+     * The facet values of an indexed document
+     * 
+     * @param id
+     * @return Map<F, Collection<String>> empty if the document is not indexed
+     */
+    public Map<F, Collection<String>> getValues(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal == null ? Collections.emptyMap() : new LinkedHashMap<>(values.get(ordinal));
+    }
+}
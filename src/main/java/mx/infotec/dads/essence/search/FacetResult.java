@@ -0,0 +1,117 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FacetResult, a page of the documents matching a faceted search and the
+ * counts of the values of each facet
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ * @param <F>
+ *            the facets
+ */
+public class FacetResult<F extends Enum<F>> {
+
+    private final int total;
+
+    private final List<String> ids;
+
+    private final Map<F, List<FacetCount>> facets;
+
+    public FacetResult(int total, List<String> ids, Map<F, List<FacetCount>> facets) {
+        this.total = total;
+        this.ids = ids;
+        this.facets = facets;
+    }
+
+    /**
+     * The number of documents matching the filters
+     * 
+     * @return int
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * The ids of the documents of the page
+     * 
+     * @return List<String>
+     */
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public Map<F, List<FacetCount>> getFacets() {
+        return facets;
+    }
+
+    public List<FacetCount> getFacet(F facet) {
+        return facets.get(facet);
+    }
+
+    /**
+     * The number of documents with a facet value
+     */
+    public static class FacetCount {
+
+        static final Comparator<FacetCount> BY_COUNT = Comparator.comparingInt(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getLabel);
+
+        private final String value;
+
+        private final String label;
+
+        private final int count;
+
+        public FacetCount(String value, String label, int count) {
+            this.value = value;
+            this.label = label;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return label + "=" + count;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * NameTrie, a radix trie over the names of the elements for the typeahead of
+ * the editors. The names are folded (lower case, without accents) and indexed
+ * from the start of each word, so "Stakeholder Requirements" is found by
+ * "req" too. Every node knows the highest usage of its subtree, the top
+ * suggestions of a prefix are collected best first and only the needed
+ * branches are visited.
+ * 
+ * <p>
+ * It is not thread safe.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class NameTrie {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Suggestion> BY_RANK = Comparator.comparingLong(Suggestion::getUsage).reversed()
+            .thenComparingInt(suggestion -> suggestion.getName().length())
+            .thenComparing(Suggestion::getName);
+
+    private final Node root = new Node("");
+
+    private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+    /**
+     * Fold a text for the comparisons: lower case and without diacritics
+     * 
+     * @param text
+     * @return String
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The keys of a name, the folded name from the start of each word
+     * 
+     * @param name
+     * @return Set<String>
+     */
+    static Set<String> keysOf(String name) {
+        String folded = WORD_SEPARATORS.matcher(fold(name)).replaceAll(" ").trim();
+        Set<String> keys = new LinkedHashSet<>();
+        if (folded.isEmpty()) {
+            return keys;
+        }
+        keys.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            keys.add(folded.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * Add or rename an element, its usage is kept
+     * 
+     * @param id
+     * @param name
+     * @param elementType
+     */
+    public void put(String id, String name, KernelEnum elementType) {
+        Suggestion previous = suggestions.get(id);
+        if (previous != null) {
+            if (previous.name.equals(name) && previous.elementType == elementType) {
+                return;
+            }
+            remove(id);
+        }
+        if (name == null) {
+            return;
+        }
+        Suggestion suggestion = new Suggestion(id, name, elementType, keysOf(name));
+        suggestion.usage = previous == null ? 0 : previous.usage;
+        suggestions.put(id, suggestion);
+        for (String key : suggestion.keys) {
+            insert(root, key, suggestion);
+        }
+    }
+
+    /**
+     * Remove an element
+     * 
+     * @param id
+     * @return boolean if the element was indexed
+     */
+    public boolean remove(String id) {
+        Suggestion suggestion = suggestions.remove(id);
+        if (suggestion == null) {
+            return false;
+        }
+        for (String key : suggestion.keys) {
+            delete(root, key, 0, suggestion);
+        }
+        return true;
+    }
+
+    /**
+     * Count a use of an element, the most used elements are suggested first
+     * 
+     * @param id
+     */
+    public void recordUsage(String id) {
+        Suggestion suggestion = suggestions.get(id);
+        if (suggestion == null) {
+            return;
+        }
+        suggestion.usage++;
+        for (String key : suggestion.keys) {
+            Node node = root;
+            int offset = 0;
+            while (node != null) {
+                node.maxUsage = Math.max(node.maxUsage, suggestion.usage);
+                if (offset == key.length()) {
+                    break;
+                }
+                node = node.child(key.charAt(offset));
+                offset += node == null ? 0 : node.label.length();
+            }
+        }
+    }
+
+    /**
+     * The most used elements whose name has a word starting with the prefix
+     * 
+     * @param prefix
+     * @param limit
+     * @param elementTypes
+     *            the accepted types, all of them when empty
+     * @return List<Suggestion> ordered by usage and length of the name
+     */
+    public List<Suggestion> complete(String prefix, int limit, Collection<KernelEnum> elementTypes) {
+        String key = WORD_SEPARATORS.matcher(fold(prefix)).replaceAll(" ").replaceAll("^ +", "");
+        Node start = find(key);
+        List<Suggestion> result = new ArrayList<>();
+        if (start == null || limit <= 0) {
+            return result;
+        }
+        // nodes are ranked by the best usage below them, on a tie they are
+        // expanded before the suggestions so equal usages are ordered by name
+        PriorityQueue<Object> queue = new PriorityQueue<>((a, b) -> {
+            long usageA = a instanceof Node ? ((Node) a).maxUsage : ((Suggestion) a).usage;
+            long usageB = b instanceof Node ? ((Node) b).maxUsage : ((Suggestion) b).usage;
+            if (usageA != usageB) {
+                return Long.compare(usageB, usageA);
+            }
+            if (a instanceof Node || b instanceof Node) {
+                return Boolean.compare(b instanceof Node, a instanceof Node);
+            }
+            return BY_RANK.compare((Suggestion) a, (Suggestion) b);
+        });
+        queue.add(start);
+        Set<String> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Object next = queue.poll();
+            if (next instanceof Suggestion) {
+                Suggestion suggestion = (Suggestion) next;
+                if (seen.add(suggestion.id)
+                        && (elementTypes.isEmpty() || elementTypes.contains(suggestion.elementType))) {
+                    result.add(suggestion);
+                }
+            } else {
+                Node node = (Node) next;
+                queue.addAll(node.entries);
+                queue.addAll(Arrays.asList(node.children).subList(0, node.size));
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return suggestions.size();
+    }
+
+    /**
+     * The node whose subtree holds the keys starting with a prefix
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            Node child = node.child(prefix.charAt(offset));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, prefix, offset);
+            if (offset + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            offset += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private static void insert(Node node, String key, Suggestion suggestion) {
+        int offset = 0;
+        while (true) {
+            node.maxUsage = Math.max(node.maxUsage, suggestion.usage);
+            if (offset == key.length()) {
+                node.entries.add(suggestion);
+                return;
+            }
+            Node child = node.child(key.charAt(offset));
+            if (child == null) {
+                Node leaf = new Node(key.substring(offset));
+                leaf.maxUsage = suggestion.usage;
+                leaf.entries.add(suggestion);
+                node.add(leaf);
+                return;
+            }
+            int common = commonPrefix(child.label, key, offset);
+            if (common < child.label.length()) {
+                child = node.split(child, common);
+            }
+            offset += common;
+            node = child;
+        }
+    }
+
+    /**
+     * Remove a key of a suggestion below a node, the emptied nodes are pruned
+     * and the single child chains merged again
+     * 
+     * @return boolean if the node became empty
+     */
+    private static boolean delete(Node node, String key, int offset, Suggestion suggestion) {
+        if (offset == key.length()) {
+            node.entries.remove(suggestion);
+        } else {
+            Node child = node.child(key.charAt(offset));
+            if (child != null && key.startsWith(child.label, offset)
+                    && delete(child, key, offset + child.label.length(), suggestion)) {
+                node.remove(child);
+            }
+        }
+        boolean isRoot = node.label.isEmpty();
+        if (!isRoot && node.entries.isEmpty() && node.size == 1) {
+            node.mergeWithChild();
+        }
+        node.maxUsage = node.computeMaxUsage();
+        return !isRoot && node.entries.isEmpty() && node.size == 0;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * A node of the trie, its children are kept sorted by their first
+     * character in a plain array
+     */
+    private static class Node {
+
+        private String label;
+
+        private Node[] children = new Node[0];
+
+        private int size;
+
+        private List<Suggestion> entries = new ArrayList<>(1);
+
+        private long maxUsage;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = indexOf(first);
+            return index < 0 ? null : children[index];
+        }
+
+        void add(Node child) {
+            int index = -indexOf(child.label.charAt(0)) - 1;
+            if (size == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, size * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, size - index);
+            children[index] = child;
+            size++;
+        }
+
+        void remove(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+
+        /**
+         * Split a child after the common part of its label
+         * 
+         * @return Node the new intermediate node
+         */
+        Node split(Node child, int common) {
+            Node intermediate = new Node(child.label.substring(0, common));
+            children[indexOf(child.label.charAt(0))] = intermediate;
+            child.label = child.label.substring(common);
+            intermediate.add(child);
+            intermediate.maxUsage = child.maxUsage;
+            return intermediate;
+        }
+
+        void mergeWithChild() {
+            Node child = children[0];
+            label = label + child.label;
+            children = child.children;
+            size = child.size;
+            entries = child.entries;
+        }
+
+        long computeMaxUsage() {
+            long max = 0;
+            for (Suggestion entry : entries) {
+                max = Math.max(max, entry.usage);
+            }
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, children[i].maxUsage);
+            }
+            return max;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char current = children[middle].label.charAt(0);
+                if (current < first) {
+                    low = middle + 1;
+                } else if (current > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * A suggested element
+     */
+    public static class Suggestion {
+
+        private final String id;
+
+        private final String name;
+
+        private final KernelEnum elementType;
+
+        private final Set<String> keys;
+
+        private long usage;
+
+        Suggestion(String id, String name, KernelEnum elementType, Set<String> keys) {
+            this.id = id;
+            this.name = name;
+            this.elementType = elementType;
+            this.keys = keys;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public KernelEnum getElementType() {
+            return elementType;
+        }
+
+        public long getUsage() {
+            return usage;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
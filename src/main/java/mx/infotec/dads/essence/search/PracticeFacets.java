@@ -0,0 +1,300 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventSink;
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.model.foundation.SEPractice;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * PracticeFacets, the faceted search of the practices. Each tenant has its
+ * own {@link FacetIndex}, loaded from the raw documents the first time the
+ * tenant searches. The saves and deletes of practices are applied
+ * incrementally from the change events; a change of a tag, of a user defined
+ * type, of a kernel or of the owner of a practice discards the index of the
+ * tenant, which is loaded again by its next search.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class PracticeFacets implements ChangeEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PracticeFacets.class);
+
+    private static final String SHARED = "";
+
+    private static final DBObject PRACTICE_FIELDS = new BasicDBObject("keyWords", 1).append("author", 1)
+            .append("owner", 1).append("tag", 1);
+
+    private static final Set<KernelEnum> INVALIDATING_TYPES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(KernelEnum.TAG, KernelEnum.TYPEDTAG, KernelEnum.USERDEFINEDTYPE,
+                    KernelEnum.KERNEL)));
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    private final Map<String, Index> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return "practicefacets";
+    }
+
+    /**
+     * Search the practices of the current tenant
+     * 
+     * @param filters
+     *            the selected values of each facet
+     * @param offset
+     * @param limit
+     * @param maxValues
+     *            the number of values counted per facet
+     * @return FacetResult<PracticeFacet>
+     */
+    public FacetResult<PracticeFacet> search(Map<PracticeFacet, ? extends Collection<String>> filters, int offset,
+            int limit, int maxValues) {
+        Index index = getIndex();
+        index.lock.readLock().lock();
+        try {
+            return index.facets.search(filters, offset, limit, maxValues);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The practices of a search result, in the order of the result
+     * 
+     * @param result
+     * @return List<SEPractice>
+     */
+    public List<SEPractice> getPractices(FacetResult<PracticeFacet> result) {
+        Map<String, SEPractice> practices = mongoOperations
+                .find(query(where("id").in(result.getIds())), SEPractice.class).stream()
+                .collect(Collectors.toMap(SEPractice::getId, Function.identity()));
+        List<SEPractice> ordered = new ArrayList<>();
+        for (String id : result.getIds()) {
+            SEPractice practice = practices.get(id);
+            if (practice != null) {
+                ordered.add(practice);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            String tenant = TenantContext.tenantOf(event.getCollection());
+            String key = tenant == null ? SHARED : tenant;
+            Index index = indexes.get(key);
+            if (index == null) {
+                continue;
+            }
+            if (INVALIDATING_TYPES.contains(event.getElementType())) {
+                indexes.remove(key);
+            } else if (event.getElementType() == KernelEnum.PRACTICE) {
+                DBObject practice = event.getChangeType() == ChangeType.DELETED ? null
+                        : mongoOperations.getCollection(event.getCollection()).findOne(
+                                new BasicDBObject(MongoEvents.ID_FIELD, MongoEvents.toStoredId(event.getElementId())),
+                                PRACTICE_FIELDS);
+                index.lock.writeLock().lock();
+                try {
+                    if (practice == null) {
+                        index.facets.remove(event.getElementId());
+                        index.owners.remove(event.getElementId());
+                    } else if (index.isOwnerChanged(practice)) {
+                        // the kernel of the sub-practices changes too
+                        indexes.remove(key);
+                    } else {
+                        index.put(practice);
+                    }
+                } finally {
+                    index.lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private Index getIndex() {
+        String tenant = TenantContext.get();
+        return indexes.computeIfAbsent(tenant == null ? SHARED : tenant, key -> load());
+    }
+
+    private Index load() {
+        Index index = new Index();
+        forEach(KernelEnum.KERNEL, new BasicDBObject("name", 1), dbo -> index.facets
+                .setLabel(PracticeFacet.KERNEL, MongoEvents.getId(dbo), (String) dbo.get("name")));
+        forEach(KernelEnum.USERDEFINEDTYPE, new BasicDBObject("name", 1), dbo -> index.facets
+                .setLabel(PracticeFacet.USER_DEFINED_TYPE, MongoEvents.getId(dbo), (String) dbo.get("name")));
+        forEach(KernelEnum.TAG, new BasicDBObject("value", 1),
+                dbo -> index.tagValues.put(MongoEvents.getId(dbo), (String) dbo.get("value")));
+        forEach(KernelEnum.TYPEDTAG, new BasicDBObject("value", 1).append("kind", 1), dbo -> {
+            index.tagValues.put(MongoEvents.getId(dbo), (String) dbo.get("value"));
+            DBRef kind = MongoEvents.getRef(dbo, "kind");
+            if (kind != null) {
+                index.tagKinds.put(MongoEvents.getId(dbo), MongoEvents.idToString(kind.getId()));
+            }
+        });
+        List<DBObject> practices = new ArrayList<>();
+        forEach(KernelEnum.PRACTICE, PRACTICE_FIELDS, dbo -> {
+            practices.add(dbo);
+            index.owners.put(MongoEvents.getId(dbo), MongoEvents.getRef(dbo, "owner"));
+        });
+        practices.forEach(index::put);
+        LOGGER.info("Facets of tenant {} loaded with {} practices", TenantContext.get(), index.facets.size());
+        return index;
+    }
+
+    private void forEach(KernelEnum elementType, DBObject fields, Consumer<DBObject> action) {
+        try (DBCursor cursor = mongoOperations.getCollection(elementType.getCollection())
+                .find(new BasicDBObject(), fields)) {
+            while (cursor.hasNext()) {
+                action.accept(cursor.next());
+            }
+        }
+    }
+
+    private static class Index {
+
+        private final FacetIndex<PracticeFacet> facets = new FacetIndex<>(PracticeFacet.class);
+
+        private final Map<String, String> tagValues = new HashMap<>();
+
+        private final Map<String, String> tagKinds = new HashMap<>();
+
+        /** The owner of each practice, to find the kernel of the sub-practices */
+        private final Map<String, DBRef> owners = new HashMap<>();
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Whether a known practice moved to another owner, a full save
+         * reports every field as changed so the stored owner is compared
+         */
+        boolean isOwnerChanged(DBObject practice) {
+            String id = MongoEvents.getId(practice);
+            return owners.containsKey(id) && !Objects.equals(owners.get(id), MongoEvents.getRef(practice, "owner"));
+        }
+
+        void put(DBObject practice) {
+            String id = MongoEvents.getId(practice);
+            owners.put(id, MongoEvents.getRef(practice, "owner"));
+            Map<PracticeFacet, Collection<String>> values = new EnumMap<>(PracticeFacet.class);
+            values.put(PracticeFacet.KEYWORD, strings(MongoEvents.getList(practice, "keyWords")));
+            Object author = practice.get("author");
+            values.put(PracticeFacet.AUTHOR,
+                    author == null ? Collections.emptySet() : Collections.singleton(author.toString()));
+            String kernel = findKernel(id);
+            values.put(PracticeFacet.KERNEL,
+                    kernel == null ? Collections.emptySet() : Collections.singleton(kernel));
+            Set<String> tags = new HashSet<>();
+            Set<String> kinds = new HashSet<>();
+            for (Object tag : MongoEvents.getList(practice, "tag")) {
+                if (tag instanceof DBRef) {
+                    String tagId = MongoEvents.idToString(((DBRef) tag).getId());
+                    String value = tagValues.get(tagId);
+                    if (value != null) {
+                        tags.add(value);
+                    }
+                    String kind = tagKinds.get(tagId);
+                    if (kind != null) {
+                        kinds.add(kind);
+                    }
+                }
+            }
+            values.put(PracticeFacet.TAG, tags);
+            values.put(PracticeFacet.USER_DEFINED_TYPE, kinds);
+            facets.put(id, values);
+        }
+
+        /**
+         * Walk up the owners of a practice until a non practice owner
+         */
+        private String findKernel(String practiceId) {
+            Set<String> visited = new HashSet<>();
+            DBRef owner = owners.get(practiceId);
+            while (owner != null && visited.add(MongoEvents.idToString(owner.getId()))) {
+                KernelEnum ownerType = KernelEnum.fromCollection(owner.getCollectionName());
+                String ownerId = MongoEvents.idToString(owner.getId());
+                if (ownerType == KernelEnum.KERNEL) {
+                    return ownerId;
+                }
+                if (ownerType != KernelEnum.PRACTICE) {
+                    return null;
+                }
+                owner = owners.get(ownerId);
+            }
+            return null;
+        }
+
+        private static Set<String> strings(Collection<Object> list) {
+            Set<String> strings = new HashSet<>();
+            for (Object value : list) {
+                if (value != null) {
+                    strings.add(value.toString());
+                }
+            }
+            return strings;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.summary;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ElementSummaries, builds and stores the {@link ElementSummary} of the
+ * element groups and basic elements. The summaries are computed from the raw
+ * documents, the references are counted but never resolved.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ElementSummaries {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementSummaries.class);
+
+    private static final DBObject SOURCE_FIELDS = new BasicDBObject("name", 1).append("briefDescription", 1)
+            .append("icon", 1).append("owner", 1).append("ownedElements", 1).append("referredElements", 1)
+            .append("lastModifiedDate", 1);
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    /**
+     * Tells if the elements of a type are summarized
+     * 
+     * @param elementType
+     * @return boolean
+     */
+    public static boolean isSummarized(KernelEnum elementType) {
+        return elementType != null && (elementType.isElementGroup() || elementType.isBasicElement());
+    }
+
+    /**
+     * Build the summary of a raw element document
+     * 
+     * @param elementType
+     * @param dbo
+     * @param ownerName
+     *            the name of the owner, it is not stored into the element
+     *            document
+     * @return ElementSummary
+     */
+    public static ElementSummary fromDBObject(KernelEnum elementType, DBObject dbo, String ownerName) {
+        ElementSummary summary = new ElementSummary();
+        summary.setId(MongoEvents.getId(dbo));
+        summary.setElementType(elementType);
+        summary.setName((String) dbo.get("name"));
+        summary.setBriefDescription(truncate((String) dbo.get("briefDescription")));
+        DBRef icon = MongoEvents.getRef(dbo, "icon");
+        summary.setIcon(icon == null ? null : MongoEvents.idToString(icon.getId()));
+        DBRef owner = MongoEvents.getRef(dbo, "owner");
+        summary.setOwnerId(owner == null ? null : MongoEvents.idToString(owner.getId()));
+        summary.setOwnerName(owner == null ? null : ownerName);
+        summary.setOwnedElementsCount(MongoEvents.getList(dbo, "ownedElements").size());
+        summary.setReferredElementsCount(MongoEvents.getList(dbo, "referredElements").size());
+        Object lastModifiedDate = dbo.get("lastModifiedDate");
+        summary.setLastModifiedDate(lastModifiedDate instanceof Date ? (Date) lastModifiedDate : null);
+        return summary;
+    }
+
+    /**
+     * Store the summary of an element and, for element groups, propagate its
+     * name to the summaries of the owned elements
+     * 
+     * @param summary
+     */
+    public void save(ElementSummary summary) {
+        mongoOperations.save(summary);
+        if (summary.getElementType().isElementGroup()) {
+            mongoOperations.updateMulti(
+                    query(where("ownerId").is(summary.getId()).and("ownerName").ne(summary.getName())),
+                    Update.update("ownerName", summary.getName()), ElementSummary.class);
+        }
+    }
+
+    public void delete(String id) {
+        mongoOperations.remove(query(where("id").is(id)), ElementSummary.class);
+    }
+
+    public void deleteAll(KernelEnum elementType) {
+        mongoOperations.remove(query(where("elementType").is(elementType)), ElementSummary.class);
+    }
+
+    /**
+     * Rebuild the summaries of every element group and basic element, used to
+     * populate the collection over an existing database. The owner names are
+     * filled in a second pass, once every group summary exists.
+     */
+    public void rebuild() {
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (!isSummarized(elementType)) {
+                continue;
+            }
+            deleteAll(elementType);
+            int count = 0;
+            try (DBCursor cursor = mongoOperations.getCollection(elementType.getCollection())
+                    .find(new BasicDBObject(), SOURCE_FIELDS)) {
+                while (cursor.hasNext()) {
+                    mongoOperations.save(fromDBObject(elementType, cursor.next(), null));
+                    count++;
+                }
+            }
+            LOGGER.info("{} summaries rebuilt for {}", count, elementType);
+        }
+        for (KernelEnum elementType : KernelEnum.values()) {
+            if (elementType.isElementGroup()) {
+                for (ElementSummary group : mongoOperations.find(query(where("elementType").is(elementType)),
+                        ElementSummary.class)) {
+                    mongoOperations.updateMulti(query(where("ownerId").is(group.getId())),
+                            Update.update("ownerName", group.getName()), ElementSummary.class);
+                }
+            }
+        }
+    }
+
+    private static String truncate(String briefDescription) {
+        if (briefDescription == null || briefDescription.length() <= ElementSummary.BRIEF_DESCRIPTION_LENGTH) {
+            return briefDescription;
+        }
+        return briefDescription.substring(0, ElementSummary.BRIEF_DESCRIPTION_LENGTH);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.summary;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Denormalized projection of an SEElementGroup or SEBasicElement used by the
+ * browsing screens. The summary shares the id of the element it describes and
+ * is kept in sync by the {@link ElementSummaryListener}.
+ * 
+ * <p>
+ * Both indexes hold every field returned by the browse queries, so a listing
+ * is answered from the index without reading the documents.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Document(collection = "elementsummaries")
+@CompoundIndexes({
+        @CompoundIndex(name = "type_browse", def = "{'elementType': 1, 'name': 1, '_id': 1, 'briefDescription': 1, 'icon': 1, 'ownerId': 1, 'ownerName': 1, 'ownedElementsCount': 1, 'referredElementsCount': 1}"),
+        @CompoundIndex(name = "owner_browse", def = "{'ownerId': 1, 'name': 1, '_id': 1, 'elementType': 1, 'briefDescription': 1, 'icon': 1, 'ownerName': 1, 'ownedElementsCount': 1, 'referredElementsCount': 1}") })
+public class ElementSummary {
+
+    /**
+     * Fields returned by the browse queries, all of them are part of the
+     * browse indexes
+     */
+    public static final String BROWSE_FIELDS = "{ '_id': 1, 'elementType': 1, 'name': 1, 'briefDescription': 1, 'icon': 1, 'ownerId': 1, 'ownerName': 1, 'ownedElementsCount': 1, 'referredElementsCount': 1 }";
+
+    /**
+     * Max length of the stored brief description, it keeps the index keys
+     * under the mongodb key size limit
+     */
+    public static final int BRIEF_DESCRIPTION_LENGTH = 200;
+
+    /** The id of the summarized element */
+    @Id
+    private String id;
+
+    /** The type of the summarized element */
+    private KernelEnum elementType;
+
+    private String name;
+
+    /** The brief description, truncated to BRIEF_DESCRIPTION_LENGTH */
+    private String briefDescription;
+
+    /** The id of the icon */
+    private String icon;
+
+    private String ownerId;
+
+    private String ownerName;
+
+    /** Number of elements owned by value, zero for basic elements */
+    private int ownedElementsCount;
+
+    /** Number of elements owned by reference, zero for basic elements */
+    private int referredElementsCount;
+
+    private Date lastModifiedDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public KernelEnum getElementType() {
+        return elementType;
+    }
+
+    public void setElementType(KernelEnum elementType) {
+        this.elementType = elementType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBriefDescription() {
+        return briefDescription;
+    }
+
+    public void setBriefDescription(String briefDescription) {
+        this.briefDescription = briefDescription;
+    }
+
+    public String getIcon() {
+        return icon;
+    }
+
+    public void setIcon(String icon) {
+        this.icon = icon;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public void setOwnerName(String ownerName) {
+        this.ownerName = ownerName;
+    }
+
+    public int getOwnedElementsCount() {
+        return ownedElementsCount;
+    }
+
+    public void setOwnedElementsCount(int ownedElementsCount) {
+        this.ownedElementsCount = ownedElementsCount;
+    }
+
+    public int getReferredElementsCount() {
+        return referredElementsCount;
+    }
+
+    public void setReferredElementsCount(int referredElementsCount) {
+        this.referredElementsCount = referredElementsCount;
+    }
+
+    public Date getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Date lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+}
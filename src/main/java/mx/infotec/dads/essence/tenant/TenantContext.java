@@ -0,0 +1,143 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.tenant;
+
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+
+/**
+ * TenantContext, the organization the current thread works for. Each tenant
+ * stores its elements in its own collections, named after the tenant and the
+ * collection of the element type (<code>acme.kernels</code>), so the data,
+ * the indexes and the query load of a tenant are kept apart from the others.
+ * Without a tenant the shared collections are used. The tenant
+ * <code>system</code> is rejected, the <code>system.*</code> collections are
+ * reserved by MongoDB.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class TenantContext {
+
+    public static final String SEPARATOR = ".";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+
+    private static final String RESERVED_TENANT_ID = "system";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+
+    }
+
+    /**
+     * The tenant of the current thread
+     * 
+     * @return String or null if the shared collections are used
+     */
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String tenant) {
+        if (tenant == null) {
+            CURRENT.remove();
+            return;
+        }
+        if (!TENANT_ID.matcher(tenant).matches() || RESERVED_TENANT_ID.equals(tenant)) {
+            throw new EssenceCoreException("Invalid tenant id: " + tenant);
+        }
+        CURRENT.set(tenant);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Run a task for a tenant, the previous tenant of the thread is restored
+     * afterwards
+     * 
+     * @param tenant
+     * @param task
+     * @return T the result of the task
+     */
+    public static <T> T call(String tenant, Callable<T> task) {
+        String previous = CURRENT.get();
+        set(tenant);
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EssenceCoreException("Task of tenant " + tenant + " failed", e);
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void run(String tenant, Runnable task) {
+        call(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * The collection of the current tenant for a shared collection name
+     * 
+     * @param collection
+     * @return String
+     */
+    public static String collectionName(String collection) {
+        String tenant = CURRENT.get();
+        return tenant == null ? collection : tenant + SEPARATOR + collection;
+    }
+
+    /**
+     * The shared collection name of a tenant collection
+     * 
+     * @param collection
+     * @return String
+     */
+    public static String baseCollectionName(String collection) {
+        int separator = collection.indexOf(SEPARATOR);
+        return separator < 0 ? collection : collection.substring(separator + 1);
+    }
+
+    /**
+     * The tenant of a collection
+     * 
+     * @param collection
+     * @return String or null for a shared collection
+     */
+    public static String tenantOf(String collection) {
+        int separator = collection.indexOf(SEPARATOR);
+        return separator < 0 ? null : collection.substring(0, separator);
+    }
+}
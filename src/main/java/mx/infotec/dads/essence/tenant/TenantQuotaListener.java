@@ -0,0 +1,92 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.tenant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+import org.springframework.stereotype.Component;
+
+import mx.infotec.dads.essence.persistence.BeforeInsertEvent;
+import mx.infotec.dads.essence.persistence.InsertFailedEvent;
+import mx.infotec.dads.essence.persistence.RemoveResultEvent;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * TenantQuotaListener, reserves the quota of the current tenant before an
+ * element is inserted, releases it when the insert fails and when elements
+ * are removed, by the number of deleted documents.
+ * 
+ * <p>
+ * The inserts are told apart from the updates by their
+ * {@link BeforeInsertEvent}, whatever the version of the element, so the
+ * saves of the stored elements never reserve quota.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class TenantQuotaListener extends AbstractMongoEventListener<Object> {
+
+    @Autowired
+    private Tenants tenants;
+
+    @Override
+    public void onApplicationEvent(MongoMappingEvent<?> event) {
+        if (event instanceof InsertFailedEvent) {
+            onInsertFailed((InsertFailedEvent) event);
+        } else if (event instanceof RemoveResultEvent) {
+            onRemoveResult((RemoveResultEvent) event);
+        } else {
+            super.onApplicationEvent(event);
+        }
+    }
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Object> event) {
+        String tenant = TenantContext.get();
+        if (event instanceof BeforeInsertEvent && tenant != null
+                && KernelEnum.of(event.getSource().getClass()) != null) {
+            tenants.reserve(tenant);
+        }
+    }
+
+    private void onInsertFailed(InsertFailedEvent event) {
+        String tenant = TenantContext.get();
+        if (tenant == null || KernelEnum.fromCollection(event.getCollectionName()) == null) {
+            return;
+        }
+        tenants.release(tenant, event.getDocuments().size());
+    }
+
+    private void onRemoveResult(RemoveResultEvent event) {
+        String tenant = TenantContext.get();
+        if (tenant != null && KernelEnum.fromCollection(event.getCollectionName()) != null
+                && event.getDeletedCount() > 0) {
+            tenants.release(tenant, event.getDeletedCount());
+        }
+    }
+}
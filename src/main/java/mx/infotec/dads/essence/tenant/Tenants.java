@@ -0,0 +1,202 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.tenant;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.DuplicateKeyException;
+import com.mongodb.WriteResult;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.index.IndexProvisioner;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * Tenants, the registry of the tenants and of their element quotas. The
+ * first time a tenant is seen its indexes are provisioned in the background.
+ * The number of elements of each tenant is kept in the tenants collection and
+ * reserved atomically before an element is inserted.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class Tenants {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Tenants.class);
+
+    public static final String TENANTS_COLLECTION = "tenants";
+
+    private static final String ELEMENTS = "elements";
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private IndexProvisioner indexProvisioner;
+
+    @Autowired
+    private EssenceProperties properties;
+
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Register a tenant, the indexes of a new tenant are created in the
+     * background
+     * 
+     * @param tenant
+     */
+    public void register(String tenant) {
+        if (registered.contains(tenant)) {
+            return;
+        }
+        WriteResult result = getTenants().update(new BasicDBObject(MongoEvents.ID_FIELD, tenant),
+                new BasicDBObject("$setOnInsert", new BasicDBObject(ELEMENTS, 0)), true, false);
+        if (!result.isUpdateOfExisting()) {
+            LOGGER.info("Tenant {} registered", tenant);
+            if (properties.getIndexes().isProvision()) {
+                indexProvisioner.provisionInBackground(tenant);
+            }
+        }
+        registered.add(tenant);
+    }
+
+    /**
+     * The maximum number of elements of a tenant
+     * 
+     * @param tenant
+     * @return int, zero if the tenant has no quota
+     */
+    public int getMaxElements(String tenant) {
+        Integer quota = properties.getTenancy().getQuotas().get(tenant);
+        return quota == null ? properties.getTenancy().getMaxElements() : quota;
+    }
+
+    /**
+     * Reserve the space of a new element
+     * 
+     * @param tenant
+     * @throws TenantQuotaExceededException
+     *             if the tenant has no space left
+     */
+    public void reserve(String tenant) {
+        reserve(tenant, 1);
+    }
+
+    /**
+     * Reserve the space of many new elements, all of them or none
+     * 
+     * @param tenant
+     * @param count
+     * @throws TenantQuotaExceededException
+     *             if the tenant has not enough space left
+     */
+    public void reserve(String tenant, int count) {
+        if (count <= 0) {
+            return;
+        }
+        register(tenant);
+        int maxElements = getMaxElements(tenant);
+        DBObject query = new BasicDBObject(MongoEvents.ID_FIELD, tenant);
+        if (maxElements > 0) {
+            query.put(ELEMENTS, new BasicDBObject("$lte", maxElements - count));
+        }
+        try {
+            // when the tenant is full the query does not match and the upsert
+            // fails with a duplicate id
+            getTenants().update(query, new BasicDBObject("$inc", new BasicDBObject(ELEMENTS, count)), true, false);
+        } catch (DuplicateKeyException e) {
+            throw new TenantQuotaExceededException(tenant, maxElements);
+        }
+    }
+
+    /**
+     * Release the space of a removed element
+     * 
+     * @param tenant
+     */
+    public void release(String tenant) {
+        release(tenant, 1);
+    }
+
+    /**
+     * Release the space of many removed elements, or of elements whose
+     * insert failed
+     * 
+     * @param tenant
+     * @param count
+     */
+    public void release(String tenant, long count) {
+        if (count <= 0) {
+            return;
+        }
+        DBCollection tenants = getTenants();
+        WriteResult result = tenants.update(
+                new BasicDBObject(MongoEvents.ID_FIELD, tenant).append(ELEMENTS, new BasicDBObject("$gte", count)),
+                new BasicDBObject("$inc", new BasicDBObject(ELEMENTS, -count)));
+        if (result.getN() == 0) {
+            // never below zero, the count drifts when elements are removed
+            // outside of the application
+            tenants.update(
+                    new BasicDBObject(MongoEvents.ID_FIELD, tenant).append(ELEMENTS, new BasicDBObject("$lt", count)),
+                    new BasicDBObject("$set", new BasicDBObject(ELEMENTS, 0)));
+        }
+    }
+
+    /**
+     * Count again the elements of a tenant, corrects the drift left by failed
+     * inserts and by bulk deletes
+     * 
+     * @param tenant
+     * @return long the elements of the tenant
+     */
+    public long recount(String tenant) {
+        long elements = TenantContext.call(tenant, () -> {
+            long count = 0;
+            for (KernelEnum elementType : KernelEnum.values()) {
+                count += mongoOperations.getCollection(elementType.getCollection()).count();
+            }
+            return count;
+        });
+        getTenants().update(new BasicDBObject(MongoEvents.ID_FIELD, tenant),
+                new BasicDBObject("$set", new BasicDBObject(ELEMENTS, elements)), true, false);
+        return elements;
+    }
+
+    private DBCollection getTenants() {
+        return mongoOperations.getCollection(TENANTS_COLLECTION);
+    }
+}
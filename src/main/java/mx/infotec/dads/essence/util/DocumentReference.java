@@ -0,0 +1,148 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * DocumentReference, a DBRef found in a raw document and where it was found
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public final class DocumentReference {
+
+    private final String path;
+
+    private final boolean topLevel;
+
+    private final boolean inArray;
+
+    private final DBRef target;
+
+    private DocumentReference(String path, boolean topLevel, boolean inArray, DBRef target) {
+        this.path = path;
+        this.topLevel = topLevel;
+        this.inArray = inArray;
+        this.target = target;
+    }
+
+    /**
+     * Every reference of a document, including the ones of its embedded
+     * documents
+     * 
+     * @param document
+     * @return List<DocumentReference>
+     */
+    public static List<DocumentReference> of(DBObject document) {
+        List<DocumentReference> references = new ArrayList<>();
+        for (String field : document.keySet()) {
+            collect(field, document.get(field), true, false, references);
+        }
+        return references;
+    }
+
+    private static void collect(String path, Object value, boolean topLevel, boolean inArray,
+            List<DocumentReference> references) {
+        if (value instanceof DBRef) {
+            references.add(new DocumentReference(path, topLevel, inArray, (DBRef) value));
+        } else if (value instanceof BasicDBList) {
+            BasicDBList list = (BasicDBList) value;
+            for (int i = 0; i < list.size(); i++) {
+                Object element = list.get(i);
+                // a reference right in a top level array is pulled by the
+                // field name, the deeper ones keep the index in their path
+                collect(element instanceof DBRef ? path : path + '.' + i, element, topLevel, true, references);
+            }
+        } else if (value instanceof DBObject) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) ((DBObject) value).toMap()).entrySet()) {
+                collect(path + '.' + entry.getKey(), entry.getValue(), false, false, references);
+            }
+        }
+    }
+
+    /**
+     * The dotted path of the field holding the reference
+     * 
+     * @return String
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * The dotted path of the field holding the reference without the array
+     * indexes, for instance ownedElements.state
+     * 
+     * @return String
+     */
+    public String getField() {
+        return path.replaceAll("\\.\\d+(?=\\.|$)", "");
+    }
+
+    /**
+     * Whether the reference is held by a top level field, by itself or as an
+     * element of a top level array, so it can be updated by the field name
+     * 
+     * @return boolean
+     */
+    public boolean isTopLevel() {
+        return topLevel;
+    }
+
+    public boolean isInArray() {
+        return inArray;
+    }
+
+    public DBRef getTarget() {
+        return target;
+    }
+
+    /**
+     * The element type of the target, null if it is not an element
+     * 
+     * @return KernelEnum
+     */
+    public KernelEnum getTargetType() {
+        return KernelEnum.fromCollection(target.getCollectionName());
+    }
+
+    public String getTargetId() {
+        return MongoEvents.idToString(target.getId());
+    }
+
+    @Override
+    public String toString() {
+        return path + " -> " + target.getCollectionName() + '/' + getTargetId();
+    }
+}
@@ -23,10 +23,9 @@
  */
 package mx.infotec.dads.essence.util;
 
+import java.time.Instant;
 import java.util.ArrayList;
 
-import org.joda.time.DateTime;
-
 import mx.infotec.dads.essence.audit.Auditable;
 import mx.infotec.dads.essence.model.SEGraphicalElement;
 import mx.infotec.dads.essence.model.alphaandworkproduct.SEState;
@@ -100,7 +99,8 @@ public class EssenceMapping {
     }
 
     public static void fillBitacoraData(Auditable auditable) {
-        auditable.setLastModifiedDate(new DateTime());
-        auditable.setCreatedDate(new DateTime());
+        Instant now = Instant.now();
+        auditable.setLastModifiedDate(now);
+        auditable.setCreatedDate(now);
     }
 }
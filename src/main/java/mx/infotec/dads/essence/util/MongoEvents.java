@@ -0,0 +1,116 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.util;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractDeleteEvent;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+/**
+ * Helpers to read the raw documents carried by the mongodb mapping events
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class MongoEvents {
+
+    public static final String ID_FIELD = "_id";
+
+    private MongoEvents() {
+
+    }
+
+    /**
+     * Extract the id of the deleted document. The repositories remove by a
+     * query on the id property, any other query (for instance a deleteAll)
+     * returns null.
+     * 
+     * @param event
+     * @return String the id or null
+     */
+    public static String getDeletedId(AbstractDeleteEvent<?> event) {
+        DBObject query = event.getSource();
+        if (query == null || query.keySet().size() != 1) {
+            return null;
+        }
+        Object id = query.containsField(ID_FIELD) ? query.get(ID_FIELD) : query.get("id");
+        return id instanceof DBObject ? null : idToString(id);
+    }
+
+    /**
+     * The id of a raw document as String
+     * 
+     * @param dbo
+     * @return String
+     */
+    public static String getId(DBObject dbo) {
+        return idToString(dbo.get(ID_FIELD));
+    }
+
+    public static String idToString(Object id) {
+        return id == null ? null : id.toString();
+    }
+
+    /**
+     * Convert a String id into the value stored by mongodb, ObjectId when it
+     * is a valid one
+     * 
+     * @param id
+     * @return Object
+     */
+    public static Object toStoredId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Read a single reference field of a raw document
+     * 
+     * @param dbo
+     * @param field
+     * @return DBRef or null
+     */
+    public static DBRef getRef(DBObject dbo, String field) {
+        Object value = dbo.get(field);
+        return value instanceof DBRef ? (DBRef) value : null;
+    }
+
+    /**
+     * Read a reference array of a raw document
+     * 
+     * @param dbo
+     * @param field
+     * @return Collection, empty when the field is not an array
+     */
+    public static Collection<Object> getList(DBObject dbo, String field) {
+        Object value = dbo.get(field);
+        return value instanceof BasicDBList ? (BasicDBList) value : Collections.emptyList();
+    }
+}
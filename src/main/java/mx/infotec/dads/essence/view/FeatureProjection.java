@@ -0,0 +1,117 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.view;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import mx.infotec.dads.essence.codec.ReadLimits;
+import mx.infotec.dads.essence.model.view.SEFeatureSelection;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * FeatureProjection, the features to load of each element type according to
+ * a set of feature selections or to a view selection. The reads done through
+ * {@link #read} fetch and materialize only those features, from the
+ * repositories as well as from the references they resolve; the types
+ * without selected features are loaded complete.
+ * 
+ * <p>
+ * The elements read this way are partial. They keep their version, a save
+ * through a repository writes only their changed fields with the version
+ * check; a whole document save would drop the fields not loaded.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class FeatureProjection {
+
+    private final Map<KernelEnum, Set<String>> fields;
+
+    public FeatureProjection(Map<KernelEnum, Set<String>> fields) {
+        this.fields = fields.isEmpty() ? Collections.emptyMap() : new EnumMap<>(fields);
+    }
+
+    /**
+     * The projection of a set of feature selections
+     * 
+     * @param selections
+     * @return FeatureProjection
+     */
+    public static FeatureProjection of(Collection<SEFeatureSelection> selections) {
+        Map<KernelEnum, Set<String>> fields = new EnumMap<>(KernelEnum.class);
+        for (SEFeatureSelection selection : selections) {
+            KernelEnum constructType = selection.getConstruct() == null ? null
+                    : KernelEnum.of(selection.getConstruct().getClass());
+            if (constructType != null && selection.getFeatureName() != null) {
+                fields.computeIfAbsent(constructType, key -> new LinkedHashSet<>()).add(selection.getFeatureName());
+            }
+        }
+        return new FeatureProjection(fields);
+    }
+
+    /**
+     * The features loaded of an element type
+     * 
+     * @param elementType
+     * @return Set<String> or null if the type is loaded complete
+     */
+    public Set<String> getFields(KernelEnum elementType) {
+        return fields.get(elementType);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * The read limits of the projection
+     * 
+     * @param referenceDepth
+     *            the levels of references resolved, see {@link ReadLimits}
+     * @return ReadLimits
+     */
+    public ReadLimits toReadLimits(int referenceDepth) {
+        return new ReadLimits(fields, referenceDepth);
+    }
+
+    /**
+     * Run the reads of a task, for instance repository calls, with the
+     * projection
+     * 
+     * @param referenceDepth
+     *            the levels of references resolved, see {@link ReadLimits}
+     * @param task
+     * @return T the result of the task
+     */
+    public <T> T read(int referenceDepth, Callable<T> task) {
+        return ReadLimits.call(toReadLimits(referenceDepth), task);
+    }
+}
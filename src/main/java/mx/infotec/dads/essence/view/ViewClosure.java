@@ -0,0 +1,114 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.view;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ViewClosure, the effective content of a view selection once its included
+ * views are flattened: the included views, the selected constructs and the
+ * selected features of each construct
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ViewClosure {
+
+    private final Set<String> viewIds;
+
+    private final Set<String> constructIds;
+
+    private final Set<String> featureSelectionIds;
+
+    private final Map<String, Set<String>> features;
+
+    private final Map<KernelEnum, Set<String>> featuresByType;
+
+    private final boolean cyclic;
+
+    public ViewClosure(Set<String> viewIds, Set<String> constructIds, Set<String> featureSelectionIds,
+            Map<String, Set<String>> features, Map<KernelEnum, Set<String>> featuresByType, boolean cyclic) {
+        this.viewIds = Collections.unmodifiableSet(viewIds);
+        this.constructIds = Collections.unmodifiableSet(constructIds);
+        this.featureSelectionIds = Collections.unmodifiableSet(featureSelectionIds);
+        this.features = Collections.unmodifiableMap(features);
+        this.featuresByType = Collections.unmodifiableMap(featuresByType);
+        this.cyclic = cyclic;
+    }
+
+    /**
+     * The view and every view it includes, directly or not
+     * 
+     * @return Set<String>
+     */
+    public Set<String> getViewIds() {
+        return viewIds;
+    }
+
+    /**
+     * The visible constructs
+     * 
+     * @return Set<String>
+     */
+    public Set<String> getConstructIds() {
+        return constructIds;
+    }
+
+    public Set<String> getFeatureSelectionIds() {
+        return featureSelectionIds;
+    }
+
+    /**
+     * The selected feature names by construct id, a construct without
+     * selected features shows all of them
+     * 
+     * @return Map<String, Set<String>>
+     */
+    public Map<String, Set<String>> getFeatures() {
+        return features;
+    }
+
+    /**
+     * The selected feature names of the constructs of each type
+     * 
+     * @return Map<KernelEnum, Set<String>>
+     */
+    public Map<KernelEnum, Set<String>> getFeaturesByType() {
+        return featuresByType;
+    }
+
+    /**
+     * If the view includes itself through its included views
+     * 
+     * @return boolean
+     */
+    public boolean isCyclic() {
+        return cyclic;
+    }
+}
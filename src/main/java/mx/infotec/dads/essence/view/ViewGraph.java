@@ -0,0 +1,284 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.view;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * ViewGraph, the inclusion graph of the view selections and the memoized
+ * closure of each view. The closures are computed per strongly connected
+ * component, so the views of an inclusion cycle share one closure instead of
+ * recursing forever, and they are flagged as cyclic. A change of a view or of
+ * a feature selection discards only the closures that contain it.
+ * 
+ * <p>
+ * It is not thread safe.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+public class ViewGraph {
+
+    private final Map<String, View> views = new HashMap<>();
+
+    private final Map<String, Feature> features = new HashMap<>();
+
+    private final Map<String, ViewClosure> closures = new HashMap<>();
+
+    /**
+     * Add or replace a view
+     * 
+     * @param id
+     * @param includedViewIds
+     * @param constructIds
+     * @param featureSelectionIds
+     */
+    public void putView(String id, Collection<String> includedViewIds, Collection<String> constructIds,
+            Collection<String> featureSelectionIds) {
+        views.put(id, new View(includedViewIds, constructIds, featureSelectionIds));
+        // a closure may also refer to the view before it was known
+        invalidate(closure -> closure.getViewIds().contains(id) || closure.getViewIds().stream()
+                .anyMatch(viewId -> views.containsKey(viewId) && views.get(viewId).included.contains(id)));
+    }
+
+    public void removeView(String id) {
+        if (views.remove(id) != null) {
+            invalidate(closure -> closure.getViewIds().contains(id));
+        }
+    }
+
+    public void putFeature(String id, String constructId, String featureName) {
+        putFeature(id, constructId, null, featureName);
+    }
+
+    /**
+     * Add or replace a feature selection
+     * 
+     * @param id
+     * @param constructId
+     * @param constructType
+     *            the type of the construct, null if unknown
+     * @param featureName
+     */
+    public void putFeature(String id, String constructId, KernelEnum constructType, String featureName) {
+        features.put(id, new Feature(constructId, constructType, featureName));
+        invalidate(closure -> closure.getFeatureSelectionIds().contains(id));
+    }
+
+    public void removeFeature(String id) {
+        if (features.remove(id) != null) {
+            invalidate(closure -> closure.getFeatureSelectionIds().contains(id));
+        }
+    }
+
+    /**
+     * The closure of a view
+     * 
+     * @param id
+     * @return ViewClosure or null if the view is unknown
+     */
+    public ViewClosure getClosure(String id) {
+        if (!views.containsKey(id)) {
+            return null;
+        }
+        ViewClosure closure = closures.get(id);
+        if (closure == null) {
+            new Tarjan().visit(id);
+            closure = closures.get(id);
+        }
+        return closure;
+    }
+
+    /**
+     * The number of memoized closures
+     * 
+     * @return int
+     */
+    public int getCachedClosures() {
+        return closures.size();
+    }
+
+    private void invalidate(Predicate<ViewClosure> affected) {
+        closures.values().removeIf(affected);
+    }
+
+    /**
+     * The strongly connected components in reverse topological order, the
+     * closure of a component is built from the closures of the components it
+     * includes, which are complete when it is finished
+     */
+    private class Tarjan {
+
+        private final Map<String, Integer> index = new HashMap<>();
+
+        private final Map<String, Integer> lowLink = new HashMap<>();
+
+        private final Deque<String> stack = new ArrayDeque<>();
+
+        private final Set<String> onStack = new HashSet<>();
+
+        void visit(String root) {
+            // iterative depth first search, deep inclusion chains must not
+            // overflow the thread stack
+            Deque<Frame> frames = new ArrayDeque<>();
+            frames.push(enter(root));
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                if (frame.successors.hasNext()) {
+                    String next = frame.successors.next();
+                    if (!views.containsKey(next) || closures.containsKey(next)) {
+                        continue;
+                    }
+                    if (!index.containsKey(next)) {
+                        frames.push(enter(next));
+                    } else if (onStack.contains(next)) {
+                        lowLink.put(frame.id, Math.min(lowLink.get(frame.id), index.get(next)));
+                    }
+                } else {
+                    frames.pop();
+                    if (!frames.isEmpty()) {
+                        String parent = frames.peek().id;
+                        lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(frame.id)));
+                    }
+                    if (lowLink.get(frame.id).equals(index.get(frame.id))) {
+                        complete(frame.id);
+                    }
+                }
+            }
+        }
+
+        private Frame enter(String id) {
+            index.put(id, index.size());
+            lowLink.put(id, index.get(id));
+            stack.push(id);
+            onStack.add(id);
+            return new Frame(id, views.get(id).included.iterator());
+        }
+
+        private void complete(String root) {
+            List<String> component = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(root));
+            boolean cyclic = component.size() > 1 || views.get(root).included.contains(root);
+            Set<String> viewIds = new LinkedHashSet<>(component);
+            Set<String> constructIds = new LinkedHashSet<>();
+            Set<String> featureIds = new LinkedHashSet<>();
+            for (String id : component) {
+                View view = views.get(id);
+                constructIds.addAll(view.constructs);
+                featureIds.addAll(view.features);
+                for (String included : view.included) {
+                    ViewClosure includedClosure = closures.get(included);
+                    if (includedClosure != null) {
+                        viewIds.addAll(includedClosure.getViewIds());
+                        constructIds.addAll(includedClosure.getConstructIds());
+                        featureIds.addAll(includedClosure.getFeatureSelectionIds());
+                        cyclic |= includedClosure.isCyclic();
+                    }
+                }
+            }
+            Map<String, Set<String>> selected = new HashMap<>();
+            Map<KernelEnum, Set<String>> selectedByType = new EnumMap<>(KernelEnum.class);
+            for (String featureId : featureIds) {
+                Feature feature = features.get(featureId);
+                if (feature != null && feature.constructId != null && feature.name != null) {
+                    selected.computeIfAbsent(feature.constructId, key -> new LinkedHashSet<>()).add(feature.name);
+                    if (feature.constructType != null) {
+                        selectedByType.computeIfAbsent(feature.constructType, key -> new LinkedHashSet<>())
+                                .add(feature.name);
+                    }
+                }
+            }
+            selected.replaceAll((key, names) -> Collections.unmodifiableSet(names));
+            selectedByType.replaceAll((key, names) -> Collections.unmodifiableSet(names));
+            ViewClosure closure = new ViewClosure(viewIds, constructIds, featureIds, selected, selectedByType,
+                    cyclic);
+            for (String id : component) {
+                closures.put(id, closure);
+            }
+        }
+    }
+
+    private static class Frame {
+
+        private final String id;
+
+        private final Iterator<String> successors;
+
+        Frame(String id, Iterator<String> successors) {
+            this.id = id;
+            this.successors = successors;
+        }
+    }
+
+    private static class View {
+
+        private final Set<String> included;
+
+        private final Set<String> constructs;
+
+        private final Set<String> features;
+
+        View(Collection<String> included, Collection<String> constructs, Collection<String> features) {
+            this.included = new LinkedHashSet<>(included);
+            this.constructs = new LinkedHashSet<>(constructs);
+            this.features = new LinkedHashSet<>(features);
+        }
+    }
+
+    private static class Feature {
+
+        private final String constructId;
+
+        private final KernelEnum constructType;
+
+        private final String name;
+
+        Feature(String constructId, KernelEnum constructType, String name) {
+            this.constructId = constructId;
+            this.constructType = constructType;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.view;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventSink;
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.repository.KernelEnum;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * ViewResolver, resolves what a view selection shows. The {@link ViewGraph}
+ * of each tenant is loaded from the raw view and feature selection documents
+ * the first time the tenant resolves a view, and kept up to date from the
+ * change events. The referring view selections are the inverse of the
+ * inclusions and are not followed.
+ * 
+ * <p>
+ * The constructs of a view are read with a projection of their selected
+ * features, the unselected features are not loaded. The elements read this
+ * way are partial, see {@link mx.infotec.dads.essence.codec.ReadLimits}.
+ * 
+ * @author Daniel Cortes Pichardo
+ * @since essence 1.1
+ * @version 1.1
+ */
+@Component
+public class ViewResolver implements ChangeEventSink {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViewResolver.class);
+
+    private static final String SHARED = "";
+
+    private static final DBObject VIEW_FIELDS = new BasicDBObject("includedViewSelection", 1)
+            .append("constructSelection", 1).append("featureSelection", 1);
+
+    private static final DBObject FEATURE_FIELDS = new BasicDBObject("featureName", 1).append("construct", 1);
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    private final Map<String, ViewGraph> graphs = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return "viewresolver";
+    }
+
+    /**
+     * The closure of a view of the current tenant
+     * 
+     * @param viewId
+     * @return ViewClosure or null if the view does not exist
+     */
+    public ViewClosure getClosure(String viewId) {
+        ViewGraph graph = getGraph();
+        synchronized (graph) {
+            return graph.getClosure(viewId);
+        }
+    }
+
+    /**
+     * The projection of the features selected by a view
+     * 
+     * @param viewId
+     * @return FeatureProjection empty if the view does not exist
+     */
+    public FeatureProjection getProjection(String viewId) {
+        ViewClosure closure = getClosure(viewId);
+        return closure == null ? FeatureProjection.of(Collections.emptyList())
+                : new FeatureProjection(closure.getFeaturesByType());
+    }
+
+    /**
+     * The constructs of a type shown by a view, each one with only its
+     * selected features. The constructs sharing the same selection are read
+     * with one query.
+     * 
+     * @param viewId
+     * @param type
+     * @return List<T> the partial constructs
+     */
+    public <T> List<T> findVisible(String viewId, Class<T> type) {
+        ViewClosure closure = getClosure(viewId);
+        List<T> result = new ArrayList<>();
+        if (closure == null || closure.getConstructIds().isEmpty()) {
+            return result;
+        }
+        Map<Set<String>, List<String>> bySelection = new HashMap<>();
+        for (String constructId : closure.getConstructIds()) {
+            Set<String> selected = closure.getFeatures().get(constructId);
+            bySelection.computeIfAbsent(selected, key -> new ArrayList<>()).add(constructId);
+        }
+        for (Map.Entry<Set<String>, List<String>> group : bySelection.entrySet()) {
+            Query query = query(where("id").in(group.getValue()));
+            if (group.getKey() != null) {
+                group.getKey().forEach(feature -> query.fields().include(feature));
+                query.fields().include("_class");
+            }
+            result.addAll(mongoOperations.find(query, type));
+        }
+        return result;
+    }
+
+    @Override
+    public void accept(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            String tenant = TenantContext.tenantOf(event.getCollection());
+            ViewGraph graph = graphs.get(tenant == null ? SHARED : tenant);
+            KernelEnum elementType = event.getElementType();
+            if (graph == null
+                    || (elementType != KernelEnum.VIEWSELECTION && elementType != KernelEnum.FEATURESELECTION)) {
+                continue;
+            }
+            String id = event.getElementId();
+            DBObject dbo = event.getChangeType() == ChangeType.DELETED ? null
+                    : findRaw(mongoOperations.getCollection(event.getCollection()), id,
+                            elementType == KernelEnum.VIEWSELECTION ? VIEW_FIELDS : FEATURE_FIELDS);
+            synchronized (graph) {
+                if (elementType == KernelEnum.VIEWSELECTION) {
+                    if (dbo == null) {
+                        graph.removeView(id);
+                    } else {
+                        putView(graph, dbo);
+                    }
+                } else if (dbo == null) {
+                    graph.removeFeature(id);
+                } else {
+                    putFeature(graph, dbo);
+                }
+            }
+        }
+    }
+
+    private ViewGraph getGraph() {
+        String tenant = TenantContext.get();
+        return graphs.computeIfAbsent(tenant == null ? SHARED : tenant, key -> load());
+    }
+
+    private ViewGraph load() {
+        ViewGraph graph = new ViewGraph();
+        try (DBCursor cursor = mongoOperations.getCollection(KernelEnum.VIEWSELECTION.getCollection())
+                .find(new BasicDBObject(), VIEW_FIELDS)) {
+            cursor.forEach(dbo -> putView(graph, dbo));
+        }
+        try (DBCursor cursor = mongoOperations.getCollection(KernelEnum.FEATURESELECTION.getCollection())
+                .find(new BasicDBObject(), FEATURE_FIELDS)) {
+            cursor.forEach(dbo -> putFeature(graph, dbo));
+        }
+        LOGGER.info("View selections of tenant {} loaded", TenantContext.get());
+        return graph;
+    }
+
+    private static void putView(ViewGraph graph, DBObject dbo) {
+        graph.putView(MongoEvents.getId(dbo), refIds(dbo, "includedViewSelection"), refIds(dbo, "constructSelection"),
+                refIds(dbo, "featureSelection"));
+    }
+
+    private static void putFeature(ViewGraph graph, DBObject dbo) {
+        DBRef construct = MongoEvents.getRef(dbo, "construct");
+        if (construct == null) {
+            graph.putFeature(MongoEvents.getId(dbo), null, null, (String) dbo.get("featureName"));
+        } else {
+            graph.putFeature(MongoEvents.getId(dbo), MongoEvents.idToString(construct.getId()),
+                    KernelEnum.fromCollection(construct.getCollectionName()), (String) dbo.get("featureName"));
+        }
+    }
+
+    private static Collection<String> refIds(DBObject dbo, String field) {
+        List<String> ids = new ArrayList<>();
+        for (Object value : MongoEvents.getList(dbo, field)) {
+            if (value instanceof DBRef) {
+                ids.add(MongoEvents.idToString(((DBRef) value).getId()));
+            }
+        }
+        return ids;
+    }
+
+    private static DBObject findRaw(DBCollection collection, String id, DBObject fields) {
+        return collection.findOne(new BasicDBObject(MongoEvents.ID_FIELD, MongoEvents.toStoredId(id)), fields);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Test for ParallelFold
+ * 
+ * @author Daniel Cortes Pichardo
+ */
+public class ParallelFoldTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void batchesAreFoldedAndJoinedById() {
+        CheckpointCountJob job = new CheckpointCountJob();
+        ParallelFold<CheckpointCountJob.Counts> fold = new ParallelFold<>(job, pool, 2);
+        List<DBObject> states = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            states.add(new BasicDBObject("_id", "s" + i).append("name", "State " + i).append("alpha",
+                    new DBRef("alphas", "a" + i % 2)));
+        }
+        fold.submit(KernelEnum.STATE, states);
+        List<DBObject> batch = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            batch.add(new BasicDBObject("_id", "c" + i).append("state", new DBRef("states", "s" + i % 10)));
+            if (batch.size() == 1000) {
+                fold.submit(KernelEnum.CHECKPOINT, batch);
+                batch = new ArrayList<>();
+            }
+        }
+        List<Map<String, Object>> rows = job.finish(fold.join());
+
+        assertThat(rows).hasSize(10);
+        assertThat(rows.get(3)).containsEntry("stateId", "s3").containsEntry("name", "State 3")
+                .containsEntry("alphaId", "a1").containsEntry("checkpoints", 10_000L);
+    }
+
+    @Test
+    public void orphanSamplesAreBounded() {
+        OrphanedElementJob job = new OrphanedElementJob();
+        ParallelFold<OrphanedElementJob.Orphans> fold = new ParallelFold<>(job, pool, 4);
+        for (int b = 0; b < 10; b++) {
+            List<DBObject> batch = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                BasicDBObject alpha = new BasicDBObject("_id", "a" + b + "-" + i);
+                if (i % 5 != 0) {
+                    alpha.append("owner", new DBRef("kernels", "k"));
+                }
+                batch.add(alpha);
+            }
+            fold.submit(KernelEnum.ALPHA, batch);
+        }
+        List<Map<String, Object>> rows = job.finish(fold.join());
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsEntry("elementType", "ALPHA").containsEntry("elements", 5000L)
+                .containsEntry("orphans", 1000L);
+        assertThat((List<?>) rows.get(0).get("sampleIds")).hasSize(OrphanedElementJob.SAMPLE_SIZE);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.convert.CustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.model.activityspaceandactivity.SECompletionCriterion;
+import mx.infotec.dads.essence.model.foundation.SEKernel;
+import mx.infotec.dads.essence.model.foundation.SEPractice;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Test for ElementCodecs
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ElementCodecsTest {
+
+    private ElementCodecs codecs;
+
+    @Before
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new CustomConversions(Collections.emptyList()).getSimpleTypeHolder());
+        codecs = new ElementCodecs(new Provider<>(mappingContext), null, null);
+    }
+
+    @Test
+    public void criteriaAreLeftToTheMappingConverter() {
+        assertThat(codecs.supports(SEPractice.class)).isTrue();
+        assertThat(codecs.supports(SECompletionCriterion.class)).isFalse();
+    }
+
+    @Test
+    public void practiceIsWrittenWithItsOwnerReference() {
+        String kernelId = new ObjectId().toString();
+        SEKernel kernel = new SEKernel();
+        kernel.setId(kernelId);
+        SEPractice practice = new SEPractice();
+        practice.setName("Scrum");
+        practice.setKeyWords(Arrays.asList("agile", "team"));
+        practice.setOwner(kernel);
+        practice.setCreatedDate(Instant.ofEpochMilli(1000));
+        DBObject dbo = codecs.write(practice);
+        assertThat(dbo.get("_class")).isEqualTo(SEPractice.class.getName());
+        assertThat(dbo.containsField("_id")).isFalse();
+        assertThat(dbo.get("name")).isEqualTo("Scrum");
+        assertThat(dbo.get("createdDate")).isEqualTo(new Date(1000));
+        assertThat(dbo.get("owner")).isEqualTo(new DBRef("kernels", new ObjectId(kernelId)));
+    }
+
+    @Test
+    public void practiceIsReadWithoutReferences() {
+        ObjectId id = new ObjectId();
+        BasicDBList keyWords = new BasicDBList();
+        keyWords.addAll(Arrays.asList("agile", "team"));
+        DBObject dbo = new BasicDBObject("_id", id).append("_class", SEPractice.class.getName())
+                .append("name", "Scrum").append("keyWords", keyWords).append("version", 3)
+                .append("lastModifiedDate", new Date(2000));
+        SEPractice practice = codecs.read(SEPractice.class, dbo);
+        assertThat(practice.getId()).isEqualTo(id.toString());
+        assertThat(practice.getName()).isEqualTo("Scrum");
+        assertThat(practice.getKeyWords()).containsExactly("agile", "team");
+        assertThat(practice.getVersion()).isEqualTo(3L);
+        assertThat(practice.getLastModifiedDate()).isEqualTo(Instant.ofEpochMilli(2000));
+    }
+
+    @Test
+    public void referencesBeyondTheReadLimitsAreIdOnly() {
+        ObjectId kernelId = new ObjectId();
+        DBObject dbo = new BasicDBObject("_id", new ObjectId()).append("_class", SEPractice.class.getName())
+                .append("name", "Scrum").append("owner", new DBRef("kernels", kernelId));
+        // without database the owner can only be an id only element
+        SEPractice practice = ReadLimits.call(new ReadLimits(Collections.emptyMap(), 0),
+                () -> codecs.read(SEPractice.class, dbo));
+        assertThat(practice.getOwner()).isInstanceOf(SEKernel.class);
+        assertThat(practice.getOwner().getId()).isEqualTo(kernelId.toString());
+        assertThat(practice.getOwner().getName()).isNull();
+    }
+
+    @Test
+    public void resultsReadTogetherShareTheirReferences() {
+        ObjectId kernelId = new ObjectId();
+        SEPractice[] practices = ReadLimits.call(new ReadLimits(Collections.emptyMap(), 0),
+                () -> codecs.readTogether(() -> {
+                    SEPractice first = codecs.read(SEPractice.class, practiceOf("Scrum", kernelId));
+                    // the references wait for the rest of the results
+                    assertThat(first.getOwner()).isNull();
+                    SEPractice second = codecs.read(SEPractice.class, practiceOf("Kanban", kernelId));
+                    return new SEPractice[] { first, second };
+                }));
+        assertThat(practices[0].getOwner()).isNotNull();
+        assertThat(practices[1].getOwner()).isSameAs(practices[0].getOwner());
+    }
+
+    @Test
+    public void projectionsAlwaysLoadTheVersion() {
+        ReadLimits limits = new ReadLimits(
+                Collections.singletonMap(KernelEnum.PRACTICE, Collections.singleton("name")), ReadLimits.UNLIMITED);
+        assertThat(limits.getProjection(KernelEnum.PRACTICE).keySet()).containsOnly("_class", "version",
+                "lastModifiedDate", "name");
+        assertThat(limits.getProjection(KernelEnum.ALPHA)).isNull();
+    }
+
+    private static DBObject practiceOf(String name, ObjectId kernelId) {
+        return new BasicDBObject("_id", new ObjectId()).append("_class", SEPractice.class.getName())
+                .append("name", name).append("owner", new DBRef("kernels", kernelId));
+    }
+
+    private static class Provider<T> implements ObjectProvider<T> {
+
+        private final T object;
+
+        Provider(T object) {
+            this.object = object;
+        }
+
+        @Override
+        public T getObject() {
+            return object;
+        }
+
+        @Override
+        public T getObject(Object... args) {
+            return object;
+        }
+
+        @Override
+        public T getIfAvailable() {
+            return object;
+        }
+
+        @Override
+        public T getIfUnique() {
+            return object;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.diagram;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.omg.essence.model.diagraminterchange.DiagramElement;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.model.diagraminterchange.SECard;
+import mx.infotec.dads.essence.model.diagraminterchange.SEDiagram;
+import mx.infotec.dads.essence.model.diagraminterchange.SELink;
+import mx.infotec.dads.essence.model.diagraminterchange.SENode;
+
+/**
+ * Test for DiagramLayoutEngine
+ * 
+ * @author Daniel Cortes Pichardo
+ */
+public class DiagramLayoutEngineTest {
+
+    private DiagramLayoutEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new DiagramLayoutEngine(new EssenceProperties());
+    }
+
+    @Test
+    public void flowsAreLaidOutInLayers() {
+        SENode first = new SENode();
+        SENode second = new SENode();
+        SENode third = new SENode();
+        SELink back = link(third, first);
+        DiagramLayout layout = engine.layout("model", 1, diagram(first, second, third, link(first, second),
+                link(second, third), link(first, third), back));
+
+        assertThat(layout.getBounds(first).getY()).isLessThan(layout.getBounds(second).getY());
+        assertThat(layout.getBounds(second).getY()).isLessThan(layout.getBounds(third).getY());
+        assertThat(layout.getRoute(back)).hasSize(2);
+        assertThat(layout.getRoute(back).get(0).getY()).isEqualTo(layout.getBounds(third).getY());
+    }
+
+    @Test
+    public void sameVersionIsServedFromTheCache() {
+        SENode node = new SENode();
+        DiagramLayout first = engine.layout("model", 1, diagram(node));
+        SENode reread = new SENode();
+        DiagramLayout second = engine.layout("model", 1, diagram(reread));
+
+        assertThat(second.getLayout()).isSameAs(first.getLayout());
+        assertThat(second.getBounds(reread)).isSameAs(first.getBounds(node));
+    }
+
+    @Test
+    public void onlyChangedComponentsAreLaidOutAgain() {
+        SENode a = new SENode();
+        SENode b = new SENode();
+        SENode c = new SENode();
+        SENode d = new SENode();
+        DiagramLayout before = engine.layout("model", 1, diagram(a, b, link(a, b), c));
+        SENode e = new SENode();
+        DiagramLayout after = engine.layout("model", 2, diagram(a, b, link(a, b), c, d, link(c, d), e));
+
+        assertThat(after.getBounds(a).getX()).isEqualTo(before.getBounds(a).getX());
+        assertThat(after.getBounds(b).getY()).isEqualTo(before.getBounds(b).getY());
+        assertThat(after.getBounds(d).getY()).isGreaterThan(after.getBounds(c).getY());
+        assertThat(after.getBounds(e).getX()).isGreaterThan(after.getBounds(c).getX());
+    }
+
+    @Test
+    public void nodesAreKeyedByTheirModelElement() {
+        SENode first = node("first");
+        SENode second = node("second");
+        DiagramLayout before = engine.layout("model", 1, diagram(first, second, link(first, second)));
+        SENode rereadSecond = node("second");
+        SENode rereadFirst = node("first");
+        DiagramLayout after = engine.layout("model", 1,
+                diagram(rereadSecond, rereadFirst, link(rereadFirst, rereadSecond)));
+
+        assertThat(after.getBounds(rereadFirst)).isEqualTo(before.getBounds(first));
+        assertThat(after.getBounds(rereadSecond)).isEqualTo(before.getBounds(second));
+    }
+
+    @Test
+    public void cardsAreLaidOutInAGrid() {
+        List<SECard> cards = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            cards.add(new SECard());
+        }
+        Map<SECard, Bounds> bounds = engine.layoutCards(cards);
+
+        assertThat(bounds.get(cards.get(1)).getY()).isEqualTo(bounds.get(cards.get(0)).getY());
+        assertThat(bounds.get(cards.get(4)).getX()).isEqualTo(bounds.get(cards.get(0)).getX());
+        assertThat(bounds.get(cards.get(4)).getY()).isGreaterThan(bounds.get(cards.get(3)).getY());
+    }
+
+    private static SENode node(String elementId) {
+        SEAlpha alpha = new SEAlpha();
+        alpha.setId(elementId);
+        SENode node = new SENode();
+        node.setModelElement(alpha);
+        return node;
+    }
+
+    private static SELink link(SENode source, SENode target) {
+        SELink link = new SELink();
+        link.setSource(source);
+        link.setTarget(target);
+        return link;
+    }
+
+    private static SEDiagram diagram(DiagramElement... elements) {
+        SEDiagram diagram = new SEDiagram();
+        diagram.setDiagramElement(new ArrayList<>(Arrays.asList(elements)));
+        return diagram;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Test for ChangeEventCursor
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ChangeEventCursorTest {
+
+    private MemoryLog log;
+
+    private RecordingSink sink;
+
+    @Before
+    public void setUp() {
+        log = new MemoryLog();
+        for (long sequence = 1; sequence <= 5; sequence++) {
+            ChangeEvent event = new ChangeEvent(ChangeType.UPDATED, KernelEnum.ALPHA, "alpha-" + sequence, "alphas",
+                    Collections.emptySet(), null);
+            event.setSequence(sequence);
+            log.events.add(event);
+        }
+        sink = new RecordingSink();
+    }
+
+    @Test
+    public void batchesAreDeliveredInOrderAndThePositionIsSaved() {
+        ChangeEventCursor cursor = new ChangeEventCursor(log, sink, 2, 10);
+        assertThat(cursor.deliverNext()).isTrue();
+        assertThat(cursor.deliverNext()).isTrue();
+        assertThat(cursor.deliverNext()).isTrue();
+        assertThat(cursor.deliverNext()).isFalse();
+        assertThat(sink.sequences()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(cursor.getPosition()).isEqualTo(5);
+        assertThat(log.getPosition(sink.getName())).isEqualTo(5);
+    }
+
+    @Test
+    public void failedBatchIsDeliveredAgain() {
+        ChangeEventCursor cursor = new ChangeEventCursor(log, sink, 2, 10);
+        sink.failures = 1;
+        assertThat(cursor.deliverNext()).isFalse();
+        assertThat(cursor.getPosition()).isZero();
+        assertThat(log.getPosition(sink.getName())).isZero();
+        assertThat(cursor.deliverNext()).isTrue();
+        assertThat(sink.sequences()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void restartedCursorResumesAtTheSavedPosition() throws InterruptedException {
+        log.savePosition(sink.getName(), 3);
+        ChangeEventCursor cursor = new ChangeEventCursor(log, sink, 10, 10);
+        Thread thread = new Thread(cursor);
+        thread.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cursor.getPosition() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        cursor.stop();
+        thread.join(1000);
+        assertThat(sink.sequences()).containsExactly(4L, 5L);
+    }
+
+    /**
+     * The change event log kept in memory
+     */
+    static class MemoryLog extends ChangeEventLog {
+
+        final List<ChangeEvent> events = new ArrayList<>();
+
+        private final Map<String, Long> positions = new HashMap<>();
+
+        @Override
+        public List<ChangeEvent> readAfter(long position, int limit) {
+            return events.stream().filter(event -> event.getSequence() > position).limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public synchronized long getPosition(String name) {
+            return positions.getOrDefault(name, 0L);
+        }
+
+        @Override
+        public synchronized void savePosition(String name, long position) {
+            positions.put(name, position);
+        }
+    }
+
+    /**
+     * A sink that records the delivered events, failing the first batches
+     */
+    static class RecordingSink implements ChangeEventSink {
+
+        private final List<ChangeEvent> accepted = new ArrayList<>();
+
+        int failures;
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public synchronized void accept(List<ChangeEvent> events) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("Sink not available");
+            }
+            accepted.addAll(events);
+        }
+
+        synchronized List<Long> sequences() {
+            return accepted.stream().map(ChangeEvent::getSequence).collect(Collectors.toList());
+        }
+    }
+}
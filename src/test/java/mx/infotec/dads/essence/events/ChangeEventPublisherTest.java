@@ -0,0 +1,163 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Test for ChangeEventPublisher
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ChangeEventPublisherTest {
+
+    private EssenceProperties properties;
+
+    private BlockingLog log;
+
+    private ChangeEventPublisher publisher;
+
+    @Before
+    public void setUp() {
+        properties = new EssenceProperties();
+        properties.getEvents().setQueueCapacity(2);
+        properties.getEvents().setPublishTimeoutMillis(50);
+        properties.getEvents().setMaxBatchWaitMillis(0);
+        properties.getEvents().setBatchSize(1);
+        properties.getEvents().setPollMillis(50);
+        log = new BlockingLog();
+        publisher = new ChangeEventPublisher(properties, log);
+    }
+
+    @After
+    public void tearDown() {
+        log.release();
+        publisher.stop();
+    }
+
+    @Test
+    public void eventsAreLoggedInOrder() throws InterruptedException {
+        log.release();
+        publisher.start();
+        ChangeEvent first = event("first");
+        ChangeEvent second = event("second");
+        assertThat(publisher.publish(first)).isTrue();
+        assertThat(publisher.publish(second)).isTrue();
+        log.awaitAppended(2);
+        assertThat(log.appended).containsExactly(first, second);
+    }
+
+    @Test
+    public void fullQueueDropsAfterTheTimeout() throws InterruptedException {
+        publisher.start();
+        ChangeEvent logging = event("logging");
+        publisher.publish(logging);
+        log.appending.await(5, TimeUnit.SECONDS);
+        ChangeEvent queued = event("queued");
+        ChangeEvent alsoQueued = event("also-queued");
+        assertThat(publisher.publish(queued)).isTrue();
+        assertThat(publisher.publish(alsoQueued)).isTrue();
+        long start = System.nanoTime();
+        assertThat(publisher.publish(event("dropped"))).isFalse();
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(waited).isGreaterThanOrEqualTo(40).isLessThan(2000);
+        assertThat(publisher.getDroppedCount()).isEqualTo(1);
+
+        log.release();
+        log.awaitAppended(3);
+        assertThat(log.appended).containsExactly(logging, queued, alsoQueued);
+    }
+
+    @Test
+    public void stoppedPublisherNeverWaits() throws InterruptedException {
+        properties.getEvents().setPublishTimeoutMillis(10000);
+        ChangeEvent first = event("first");
+        ChangeEvent second = event("second");
+        assertThat(publisher.publish(first)).isTrue();
+        assertThat(publisher.publish(second)).isTrue();
+        long start = System.nanoTime();
+        assertThat(publisher.publish(event("dropped"))).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        assertThat(publisher.getDroppedCount()).isEqualTo(1);
+
+        log.release();
+        publisher.start();
+        log.awaitAppended(2);
+        assertThat(log.appended).containsExactly(first, second);
+    }
+
+    private static ChangeEvent event(String id) {
+        return new ChangeEvent(ChangeType.CREATED, KernelEnum.ALPHA, id, "alphas", Collections.emptySet(), null);
+    }
+
+    /**
+     * A log that keeps the appended events, the appends wait until it is
+     * released
+     */
+    static class BlockingLog extends ChangeEventLog {
+
+        final List<ChangeEvent> appended = new CopyOnWriteArrayList<>();
+
+        final CountDownLatch appending = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void append(List<ChangeEvent> batch) {
+            appending.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            appended.addAll(batch);
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        void awaitAppended(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (appended.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
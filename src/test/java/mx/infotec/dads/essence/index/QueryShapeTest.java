@@ -0,0 +1,72 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.bson.BsonDocument;
+import org.junit.Test;
+
+import com.mongodb.BasicDBObject;
+
+/**
+ * Test for QueryShape
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class QueryShapeTest {
+
+    @Test
+    public void findByNameIsAnEqualityShape() {
+        QueryShape shape = QueryShape.of("find",
+                BsonDocument.parse("{ find : 'practices', filter : { name : 'Scrum' } }"));
+        assertThat(shape.getCollection()).isEqualTo("practices");
+        assertThat(shape.getEquality()).containsExactly("name");
+        assertThat(shape.getSuggestedIndex()).isEqualTo(new BasicDBObject("name", 1));
+    }
+
+    @Test
+    public void suggestedIndexFollowsEqualitySortRange() {
+        QueryShape shape = QueryShape.of("find", BsonDocument.parse("{ find : 'states', filter : { "
+                + "lastModifiedDate : { $gt : 1 }, keyWords : { $in : ['agile'] } }, sort : { name : 1 } }"));
+        assertThat(shape.getSuggestedIndex().keySet()).containsExactly("keyWords", "name", "lastModifiedDate");
+    }
+
+    @Test
+    public void shapeIgnoresTheValues() {
+        QueryShape scrum = QueryShape.of("count",
+                BsonDocument.parse("{ count : 'practices', query : { name : 'Scrum' } }"));
+        QueryShape kanban = QueryShape.of("count",
+                BsonDocument.parse("{ count : 'practices', query : { name : 'Kanban' } }"));
+        assertThat(scrum).isEqualTo(kanban);
+    }
+
+    @Test
+    public void queriesByIdAreNotRecorded() {
+        assertThat(QueryShape.of("find", BsonDocument.parse("{ find : 'practices', filter : { _id : 'a' } }")))
+                .isNull();
+        assertThat(QueryShape.of("insert", BsonDocument.parse("{ insert : 'practices' }"))).isNull();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.model.foundation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Test for SELanguageElement
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class SELanguageElementTest {
+
+    @Test
+    public void settersMarkTheirFieldsDirty() {
+        SEPractice practice = loadedPractice();
+        practice.setName("Kanban");
+        practice.setObjective("Flow");
+        assertThat(practice.getDirtyFields()).containsExactly("name", "objective");
+    }
+
+    @Test
+    public void collectionMutationsMarkTheFieldDirty() {
+        SEPractice practice = loadedPractice();
+        practice.getKeyWords().add("team");
+        practice.getTag().add(new SETag());
+        assertThat(practice.getDirtyFields()).containsExactly("keyWords", "tag");
+        assertThat(practice.getKeyWords()).containsExactly("agile", "team");
+        practice.markClean();
+        practice.getKeyWords().removeIf("agile"::equals);
+        assertThat(practice.getDirtyFields()).containsExactly("keyWords");
+        assertThat(practice.getKeyWords()).containsExactly("team");
+    }
+
+    @Test
+    public void readsAndManagedFieldsKeepTheElementClean() {
+        SEPractice practice = loadedPractice();
+        practice.getKeyWords().contains("agile");
+        practice.getOwnedElements().iterator().hasNext();
+        practice.setVersion(2L);
+        assertThat(practice.isTracked()).isTrue();
+        assertThat(practice.isDirty()).isFalse();
+    }
+
+    private static SEPractice loadedPractice() {
+        SEPractice practice = new SEPractice();
+        practice.setId("1");
+        practice.setName("Scrum");
+        practice.setKeyWords(new ArrayList<>(Arrays.asList("agile")));
+        practice.setTag(new ArrayList<>());
+        practice.setOwnedElements(new ArrayList<>());
+        practice.markClean();
+        return practice;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+/**
+ * Test for ElementDiff
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ElementDiffTest {
+
+    @Test
+    public void unchangedDocumentHasNoUpdate() {
+        ElementDiff diff = ElementDiff.between(practice("Scrum", "agile"), practice("Scrum", "agile"));
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.toUpdateObject().keySet()).isEmpty();
+    }
+
+    @Test
+    public void renameIsASingleSet() {
+        ElementDiff diff = ElementDiff.between(practice("Scrum", "agile"), practice("Kanban", "agile"));
+        assertThat(diff.getChangedFields()).containsExactly("name");
+        assertThat(diff.toUpdateObject()).isEqualTo(new BasicDBObject("$set", new BasicDBObject("name", "Kanban")));
+    }
+
+    @Test
+    public void appendedKeywordIsPushed() {
+        ElementDiff diff = ElementDiff.between(practice("Scrum", "agile"), practice("Scrum", "agile", "team"));
+        assertThat(diff.getSet()).isEmpty();
+        assertThat(diff.getPush()).containsEntry("keyWords", Arrays.<Object> asList("team"));
+    }
+
+    @Test
+    public void replacedKeywordIsSet() {
+        ElementDiff diff = ElementDiff.between(practice("Scrum", "agile", "team"), practice("Scrum", "team"));
+        assertThat(diff.getPush()).isEmpty();
+        assertThat(diff.getSet()).containsOnlyKeys("keyWords");
+    }
+
+    @Test
+    public void removedFieldIsUnset() {
+        DBObject before = practice("Scrum", "agile").append("author", "Daniel");
+        ElementDiff diff = ElementDiff.between(before, practice("Scrum", "agile"));
+        assertThat(diff.getUnset()).containsExactly("author");
+        assertThat(diff.toUpdateObject().get("$unset")).isEqualTo(new BasicDBObject("author", 1));
+    }
+
+    @Test
+    public void forcedFieldReplacesOtherOperations() {
+        DBObject before = practice("Scrum", "agile").append("lastModifiedDate", "yesterday");
+        ElementDiff diff = ElementDiff.between(before, practice("Scrum", "agile"));
+        diff.set("lastModifiedDate", "today");
+        assertThat(diff.getUnset()).isEmpty();
+        assertThat(diff.getSet()).containsEntry("lastModifiedDate", "today");
+    }
+
+    @Test
+    public void storedDiffRebuildsTheAfterVersion() {
+        DBObject before = practice("Scrum", "agile").append("author", "Daniel");
+        DBObject after = practice("Kanban", "agile", "team");
+        DBObject stored = ElementDiff.between(before, after).toDBObject();
+        assertThat(ElementDiff.fromDBObject(stored).applyTo(before)).isEqualTo(after);
+    }
+
+    private static BasicDBObject practice(String name, String... keyWords) {
+        BasicDBList list = new BasicDBList();
+        list.addAll(Arrays.asList(keyWords));
+        return new BasicDBObject("_id", "1").append("name", name).append("keyWords", list);
+    }
+}
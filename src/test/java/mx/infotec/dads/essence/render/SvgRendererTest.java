@@ -0,0 +1,104 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.render;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.time.Instant;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.diagram.DiagramLayoutEngine;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.model.diagraminterchange.SECard;
+
+/**
+ * Test for SvgRenderer
+ * 
+ * @author Daniel Cortes Pichardo
+ */
+public class SvgRendererTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EssenceProperties properties;
+
+    private SEAlpha alpha;
+
+    private SECard card;
+
+    @Before
+    public void setUp() {
+        properties = new EssenceProperties();
+        properties.getRendering().setCacheDirectory(folder.getRoot().getAbsolutePath());
+        alpha = new SEAlpha();
+        alpha.setId("alpha-1");
+        alpha.setName("Requirements <draft>");
+        alpha.setBriefDescription("What the software system must do to address the opportunity");
+        alpha.setLastModifiedDate(Instant.ofEpochMilli(1000));
+        card = new SECard();
+        card.setModelElement(alpha);
+    }
+
+    @Test
+    public void cardsAreRenderedAsEscapedSvg() {
+        Rendering rendering = renderer().render(card);
+
+        assertThat(rendering.getSvg()).startsWith("<svg").endsWith("</svg>")
+                .contains("Requirements &lt;draft&gt;").contains("What the software");
+    }
+
+    @Test
+    public void repeatedRendersAreServedFromTheCache() {
+        SvgRenderer renderer = renderer();
+        Rendering first = renderer.render(card);
+        alpha.setName("changed without a new modification date");
+
+        assertThat(renderer.render(card).getSvg()).isEqualTo(first.getSvg());
+        assertThat(new File(folder.getRoot(), first.getHash() + ".svg")).exists();
+        assertThat(renderer().render(card).getSvg()).isEqualTo(first.getSvg());
+    }
+
+    @Test
+    public void aModifiedElementGetsANewETag() {
+        SvgRenderer renderer = renderer();
+        String eTag = renderer.render(card).getETag();
+
+        assertThat(renderer.isNotModified(card, eTag)).isTrue();
+        assertThat(renderer.isNotModified(card, "W/" + eTag + ", \"other\"")).isTrue();
+        alpha.setLastModifiedDate(Instant.ofEpochMilli(2000));
+        assertThat(renderer.isNotModified(card, eTag)).isFalse();
+        assertThat(renderer.render(card).getETag()).isNotEqualTo(eTag);
+    }
+
+    private SvgRenderer renderer() {
+        return new SvgRenderer(properties, new DiagramLayoutEngine(properties), new RenderCache(properties));
+    }
+}
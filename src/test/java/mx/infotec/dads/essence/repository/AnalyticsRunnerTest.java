@@ -0,0 +1,84 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mongodb.BasicDBObject;
+
+import mx.infotec.dads.essence.analytics.AnalyticsResult;
+import mx.infotec.dads.essence.analytics.AnalyticsRunner;
+import mx.infotec.dads.essence.analytics.PracticeCoverageJob;
+
+/**
+ * Test for the results of the analytics jobs
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class AnalyticsRunnerTest {
+
+    @Autowired
+    private AnalyticsRunner analyticsRunner;
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Test
+    public void rowsAreStoredOnePerDocument() {
+        AnalyticsResult result = analyticsRunner.run(PracticeCoverageJob.NAME);
+        assertThat(analyticsRunner.getResult(PracticeCoverageJob.NAME).getRun()).isEqualTo(result.getRun());
+        assertThat(runRows(result.getRun())).isEqualTo(result.getRowCount());
+        List<Map<String, Object>> rows = analyticsRunner.getRows(PracticeCoverageJob.NAME, 0, 0);
+        assertThat(rows).hasSize((int) result.getRowCount());
+        rows.forEach(row -> assertThat(row).containsKeys("alphaId", "practices"));
+        if (rows.size() > 1) {
+            assertThat(analyticsRunner.getRows(PracticeCoverageJob.NAME, 1, 1)).containsExactly(rows.get(1));
+        }
+    }
+
+    @Test
+    public void rowsOfThePreviousRunAreRemoved() {
+        AnalyticsResult previous = analyticsRunner.run(PracticeCoverageJob.NAME);
+        AnalyticsResult last = analyticsRunner.run(PracticeCoverageJob.NAME);
+        assertThat(last.getRun()).isNotEqualTo(previous.getRun());
+        assertThat(runRows(previous.getRun())).isZero();
+        assertThat(runRows(last.getRun())).isEqualTo(last.getRowCount());
+    }
+
+    private long runRows(String run) {
+        return mongoOperations.getCollection(AnalyticsRunner.ROWS_COLLECTION).count(new BasicDBObject("run", run));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventLog;
+import mx.infotec.dads.essence.events.ChangeType;
+
+/**
+ * Test for the change event log stored into the capped collection
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ChangeEventLogTest {
+
+    @Autowired
+    private ChangeEventLog log;
+    @Autowired
+    private EssenceProperties properties;
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    private final long settleMillis = new EssenceProperties().getEvents().getSettleMillis();
+
+    @After
+    public void tearDown() {
+        properties.getEvents().setSettleMillis(settleMillis);
+    }
+
+    @Test
+    public void eventsAreAppendedToACappedCollectionInSequence() {
+        ChangeEvent first = event("log-first");
+        ChangeEvent second = event("log-second");
+        log.append(Arrays.asList(first, second));
+        assertThat(mongoOperations.getCollection(ChangeEventLog.EVENTS_COLLECTION).isCapped()).isTrue();
+        assertThat(second.getSequence()).isEqualTo(first.getSequence() + 1);
+
+        properties.getEvents().setSettleMillis(0);
+        List<ChangeEvent> read = log.readAfter(first.getSequence() - 1, 2);
+        assertThat(read).extracting(ChangeEvent::getElementId).containsExactly("log-first", "log-second");
+    }
+
+    @Test
+    public void unsettledEventsAreNotRead() {
+        properties.getEvents().setSettleMillis(60000);
+        ChangeEvent event = event("log-unsettled");
+        log.append(Collections.singletonList(event));
+        assertThat(log.readAfter(event.getSequence() - 1, 1)).isEmpty();
+
+        properties.getEvents().setSettleMillis(0);
+        assertThat(log.readAfter(event.getSequence() - 1, 1)).extracting(ChangeEvent::getElementId)
+                .containsExactly("log-unsettled");
+    }
+
+    @Test
+    public void cursorPositionIsStored() {
+        log.savePosition("log-test-sink", 42);
+        assertThat(log.getPosition("log-test-sink")).isEqualTo(42);
+        assertThat(log.getPosition("log-test-unknown-sink")).isZero();
+    }
+
+    private static ChangeEvent event(String id) {
+        return new ChangeEvent(ChangeType.CREATED, KernelEnum.ALPHA, id, "alphas", Collections.emptySet(), null);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.events.ChangeEvent;
+import mx.infotec.dads.essence.events.ChangeEventLog;
+import mx.infotec.dads.essence.events.ChangeEventPublisher;
+import mx.infotec.dads.essence.events.ChangeType;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.model.foundation.SEEndeavorProperty;
+import mx.infotec.dads.essence.util.EssenceMapping;
+
+/**
+ * Test for the change events captured from the saves
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ChangeEventsTest {
+
+    @Autowired
+    private SEAlphaRepository alphaRepository;
+    @Autowired
+    private SEEndeavorPropertyRepository endeavorPropertyRepository;
+    @Autowired
+    private RecordingPublisher publisher;
+
+    @Test
+    public void unversionedElementIsCreatedOnce() {
+        SEEndeavorProperty property = new SEEndeavorProperty();
+        property.setName("created");
+        endeavorPropertyRepository.save(property);
+        property.setName("updated");
+        endeavorPropertyRepository.save(property);
+        assertThat(publisher.changesOf(property.getId())).containsExactly(ChangeType.CREATED, ChangeType.UPDATED);
+    }
+
+    @Test
+    public void versionedElementIsCreatedOnce() {
+        SEAlpha alpha = new SEAlpha();
+        EssenceMapping.fillBasicElement(alpha);
+        alpha.setName("created");
+        alpha.setIcon(null);
+        alpha.setStates(null);
+        alpha.setAction(null);
+        alpha.setActivitySpace(null);
+        alpha.setAlphaContainment(null);
+        alpha.setAlphaAssociation(null);
+        alpha.setWorkProductManifest(null);
+        alphaRepository.save(alpha);
+        SEAlpha loaded = alphaRepository.findOne(alpha.getId());
+        loaded.setName("updated");
+        alphaRepository.save(loaded);
+        assertThat(publisher.changesOf(alpha.getId())).containsExactly(ChangeType.CREATED, ChangeType.UPDATED);
+    }
+
+    @TestConfiguration
+    static class RecordingConfiguration {
+
+        @Bean
+        @Primary
+        public RecordingPublisher recordingPublisher(EssenceProperties properties, ChangeEventLog log) {
+            return new RecordingPublisher(properties, log);
+        }
+    }
+
+    /**
+     * Records the published events instead of logging them
+     */
+    static class RecordingPublisher extends ChangeEventPublisher {
+
+        private final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+
+        RecordingPublisher(EssenceProperties properties, ChangeEventLog log) {
+            super(properties, log);
+        }
+
+        @Override
+        public boolean publish(ChangeEvent event) {
+            return events.add(event);
+        }
+
+        List<ChangeType> changesOf(String id) {
+            return events.stream().filter(event -> id.equals(event.getElementId())).map(ChangeEvent::getChangeType)
+                    .collect(Collectors.toList());
+        }
+    }
+}
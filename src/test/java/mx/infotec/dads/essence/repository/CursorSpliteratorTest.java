@@ -0,0 +1,98 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * Test for CursorSpliterator
+ * 
+ * @author Daniel Cortes Pichardo
+ */
+public class CursorSpliteratorTest {
+
+    @Test
+    public void parallelStreamsSeeEveryElementOnce() {
+        List<Integer> elements = StreamSupport
+                .stream(new CursorSpliterator<>(cursor(10_000), 64), true).collect(Collectors.toList());
+
+        assertThat(elements).hasSize(10_000).doesNotHaveDuplicates();
+        assertThat(elements).isSorted();
+    }
+
+    @Test
+    public void splitsTakeABatch() {
+        CursorSpliterator<Integer> spliterator = new CursorSpliterator<>(cursor(100), 30);
+
+        assertThat(spliterator.trySplit().estimateSize()).isEqualTo(30);
+        assertThat(spliterator.trySplit().estimateSize()).isEqualTo(30);
+        assertThat(spliterator.trySplit().estimateSize()).isEqualTo(30);
+        assertThat(spliterator.trySplit().estimateSize()).isEqualTo(10);
+        assertThat(spliterator.trySplit()).isNull();
+    }
+
+    @Test
+    public void splitsWaitForProcessedBatches() {
+        CursorSpliterator<Integer> spliterator = new CursorSpliterator<>(cursor(100), 30, 2);
+        Spliterator<Integer> first = spliterator.trySplit();
+        Spliterator<Integer> second = spliterator.trySplit();
+
+        assertThat(spliterator.trySplit()).isNull();
+        first.forEachRemaining(element -> {
+        });
+        assertThat(spliterator.trySplit().estimateSize()).isEqualTo(30);
+        assertThat(second.estimateSize()).isEqualTo(30);
+    }
+
+    private static CloseableIterator<Integer> cursor(int size) {
+        Iterator<Integer> iterator = IntStream.range(0, size).iterator();
+        return new CloseableIterator<Integer>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                // nothing to release
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mongodb.MongoClientOptions;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import mx.infotec.dads.essence.index.IndexAdvisor;
+import mx.infotec.dads.essence.model.SEGraphicalElement;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.util.EssenceMapping;
+
+/**
+ * Test for the saves of tracked elements through the repositories
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DirtySaveTest {
+
+    private static final List<String> WRITE_COMMANDS = Arrays.asList("insert", "update", "delete", "findAndModify");
+
+    @Autowired
+    private SEAlphaRepository alphaRepository;
+    @Autowired
+    private MongoOperations mongoOperations;
+    @Autowired
+    private CommandRecorder commandRecorder;
+
+    private String collectionName;
+
+    @Before
+    public void setUp() {
+        collectionName = mongoOperations.getCollectionName(SEAlpha.class);
+    }
+
+    @Test
+    public void cleanSaveSendsNoWrite() {
+        SEAlpha alpha = alphaRepository.findOne(newAlpha("clean").getId());
+        commandRecorder.clear();
+        alphaRepository.save(alpha);
+        assertThat(commandRecorder.writesTo(collectionName)).isEmpty();
+    }
+
+    @Test
+    public void dirtySaveSetsOnlyTheDirtyFields() {
+        SEAlpha alpha = alphaRepository.findOne(newAlpha("dirty").getId());
+        alpha.setName("renamed");
+        commandRecorder.clear();
+        alphaRepository.save(alpha);
+        List<BsonDocument> writes = commandRecorder.writesTo(collectionName);
+        assertThat(writes).hasSize(1);
+        BsonDocument update = writes.get(0).getArray("updates").get(0).asDocument().getDocument("u");
+        assertThat(update.getDocument("$set").keySet()).containsOnly("name", "lastModifiedDate");
+        assertThat(alphaRepository.findOne(alpha.getId()).getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    public void valueMutatedInPlaceIsWritten() {
+        SEGraphicalElement icon = new SEGraphicalElement();
+        icon.setId("dirty-save-icon");
+        mongoOperations.save(icon);
+        SEGraphicalElement otherIcon = new SEGraphicalElement();
+        otherIcon.setId("dirty-save-other-icon");
+        mongoOperations.save(otherIcon);
+        SEAlpha alpha = newAlpha("icon");
+        alpha.setIcon(icon);
+        alphaRepository.save(alpha);
+
+        SEAlpha loaded = alphaRepository.findOne(alpha.getId());
+        ((SEGraphicalElement) loaded.getIcon()).setId(otherIcon.getId());
+        commandRecorder.clear();
+        alphaRepository.save(loaded);
+        List<BsonDocument> writes = commandRecorder.writesTo(collectionName);
+        assertThat(writes).hasSize(1);
+        BsonDocument update = writes.get(0).getArray("updates").get(0).asDocument().getDocument("u");
+        assertThat(update.getDocument("$set").keySet()).contains("icon");
+        assertThat(((SEGraphicalElement) alphaRepository.findOne(alpha.getId()).getIcon()).getId())
+                .isEqualTo(otherIcon.getId());
+    }
+
+    @Test
+    public void saveAllSendsOneBulkWrite() {
+        List<SEAlpha> alphas = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SEAlpha alpha = alphaRepository.findOne(newAlpha("bulk" + i).getId());
+            alpha.setDescription("changed");
+            alphas.add(alpha);
+        }
+        commandRecorder.clear();
+        alphaRepository.save(alphas);
+        List<BsonDocument> writes = commandRecorder.writesTo(collectionName);
+        assertThat(writes).hasSize(1);
+        assertThat(writes.get(0).getArray("updates")).hasSize(3);
+    }
+
+    private SEAlpha newAlpha(String name) {
+        SEAlpha alpha = new SEAlpha();
+        EssenceMapping.fillBasicElement(alpha);
+        alpha.setName(name);
+        alpha.setIcon(null);
+        alpha.setStates(null);
+        alpha.setAction(null);
+        alpha.setActivitySpace(null);
+        alpha.setAlphaContainment(null);
+        alpha.setAlphaAssociation(null);
+        alpha.setWorkProductManifest(null);
+        return alphaRepository.save(alpha);
+    }
+
+    @TestConfiguration
+    static class RecordingConfiguration {
+
+        @Bean
+        public CommandRecorder commandRecorder() {
+            return new CommandRecorder();
+        }
+
+        @Bean
+        @Primary
+        public MongoClientOptions recordingClientOptions(IndexAdvisor indexAdvisor, CommandRecorder commandRecorder) {
+            return MongoClientOptions.builder().addCommandListener(indexAdvisor).addCommandListener(commandRecorder)
+                    .build();
+        }
+    }
+
+    /**
+     * Records the commands sent to the server
+     */
+    static class CommandRecorder implements CommandListener {
+
+        private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            commands.add(event.getCommand());
+        }
+
+        @Override
+        public void commandSucceeded(CommandSucceededEvent event) {
+
+        }
+
+        @Override
+        public void commandFailed(CommandFailedEvent event) {
+
+        }
+
+        List<BsonDocument> writesTo(String collectionName) {
+            List<BsonDocument> writes = new ArrayList<>();
+            for (BsonDocument command : commands) {
+                for (String name : WRITE_COMMANDS) {
+                    BsonValue target = command.get(name);
+                    if (target != null && target.isString() && target.asString().getValue().equals(collectionName)) {
+                        writes.add(command);
+                    }
+                }
+            }
+            return writes;
+        }
+
+        void clear() {
+            commands.clear();
+        }
+    }
+}
@@ -23,9 +23,9 @@
  */
 package mx.infotec.dads.essence.repository;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.stream.Stream;
 
-import org.joda.time.DateTime;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.Logger;
@@ -59,9 +59,8 @@ public class KernelRepositoryTest {
     @Test
     public void insertKernel() throws Exception {
         LOGGER.info("insert practice");
-        List<SEKernel> kernelList = kernelRepository.findAll();
         SEKernel kernel = new SEKernel();
-        if (kernelList.isEmpty()) {
+        if (kernelRepository.isEmpty()) {
             kernel.setBriefDescription("Essence default kernel");
             kernel.setConsistencyRules("Consistencies rules");
             kernel.setDescription("Essence default kernel");
@@ -81,14 +80,16 @@ public class KernelRepositoryTest {
             kernel.setSuppressable(false);
             kernel.setTag(null);
             kernel.setViewSelection(null);
-            kernel.setCreatedDate(new DateTime());
-            kernel.setLastModifiedDate(new DateTime());
+            kernel.setCreatedDate(Instant.now());
+            kernel.setLastModifiedDate(Instant.now());
 
         } else {
-            kernel = kernelList.get(0);
+            try (Stream<SEKernel> kernels = kernelRepository.streamAll()) {
+                kernel = kernels.findFirst().get();
+            }
             kernel.setName("otro nombre");
-            kernel.setCreatedDate(new DateTime());
-            kernel.setLastModifiedDate(new DateTime());
+            kernel.setCreatedDate(Instant.now());
+            kernel.setLastModifiedDate(Instant.now());
         }
 
         kernelRepository.save(kernel);
@@ -23,6 +23,9 @@
  */
 package mx.infotec.dads.essence.repository;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -33,13 +36,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEState;
+import mx.infotec.dads.essence.model.foundation.SECheckpoint;
 import mx.infotec.dads.essence.model.foundation.SEKernel;
+import mx.infotec.dads.essence.model.foundation.SELanguageElement;
 import mx.infotec.dads.essence.model.foundation.SEPractice;
+import mx.infotec.dads.essence.persistence.CascadeOperations;
+import mx.infotec.dads.essence.persistence.ElementGroupOperations;
 import mx.infotec.dads.essence.util.EssenceMapping;
 
 /**
@@ -57,6 +67,16 @@ public class PracticeRepositoryTest {
     private SEPracticeRepository practiceRepository;
     @Autowired
     private SEKernelRepository kernelRepository;
+    @Autowired
+    private ElementGroupOperations elementGroupOperations;
+    @Autowired
+    private CascadeOperations cascadeOperations;
+    @Autowired
+    private SEAlphaRepository alphaRepository;
+    @Autowired
+    private SEStateRepository stateRepository;
+    @Autowired
+    private SECheckpointRepository checkpointRepository;
 
     private static String id;
 
@@ -108,12 +128,126 @@ public class PracticeRepositoryTest {
         id = practice.getId();
         LOGGER.info("id = {}", id);
         SEKernel seKernel = kernelRepository.findAll().get(0);
-        if (seKernel.getOwnedElements() == null) {
-            seKernel.setOwnedElements(new ArrayList<>());
-        }
-        seKernel.getOwnedElements().add(practice);
+        elementGroupOperations.addOwnedElement(seKernel, practice);
         System.out.println(seKernel.getId());
-        kernelRepository.save(seKernel);
+    }
+
+    @Test
+    public void saveAfterMembershipChangeDoesNotConflict() {
+        SEPractice practice = new SEPractice();
+        EssenceMapping.fillPractice(practice);
+        practice.setName("Scrum");
+        practiceRepository.save(practice);
+        SEAlpha alpha = new SEAlpha();
+        EssenceMapping.fillBasicElement(alpha);
+        alphaRepository.save(alpha);
+        elementGroupOperations.addOwnedElement(practice, alpha);
+        practice.setName("Scrum at scale");
+        practiceRepository.save(practice);
+        SEPractice stored = practiceRepository.findOne(practice.getId());
+        assertThat(stored.getName()).isEqualTo("Scrum at scale");
+        assertThat(stored.getOwnedElements()).extracting(SELanguageElement::getId).containsExactly(alpha.getId());
+        assertThat(stored.getVersion()).isEqualTo(practice.getVersion());
+        practiceRepository.delete(practice);
+        alphaRepository.delete(alpha);
+    }
+
+    @Test
+    public void staleGroupStillConflictsAfterMembershipChange() {
+        SEPractice practice = new SEPractice();
+        EssenceMapping.fillPractice(practice);
+        practice.setName("Scrum");
+        practiceRepository.save(practice);
+        SEPractice stale = practiceRepository.findOne(practice.getId());
+        practice.setName("Scrum by another editor");
+        practiceRepository.save(practice);
+        SEAlpha alpha = new SEAlpha();
+        EssenceMapping.fillBasicElement(alpha);
+        alphaRepository.save(alpha);
+        Long staleVersion = stale.getVersion();
+        elementGroupOperations.addOwnedElement(stale, alpha);
+        assertThat(stale.getVersion()).isEqualTo(staleVersion);
+        stale.setName("Scrum by a stale editor");
+        assertThatThrownBy(() -> practiceRepository.save(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(practiceRepository.findOne(practice.getId()).getName()).isEqualTo("Scrum by another editor");
+        practiceRepository.delete(practice);
+        alphaRepository.delete(alpha);
+    }
+
+    @Test
+    public void localEditOfTheFieldIsKeptAfterMembershipChange() {
+        SEPractice practice = new SEPractice();
+        EssenceMapping.fillPractice(practice);
+        practice.setName("Scrum");
+        practiceRepository.save(practice);
+        SEAlpha local = new SEAlpha();
+        EssenceMapping.fillBasicElement(local);
+        alphaRepository.save(local);
+        SEAlpha added = new SEAlpha();
+        EssenceMapping.fillBasicElement(added);
+        alphaRepository.save(added);
+        SEPractice loaded = practiceRepository.findOne(practice.getId());
+        loaded.getOwnedElements().add(local);
+        elementGroupOperations.addOwnedElement(loaded, added);
+        assertThat(loaded.getDirtyFields()).contains("ownedElements");
+        practiceRepository.save(loaded);
+        assertThat(practiceRepository.findOne(practice.getId()).getOwnedElements())
+                .extracting(SELanguageElement::getId).containsOnly(local.getId(), added.getId());
+        practiceRepository.delete(practice);
+        alphaRepository.delete(local);
+        alphaRepository.delete(added);
+    }
+
+    @Test
+    public void cascadedDeleteRemovesStatesAndCheckpoints() {
+        SEAlpha alpha = alphaWithStates("Ready", "Done");
+        cascadeOperations.save(alpha);
+        List<SEState> states = new ArrayList<>(alpha.getStates());
+        SECheckpoint checkpoint = states.get(0).getCheckListItem().iterator().next();
+        assertThat(stateRepository.findOne(states.get(1).getId()).getName()).isEqualTo("Done");
+        assertThat(checkpointRepository.findOne(checkpoint.getId())).isNotNull();
+
+        assertThat(cascadeOperations.delete(alpha)).isEqualTo(5);
+        assertThat(alphaRepository.findOne(alpha.getId())).isNull();
+        assertThat(stateRepository.findOne(states.get(0).getId())).isNull();
+        assertThat(stateRepository.findOne(states.get(1).getId())).isNull();
+        assertThat(checkpointRepository.findOne(checkpoint.getId())).isNull();
+    }
+
+    @Test
+    public void cascadedSaveWritesOnlyChangedChildren() {
+        SEAlpha alpha = alphaWithStates("Ready", "Done");
+        cascadeOperations.save(alpha);
+        List<SEState> states = new ArrayList<>(alpha.getStates());
+        states.get(0).setName("Ready for review");
+        cascadeOperations.save(alpha);
+
+        assertThat(stateRepository.findOne(states.get(0).getId()).getVersion()).isEqualTo(1L);
+        assertThat(stateRepository.findOne(states.get(1).getId()).getVersion()).isEqualTo(0L);
+        assertThat(alphaRepository.findOne(alpha.getId()).getVersion()).isEqualTo(0L);
+        assertThat(cascadeOperations.delete(alpha)).isEqualTo(5);
+    }
+
+    /**
+     * A new alpha with a state per name, each state with one checkpoint
+     */
+    private static SEAlpha alphaWithStates(String... names) {
+        SEAlpha alpha = new SEAlpha();
+        EssenceMapping.fillBasicElement(alpha);
+        alpha.setName("Backlog");
+        List<SEState> states = new ArrayList<>();
+        for (String name : names) {
+            SEState state = new SEState();
+            EssenceMapping.fillSELanguageElements(state);
+            state.setName(name);
+            SECheckpoint checkpoint = new SECheckpoint();
+            EssenceMapping.fillCheckpoint(checkpoint, state);
+            state.setCheckListItem(new ArrayList<>(Arrays.asList(checkpoint)));
+            states.add(state);
+        }
+        alpha.setStates(states);
+        return alpha;
     }
 
     @Test
@@ -0,0 +1,152 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.integrity.ReferenceEntry;
+import mx.infotec.dads.essence.integrity.ReferenceIndex;
+import mx.infotec.dads.essence.model.alphaandworkproduct.SEAlpha;
+import mx.infotec.dads.essence.model.foundation.SEEndeavorProperty;
+import mx.infotec.dads.essence.util.EssenceMapping;
+
+/**
+ * Test for the reverse reference index
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ReferenceIndexTest {
+
+    @Autowired
+    private ReferenceIndex referenceIndex;
+    @Autowired
+    private SEAlphaRepository alphaRepository;
+    @Autowired
+    private SEEndeavorPropertyRepository endeavorPropertyRepository;
+
+    private String suffix;
+
+    @Before
+    public void setUp() {
+        suffix = UUID.randomUUID().toString();
+    }
+
+    @Test
+    public void indexWritesTheDifferenceWithTheStoredEntries() {
+        String practice = "practice-" + suffix;
+        referenceIndex.index(KernelEnum.PRACTICE, practice(practice, "alpha-a-" + suffix, "alpha-b-" + suffix));
+        assertThat(referenceIndex.findReferences(KernelEnum.PRACTICE, practice)).extracting(ReferenceEntry::getTargetId)
+                .containsOnly("kernel-" + suffix, "alpha-a-" + suffix, "alpha-b-" + suffix);
+
+        referenceIndex.index(KernelEnum.PRACTICE, practice(practice, "alpha-b-" + suffix, "alpha-c-" + suffix));
+        assertThat(referenceIndex.findReferences(KernelEnum.PRACTICE, practice)).extracting(ReferenceEntry::getTargetId)
+                .containsOnly("kernel-" + suffix, "alpha-b-" + suffix, "alpha-c-" + suffix);
+        assertThat(referenceIndex.findReferrers(KernelEnum.ALPHA, "alpha-a-" + suffix)).isEmpty();
+        assertThat(referenceIndex.findReferrers(KernelEnum.ALPHA, "alpha-c-" + suffix))
+                .extracting(ReferenceEntry::getSourceId).containsExactly(practice);
+    }
+
+    @Test
+    public void removeKeepsTheEntriesReferringTheElement() {
+        String practice = "practice-" + suffix;
+        String other = "other-practice-" + suffix;
+        referenceIndex.index(KernelEnum.PRACTICE, practice(practice, "alpha-a-" + suffix));
+        referenceIndex.index(KernelEnum.PRACTICE, practice(other, "alpha-a-" + suffix)
+                .append("referredElements", references(new DBRef("practices", practice))));
+
+        referenceIndex.remove(KernelEnum.PRACTICE, practice);
+        assertThat(referenceIndex.findReferences(KernelEnum.PRACTICE, practice)).isEmpty();
+        assertThat(referenceIndex.findReferrers(KernelEnum.PRACTICE, practice)).extracting(ReferenceEntry::getSourceId)
+                .containsExactly(other);
+        assertThat(referenceIndex.findReferrers(KernelEnum.ALPHA, "alpha-a-" + suffix))
+                .extracting(ReferenceEntry::getSourceId).containsExactly(other);
+    }
+
+    @Test
+    public void endeavorPropertiesAreIndexed() {
+        SEAlpha alpha = newAlpha();
+        SEEndeavorProperty property = new SEEndeavorProperty();
+        property.setName("indexed");
+        property.setLanguageElement(alpha);
+        endeavorPropertyRepository.save(property);
+        assertThat(referenceIndex.findReferrers(KernelEnum.ALPHA, alpha.getId()))
+                .extracting(ReferenceEntry::getSourceType).containsExactly(KernelEnum.ENDEAVORPROPERTY);
+
+        property.setLanguageElement(null);
+        endeavorPropertyRepository.save(property);
+        assertThat(referenceIndex.findReferrers(KernelEnum.ALPHA, alpha.getId())).isEmpty();
+
+        property.setLanguageElement(alpha);
+        endeavorPropertyRepository.save(property);
+        endeavorPropertyRepository.delete(property.getId());
+        assertThat(referenceIndex.findReferences(KernelEnum.ENDEAVORPROPERTY, property.getId())).isEmpty();
+    }
+
+    private BasicDBObject practice(String id, String... alphas) {
+        DBRef[] owned = new DBRef[alphas.length];
+        for (int i = 0; i < alphas.length; i++) {
+            owned[i] = new DBRef("alphas", alphas[i]);
+        }
+        return new BasicDBObject("_id", id).append("owner", new DBRef("kernels", "kernel-" + suffix))
+                .append("ownedElements", references(owned));
+    }
+
+    private static BasicDBList references(DBRef... references) {
+        BasicDBList list = new BasicDBList();
+        for (DBRef reference : references) {
+            list.add(reference);
+        }
+        return list;
+    }
+
+    private SEAlpha newAlpha() {
+        SEAlpha alpha = new SEAlpha();
+        EssenceMapping.fillBasicElement(alpha);
+        alpha.setName("referred");
+        alpha.setIcon(null);
+        alpha.setStates(null);
+        alpha.setAction(null);
+        alpha.setActivitySpace(null);
+        alpha.setAlphaContainment(null);
+        alpha.setAlphaAssociation(null);
+        alpha.setWorkProductManifest(null);
+        return alphaRepository.save(alpha);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+import mx.infotec.dads.essence.model.foundation.SEEndeavorProperty;
+import mx.infotec.dads.essence.tenant.TenantContext;
+import mx.infotec.dads.essence.tenant.TenantQuotaExceededException;
+import mx.infotec.dads.essence.tenant.Tenants;
+import mx.infotec.dads.essence.util.MongoEvents;
+
+/**
+ * Test for the element quotas of the tenants
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class TenantQuotaTest {
+
+    private static final AtomicInteger TENANTS = new AtomicInteger();
+
+    @Autowired
+    private Tenants tenants;
+    @Autowired
+    private EssenceProperties properties;
+    @Autowired
+    private MongoOperations mongoOperations;
+    @Autowired
+    private SEEndeavorPropertyRepository endeavorPropertyRepository;
+
+    private String tenant;
+
+    @Before
+    public void setUp() {
+        tenant = "quota-" + Long.toString(System.currentTimeMillis(), 36) + "-" + TENANTS.incrementAndGet();
+        properties.getTenancy().getQuotas().put(tenant, 3);
+    }
+
+    @After
+    public void tearDown() {
+        properties.getTenancy().getQuotas().remove(tenant);
+    }
+
+    @Test
+    public void reserveStopsAtTheQuota() {
+        tenants.reserve(tenant, 2);
+        tenants.reserve(tenant);
+        assertThatThrownBy(() -> tenants.reserve(tenant)).isInstanceOf(TenantQuotaExceededException.class);
+        assertThat(elementsOf(tenant)).isEqualTo(3);
+    }
+
+    @Test
+    public void reserveOfManyIsAllOrNone() {
+        tenants.reserve(tenant, 2);
+        assertThatThrownBy(() -> tenants.reserve(tenant, 2)).isInstanceOf(TenantQuotaExceededException.class);
+        assertThat(elementsOf(tenant)).isEqualTo(2);
+        tenants.reserve(tenant, 1);
+        assertThat(elementsOf(tenant)).isEqualTo(3);
+    }
+
+    @Test
+    public void releaseNeverGoesBelowZero() {
+        tenants.reserve(tenant, 2);
+        tenants.release(tenant);
+        assertThat(elementsOf(tenant)).isEqualTo(1);
+        tenants.release(tenant, 5);
+        assertThat(elementsOf(tenant)).isZero();
+        tenants.reserve(tenant, 3);
+        assertThat(elementsOf(tenant)).isEqualTo(3);
+    }
+
+    @Test
+    public void onlyTheInsertsReserve() {
+        SEEndeavorProperty property = new SEEndeavorProperty();
+        property.setName("quota");
+        TenantContext.run(tenant, () -> endeavorPropertyRepository.save(property));
+        assertThat(elementsOf(tenant)).isEqualTo(1);
+        property.setName("quota-updated");
+        TenantContext.run(tenant, () -> endeavorPropertyRepository.save(property));
+        TenantContext.run(tenant, () -> endeavorPropertyRepository.save(property));
+        assertThat(elementsOf(tenant)).isEqualTo(1);
+        TenantContext.run(tenant, () -> endeavorPropertyRepository.delete(property.getId()));
+        assertThat(elementsOf(tenant)).isZero();
+    }
+
+    private long elementsOf(String tenant) {
+        DBObject stored = mongoOperations.getCollection(Tenants.TENANTS_COLLECTION)
+                .findOne(new BasicDBObject(MongoEvents.ID_FIELD, tenant));
+        return ((Number) stored.get("elements")).longValue();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+import org.springframework.data.domain.Pageable;
+
+import mx.infotec.dads.essence.repository.SEAlphaRepository;
+import mx.infotec.dads.essence.repository.SEPracticeRepository;
+
+/**
+ * Test for ReadRoutingInterceptor
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ReadRoutingInterceptorTest {
+
+    @Test
+    public void searchesAreReadFromTheSecondaries() throws Exception {
+        ReadRoutingInterceptor interceptor = new ReadRoutingInterceptor(SEPracticeRepository.class);
+
+        assertThat(readModeOf(interceptor, SEPracticeRepository.class.getMethod("findByName", String.class)))
+                .isEqualTo(ReadMode.SECONDARY_PREFERRED);
+        assertThat(readModeOf(interceptor,
+                SEPracticeRepository.class.getMethod("findByKeyWordsIn", List.class, Pageable.class)))
+                        .isEqualTo(ReadMode.SECONDARY_PREFERRED);
+    }
+
+    @Test
+    public void loadsOfTheEditFlowsAreReadFromThePrimary() throws Exception {
+        ReadRoutingInterceptor interceptor = new ReadRoutingInterceptor(SEPracticeRepository.class);
+
+        assertThat(readModeOf(interceptor, SEPracticeRepository.class.getMethod("findOne", Serializable.class)))
+                .isNull();
+        assertThat(readModeOf(interceptor, SEPracticeRepository.class.getMethod("findAll"))).isNull();
+        assertThat(readModeOf(new ReadRoutingInterceptor(SEAlphaRepository.class),
+                SEAlphaRepository.class.getMethod("findOne", Serializable.class))).isNull();
+    }
+
+    @Test
+    public void explicitRoutingOfTheCallerWins() throws Exception {
+        ReadRoutingInterceptor interceptor = new ReadRoutingInterceptor(SEPracticeRepository.class);
+        Method findByName = SEPracticeRepository.class.getMethod("findByName", String.class);
+
+        ReadMode readMode = ReadRouting.primary(() -> readModeOf(interceptor, findByName));
+        assertThat(readMode).isEqualTo(ReadMode.PRIMARY);
+        assertThat(ReadRouting.current()).isNull();
+    }
+
+    private static ReadMode readModeOf(ReadRoutingInterceptor interceptor, Method method) throws Exception {
+        AtomicReference<ReadMode> seen = new AtomicReference<>();
+        try {
+            interceptor.invoke(invocationOf(method, () -> seen.set(ReadRouting.current())));
+        } catch (Exception e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        return seen.get();
+    }
+
+    private static MethodInvocation invocationOf(Method method, Runnable target) {
+        return new MethodInvocation() {
+
+            @Override
+            public Method getMethod() {
+                return method;
+            }
+
+            @Override
+            public Object[] getArguments() {
+                return new Object[0];
+            }
+
+            @Override
+            public Object proceed() {
+                target.run();
+                return null;
+            }
+
+            @Override
+            public Object getThis() {
+                return null;
+            }
+
+            @Override
+            public AccessibleObject getStaticPart() {
+                return method;
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import mx.infotec.dads.essence.config.EssenceProperties;
+
+/**
+ * Test for ReadYourWritesSessions and ReadYourWritesToken
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ReadYourWritesSessionsTest {
+
+    private ReadYourWritesSessions sessions;
+
+    @Before
+    public void setUp() {
+        sessions = new ReadYourWritesSessions(new EssenceProperties());
+    }
+
+    @Test
+    public void tokenIsBoundOnlyDuringTheRequest() {
+        ReadYourWritesToken bound = sessions.call("session", ReadYourWritesToken::current);
+
+        assertThat(bound).isNotNull();
+        assertThat(ReadYourWritesToken.current()).isNull();
+    }
+
+    @Test
+    public void writesOfTheSessionAreSeenByItsNextRequests() {
+        sessions.call("session", () -> {
+            ReadYourWritesToken.current().recordWrite("practices");
+            return null;
+        });
+
+        assertThat(sessions.call("session",
+                () -> ReadYourWritesToken.current().hasRecentWrite("practices", 60_000))).isTrue();
+        assertThat(sessions.call("other", () -> ReadYourWritesToken.current().hasRecentWrite("practices", 60_000)))
+                .isFalse();
+    }
+
+    @Test
+    public void sessionsWithoutRecentWritesHoldNoToken() {
+        sessions.call("reader", () -> null);
+        assertThat(sessions.getToken("reader")).isNull();
+
+        sessions.call("writer", () -> {
+            ReadYourWritesToken.current().recordWrite("practices");
+            return null;
+        });
+        assertThat(sessions.getToken("writer")).isNotNull();
+        sessions.end("writer");
+        assertThat(sessions.getToken("writer")).isNull();
+    }
+
+    @Test
+    public void writesExpireAfterTheWindow() {
+        long tenSecondsAgo = System.currentTimeMillis() - 10_000;
+        ReadYourWritesToken token = ReadYourWritesToken.decode("practices=" + tenSecondsAgo + ",alphas=bad");
+
+        assertThat(token.hasRecentWrite("practices", 60_000)).isTrue();
+        assertThat(token.hasRecentWrite("practices", 5_000)).isFalse();
+        assertThat(token.hasRecentWrite("alphas", 60_000)).isFalse();
+        assertThat(token.hasRecentWrites(5_000)).isFalse();
+        assertThat(ReadYourWritesToken.decode(token.encode()).hasRecentWrite("practices", 60_000)).isTrue();
+    }
+}
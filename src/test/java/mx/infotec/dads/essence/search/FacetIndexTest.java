@@ -0,0 +1,106 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for FacetIndex
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class FacetIndexTest {
+
+    private FacetIndex<PracticeFacet> index;
+
+    @Before
+    public void setUp() {
+        index = new FacetIndex<>(PracticeFacet.class);
+        index.put("scrum", values("Ken", "agile", "team"));
+        index.put("kanban", values("David", "agile", "flow"));
+        index.put("xp", values("Kent", "agile", "team", "testing"));
+        index.put("rup", values("Ivar", "iterative"));
+        index.setLabel(PracticeFacet.AUTHOR, "Ken", "Ken Schwaber");
+    }
+
+    @Test
+    public void countsAllValuesWithoutFilters() {
+        FacetResult<PracticeFacet> result = index.search(Collections.emptyMap(), 0, 10, 10);
+        assertThat(result.getTotal()).isEqualTo(4);
+        assertThat(result.getFacet(PracticeFacet.KEYWORD)).extracting("label", "count").containsExactly(
+                tuple("agile", 3), tuple("team", 2), tuple("flow", 1), tuple("iterative", 1), tuple("testing", 1));
+        assertThat(result.getFacet(PracticeFacet.AUTHOR)).extracting("label").contains("Ken Schwaber");
+    }
+
+    @Test
+    public void drillDownIntersectsTheFacets() {
+        Map<PracticeFacet, Collection<String>> filters = new EnumMap<>(PracticeFacet.class);
+        filters.put(PracticeFacet.KEYWORD, Collections.singleton("team"));
+        filters.put(PracticeFacet.AUTHOR, Arrays.asList("Kent", "David"));
+        FacetResult<PracticeFacet> result = index.search(filters, 0, 10, 10);
+        assertThat(result.getIds()).containsExactly("xp");
+        // the counts of a filtered facet ignore its own selection
+        assertThat(result.getFacet(PracticeFacet.AUTHOR)).extracting("value", "count")
+                .containsExactly(tuple("Ken", 1), tuple("Kent", 1));
+        assertThat(result.getFacet(PracticeFacet.KEYWORD)).extracting("value", "count")
+                .containsExactly(tuple("agile", 2), tuple("flow", 1), tuple("team", 1), tuple("testing", 1));
+    }
+
+    @Test
+    public void removedDocumentsLeaveTheCountsAndTheirOrdinalIsReused() {
+        assertThat(index.remove("kanban")).isTrue();
+        assertThat(index.remove("kanban")).isFalse();
+        index.put("lean", values("Mary", "flow"));
+        FacetResult<PracticeFacet> result = index.search(
+                Collections.singletonMap(PracticeFacet.KEYWORD, Collections.singleton("flow")), 0, 10, 10);
+        assertThat(result.getIds()).containsExactly("lean");
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.getValues("lean").get(PracticeFacet.AUTHOR)).containsExactly("Mary");
+    }
+
+    @Test
+    public void pagesAndTopValuesAreLimited() {
+        FacetResult<PracticeFacet> result = index.search(Collections.emptyMap(), 1, 2, 1);
+        assertThat(result.getIds()).hasSize(2);
+        assertThat(result.getFacet(PracticeFacet.KEYWORD)).extracting("value").containsExactly("agile");
+    }
+
+    private static Map<PracticeFacet, Collection<String>> values(String author, String... keyWords) {
+        Map<PracticeFacet, Collection<String>> values = new EnumMap<>(PracticeFacet.class);
+        values.put(PracticeFacet.AUTHOR, Collections.singleton(author));
+        values.put(PracticeFacet.KEYWORD, Arrays.asList(keyWords));
+        return values;
+    }
+}
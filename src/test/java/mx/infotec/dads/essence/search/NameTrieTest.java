@@ -0,0 +1,100 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Test for NameTrie
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class NameTrieTest {
+
+    private NameTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new NameTrie();
+        trie.put("1", "Stakeholders", KernelEnum.ALPHA);
+        trie.put("2", "Stakeholder Requirements", KernelEnum.WORKPRODUCT);
+        trie.put("3", "Software System", KernelEnum.ALPHA);
+        trie.put("4", "Gestión de Requisitos", KernelEnum.PRACTICE);
+        trie.put("5", "Requirements", KernelEnum.ALPHA);
+    }
+
+    @Test
+    public void completesFoldedWordPrefixes() {
+        assertThat(names("STAKE")).containsExactly("Stakeholders", "Stakeholder Requirements");
+        assertThat(names("req")).containsExactly("Requirements", "Gestión de Requisitos",
+                "Stakeholder Requirements");
+        assertThat(names("gestion de r")).containsExactly("Gestión de Requisitos");
+        assertThat(names("x")).isEmpty();
+    }
+
+    @Test
+    public void mostUsedElementsComeFirst() {
+        trie.recordUsage("2");
+        trie.recordUsage("2");
+        trie.recordUsage("4");
+        assertThat(names("req")).containsExactly("Stakeholder Requirements", "Gestión de Requisitos",
+                "Requirements");
+        assertThat(trie.complete("s", 1, Collections.emptySet()).get(0).getUsage()).isEqualTo(2);
+    }
+
+    @Test
+    public void renamesAndRemovalsAreApplied() {
+        trie.recordUsage("1");
+        trie.put("1", "Sponsors", KernelEnum.ALPHA);
+        assertThat(names("stake")).containsExactly("Stakeholder Requirements");
+        assertThat(trie.complete("spon", 5, Collections.emptySet()).get(0).getUsage()).isEqualTo(1);
+        assertThat(trie.remove("2")).isTrue();
+        assertThat(trie.remove("2")).isFalse();
+        assertThat(names("stake")).isEmpty();
+        assertThat(names("s")).containsExactly("Sponsors", "Software System");
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void suggestionsCanBeFilteredByType() {
+        assertThat(trie.complete("s", 10, Collections.singleton(KernelEnum.WORKPRODUCT)).stream()
+                .map(NameTrie.Suggestion::getName).collect(Collectors.toList()))
+                        .containsExactly("Stakeholder Requirements");
+    }
+
+    private List<String> names(String prefix) {
+        return trie.complete(prefix, 10, Collections.emptySet()).stream().map(NameTrie.Suggestion::getName)
+                .collect(Collectors.toList());
+    }
+}
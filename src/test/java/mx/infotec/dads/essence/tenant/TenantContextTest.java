@@ -0,0 +1,78 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.tenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import mx.infotec.dads.essence.exception.EssenceCoreException;
+
+/**
+ * Test for TenantContext
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class TenantContextTest {
+
+    @After
+    public void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    public void tenantNamesTheCollections() {
+        TenantContext.set("acme");
+        assertThat(TenantContext.collectionName("kernels")).isEqualTo("acme.kernels");
+        assertThat(TenantContext.baseCollectionName("acme.kernels")).isEqualTo("kernels");
+        assertThat(TenantContext.tenantOf("acme.kernels")).isEqualTo("acme");
+        TenantContext.set(null);
+        assertThat(TenantContext.collectionName("kernels")).isEqualTo("kernels");
+    }
+
+    @Test
+    public void systemTenantIsRejected() {
+        assertThatThrownBy(() -> TenantContext.set("system")).isInstanceOf(EssenceCoreException.class);
+        assertThat(TenantContext.get()).isNull();
+        TenantContext.set("system-one");
+        assertThat(TenantContext.get()).isEqualTo("system-one");
+    }
+
+    @Test
+    public void invalidTenantIsRejected() {
+        assertThatThrownBy(() -> TenantContext.set("Acme")).isInstanceOf(EssenceCoreException.class);
+        assertThatThrownBy(() -> TenantContext.set("acme.kernels")).isInstanceOf(EssenceCoreException.class);
+        assertThatThrownBy(() -> TenantContext.set("-acme")).isInstanceOf(EssenceCoreException.class);
+    }
+
+    @Test
+    public void callRestoresThePreviousTenant() {
+        TenantContext.set("acme");
+        assertThat(TenantContext.call("other", TenantContext::get)).isEqualTo("other");
+        assertThat(TenantContext.get()).isEqualTo("acme");
+    }
+}
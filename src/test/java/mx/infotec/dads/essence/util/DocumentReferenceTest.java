@@ -0,0 +1,63 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBRef;
+
+import mx.infotec.dads.essence.repository.KernelEnum;
+
+/**
+ * Test for DocumentReference
+ * 
+ * @author Daniel Cortes Pichardo
+ */
+public class DocumentReferenceTest {
+
+    @Test
+    public void referencesAreFoundAtAnyDepth() {
+        BasicDBList owned = new BasicDBList();
+        owned.add(new DBRef("alphas", "a1"));
+        owned.add(new BasicDBObject("state", new DBRef("states", "s1")));
+        BasicDBObject practice = new BasicDBObject("_id", "p1").append("owner", new DBRef("kernels", "k1"))
+                .append("ownedElements", owned).append("name", "Scrum");
+
+        List<DocumentReference> references = DocumentReference.of(practice);
+
+        assertThat(references).extracting(DocumentReference::toString).containsExactly("owner -> kernels/k1",
+                "ownedElements -> alphas/a1", "ownedElements.1.state -> states/s1");
+        assertThat(references).extracting(DocumentReference::isTopLevel).containsExactly(true, true, false);
+        assertThat(references).extracting(DocumentReference::isInArray).containsExactly(false, true, false);
+        assertThat(references).extracting(DocumentReference::getField).containsExactly("owner", "ownedElements",
+                "ownedElements.state");
+        assertThat(references.get(1).getTargetType()).isEqualTo(KernelEnum.ALPHA);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  
+ * The MIT License (MIT)
+ * Copyright (c) 2017 Daniel Cortes Pichardo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package mx.infotec.dads.essence.view;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for ViewGraph
+ * 
+ * @author Daniel Cortes Pichardo
+ *
+ */
+public class ViewGraphTest {
+
+    private ViewGraph graph;
+
+    @Before
+    public void setUp() {
+        graph = new ViewGraph();
+        graph.putView("base", emptyList(), asList("alpha", "state"), singletonList("f1"));
+        graph.putView("team", singletonList("base"), singletonList("activity"), emptyList());
+        graph.putView("full", asList("team", "base"), singletonList("workproduct"), singletonList("f2"));
+        graph.putFeature("f1", "alpha", "name");
+        graph.putFeature("f2", "alpha", "briefDescription");
+    }
+
+    @Test
+    public void closureFlattensTheIncludedViews() {
+        ViewClosure closure = graph.getClosure("full");
+        assertThat(closure.getViewIds()).containsOnly("full", "team", "base");
+        assertThat(closure.getConstructIds()).containsOnly("alpha", "state", "activity", "workproduct");
+        assertThat(closure.getFeatures().get("alpha")).containsOnly("name", "briefDescription");
+        assertThat(closure.isCyclic()).isFalse();
+        assertThat(graph.getClosure("unknown")).isNull();
+    }
+
+    @Test
+    public void cyclesShareOneClosure() {
+        graph.putView("a", singletonList("b"), singletonList("x"), emptyList());
+        graph.putView("b", asList("a", "base"), singletonList("y"), emptyList());
+        ViewClosure closure = graph.getClosure("a");
+        assertThat(closure.isCyclic()).isTrue();
+        assertThat(closure.getConstructIds()).containsOnly("x", "y", "alpha", "state");
+        assertThat(graph.getClosure("b")).isSameAs(closure);
+        assertThat(graph.getClosure("base").isCyclic()).isFalse();
+    }
+
+    @Test
+    public void changesDiscardOnlyTheAffectedClosures() {
+        graph.putView("other", emptyList(), singletonList("z"), emptyList());
+        graph.getClosure("full");
+        ViewClosure other = graph.getClosure("other");
+        graph.putView("team", singletonList("base"), asList("activity", "competency"), emptyList());
+        assertThat(graph.getClosure("other")).isSameAs(other);
+        assertThat(graph.getClosure("full").getConstructIds()).contains("competency");
+        graph.putFeature("f1", "state", "name");
+        assertThat(graph.getClosure("full").getFeatures().get("state")).containsOnly("name");
+        graph.removeView("base");
+        assertThat(graph.getClosure("full").getConstructIds()).doesNotContain("alpha");
+    }
+
+    @Test
+    public void viewsAddedLaterAreIncluded() {
+        graph.putView("late", singletonList("missing"), singletonList("x"), emptyList());
+        assertThat(graph.getClosure("late").getConstructIds()).containsOnly("x");
+        graph.putView("missing", emptyList(), singletonList("y"), emptyList());
+        assertThat(graph.getClosure("late").getConstructIds()).containsOnly("x", "y");
+    }
+}